@@ -0,0 +1,38 @@
+package com.ecommerce.pedidos.application.dto;
+
+import java.util.List;
+
+public record NovoPedidoRequest(Long clienteId, List<ItemPedidoRequest> itens) {
+    
+    /**
+     * Confere os dados do pedido antes de qualquer busca de produto ou gravação
+     * (mesmas regras de Pedido e ItemPedido, para recusar logo na entrada)
+     * 
+     * @throws IllegalArgumentException com o primeiro problema encontrado
+     */
+    public void validar() {
+        if (clienteId == null) {
+            throw new IllegalArgumentException("ID do cliente é obrigatório");
+        }
+        if (clienteId <= 0) {
+            throw new IllegalArgumentException("ID do cliente deve ser positivo");
+        }
+        if (itens == null || itens.isEmpty()) {
+            throw new IllegalArgumentException("O pedido deve conter pelo menos um item");
+        }
+        for (ItemPedidoRequest item : itens) {
+            if (item == null) {
+                throw new IllegalArgumentException("Item do pedido é obrigatório");
+            }
+            if (item.produtoId() == null) {
+                throw new IllegalArgumentException("ID do produto é obrigatório");
+            }
+            if (item.quantidade() == null) {
+                throw new IllegalArgumentException("Quantidade é obrigatória");
+            }
+            if (item.quantidade() <= 0) {
+                throw new IllegalArgumentException("Quantidade deve ser maior que zero");
+            }
+        }
+    }
+}
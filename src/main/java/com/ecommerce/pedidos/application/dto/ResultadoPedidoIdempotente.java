@@ -0,0 +1,19 @@
+package com.ecommerce.pedidos.application.dto;
+
+import com.ecommerce.pedidos.domain.entity.Pedido;
+
+/**
+ * Resultado da criação com Idempotency-Key: o pedido e se ele veio de uma requisição anterior
+ * 
+ * @param repeticao true quando a chave já tinha sido usada (o pedido não foi criado agora)
+ */
+public record ResultadoPedidoIdempotente(Pedido pedido, boolean repeticao) {
+    
+    public static ResultadoPedidoIdempotente criado(Pedido pedido) {
+        return new ResultadoPedidoIdempotente(pedido, false);
+    }
+    
+    public static ResultadoPedidoIdempotente repeticao(Pedido pedido) {
+        return new ResultadoPedidoIdempotente(pedido, true);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.pedidos.application.dto;
+
+import com.ecommerce.pedidos.domain.entity.Pedido;
+
+/**
+ * Resultado de um pedido da criação em lote: o pedido criado ou o motivo da falha
+ * 
+ * @param indice Posição do pedido na requisição
+ */
+public record ResultadoPedidoLote(int indice, Pedido pedido, String erro) {
+    
+    public static ResultadoPedidoLote criado(int indice, Pedido pedido) {
+        return new ResultadoPedidoLote(indice, pedido, null);
+    }
+    
+    public static ResultadoPedidoLote falha(int indice, String erro) {
+        return new ResultadoPedidoLote(indice, null, erro);
+    }
+    
+    public boolean sucesso() {
+        return pedido != null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.pedidos.application.service;
+
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contexto das consultas de produtos feitas durante a criação de um pedido
+ * Guarda os produtos já carregados (para não buscá-los de novo), conta
+ * as chamadas remotas ao microserviço de produtos e carrega o prazo do pedido
+ * (além das tentativas que falharam em cada consulta, para o backoff do retry)
+ */
+public class ContextoConsultaProdutos {
+    
+    private final Map<Long, ProdutoDTO> produtos = new ConcurrentHashMap<>();
+    private final AtomicInteger chamadasRemotas = new AtomicInteger();
+    private final Map<String, AtomicInteger> falhasPorConsulta = new ConcurrentHashMap<>();
+    private final Prazo prazo;
+    
+    public ContextoConsultaProdutos() {
+        this(Prazo.semLimite());
+    }
+    
+    public ContextoConsultaProdutos(Prazo prazo) {
+        this.prazo = prazo;
+    }
+    
+    /**
+     * Registra um produto carregado durante o pedido
+     */
+    public void registrar(ProdutoDTO produto) {
+        produtos.put(produto.id(), produto);
+    }
+    
+    /**
+     * Retorna o produto se ele já foi carregado neste pedido
+     */
+    public Optional<ProdutoDTO> produto(Long produtoId) {
+        return Optional.ofNullable(produtos.get(produtoId));
+    }
+    
+    /**
+     * Registra uma chamada remota feita ao microserviço de produtos
+     */
+    public void registrarChamadaRemota() {
+        chamadasRemotas.incrementAndGet();
+    }
+    
+    /**
+     * Registra uma tentativa que falhou na consulta (ex: "produto:42")
+     * 
+     * @return Número da tentativa que acabou de falhar (1 na primeira falha)
+     */
+    public int registrarFalha(String consulta) {
+        return falhasPorConsulta.computeIfAbsent(consulta, chave -> new AtomicInteger()).incrementAndGet();
+    }
+    
+    public int getChamadasRemotas() {
+        return chamadasRemotas.get();
+    }
+    
+    public Prazo getPrazo() {
+        return prazo;
+    }
+}
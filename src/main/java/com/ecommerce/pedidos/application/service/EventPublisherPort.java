@@ -1,5 +1,12 @@
 package com.ecommerce.pedidos.application.service;
 
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
 /**
  * Porta (interface) para publicação de eventos
  * Define o contrato para publicação de eventos no sistema de mensageria
@@ -14,8 +21,30 @@ public interface EventPublisherPort {
      * @param payload Conteúdo do evento em JSON
      */
     void publicarEvento(String eventType, String routingKey, String payload);
+    
+    /**
+     * Publica vários eventos da Outbox de uma vez e aguarda a confirmação do broker
+     * 
+     * A implementação padrão publica um a um e deixa de fora dos confirmados o
+     * evento cuja publicação falhou (quem chama trata e registra a falha);
+     * implementações com confirmação assíncrona (RabbitMQ) enviam o lote
+     * inteiro antes de esperar.
+     * 
+     * @param eventos Eventos a publicar (com ID)
+     * @param routingKeyPorTipo Routing key de cada tipo de evento
+     * @return IDs dos eventos confirmados; os demais (rejeitados, devolvidos por não terem
+     *         rota ou sem confirmação no prazo) não devem ser considerados publicados
+     */
+    default Set<Long> publicarEmLote(List<OutboxEvent> eventos, Function<String, String> routingKeyPorTipo) {
+        Set<Long> confirmados = new HashSet<>();
+        for (OutboxEvent evento : eventos) {
+            try {
+                publicarEvento(evento.getEventType(), routingKeyPorTipo.apply(evento.getEventType()), evento.getPayload());
+                confirmados.add(evento.getId());
+            } catch (RuntimeException e) {
+                // Fica de fora dos confirmados
+            }
+        }
+        return confirmados;
+    }
 }
-
-
-
-
@@ -0,0 +1,85 @@
+package com.ecommerce.pedidos.application.service;
+
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+
+import java.time.Duration;
+
+/**
+ * Prazo total de uma requisição (deadline), medido em System.nanoTime()
+ * Criado na entrada (controller) e repassado a cada etapa, que consulta o
+ * tempo restante antes de começar qualquer trabalho remoto
+ */
+public final class Prazo {
+    
+    private static final Prazo SEM_LIMITE = new Prazo(Long.MAX_VALUE, null);
+    private static final Duration SEM_LIMITE_RESTANTE = Duration.ofNanos(Long.MAX_VALUE);
+    
+    private final long limiteNanos;
+    private final Duration total;
+    
+    private Prazo(long limiteNanos, Duration total) {
+        this.limiteNanos = limiteNanos;
+        this.total = total;
+    }
+    
+    /**
+     * Prazo que vence "duracao" a partir de agora
+     */
+    public static Prazo em(Duration duracao) {
+        return new Prazo(System.nanoTime() + duracao.toNanos(), duracao);
+    }
+    
+    /**
+     * Prazo que nunca vence (jobs internos, aquecimento do cache, testes)
+     */
+    public static Prazo semLimite() {
+        return SEM_LIMITE;
+    }
+    
+    public boolean isLimitado() {
+        return this != SEM_LIMITE;
+    }
+    
+    /**
+     * Tempo que ainda resta (zero quando já venceu)
+     */
+    public Duration restante() {
+        if (!isLimitado()) {
+            return SEM_LIMITE_RESTANTE;
+        }
+        return Duration.ofNanos(Math.max(0, limiteNanos - System.nanoTime()));
+    }
+    
+    public boolean esgotado() {
+        return isLimitado() && System.nanoTime() - limiteNanos >= 0;
+    }
+    
+    /**
+     * Indica se ainda cabe "duracao" dentro do prazo
+     */
+    public boolean comporta(Duration duracao) {
+        return !isLimitado() || restante().compareTo(duracao) > 0;
+    }
+    
+    /**
+     * Lança PrazoExcedidoException se o prazo já venceu
+     * 
+     * @param etapa Etapa que seria iniciada (identificador curto, usado na mensagem e na métrica)
+     */
+    public void verificar(String etapa) {
+        if (esgotado()) {
+            throw new PrazoExcedidoException(etapa, total);
+        }
+    }
+    
+    /**
+     * Limita uma espera ao tempo restante
+     */
+    public long limitarNanos(long esperaNanos) {
+        return isLimitado() ? Math.min(esperaNanos, restante().toNanos()) : esperaNanos;
+    }
+    
+    public Duration getTotal() {
+        return total;
+    }
+}
@@ -2,6 +2,8 @@ package com.ecommerce.pedidos.application.service;
 
 import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -12,13 +14,30 @@ public interface ProdutoServicePort {
     
     /**
      * Busca um produto por ID
+     * 
+     * @param id ID do produto
+     * @param contexto Contexto do pedido (contabiliza as chamadas remotas)
      */
-    Optional<ProdutoDTO> buscarProdutoPorId(Long id);
+    Optional<ProdutoDTO> buscarProdutoPorId(Long id, ContextoConsultaProdutos contexto);
     
     /**
-     * Verifica se há estoque disponível para um produto
+     * Busca vários produtos de uma vez
+     * 
+     * @param ids IDs dos produtos (duplicados são ignorados)
+     * @param contexto Contexto do pedido (contabiliza as chamadas remotas)
+     * @return Produtos encontrados indexados por ID (IDs inexistentes ficam de fora)
      */
-    boolean verificarEstoque(Long produtoId, Integer quantidade);
+    Map<Long, ProdutoDTO> buscarProdutosPorIds(Collection<Long> ids, ContextoConsultaProdutos contexto);
+    
+    /**
+     * Verifica se há estoque disponível no produto já carregado (sem chamada remota)
+     */
+    boolean verificarEstoque(ProdutoDTO produto, Integer quantidade);
+    
+    /**
+     * Registra as métricas das consultas feitas durante um pedido
+     */
+    void registrarConsultasDoPedido(ContextoConsultaProdutos contexto);
 }
 
 
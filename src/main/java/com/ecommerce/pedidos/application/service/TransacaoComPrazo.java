@@ -0,0 +1,20 @@
+package com.ecommerce.pedidos.application.service;
+
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Transação cuja execução pode esperar por gravações de outros chamadores
+ * (group commit): quem chama informa o prazo da requisição para limitar essa espera
+ */
+public interface TransacaoComPrazo extends TransactionOperations {
+    
+    /**
+     * Executa o callback numa transação, esperando no máximo até o prazo vencer
+     * 
+     * @throws com.ecommerce.pedidos.domain.exception.PrazoExcedidoException se o prazo
+     *         vencer antes do resultado da gravação chegar
+     */
+    <T> T execute(TransactionCallback<T> callback, Prazo prazo) throws TransactionException;
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.pedidos.application.usecase;
+
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+import com.ecommerce.pedidos.domain.exception.SolicitacaoPedidoNotFoundException;
+import com.ecommerce.pedidos.domain.repository.SolicitacaoPedidoRepositoryPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caso de Uso: Buscar solicitação de pedido (acompanhamento da recepção assíncrona)
+ */
+public class BuscarSolicitacaoPedidoUseCase {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BuscarSolicitacaoPedidoUseCase.class);
+    
+    private final SolicitacaoPedidoRepositoryPort solicitacaoRepository;
+    
+    public BuscarSolicitacaoPedidoUseCase(SolicitacaoPedidoRepositoryPort solicitacaoRepository) {
+        this.solicitacaoRepository = solicitacaoRepository;
+    }
+    
+    /**
+     * @param id ID de acompanhamento devolvido na recepção
+     * @return Solicitação encontrada
+     * @throws SolicitacaoPedidoNotFoundException se a solicitação não for encontrada
+     */
+    public SolicitacaoPedido executar(String id) {
+        logger.debug("Buscando solicitação de pedido {}", id);
+        
+        return solicitacaoRepository.buscarPorId(id)
+                .orElseThrow(() -> new SolicitacaoPedidoNotFoundException(id));
+    }
+}
@@ -0,0 +1,250 @@
+package com.ecommerce.pedidos.application.usecase;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.dto.ResultadoPedidoIdempotente;
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.entity.ChaveIdempotencia;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.exception.ChaveIdempotenciaEmUsoException;
+import com.ecommerce.pedidos.domain.exception.PedidoNotFoundException;
+import com.ecommerce.pedidos.domain.repository.ChaveIdempotenciaRepositoryPort;
+import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Caso de Uso: Criar pedido com Idempotency-Key (repetições do cliente após timeout)
+ * 
+ * - Uma chave já concluída devolve o pedido original sem executar o CriarPedidoUseCase,
+ *   primeiro pelo cache em memória (limitado) e, se não estiver nele, pela tabela
+ * - Requisições simultâneas com a mesma chave nesta instância esperam a primeira;
+ *   entre instâncias, só uma consegue reservar a chave (índice único) e as outras
+ *   consultam a tabela até o pedido ser gravado
+ * - A chave é concluída na mesma transação que grava o pedido; se a criação falha,
+ *   a reserva é removida e a chave pode ser usada de novo
+ * - A reserva em andamento vale só "reserva" (bem menos que a validade da chave
+ *   concluída): se a instância cair antes de concluir, outra requisição com a
+ *   mesma chave a assume quando ela vence. Concluir e liberar só valem para o dono
+ *   da reserva (token), então quem perdeu a reserva não conclui nem apaga a do outro
+ * - A mesma chave com outro conteúdo (cliente ou itens) é rejeitada
+ */
+public class CriarPedidoIdempotenteUseCase {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CriarPedidoIdempotenteUseCase.class);
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+    private static final Duration INTERVALO_CONSULTA = Duration.ofMillis(50);
+    
+    private final CriarPedidoUseCase criarPedidoUseCase;
+    private final ChaveIdempotenciaRepositoryPort chaveRepository;
+    private final PedidoRepositoryPort pedidoRepository;
+    private final Duration validade;
+    private final Duration reserva;
+    private final Duration esperaMaxima;
+    private final Cache<String, ChaveConcluida> concluidas;
+    private final ConcurrentMap<String, EmAndamento> emAndamento = new ConcurrentHashMap<>();
+    
+    public CriarPedidoIdempotenteUseCase(
+            CriarPedidoUseCase criarPedidoUseCase,
+            ChaveIdempotenciaRepositoryPort chaveRepository,
+            PedidoRepositoryPort pedidoRepository,
+            Duration validade,
+            Duration reserva,
+            long maximoEntradasCache,
+            Duration esperaMaxima) {
+        this.criarPedidoUseCase = criarPedidoUseCase;
+        this.chaveRepository = chaveRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.validade = validade;
+        this.reserva = reserva;
+        this.esperaMaxima = esperaMaxima;
+        this.concluidas = Caffeine.newBuilder()
+                .expireAfterWrite(validade)
+                .maximumSize(maximoEntradasCache)
+                .build();
+    }
+    
+    /**
+     * Cria o pedido uma única vez por chave
+     * 
+     * @param chave Valor do header Idempotency-Key
+     * @param prazo Prazo da requisição (vale também para a espera por outra requisição com a mesma chave)
+     * @return Pedido criado agora ou pela requisição anterior com a mesma chave
+     * @throws ChaveIdempotenciaEmUsoException se a outra requisição não terminar dentro da espera máxima
+     */
+    public ResultadoPedidoIdempotente executar(String chave, Long clienteId, List<ItemPedidoRequest> itensRequest,
+                                               Prazo prazo) {
+        if (chave == null || chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IllegalArgumentException(
+                    "Chave de idempotência deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+        }
+        String hash = calcularHash(clienteId, itensRequest);
+        
+        // 1. Chave já concluída e ainda em memória
+        ChaveConcluida concluida = concluidas.getIfPresent(chave);
+        if (concluida != null && concluida.expiraEm().isAfter(LocalDateTime.now())) {
+            verificarMesmaRequisicao(chave, concluida.hash(), hash);
+            logger.info("Idempotency-Key {} repetida: devolvendo pedido {}", chave, concluida.pedido().getNumeroPedido());
+            return ResultadoPedidoIdempotente.repeticao(concluida.pedido());
+        }
+        
+        // 2. Mesma chave em andamento nesta instância: espera a primeira requisição
+        EmAndamento nova = new EmAndamento(hash, new CompletableFuture<>());
+        EmAndamento existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            verificarMesmaRequisicao(chave, existente.hash(), hash);
+            logger.info("Idempotency-Key {} em andamento: aguardando a primeira requisição", chave);
+            return ResultadoPedidoIdempotente.repeticao(aguardar(chave, existente.resultado(), prazo));
+        }
+        
+        // 3. Primeira requisição com a chave nesta instância
+        try {
+            ResultadoPedidoIdempotente resultado = reservarECriar(chave, hash, clienteId, itensRequest, prazo);
+            nova.resultado().complete(resultado.pedido());
+            return resultado;
+            
+        } catch (RuntimeException e) {
+            nova.resultado().completeExceptionally(e);
+            throw e;
+            
+        } finally {
+            emAndamento.remove(chave, nova);
+        }
+    }
+    
+    private ResultadoPedidoIdempotente reservarECriar(String chave, String hash, Long clienteId,
+                                                      List<ItemPedidoRequest> itensRequest, Prazo prazo) {
+        long limite = System.nanoTime() + prazo.limitarNanos(esperaMaxima.toNanos());
+        
+        ChaveIdempotencia minhaReserva;
+        while (!chaveRepository.reservar(minhaReserva = new ChaveIdempotencia(chave, hash, reserva))) {
+            Optional<ChaveIdempotencia> registrada = chaveRepository.buscar(chave)
+                    .filter(existente -> !existente.isExpirada(LocalDateTime.now()));
+            if (registrada.isEmpty()) {
+                // Liberada ou vencida (inclusive reserva abandonada) entre a reserva e a consulta:
+                // tenta reservar de novo
+                continue;
+            }
+            
+            verificarMesmaRequisicao(chave, registrada.get().getHashRequisicao(), hash);
+            if (registrada.get().isConcluida()) {
+                Long pedidoId = registrada.get().getPedidoId();
+                Pedido pedido = pedidoRepository.buscarPorId(pedidoId)
+                        .orElseThrow(() -> new PedidoNotFoundException(pedidoId));
+                lembrar(chave, hash, pedido, registrada.get().getExpiraEm());
+                logger.info("Idempotency-Key {} já usada: devolvendo pedido {}", chave, pedido.getNumeroPedido());
+                return ResultadoPedidoIdempotente.repeticao(pedido);
+            }
+            
+            // Reservada por outra instância e ainda em criação
+            if (System.nanoTime() >= limite) {
+                prazo.verificar("idempotencia");
+                throw new ChaveIdempotenciaEmUsoException(chave);
+            }
+            dormir(INTERVALO_CONSULTA);
+        }
+        
+        String token = minhaReserva.getTokenReserva();
+        LocalDateTime expiraEm = LocalDateTime.now().plus(validade);
+        try {
+            Pedido pedido = criarPedidoUseCase.executar(clienteId, itensRequest, prazo,
+                    salvo -> chaveRepository.concluir(chave, token, salvo.getId(), expiraEm));
+            lembrar(chave, hash, pedido, expiraEm);
+            return ResultadoPedidoIdempotente.criado(pedido);
+            
+        } catch (RuntimeException e) {
+            liberar(chave, token);
+            throw e;
+        }
+    }
+    
+    private Pedido aguardar(String chave, CompletableFuture<Pedido> resultado, Prazo prazo) {
+        try {
+            return resultado.get(prazo.limitarNanos(esperaMaxima.toNanos()), TimeUnit.NANOSECONDS);
+            
+        } catch (TimeoutException e) {
+            prazo.verificar("idempotencia");
+            throw new ChaveIdempotenciaEmUsoException(chave);
+            
+        } catch (ExecutionException e) {
+            // A primeira requisição falhou: esta recebe o mesmo erro
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Erro ao criar pedido", e.getCause());
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Espera pela Idempotency-Key " + chave + " interrompida", e);
+        }
+    }
+    
+    private void lembrar(String chave, String hash, Pedido pedido, LocalDateTime expiraEm) {
+        concluidas.put(chave, new ChaveConcluida(hash, pedido, expiraEm));
+    }
+    
+    /**
+     * Remove a própria reserva após uma falha; se não der, ela vence sozinha
+     */
+    private void liberar(String chave, String token) {
+        try {
+            chaveRepository.remover(chave, token);
+        } catch (RuntimeException e) {
+            logger.warn("Não foi possível liberar a Idempotency-Key {}: {}", chave, e.getMessage());
+        }
+    }
+    
+    private static void verificarMesmaRequisicao(String chave, String hashRegistrado, String hash) {
+        if (!hashRegistrado.equals(hash)) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key '" + chave + "' já foi usada com outra requisição");
+        }
+    }
+    
+    /**
+     * SHA-256 do cliente e dos itens (produto e quantidade, na ordem da requisição)
+     */
+    static String calcularHash(Long clienteId, List<ItemPedidoRequest> itensRequest) {
+        String conteudo = clienteId + "|" + itensRequest.stream()
+                .map(item -> item.produtoId() + "x" + item.quantidade())
+                .collect(Collectors.joining(","));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(conteudo.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+    
+    private static void dormir(Duration intervalo) {
+        try {
+            Thread.sleep(intervalo);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Espera pela Idempotency-Key interrompida", e);
+        }
+    }
+    
+    private record ChaveConcluida(String hash, Pedido pedido, LocalDateTime expiraEm) {
+    }
+    
+    private record EmAndamento(String hash, CompletableFuture<Pedido> resultado) {
+    }
+}
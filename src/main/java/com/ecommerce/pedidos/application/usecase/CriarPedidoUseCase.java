@@ -3,45 +3,122 @@ package com.ecommerce.pedidos.application.usecase;
 import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
 import com.ecommerce.pedidos.application.event.ItemPedidoEvent;
 import com.ecommerce.pedidos.application.event.PedidoCriadoEvent;
+import com.ecommerce.pedidos.application.service.ContextoConsultaProdutos;
+import com.ecommerce.pedidos.application.service.Prazo;
 import com.ecommerce.pedidos.application.service.ProdutoServicePort;
+import com.ecommerce.pedidos.application.service.TransacaoComPrazo;
 import com.ecommerce.pedidos.domain.entity.ItemPedido;
 import com.ecommerce.pedidos.domain.entity.OutboxEvent;
 import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
 import com.ecommerce.pedidos.domain.exception.ProdutoIndisponivelException;
+import com.ecommerce.pedidos.domain.repository.GravacaoPedidoPort;
 import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
 import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
 import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Caso de Uso: Criar um novo pedido
  * Implementa o padrão Outbox para garantir consistência eventual
+ * 
+ * A validação dos produtos (chamadas remotas, retries) acontece fora de
+ * transação; só a gravação do pedido e do evento Outbox ocupa uma conexão
+ * do pool, numa transação curta. Com uma GravacaoPedidoPort, pedido, itens e
+ * evento são gravados por ela de uma vez, em vez de pelos repositórios.
  */
 public class CriarPedidoUseCase {
     
     private static final Logger logger = LoggerFactory.getLogger(CriarPedidoUseCase.class);
+    private static final Duration PRAZO_VALIDACAO_PADRAO = Duration.ofSeconds(10);
     
     private final PedidoRepositoryPort pedidoRepository;
     private final OutboxRepositoryPort outboxRepository;
     private final ProdutoServicePort produtoService;
     private final ObjectMapper objectMapper;
+    private final ModoValidacaoProdutos modoValidacao;
+    private final Duration prazoValidacao;
+    private final TransactionOperations transacao;
+    private final GravacaoPedidoPort gravacaoPedido;
     
+    /**
+     * Sem transação: para testes e benchmarks com repositórios em memória
+     */
     public CriarPedidoUseCase(
             PedidoRepositoryPort pedidoRepository,
             OutboxRepositoryPort outboxRepository,
             ProdutoServicePort produtoService,
             ObjectMapper objectMapper) {
+        this(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                ModoValidacaoProdutos.SEQUENCIAL, PRAZO_VALIDACAO_PADRAO);
+    }
+    
+    /**
+     * Sem transação: para testes e benchmarks com repositórios em memória
+     */
+    public CriarPedidoUseCase(
+            PedidoRepositoryPort pedidoRepository,
+            OutboxRepositoryPort outboxRepository,
+            ProdutoServicePort produtoService,
+            ObjectMapper objectMapper,
+            ModoValidacaoProdutos modoValidacao,
+            Duration prazoValidacao) {
+        this(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                modoValidacao, prazoValidacao, TransactionOperations.withoutTransaction());
+    }
+    
+    public CriarPedidoUseCase(
+            PedidoRepositoryPort pedidoRepository,
+            OutboxRepositoryPort outboxRepository,
+            ProdutoServicePort produtoService,
+            ObjectMapper objectMapper,
+            ModoValidacaoProdutos modoValidacao,
+            Duration prazoValidacao,
+            TransactionOperations transacao) {
+        this(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                modoValidacao, prazoValidacao, transacao, null);
+    }
+    
+    /**
+     * @param gravacaoPedido Gravação do pedido com o evento Outbox; null grava pelos repositórios
+     */
+    public CriarPedidoUseCase(
+            PedidoRepositoryPort pedidoRepository,
+            OutboxRepositoryPort outboxRepository,
+            ProdutoServicePort produtoService,
+            ObjectMapper objectMapper,
+            ModoValidacaoProdutos modoValidacao,
+            Duration prazoValidacao,
+            TransactionOperations transacao,
+            GravacaoPedidoPort gravacaoPedido) {
         this.pedidoRepository = pedidoRepository;
         this.outboxRepository = outboxRepository;
         this.produtoService = produtoService;
         this.objectMapper = objectMapper;
+        this.modoValidacao = modoValidacao;
+        this.prazoValidacao = prazoValidacao;
+        this.transacao = transacao;
+        this.gravacaoPedido = gravacaoPedido;
     }
     
     /**
@@ -51,64 +128,260 @@ public class CriarPedidoUseCase {
      * @param itensRequest Lista de itens (produtoId, quantidade)
      * @return Pedido criado
      */
-    @Transactional
     public Pedido executar(Long clienteId, List<ItemPedidoRequest> itensRequest) {
+        return executar(clienteId, itensRequest, Prazo.semLimite());
+    }
+    
+    /**
+     * Executa a criação de um pedido dentro de um prazo total
+     * 
+     * @param clienteId ID do cliente
+     * @param itensRequest Lista de itens (produtoId, quantidade)
+     * @param prazo Prazo da requisição: nenhuma chamada remota começa depois que ele vence
+     * @return Pedido criado
+     * @throws PrazoExcedidoException se o prazo vencer antes do pedido ser gravado
+     */
+    public Pedido executar(Long clienteId, List<ItemPedidoRequest> itensRequest, Prazo prazo) {
+        return executar(clienteId, itensRequest, prazo, pedidoSalvo -> { });
+    }
+    
+    /**
+     * Executa a criação de um pedido dentro de um prazo total
+     * 
+     * @param clienteId ID do cliente
+     * @param itensRequest Lista de itens (produtoId, quantidade)
+     * @param prazo Prazo da requisição: nenhuma chamada remota começa depois que ele vence
+     * @param aoGravar Chamado com o pedido salvo, na mesma transação que o grava
+     *                 (uma falha aqui desfaz o pedido e o evento Outbox)
+     * @return Pedido criado
+     * @throws PrazoExcedidoException se o prazo vencer antes do pedido ser gravado
+     */
+    public Pedido executar(Long clienteId, List<ItemPedidoRequest> itensRequest, Prazo prazo,
+                           Consumer<Pedido> aoGravar) {
         logger.info("Iniciando criação de pedido para cliente {}", clienteId);
         
-        // 1. Validar e buscar produtos
-        List<ItemPedido> itens = validarECriarItens(itensRequest);
+        // 1. Validar e buscar produtos, fora de transação (cada produto é carregado uma única vez por pedido)
+        ContextoConsultaProdutos contexto = new ContextoConsultaProdutos(prazo);
+        List<ItemPedido> itens;
+        try {
+            itens = validarECriarItens(itensRequest, contexto);
+        } finally {
+            produtoService.registrarConsultasDoPedido(contexto);
+        }
         
         // 2. Criar pedido
         Pedido pedido = new Pedido(clienteId, itens);
         
-        // 3. Salvar pedido no banco (transação)
+        // Com o prazo vencido o cliente já desistiu: não grava um pedido que ele não verá
+        prazo.verificar("gravacao-pedido");
+        
+        // 3. Salvar pedido e evento Outbox (transação curta, só com acesso ao banco)
+        Pedido pedidoSalvo = executarNaTransacao(status -> {
+            Pedido salvo = gravar(pedido);
+            aoGravar.accept(salvo);
+            return salvo;
+        }, prazo);
+        
+        logger.info("Pedido {} criado e evento registrado na Outbox", pedidoSalvo.getNumeroPedido());
+        
+        return pedidoSalvo;
+    }
+    
+    /**
+     * Executa na transação; com group commit, a espera pelo grupo fica limitada ao prazo
+     */
+    private <T> T executarNaTransacao(TransactionCallback<T> callback, Prazo prazo) {
+        if (transacao instanceof TransacaoComPrazo transacaoComPrazo) {
+            return transacaoComPrazo.execute(callback, prazo);
+        }
+        return transacao.execute(callback);
+    }
+    
+    /**
+     * Salva o pedido e cria o evento na tabela Outbox (mesma transação)
+     */
+    private Pedido gravar(Pedido pedido) {
+        if (gravacaoPedido != null) {
+            return gravarTodos(List.of(pedido)).get(0);
+        }
+        
         Pedido pedidoSalvo = pedidoRepository.salvar(pedido);
         logger.info("Pedido {} criado com sucesso", pedidoSalvo.getNumeroPedido());
         
-        // 4. Criar evento na tabela Outbox (mesma transação)
         criarEventoOutbox(pedidoSalvo);
+        return pedidoSalvo;
+    }
+    
+    /**
+     * Salva vários pedidos e o evento Outbox de cada um, em lote, na transação corrente
+     * (também usado pela criação em lote)
+     * 
+     * @return Pedidos salvos, na mesma ordem, com os IDs gerados
+     */
+    List<Pedido> gravarTodos(List<Pedido> pedidos) {
+        if (gravacaoPedido != null) {
+            return gravacaoPedido.gravarComEventos(pedidos, this::criarEventoPedidoCriado);
+        }
         
-        logger.info("Pedido {} criado e evento registrado na Outbox", pedidoSalvo.getNumeroPedido());
+        List<Pedido> salvos = pedidoRepository.salvarTodos(pedidos);
+        outboxRepository.salvarTodos(salvos.stream()
+                .map(this::criarEventoPedidoCriado)
+                .toList());
+        return salvos;
+    }
+    
+    /**
+     * Valida produtos e cria itens do pedido conforme o modo configurado
+     */
+    private List<ItemPedido> validarECriarItens(List<ItemPedidoRequest> itensRequest, ContextoConsultaProdutos contexto) {
+        if (modoValidacao == ModoValidacaoProdutos.LOTE) {
+            return validarECriarItensEmLote(itensRequest, contexto);
+        }
         
-        return pedidoSalvo;
+        if (modoValidacao == ModoValidacaoProdutos.PARALELO && itensRequest.size() > 1) {
+            return validarECriarItensEmParalelo(itensRequest, contexto);
+        }
+        
+        List<ItemPedido> itens = new ArrayList<>();
+        
+        for (ItemPedidoRequest itemRequest : itensRequest) {
+            itens.add(validarECriarItem(itemRequest, contexto));
+        }
+        
+        return itens;
     }
     
     /**
-     * Valida produtos e cria itens do pedido
+     * Busca todos os produtos do pedido em uma única consulta e valida os itens
      */
-    private List<ItemPedido> validarECriarItens(List<ItemPedidoRequest> itensRequest) {
+    private List<ItemPedido> validarECriarItensEmLote(List<ItemPedidoRequest> itensRequest, ContextoConsultaProdutos contexto) {
+        List<Long> produtoIds = itensRequest.stream()
+                .map(ItemPedidoRequest::produtoId)
+                .toList();
+        
+        Map<Long, ProdutoDTO> produtos = produtoService.buscarProdutosPorIds(produtoIds, contexto);
+        produtos.values().forEach(contexto::registrar);
+        
         List<ItemPedido> itens = new ArrayList<>();
         
         for (ItemPedidoRequest itemRequest : itensRequest) {
-            // Busca produto no microserviço de produtos
-            ProdutoDTO produto = produtoService.buscarProdutoPorId(itemRequest.produtoId())
-            .orElseThrow(() -> new ProdutoIndisponivelException(itemRequest.produtoId(), "Produto não encontrado"));
+            itens.add(criarItem(itemRequest, Optional.ofNullable(produtos.get(itemRequest.produtoId()))));
+        }
+        
+        return itens;
+    }
+    
+    /**
+     * Valida todos os itens ao mesmo tempo, um Virtual Thread por item.
+     * Todos compartilham o mesmo prazo (o menor entre o da validação e o que
+     * resta da requisição); a primeira falha cancela os demais.
+     * A ordem dos itens no pedido é a mesma da requisição.
+     */
+    private List<ItemPedido> validarECriarItensEmParalelo(List<ItemPedidoRequest> itensRequest, ContextoConsultaProdutos contexto) {
+        Prazo prazo = contexto.getPrazo();
+        long limite = System.nanoTime() + prazo.limitarNanos(prazoValidacao.toNanos());
+        ItemPedido[] itens = new ItemPedido[itensRequest.size()];
+        
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+        
+        try {
+            for (int i = 0; i < itensRequest.size(); i++) {
+                final int posicao = i;
+                completionService.submit(() -> {
+                    itens[posicao] = validarECriarItem(itensRequest.get(posicao), contexto);
+                    return null;
+                });
+            }
             
-            // Verifica estoque
-            if (!produtoService.verificarEstoque(itemRequest.produtoId(), itemRequest.quantidade())) {
-                throw new ProdutoIndisponivelException(
-                        itemRequest.produtoId(), 
-                        "Estoque insuficiente. Disponível: " + produto.estoque());
+            for (int concluidos = 0; concluidos < itensRequest.size(); concluidos++) {
+                long restante = limite - System.nanoTime();
+                Future<Void> resultado = completionService.poll(Math.max(restante, 0), TimeUnit.NANOSECONDS);
+                
+                if (resultado == null) {
+                    prazo.verificar("validacao-paralela");
+                    logger.warn("Prazo de {} ms excedido na validação paralela de {} itens",
+                            prazoValidacao.toMillis(), itensRequest.size());
+                    throw new PrazoExcedidoException("validacao-paralela", prazoValidacao);
+                }
+                
+                resultado.get();
             }
             
-            // Cria item do pedido com dados do produto
-            ItemPedido item = new ItemPedido(
-                    produto.id(),
-                    produto.nome(),
-                    itemRequest.quantidade(),
-                    produto.preco()
-            );
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Erro ao validar produtos", e.getCause());
             
-            itens.add(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Validação de produtos interrompida", e);
+            
+        } finally {
+            // Não aguarda tarefas pendentes: interrompe e segue (fail-fast)
+            executor.shutdownNow();
         }
         
-        return itens;
+        return Arrays.asList(itens);
+    }
+    
+    /**
+     * Valida o produto de um item e cria o item do pedido
+     */
+    private ItemPedido validarECriarItem(ItemPedidoRequest itemRequest, ContextoConsultaProdutos contexto) {
+        // Busca produto no microserviço de produtos, se ainda não foi carregado neste pedido
+        Optional<ProdutoDTO> produto = contexto.produto(itemRequest.produtoId())
+                .or(() -> produtoService.buscarProdutoPorId(itemRequest.produtoId(), contexto));
+        produto.ifPresent(contexto::registrar);
+        
+        return criarItem(itemRequest, produto);
+    }
+    
+    /**
+     * Verifica o produto já buscado e o estoque, e cria o item do pedido
+     * (também usado pela criação em lote)
+     */
+    ItemPedido criarItem(ItemPedidoRequest itemRequest, Optional<ProdutoDTO> produtoOpt) {
+        ProdutoDTO produto = produtoOpt
+        .orElseThrow(() -> new ProdutoIndisponivelException(itemRequest.produtoId(), "Produto não encontrado"));
+        
+        // Verifica estoque no produto já carregado
+        if (!produtoService.verificarEstoque(produto, itemRequest.quantidade())) {
+            throw new ProdutoIndisponivelException(
+                    itemRequest.produtoId(), 
+                    "Estoque insuficiente. Disponível: " + produto.estoque());
+        }
+        
+        // Cria item do pedido com dados do produto
+        return new ItemPedido(
+                produto.id(),
+                produto.nome(),
+                itemRequest.quantidade(),
+                produto.preco()
+        );
     }
     
     /**
      * Cria evento na tabela Outbox
      */
     private void criarEventoOutbox(Pedido pedido) {
+        OutboxEvent outboxEvent = criarEventoPedidoCriado(pedido);
+        try {
+            outboxRepository.salvar(outboxEvent);
+            logger.debug("Evento PEDIDO_CRIADO registrado na Outbox para pedido {}", pedido.getId());
+            
+        } catch (Exception e) {
+            logger.error("Erro ao criar evento Outbox: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao registrar evento", e);
+        }
+    }
+    
+    /**
+     * Monta o evento PEDIDO_CRIADO da Outbox para um pedido já salvo
+     * (também usado pela criação em lote)
+     */
+    OutboxEvent criarEventoPedidoCriado(Pedido pedido) {
         try {
             // Cria evento de domínio
             PedidoCriadoEvent event = new PedidoCriadoEvent(
@@ -125,26 +398,16 @@ public class CriarPedidoUseCase {
             String payload = objectMapper.writeValueAsString(event);
             
             // Cria registro na Outbox
-            OutboxEvent outboxEvent = new OutboxEvent(
+            return new OutboxEvent(
                     "PEDIDO",
                     pedido.getId(),
                     "PEDIDO_CRIADO",
                     payload
             );
             
-            outboxRepository.salvar(outboxEvent);
-            
-            logger.debug("Evento PEDIDO_CRIADO registrado na Outbox para pedido {}", pedido.getId());
-            
         } catch (Exception e) {
             logger.error("Erro ao criar evento Outbox: {}", e.getMessage(), e);
             throw new RuntimeException("Erro ao registrar evento", e);
         }
     }
-    
-    
 }
-
-
-
-
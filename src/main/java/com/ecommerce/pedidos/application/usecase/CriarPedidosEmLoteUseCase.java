@@ -0,0 +1,169 @@
+package com.ecommerce.pedidos.application.usecase;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.dto.NovoPedidoRequest;
+import com.ecommerce.pedidos.application.dto.ResultadoPedidoLote;
+import com.ecommerce.pedidos.application.service.ContextoConsultaProdutos;
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.application.service.ProdutoServicePort;
+import com.ecommerce.pedidos.domain.entity.ItemPedido;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.exception.ProdutoIndisponivelException;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Caso de Uso: Criar vários pedidos de uma vez (integrações de parceiros)
+ *
+ * - Os produtos de todos os pedidos são buscados juntos, cada um uma única vez
+ * - Cada pedido é validado isoladamente: produto inexistente, sem estoque ou
+ *   dados inválidos (inclusive pedido ou item nulo) falham só aquele pedido
+ *   (falha parcial)
+ * - Os pedidos válidos e seus eventos Outbox são gravados numa única transação,
+ *   com INSERTs em lote; se ela falhar, cada pedido é gravado na sua própria
+ *   transação, para que um pedido problemático não derrube os demais
+ */
+public class CriarPedidosEmLoteUseCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(CriarPedidosEmLoteUseCase.class);
+
+    private final CriarPedidoUseCase criarPedidoUseCase;
+    private final ProdutoServicePort produtoService;
+    private final TransactionOperations transacao;
+    private final int tamanhoMaximo;
+
+    public CriarPedidosEmLoteUseCase(
+            CriarPedidoUseCase criarPedidoUseCase,
+            ProdutoServicePort produtoService,
+            TransactionOperations transacao,
+            int tamanhoMaximo) {
+        this.criarPedidoUseCase = criarPedidoUseCase;
+        this.produtoService = produtoService;
+        this.transacao = transacao;
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    /**
+     * Executa a criação de um lote de pedidos
+     *
+     * @param requisicoes Pedidos a criar
+     * @param prazo Prazo da requisição (vale para o lote inteiro)
+     * @return Um resultado por pedido, na ordem da requisição
+     */
+    public List<ResultadoPedidoLote> executar(List<NovoPedidoRequest> requisicoes, Prazo prazo) {
+        if (requisicoes == null || requisicoes.isEmpty()) {
+            throw new IllegalArgumentException("O lote deve conter pelo menos um pedido");
+        }
+        if (requisicoes.size() > tamanhoMaximo) {
+            throw new IllegalArgumentException("O lote deve conter no máximo " + tamanhoMaximo + " pedidos");
+        }
+
+        logger.info("Iniciando criação de lote com {} pedidos", requisicoes.size());
+
+        // 1. Buscar todos os produtos do lote (sem repetir IDs, fora de transação)
+        Map<Long, ProdutoDTO> produtos = buscarProdutos(requisicoes, prazo);
+
+        // 2. Validar cada pedido com os produtos já carregados
+        ResultadoPedidoLote[] resultados = new ResultadoPedidoLote[requisicoes.size()];
+        List<Integer> indicesValidos = new ArrayList<>();
+        List<Pedido> pedidosValidos = new ArrayList<>();
+
+        for (int i = 0; i < requisicoes.size(); i++) {
+            try {
+                pedidosValidos.add(criarPedido(requisicoes.get(i), produtos));
+                indicesValidos.add(i);
+            } catch (ProdutoIndisponivelException | IllegalArgumentException e) {
+                resultados[i] = ResultadoPedidoLote.falha(i, e.getMessage());
+            } catch (RuntimeException e) {
+                logger.warn("Erro ao montar pedido {} do lote: {}", i, e.getMessage(), e);
+                resultados[i] = ResultadoPedidoLote.falha(i, "Pedido inválido");
+            }
+        }
+
+        // 3. Gravar os pedidos válidos e seus eventos Outbox
+        prazo.verificar("gravacao-pedido");
+        gravar(indicesValidos, pedidosValidos, resultados);
+
+        long criados = Arrays.stream(resultados).filter(ResultadoPedidoLote::sucesso).count();
+        logger.info("Lote concluído: {} pedidos criados, {} com falha", criados, resultados.length - criados);
+
+        return Arrays.asList(resultados);
+    }
+
+    private Map<Long, ProdutoDTO> buscarProdutos(List<NovoPedidoRequest> requisicoes, Prazo prazo) {
+        Set<Long> produtoIds = requisicoes.stream()
+                .filter(Objects::nonNull)
+                .map(NovoPedidoRequest::itens)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .filter(Objects::nonNull)
+                .map(ItemPedidoRequest::produtoId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        if (produtoIds.isEmpty()) {
+            return Map.of();
+        }
+
+        ContextoConsultaProdutos contexto = new ContextoConsultaProdutos(prazo);
+        try {
+            return produtoService.buscarProdutosPorIds(produtoIds, contexto);
+        } finally {
+            produtoService.registrarConsultasDoPedido(contexto);
+        }
+    }
+
+    private Pedido criarPedido(NovoPedidoRequest requisicao, Map<Long, ProdutoDTO> produtos) {
+        if (requisicao == null) {
+            throw new IllegalArgumentException("Pedido é obrigatório");
+        }
+        requisicao.validar();
+
+        List<ItemPedido> itens = new ArrayList<>();
+        for (ItemPedidoRequest itemRequest : requisicao.itens()) {
+            itens.add(criarPedidoUseCase.criarItem(itemRequest, Optional.ofNullable(produtos.get(itemRequest.produtoId()))));
+        }
+        return new Pedido(requisicao.clienteId(), itens);
+    }
+
+    private void gravar(List<Integer> indices, List<Pedido> pedidos, ResultadoPedidoLote[] resultados) {
+        if (pedidos.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Pedido> salvos = transacao.execute(status -> criarPedidoUseCase.gravarTodos(pedidos));
+            for (int k = 0; k < salvos.size(); k++) {
+                resultados[indices.get(k)] = ResultadoPedidoLote.criado(indices.get(k), salvos.get(k));
+            }
+            return;
+
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao gravar lote de {} pedidos ({}): gravando um a um", pedidos.size(), e.getMessage());
+        }
+
+        for (int k = 0; k < pedidos.size(); k++) {
+            int indice = indices.get(k);
+            List<Pedido> pedido = List.of(pedidos.get(k));
+            try {
+                Pedido salvo = transacao.execute(status -> criarPedidoUseCase.gravarTodos(pedido)).get(0);
+                resultados[indice] = ResultadoPedidoLote.criado(indice, salvo);
+            } catch (RuntimeException e) {
+                logger.error("Erro ao gravar pedido {} do lote: {}", indice, e.getMessage(), e);
+                resultados[indice] = ResultadoPedidoLote.falha(indice, "Erro ao gravar pedido");
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.pedidos.application.usecase;
+
+/**
+ * Como POST /api/pedidos recebe um novo pedido
+ */
+public enum ModoRecepcaoPedidos {
+    SINCRONO("Valida e grava o pedido na requisição (201 com o pedido)"),
+    ASSINCRONO("Só confere a estrutura e enfileira; um trabalhador cria o pedido depois (202 com o ID de acompanhamento)");
+    
+    private final String descricao;
+    
+    ModoRecepcaoPedidos(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+}
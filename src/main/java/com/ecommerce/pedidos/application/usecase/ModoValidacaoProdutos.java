@@ -0,0 +1,20 @@
+package com.ecommerce.pedidos.application.usecase;
+
+/**
+ * Estratégia usada para validar os produtos dos itens de um pedido
+ */
+public enum ModoValidacaoProdutos {
+    SEQUENCIAL("Valida um item após o outro"),
+    PARALELO("Valida todos os itens ao mesmo tempo em Virtual Threads"),
+    LOTE("Busca todos os produtos do pedido em uma única consulta em lote");
+    
+    private final String descricao;
+    
+    ModoValidacaoProdutos(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.pedidos.application.usecase;
+
+import com.ecommerce.pedidos.application.dto.NovoPedidoRequest;
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+import com.ecommerce.pedidos.domain.entity.StatusSolicitacao;
+import com.ecommerce.pedidos.domain.exception.ProdutoIndisponivelException;
+import com.ecommerce.pedidos.domain.repository.SolicitacaoPedidoRepositoryPort;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Caso de Uso: Processar uma solicitação de pedido já reservada da fila
+ * 
+ * - Cria o pedido pelo CriarPedidoUseCase (pelo CriarPedidoIdempotenteUseCase
+ *   quando a solicitação veio com Idempotency-Key)
+ * - Produto indisponível ou dados inválidos rejeitam a solicitação de vez
+ * - Demais falhas (serviço de produtos indisponível, prazo, banco) devolvem a
+ *   solicitação à fila, até o máximo de tentativas, com espera exponencial
+ *   entre elas (esperaInicial, 2x, 4x... até esperaMaxima): com o circuit
+ *   breaker aberto, as tentativas não se esgotam em poucos segundos
+ * - Se a reserva foi perdida (solicitação dada como travada e reservada por outro
+ *   trabalhador), nada é gravado: o resultado fica com quem detém a reserva
+ */
+public class ProcessarSolicitacaoPedidoUseCase {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProcessarSolicitacaoPedidoUseCase.class);
+    
+    private final CriarPedidoUseCase criarPedidoUseCase;
+    private final CriarPedidoIdempotenteUseCase criarPedidoIdempotenteUseCase;
+    private final SolicitacaoPedidoRepositoryPort solicitacaoRepository;
+    private final ObjectMapper objectMapper;
+    private final int maximoTentativas;
+    private final Duration prazo;
+    private final Duration esperaInicial;
+    private final Duration esperaMaxima;
+    
+    public ProcessarSolicitacaoPedidoUseCase(
+            CriarPedidoUseCase criarPedidoUseCase,
+            CriarPedidoIdempotenteUseCase criarPedidoIdempotenteUseCase,
+            SolicitacaoPedidoRepositoryPort solicitacaoRepository,
+            ObjectMapper objectMapper,
+            int maximoTentativas,
+            Duration prazo,
+            Duration esperaInicial,
+            Duration esperaMaxima) {
+        this.criarPedidoUseCase = criarPedidoUseCase;
+        this.criarPedidoIdempotenteUseCase = criarPedidoIdempotenteUseCase;
+        this.solicitacaoRepository = solicitacaoRepository;
+        this.objectMapper = objectMapper;
+        this.maximoTentativas = maximoTentativas;
+        this.prazo = prazo;
+        this.esperaInicial = esperaInicial;
+        this.esperaMaxima = esperaMaxima;
+    }
+    
+    /**
+     * @param solicitacao Solicitação reservada (PROCESSANDO), com a tentativa atual já contada
+     * @return Status em que a solicitação ficou (PROCESSANDO quando a reserva foi perdida)
+     */
+    public StatusSolicitacao executar(SolicitacaoPedido solicitacao) {
+        String id = solicitacao.getId();
+        int tentativa = solicitacao.getTentativas();
+        
+        NovoPedidoRequest requisicao;
+        try {
+            requisicao = objectMapper.readValue(solicitacao.getPayload(), NovoPedidoRequest.class);
+        } catch (JsonProcessingException e) {
+            logger.error("Solicitação {} com conteúdo ilegível: {}", id, e.getOriginalMessage());
+            return rejeitar(solicitacao, "Conteúdo da solicitação inválido");
+        }
+        
+        try {
+            Pedido pedido = criar(solicitacao, requisicao);
+            logger.info("Solicitação {} concluída com o pedido {}", id, pedido.getNumeroPedido());
+            return StatusSolicitacao.CRIADO;
+            
+        } catch (ProdutoIndisponivelException | IllegalArgumentException e) {
+            logger.warn("Solicitação {} rejeitada: {}", id, e.getMessage());
+            return rejeitar(solicitacao, e.getMessage());
+            
+        } catch (RuntimeException e) {
+            if (tentativa >= maximoTentativas) {
+                logger.error("Solicitação {} rejeitada após {} tentativas: {}", id, tentativa, e.getMessage(), e);
+                return rejeitar(solicitacao, "Não foi possível criar o pedido: " + e.getMessage());
+            }
+            Duration espera = esperaAposTentativa(tentativa);
+            if (!solicitacaoRepository.devolverParaFila(id, tentativa, e.getMessage(), espera)) {
+                return reservaPerdida(solicitacao);
+            }
+            logger.warn("Solicitação {} devolvida à fila por {} s (tentativa {} de {}): {}", id, espera.toSeconds(),
+                    tentativa, maximoTentativas, e.getMessage());
+            return StatusSolicitacao.RECEBIDA;
+        }
+    }
+    
+    private StatusSolicitacao rejeitar(SolicitacaoPedido solicitacao, String erro) {
+        if (!solicitacaoRepository.rejeitar(solicitacao.getId(), solicitacao.getTentativas(), erro)) {
+            return reservaPerdida(solicitacao);
+        }
+        return StatusSolicitacao.REJEITADO;
+    }
+    
+    private StatusSolicitacao reservaPerdida(SolicitacaoPedido solicitacao) {
+        logger.warn("Solicitação {} não está mais reservada pela tentativa {}: resultado descartado",
+                solicitacao.getId(), solicitacao.getTentativas());
+        return StatusSolicitacao.PROCESSANDO;
+    }
+    
+    /**
+     * Espera antes da próxima tentativa: dobra a cada tentativa, limitada a esperaMaxima
+     */
+    Duration esperaAposTentativa(int tentativa) {
+        int expoente = Math.min(Math.max(tentativa - 1, 0), 30);
+        Duration espera = esperaInicial.multipliedBy(1L << expoente);
+        return espera.compareTo(esperaMaxima) > 0 ? esperaMaxima : espera;
+    }
+    
+    private Pedido criar(SolicitacaoPedido solicitacao, NovoPedidoRequest requisicao) {
+        if (solicitacao.getChaveIdempotencia() == null) {
+            // Conclusão na mesma transação do pedido: reprocessar a solicitação não duplica o pedido
+            return criarPedidoUseCase.executar(requisicao.clienteId(), requisicao.itens(), Prazo.em(prazo),
+                    salvo -> solicitacaoRepository.concluir(solicitacao.getId(), solicitacao.getTentativas(),
+                            salvo.getId()));
+        }
+        
+        // Com Idempotency-Key, reprocessar (ou outra solicitação com a mesma chave) devolve o mesmo pedido
+        Pedido pedido = criarPedidoIdempotenteUseCase.executar(solicitacao.getChaveIdempotencia(),
+                requisicao.clienteId(), requisicao.itens(), Prazo.em(prazo)).pedido();
+        solicitacaoRepository.concluir(solicitacao.getId(), solicitacao.getTentativas(), pedido.getId());
+        return pedido;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.pedidos.application.usecase;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.dto.NovoPedidoRequest;
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+import com.ecommerce.pedidos.domain.exception.ServicoIndisponivelException;
+import com.ecommerce.pedidos.domain.repository.SolicitacaoPedidoRepositoryPort;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Caso de Uso: Receber um pedido para criação assíncrona
+ * 
+ * Não valida produtos nem grava o pedido: só confere os dados da requisição
+ * (cliente, itens e quantidades: inválidos são recusados já aqui, com 400),
+ * enfileira a requisição (um INSERT) e devolve a solicitação, cujo ID o
+ * cliente usa para acompanhar o resultado.
+ * Com a fila acima do tamanho máximo a requisição é recusada (503), para que a
+ * fila não cresça mais rápido do que os trabalhadores conseguem esvaziá-la.
+ */
+public class ReceberPedidoUseCase {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReceberPedidoUseCase.class);
+    
+    private final SolicitacaoPedidoRepositoryPort solicitacaoRepository;
+    private final ObjectMapper objectMapper;
+    private final long tamanhoMaximoFila;
+    
+    public ReceberPedidoUseCase(
+            SolicitacaoPedidoRepositoryPort solicitacaoRepository,
+            ObjectMapper objectMapper,
+            long tamanhoMaximoFila) {
+        this.solicitacaoRepository = solicitacaoRepository;
+        this.objectMapper = objectMapper;
+        this.tamanhoMaximoFila = tamanhoMaximoFila;
+    }
+    
+    /**
+     * Enfileira a criação de um pedido
+     * 
+     * @param chaveIdempotencia Idempotency-Key da requisição (opcional)
+     * @return Solicitação enfileirada (status RECEBIDA)
+     * @throws IllegalArgumentException se os dados do pedido forem inválidos
+     * @throws ServicoIndisponivelException se a fila estiver cheia
+     */
+    public SolicitacaoPedido executar(String chaveIdempotencia, Long clienteId, List<ItemPedidoRequest> itensRequest) {
+        NovoPedidoRequest requisicao = new NovoPedidoRequest(clienteId, itensRequest);
+        requisicao.validar();
+        
+        if (solicitacaoRepository.contarNaFila() >= tamanhoMaximoFila) {
+            logger.warn("Fila de pedidos cheia ({} solicitações): recusando pedido do cliente {}",
+                    tamanhoMaximoFila, clienteId);
+            throw new ServicoIndisponivelException("Fila de pedidos cheia, tente novamente em instantes");
+        }
+        
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(requisicao);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Pedido inválido: " + e.getOriginalMessage(), e);
+        }
+        
+        SolicitacaoPedido solicitacao = solicitacaoRepository.salvar(new SolicitacaoPedido(chaveIdempotencia, payload));
+        logger.info("Pedido do cliente {} enfileirado na solicitação {}", clienteId, solicitacao.getId());
+        
+        return solicitacao;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.pedidos.domain.entity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidade de domínio - Chave de idempotência (header Idempotency-Key) da criação de pedido
+ *
+ * Reservada antes da criação (sem pedido) e concluída com o ID do pedido
+ * na mesma transação que o grava. A reserva vale pouco tempo e tem um dono
+ * (tokenReserva); a chave concluída vale até expirar.
+ */
+public class ChaveIdempotencia {
+    
+    private final String chave;
+    private final String hashRequisicao;
+    private final Long pedidoId;
+    private final String tokenReserva;
+    private final LocalDateTime criadaEm;
+    private final LocalDateTime expiraEm;
+    
+    // Construtor para reserva (sem pedido, com novo token), válida só pela duração da reserva
+    public ChaveIdempotencia(String chave, String hashRequisicao, Duration reserva) {
+        if (chave == null || chave.isBlank()) {
+            throw new IllegalArgumentException("Chave de idempotência é obrigatória");
+        }
+        this.chave = chave;
+        this.hashRequisicao = hashRequisicao;
+        this.pedidoId = null;
+        this.tokenReserva = UUID.randomUUID().toString();
+        this.criadaEm = LocalDateTime.now();
+        this.expiraEm = criadaEm.plus(reserva);
+    }
+    
+    // Construtor para reconstituição (vindo do BD)
+    public ChaveIdempotencia(String chave, String hashRequisicao, Long pedidoId, String tokenReserva,
+                             LocalDateTime criadaEm, LocalDateTime expiraEm) {
+        this.chave = chave;
+        this.hashRequisicao = hashRequisicao;
+        this.pedidoId = pedidoId;
+        this.tokenReserva = tokenReserva;
+        this.criadaEm = criadaEm;
+        this.expiraEm = expiraEm;
+    }
+    
+    // ===== REGRAS DE NEGÓCIO =====
+    
+    /**
+     * O pedido da chave já foi gravado
+     */
+    public boolean isConcluida() {
+        return pedidoId != null;
+    }
+    
+    public boolean isExpirada(LocalDateTime agora) {
+        return !expiraEm.isAfter(agora);
+    }
+    
+    // ===== GETTERS =====
+    
+    public String getChave() {
+        return chave;
+    }
+    
+    public String getHashRequisicao() {
+        return hashRequisicao;
+    }
+    
+    public Long getPedidoId() {
+        return pedidoId;
+    }
+    
+    public String getTokenReserva() {
+        return tokenReserva;
+    }
+    
+    public LocalDateTime getCriadaEm() {
+        return criadaEm;
+    }
+    
+    public LocalDateTime getExpiraEm() {
+        return expiraEm;
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.pedidos.domain.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidade de domínio - Solicitação de criação de pedido recebida de forma assíncrona
+ * 
+ * Fica na fila (tabela) até um trabalhador criar o pedido ou rejeitá-lo;
+ * o ID é o identificador de acompanhamento devolvido ao cliente.
+ */
+public class SolicitacaoPedido {
+    
+    private final String id;
+    private final String chaveIdempotencia;
+    private final String payload;
+    private final StatusSolicitacao status;
+    private final Long pedidoId;
+    private final String erro;
+    private final int tentativas;
+    private final LocalDateTime criadaEm;
+    private final LocalDateTime atualizadaEm;
+    
+    // Construtor para criação (sem ID)
+    public SolicitacaoPedido(String chaveIdempotencia, String payload) {
+        if (payload == null || payload.isBlank()) {
+            throw new IllegalArgumentException("Conteúdo da solicitação é obrigatório");
+        }
+        this.id = UUID.randomUUID().toString();
+        this.chaveIdempotencia = chaveIdempotencia;
+        this.payload = payload;
+        this.status = StatusSolicitacao.RECEBIDA;
+        this.pedidoId = null;
+        this.erro = null;
+        this.tentativas = 0;
+        this.criadaEm = LocalDateTime.now();
+        this.atualizadaEm = criadaEm;
+    }
+    
+    // Construtor para reconstituição (vindo do BD)
+    public SolicitacaoPedido(String id, String chaveIdempotencia, String payload, StatusSolicitacao status,
+                             Long pedidoId, String erro, int tentativas,
+                             LocalDateTime criadaEm, LocalDateTime atualizadaEm) {
+        this.id = id;
+        this.chaveIdempotencia = chaveIdempotencia;
+        this.payload = payload;
+        this.status = status;
+        this.pedidoId = pedidoId;
+        this.erro = erro;
+        this.tentativas = tentativas;
+        this.criadaEm = criadaEm;
+        this.atualizadaEm = atualizadaEm;
+    }
+    
+    // ===== GETTERS =====
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getChaveIdempotencia() {
+        return chaveIdempotencia;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public StatusSolicitacao getStatus() {
+        return status;
+    }
+    
+    public Long getPedidoId() {
+        return pedidoId;
+    }
+    
+    public String getErro() {
+        return erro;
+    }
+    
+    public int getTentativas() {
+        return tentativas;
+    }
+    
+    public LocalDateTime getCriadaEm() {
+        return criadaEm;
+    }
+    
+    public LocalDateTime getAtualizadaEm() {
+        return atualizadaEm;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.pedidos.domain.entity;
+
+/**
+ * Enum representando os estados de uma solicitação de pedido (recepção assíncrona)
+ */
+public enum StatusSolicitacao {
+    RECEBIDA("Na fila, aguardando processamento"),
+    PROCESSANDO("Em processamento por um trabalhador"),
+    CRIADO("Pedido criado"),
+    REJEITADO("Pedido rejeitado (ver erro)");
+    
+    private final String descricao;
+    
+    StatusSolicitacao(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+    
+    /**
+     * Estado final: o cliente pode parar de consultar
+     */
+    public boolean isFinal() {
+        return this == CRIADO || this == REJEITADO;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.pedidos.domain.exception;
+
+/**
+ * Exceção lançada quando a requisição com a mesma Idempotency-Key ainda não
+ * terminou dentro do tempo de espera
+ */
+public class ChaveIdempotenciaEmUsoException extends RuntimeException {
+    
+    public ChaveIdempotenciaEmUsoException(String chave) {
+        super("Requisição com a Idempotency-Key '" + chave + "' ainda em processamento");
+    }
+}
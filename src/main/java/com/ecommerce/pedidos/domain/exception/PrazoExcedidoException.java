@@ -0,0 +1,28 @@
+package com.ecommerce.pedidos.domain.exception;
+
+import java.time.Duration;
+
+/**
+ * Exceção lançada quando o prazo total da requisição se esgota antes de uma
+ * etapa começar (nenhuma nova chamada remota é feita depois disso)
+ */
+public class PrazoExcedidoException extends RuntimeException {
+    
+    private final String etapa;
+    
+    public PrazoExcedidoException(String etapa, Duration prazo) {
+        super(prazo != null
+                ? "Prazo de " + prazo.toMillis() + " ms da requisição excedido (etapa: " + etapa + ")"
+                : "Prazo da requisição excedido (etapa: " + etapa + ")");
+        this.etapa = etapa;
+    }
+    
+    public PrazoExcedidoException(String etapa, Duration prazo, Throwable cause) {
+        this(etapa, prazo);
+        initCause(cause);
+    }
+    
+    public String getEtapa() {
+        return etapa;
+    }
+}
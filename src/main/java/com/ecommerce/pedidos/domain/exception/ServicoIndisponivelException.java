@@ -0,0 +1,12 @@
+package com.ecommerce.pedidos.domain.exception;
+
+/**
+ * Exceção lançada quando um serviço externo está sobrecarregado e a chamada
+ * foi recusada antes de ser feita (o cliente pode tentar novamente em seguida)
+ */
+public class ServicoIndisponivelException extends RuntimeException {
+    
+    public ServicoIndisponivelException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.pedidos.domain.exception;
+
+/**
+ * Exceção lançada quando uma solicitação de pedido não é encontrada
+ */
+public class SolicitacaoPedidoNotFoundException extends RuntimeException {
+    
+    public SolicitacaoPedidoNotFoundException(String id) {
+        super("Solicitação de pedido não encontrada com ID: " + id);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.pedidos.domain.repository;
+
+import com.ecommerce.pedidos.domain.entity.ChaveIdempotencia;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Porta (interface) do repositório de chaves de idempotência
+ */
+public interface ChaveIdempotenciaRepositoryPort {
+    
+    /**
+     * Reserva a chave (uma chave expirada com o mesmo valor é substituída, inclusive
+     * a reserva cujo prazo acabou sem conclusão)
+     * 
+     * @return false se a chave já existe e ainda vale (outra requisição a reservou)
+     */
+    boolean reservar(ChaveIdempotencia chave);
+    
+    /**
+     * Busca uma chave pelo valor
+     */
+    Optional<ChaveIdempotencia> buscar(String chave);
+    
+    /**
+     * Associa o pedido gravado à chave (chamado na transação que grava o pedido)
+     * e passa a validade da chave para expiraEm
+     * 
+     * @throws IllegalStateException se a reserva não é mais de quem a fez (expirou e
+     *         outra requisição a assumiu): o pedido duplicado é desfeito
+     */
+    void concluir(String chave, String tokenReserva, Long pedidoId, LocalDateTime expiraEm);
+    
+    /**
+     * Libera a chave (a criação falhou e pode ser repetida)
+     * Só remove a reserva ainda em andamento e de quem a fez
+     */
+    void remover(String chave, String tokenReserva);
+    
+    /**
+     * Remove as chaves expiradas
+     * 
+     * @return Quantidade de chaves removidas
+     */
+    int removerExpiradas(LocalDateTime agora);
+}
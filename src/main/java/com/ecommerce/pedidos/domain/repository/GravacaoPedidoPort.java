@@ -0,0 +1,22 @@
+package com.ecommerce.pedidos.domain.repository;
+
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Porta (interface) da gravação de pedidos novos junto com o evento Outbox de cada um
+ * Caminho só de escrita: não carrega nem devolve o agregado do banco.
+ */
+public interface GravacaoPedidoPort {
+    
+    /**
+     * Grava os pedidos, seus itens e um evento Outbox por pedido, na transação corrente
+     * 
+     * @param criarEvento Monta o evento de um pedido já com os IDs atribuídos
+     * @return Pedidos gravados, na mesma ordem, com os IDs do pedido e dos itens
+     */
+    List<Pedido> gravarComEventos(List<Pedido> pedidos, Function<Pedido, OutboxEvent> criarEvento);
+}
@@ -3,6 +3,8 @@ package com.ecommerce.pedidos.domain.repository;
 import com.ecommerce.pedidos.domain.entity.OutboxEvent;
 import com.ecommerce.pedidos.domain.entity.OutboxStatus;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,6 +18,11 @@ public interface OutboxRepositoryPort {
      */
     OutboxEvent salvar(OutboxEvent event);
     
+    /**
+     * Salva vários eventos Outbox em lote
+     */
+    List<OutboxEvent> salvarTodos(List<OutboxEvent> events);
+    
     /**
      * Busca eventos pendentes (para processamento)
      */
@@ -26,10 +33,50 @@ public interface OutboxRepositoryPort {
      */
     List<OutboxEvent> buscarPendentesPaginado(int limite);
     
+    /**
+     * Reserva os eventos pendentes mais antigos para um publicador
+     * 
+     * Um evento reservado não é entregue a nenhum outro publicador (de qualquer
+     * instância) até a reserva vencer ou o evento ser atualizado. Eventos que
+     * falharam há menos de intervaloRetentativa, ou criados há menos de carencia,
+     * não são reservados. Um evento também só é reservado depois que os eventos
+     * mais antigos do mesmo agregado deixam de estar pendentes, então os eventos
+     * de um agregado são entregues um por vez, na ordem de criação.
+     */
+    List<OutboxEvent> reservarPendentes(int limite, Duration reserva, Duration intervaloRetentativa,
+                                        Duration carencia);
+    
+    /**
+     * Reserva um único evento, só se ele ainda estiver pendente e sem reserva
+     * (UPDATE condicional: entre publicadores concorrentes, só um consegue)
+     * 
+     * @return true se a reserva foi feita
+     */
+    boolean reservarSeDisponivel(Long id, Duration reserva);
+    
+    /**
+     * Desfaz a reserva de um evento ainda pendente (ex: a publicação falhou),
+     * sem mexer no status nem nas tentativas
+     */
+    void liberarReserva(Long id);
+    
+    /**
+     * Indica se há evento mais antigo do mesmo agregado ainda pendente
+     * (publicar este antes dele quebraria a ordem do agregado)
+     */
+    boolean existePendenteAnterior(OutboxEvent event);
+    
     /**
      * Atualiza um evento Outbox
      */
     OutboxEvent atualizar(OutboxEvent event);
+    
+    /**
+     * Marca vários eventos como processados de uma vez (encerrando a reserva deles)
+     * 
+     * @return quantidade de eventos atualizados
+     */
+    int marcarComoProcessados(Collection<Long> ids);
 }
 
 
@@ -2,6 +2,7 @@ package com.ecommerce.pedidos.domain.repository;
 
 import com.ecommerce.pedidos.domain.entity.Pedido;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,13 @@ public interface PedidoRepositoryPort {
      */
     Pedido salvar(Pedido pedido);
     
+    /**
+     * Salva vários pedidos (com seus itens) em lote
+     * 
+     * @return Pedidos salvos, na mesma ordem, com os IDs gerados
+     */
+    List<Pedido> salvarTodos(List<Pedido> pedidos);
+    
     /**
      * Busca um pedido por ID
      */
@@ -45,6 +53,14 @@ public interface PedidoRepositoryPort {
      * Deleta um pedido por ID
      */
     void deletar(Long id);
+    
+    /**
+     * Lista os IDs dos produtos que aparecem em mais pedidos desde a data informada
+     * 
+     * @param desde Início da janela (data de criação do pedido)
+     * @param limite Quantidade máxima de IDs, do mais para o menos pedido
+     */
+    List<Long> listarProdutosMaisPedidos(LocalDateTime desde, int limite);
 }
 
 
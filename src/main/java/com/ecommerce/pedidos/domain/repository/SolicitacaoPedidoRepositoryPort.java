@@ -0,0 +1,82 @@
+package com.ecommerce.pedidos.domain.repository;
+
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Porta (interface) da fila de solicitações de pedido (recepção assíncrona)
+ */
+public interface SolicitacaoPedidoRepositoryPort {
+    
+    /**
+     * Enfileira uma nova solicitação
+     */
+    SolicitacaoPedido salvar(SolicitacaoPedido solicitacao);
+    
+    /**
+     * Busca uma solicitação pelo identificador de acompanhamento
+     */
+    Optional<SolicitacaoPedido> buscarPorId(String id);
+    
+    /**
+     * Reserva as solicitações mais antigas da fila para processamento (RECEBIDA → PROCESSANDO)
+     * Cada solicitação é reservada por um único trabalhador, mesmo entre instâncias.
+     * As que ainda estão na espera entre tentativas ficam de fora.
+     * A tentativa da solicitação devolvida (getTentativas) identifica a reserva nas
+     * chamadas seguintes (concluir, rejeitar, devolverParaFila).
+     * 
+     * @param limite Máximo de solicitações reservadas
+     */
+    List<SolicitacaoPedido> reservarProximas(int limite);
+    
+    /**
+     * Marca a solicitação como concluída com o pedido criado
+     * Chamado na transação do pedido: se a reserva foi perdida (a solicitação não
+     * está mais em PROCESSANDO com esta tentativa, porque outro trabalhador a
+     * reassumiu), lança IllegalStateException e o pedido duplicado é desfeito
+     * 
+     * @param tentativa Tentativa da reserva (SolicitacaoPedido.getTentativas)
+     */
+    void concluir(String id, int tentativa, Long pedidoId);
+    
+    /**
+     * Marca a solicitação como rejeitada (falha definitiva)
+     * 
+     * @param tentativa Tentativa da reserva (SolicitacaoPedido.getTentativas)
+     * @return false, sem alterar nada, se a reserva foi perdida
+     */
+    boolean rejeitar(String id, int tentativa, String erro);
+    
+    /**
+     * Devolve a solicitação à fila após uma falha temporária
+     * 
+     * @param tentativa Tentativa da reserva (SolicitacaoPedido.getTentativas)
+     * @param espera Tempo até a solicitação poder ser reservada de novo
+     * @return false, sem alterar nada, se a reserva foi perdida
+     */
+    boolean devolverParaFila(String id, int tentativa, String erro, Duration espera);
+    
+    /**
+     * Devolve à fila as solicitações em processamento desde antes do limite
+     * (trabalhador interrompido, por exemplo numa reinicialização)
+     * 
+     * @return Quantidade de solicitações devolvidas
+     */
+    int devolverTravadas(LocalDateTime processandoDesde);
+    
+    /**
+     * Quantidade de solicitações aguardando na fila
+     */
+    long contarNaFila();
+    
+    /**
+     * Remove solicitações finalizadas antes da data
+     * 
+     * @return Quantidade de solicitações removidas
+     */
+    int removerFinalizadasAntesDe(LocalDateTime data);
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ordem entre as alterações de produtos recebidas por evento e as cargas remotas
+ *
+ * Cada evento recebe um número de sequência, registrado para o produto antes
+ * de o cache ser alterado. Uma carga remota (refresh em segundo plano ou busca
+ * de um pedido) anota a sequência atual antes de chamar o serviço de produtos:
+ * se o produto foi alterado por evento depois disso, o resultado da carga pode
+ * ser anterior ao evento e não deve ir para o cache.
+ *
+ * Quem grava confere antes e depois da gravação: um evento registrado entre a
+ * conferência e a gravação é detectado na segunda conferência, e a entrada é
+ * removida (a próxima leitura busca o produto de novo).
+ *
+ * Os registros expiram após a retenção, que deve ser maior que a duração da
+ * carga remota mais lenta.
+ */
+@Component
+public class AlteracoesProdutos {
+
+    private final AtomicLong sequencia = new AtomicLong();
+    private final Cache<Long, Long> ultimaAlteracao;
+
+    public AlteracoesProdutos(@Value("${produtos.cache.alteracoes.retencao:5m}") Duration retencao) {
+        this.ultimaAlteracao = Caffeine.newBuilder()
+                .expireAfterWrite(retencao)
+                .build();
+    }
+
+    /**
+     * Sequência atual: anotada antes de uma carga remota
+     */
+    public long marca() {
+        return sequencia.get();
+    }
+
+    /**
+     * Registra a alteração do produto por evento (antes de alterar o cache)
+     */
+    public void registrar(Long id) {
+        ultimaAlteracao.put(id, sequencia.incrementAndGet());
+    }
+
+    /**
+     * Indica se o produto foi alterado por evento depois da marca anotada
+     */
+    public boolean alteradoDesde(Long id, long marca) {
+        Long alteracao = ultimaAlteracao.getIfPresent(id);
+        return alteracao != null && alteracao > marca;
+    }
+}
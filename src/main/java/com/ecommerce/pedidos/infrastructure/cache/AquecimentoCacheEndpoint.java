@@ -0,0 +1,58 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.infrastructure.cache.AquecimentoCacheProdutos.ResultadoAquecimento;
+import com.ecommerce.pedidos.infrastructure.config.CacheConfig;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint do actuator (/actuator/aquecimentocache) com o resultado do
+ * aquecimento e os acertos do cache "produtos" desde a subida
+ */
+@Component
+@Endpoint(id = "aquecimentocache")
+public class AquecimentoCacheEndpoint {
+    
+    private final AquecimentoCacheProdutos aquecimento;
+    private final CacheManager cacheManager;
+    
+    public AquecimentoCacheEndpoint(AquecimentoCacheProdutos aquecimento, CacheManager cacheManager) {
+        this.aquecimento = aquecimento;
+        this.cacheManager = cacheManager;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> status() {
+        ResultadoAquecimento resultado = aquecimento.getResultado();
+        
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", resultado.status().name());
+        status.put("produtosSolicitados", resultado.produtosSolicitados());
+        status.put("produtosCarregados", resultado.produtosCarregados());
+        status.put("chamadasRemotas", resultado.chamadasRemotas());
+        status.put("duracaoMs", resultado.duracao().toMillis());
+        
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUTOS_CACHE);
+        if (cache instanceof CacheDuasCamadas duasCamadas) {
+            status.put("cacheDiscoEntradas", duasCamadas.getSegundaCamada().getQuantidade());
+            cache = duasCamadas.getPrimeiraCamada();
+        }
+        if (cache instanceof CaffeineCache caffeineCache) {
+            CacheStats estatisticas = caffeineCache.getNativeCache().stats();
+            status.put("cacheAcertos", estatisticas.hitCount());
+            status.put("cacheFalhas", estatisticas.missCount());
+            status.put("cacheTaxaAcerto", estatisticas.hitRate());
+            status.put("cacheEntradas", caffeineCache.getNativeCache().estimatedSize());
+        }
+        
+        return status;
+    }
+}
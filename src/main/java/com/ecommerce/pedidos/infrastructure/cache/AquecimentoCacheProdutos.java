@@ -0,0 +1,197 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.application.service.ContextoConsultaProdutos;
+import com.ecommerce.pedidos.application.service.ProdutoServicePort;
+import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aquecimento do cache "produtos" na subida da aplicação
+ * 
+ * Busca os produtos mais pedidos na janela recente (itens_pedido) e os carrega
+ * em lotes paralelos pelo ProdutoServicePort. Roda como ApplicationRunner, então
+ * a readiness probe só reporta UP depois que ele termina ou esgota o prazo.
+ * Uma falha no aquecimento nunca impede a subida: o cache apenas começa frio.
+ * Sem a segunda camada em disco a quantidade nunca passa do máximo de entradas
+ * do cache: além disso os últimos produtos carregados só expulsariam os primeiros.
+ * Com o disco habilitado toda carga é gravada também nele, e o que a primeira
+ * camada expulsar continua disponível na segunda, então a quantidade vale como
+ * configurada.
+ */
+@Component
+public class AquecimentoCacheProdutos implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AquecimentoCacheProdutos.class);
+    
+    private final PedidoRepositoryPort pedidoRepository;
+    private final ProdutoServicePort produtoService;
+    private final boolean habilitado;
+    private final int quantidade;
+    private final Duration janela;
+    private final int tamanhoLote;
+    private final int paralelismo;
+    private final Duration prazo;
+    
+    private volatile ResultadoAquecimento resultado = ResultadoAquecimento.naoExecutado();
+    
+    public AquecimentoCacheProdutos(
+            PedidoRepositoryPort pedidoRepository,
+            ProdutoServicePort produtoService,
+            MeterRegistry meterRegistry,
+            @Value("${produtos.cache.aquecimento.habilitado:true}") boolean habilitado,
+            @Value("${produtos.cache.aquecimento.quantidade:100}") int quantidade,
+            @Value("${produtos.cache.maximo-entradas:100}") long maximoEntradasCache,
+            @Value("${produtos.cache.disco.habilitado:false}") boolean discoHabilitado,
+            @Value("${produtos.cache.aquecimento.janela:7d}") Duration janela,
+            @Value("${produtos.cache.aquecimento.tamanho-lote:50}") int tamanhoLote,
+            @Value("${produtos.cache.aquecimento.paralelismo:4}") int paralelismo,
+            @Value("${produtos.cache.aquecimento.prazo:20s}") Duration prazo) {
+        this.pedidoRepository = pedidoRepository;
+        this.produtoService = produtoService;
+        this.habilitado = habilitado;
+        if (quantidade > maximoEntradasCache && !discoHabilitado) {
+            logger.warn("produtos.cache.aquecimento.quantidade={} acima de produtos.cache.maximo-entradas={}"
+                    + " sem segunda camada em disco: aquecimento limitado a {} produtos",
+                    quantidade, maximoEntradasCache, maximoEntradasCache);
+            this.quantidade = (int) maximoEntradasCache;
+        } else {
+            this.quantidade = quantidade;
+        }
+        this.janela = janela;
+        this.tamanhoLote = tamanhoLote;
+        this.paralelismo = paralelismo;
+        this.prazo = prazo;
+        
+        TimeGauge.builder("produtos.cache.aquecimento.duracao", this,
+                        TimeUnit.MILLISECONDS, aquecimento -> aquecimento.resultado.duracao().toMillis())
+                .description("Duração do aquecimento do cache de produtos na subida")
+                .register(meterRegistry);
+        Gauge.builder("produtos.cache.aquecimento.carregados", this, aquecimento -> aquecimento.resultado.produtosCarregados())
+                .description("Produtos carregados no cache pelo aquecimento")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!habilitado) {
+            logger.info("Aquecimento do cache de produtos desabilitado");
+            resultado = ResultadoAquecimento.desabilitado();
+            return;
+        }
+        aquecer();
+    }
+    
+    /**
+     * Executa o aquecimento respeitando o prazo: lotes não concluídos a tempo são cancelados
+     */
+    public ResultadoAquecimento aquecer() {
+        long inicio = System.nanoTime();
+        ContextoConsultaProdutos contexto = new ContextoConsultaProdutos();
+        
+        List<Long> ids;
+        try {
+            ids = pedidoRepository.listarProdutosMaisPedidos(LocalDateTime.now().minus(janela), quantidade);
+        } catch (RuntimeException e) {
+            logger.warn("Aquecimento do cache de produtos ignorado: falha ao consultar histórico: {}", e.getMessage());
+            resultado = ResultadoAquecimento.concluido(StatusAquecimento.FALHOU, 0, 0, contexto, inicio);
+            return resultado;
+        }
+        
+        List<Callable<Integer>> lotes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += tamanhoLote) {
+            List<Long> lote = ids.subList(i, Math.min(i + tamanhoLote, ids.size()));
+            lotes.add(() -> {
+                Map<Long, ProdutoDTO> produtos = produtoService.buscarProdutosPorIds(lote, contexto);
+                return produtos.size();
+            });
+        }
+        
+        StatusAquecimento status = StatusAquecimento.CONCLUIDO;
+        int carregados = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, paralelismo), Thread.ofVirtual().factory());
+        
+        try {
+            for (Future<Integer> lote : executor.invokeAll(lotes, prazo.toMillis(), TimeUnit.MILLISECONDS)) {
+                try {
+                    carregados += lote.get();
+                } catch (CancellationException e) {
+                    status = StatusAquecimento.PRAZO_ESGOTADO;
+                } catch (ExecutionException e) {
+                    logger.warn("Lote do aquecimento do cache de produtos falhou: {}", e.getCause().getMessage());
+                    if (status == StatusAquecimento.CONCLUIDO) {
+                        status = StatusAquecimento.PARCIAL;
+                    }
+                }
+            }
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = StatusAquecimento.PRAZO_ESGOTADO;
+            
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        resultado = ResultadoAquecimento.concluido(status, ids.size(), carregados, contexto, inicio);
+        logger.info("Aquecimento do cache de produtos: status={}, produtos={}/{}, chamadasRemotas={}, duracao={}ms",
+                status, carregados, ids.size(), contexto.getChamadasRemotas(), resultado.duracao().toMillis());
+        return resultado;
+    }
+    
+    public ResultadoAquecimento getResultado() {
+        return resultado;
+    }
+    
+    public enum StatusAquecimento {
+        NAO_EXECUTADO,
+        DESABILITADO,
+        CONCLUIDO,
+        PARCIAL,
+        PRAZO_ESGOTADO,
+        FALHOU
+    }
+    
+    public record ResultadoAquecimento(
+            StatusAquecimento status,
+            int produtosSolicitados,
+            int produtosCarregados,
+            int chamadasRemotas,
+            Duration duracao) {
+        
+        static ResultadoAquecimento naoExecutado() {
+            return new ResultadoAquecimento(StatusAquecimento.NAO_EXECUTADO, 0, 0, 0, Duration.ZERO);
+        }
+        
+        static ResultadoAquecimento desabilitado() {
+            return new ResultadoAquecimento(StatusAquecimento.DESABILITADO, 0, 0, 0, Duration.ZERO);
+        }
+        
+        static ResultadoAquecimento concluido(StatusAquecimento status, int solicitados, int carregados,
+                ContextoConsultaProdutos contexto, long inicioNanos) {
+            return new ResultadoAquecimento(status, solicitados, carregados, contexto.getChamadasRemotas(),
+                    Duration.ofNanos(System.nanoTime() - inicioNanos));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.infrastructure.cache.ProdutoDiskStore.EntradaDisco;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache "produtos" em duas camadas: Caffeine no heap (L1) e ProdutoDiskStore
+ * mapeado em memória (L2)
+ *
+ * Gravações vão para as duas camadas; uma ausência na L1 é buscada na L2 e
+ * promovida. Entradas da L2 mais antigas que "idadeMaxima" são ignoradas, e as
+ * mais antigas que o intervalo de atualização são promovidas já com um refresh
+ * em segundo plano, como aconteceria com uma entrada vencida da L1.
+ */
+public class CacheDuasCamadas implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheDuasCamadas.class);
+
+    private final CaffeineCache primeiraCamada;
+    private final ProdutoDiskStore segundaCamada;
+    private final Duration atualizarApos;
+    private final Duration idadeMaxima;
+    private final Counter acertosSegundaCamada;
+    private final Counter falhasSegundaCamada;
+
+    public CacheDuasCamadas(
+            CaffeineCache primeiraCamada,
+            ProdutoDiskStore segundaCamada,
+            Duration atualizarApos,
+            Duration idadeMaxima,
+            MeterRegistry meterRegistry) {
+        this.primeiraCamada = primeiraCamada;
+        this.segundaCamada = segundaCamada;
+        this.atualizarApos = atualizarApos;
+        this.idadeMaxima = idadeMaxima;
+        this.acertosSegundaCamada = Counter.builder("produtos.cache.disco.buscas")
+                .description("Buscas na segunda camada (disco) do cache de produtos")
+                .tag("resultado", "acerto")
+                .register(meterRegistry);
+        this.falhasSegundaCamada = Counter.builder("produtos.cache.disco.buscas")
+                .description("Buscas na segunda camada (disco) do cache de produtos")
+                .tag("resultado", "falha")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return primeiraCamada.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return primeiraCamada.getNativeCache();
+    }
+
+    public CaffeineCache getPrimeiraCamada() {
+        return primeiraCamada;
+    }
+
+    public ProdutoDiskStore getSegundaCamada() {
+        return segundaCamada;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper valor = primeiraCamada.get(key);
+        if (valor != null) {
+            return valor;
+        }
+        return buscarNaSegundaCamada(key)
+                .map(SimpleValueWrapper::new)
+                .orElse(null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valor = get(key);
+        Object conteudo = valor != null ? valor.get() : null;
+        if (conteudo != null && type != null && !type.isInstance(conteudo)) {
+            throw new IllegalStateException("Valor em cache não é do tipo " + type.getName() + ": " + conteudo);
+        }
+        return (T) conteudo;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper valor = get(key);
+        if (valor != null) {
+            return (T) valor.get();
+        }
+        T carregado = primeiraCamada.get(key, valueLoader);
+        gravarNaSegundaCamada(carregado);
+        return carregado;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        primeiraCamada.put(key, value);
+        gravarNaSegundaCamada(value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        primeiraCamada.evict(key);
+        if (key instanceof Long id) {
+            segundaCamada.remover(id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        primeiraCamada.clear();
+        segundaCamada.limpar();
+    }
+
+    private Optional<ProdutoDTO> buscarNaSegundaCamada(Object key) {
+        if (!(key instanceof Long id)) {
+            return Optional.empty();
+        }
+
+        Optional<EntradaDisco> entrada = segundaCamada.buscar(id);
+        Duration idade = entrada.map(e -> Duration.between(e.gravadoEm(), Instant.now())).orElse(null);
+        if (entrada.isEmpty() || idade.compareTo(idadeMaxima) > 0) {
+            falhasSegundaCamada.increment();
+            return Optional.empty();
+        }
+
+        acertosSegundaCamada.increment();
+        ProdutoDTO produto = entrada.get().produto();
+        primeiraCamada.put(id, produto);
+        if (idade.compareTo(atualizarApos) > 0
+                && primeiraCamada.getNativeCache() instanceof LoadingCache<Object, Object> loadingCache) {
+            logger.debug("Produto {} promovido do disco com {}s: atualizando em segundo plano", id, idade.toSeconds());
+            // o ProdutoCacheLoader grava a versão recarregada (ou a remoção) também no disco
+            loadingCache.refresh(id);
+        }
+        return Optional.of(produto);
+    }
+
+    private void gravarNaSegundaCamada(Object value) {
+        if (value instanceof ProdutoDTO produto && produto.id() != null) {
+            segundaCamada.gravar(produto);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para IDs numéricos
+ * 
+ * Responde "com certeza não existe" ou "talvez exista": nunca há falso
+ * negativo para um ID adicionado, e a taxa de falso positivo fica próxima da
+ * configurada enquanto o número de IDs não passa dos elementos esperados.
+ * Seguro para leitura e escrita concorrentes (bits em AtomicLongArray).
+ */
+public final class FiltroBloom {
+    
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funcoesHash;
+    
+    public FiltroBloom(long elementosEsperados, double taxaFalsoPositivo) {
+        if (elementosEsperados <= 0) {
+            throw new IllegalArgumentException("Elementos esperados deve ser maior que zero");
+        }
+        if (taxaFalsoPositivo <= 0 || taxaFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("Taxa de falso positivo deve estar entre 0 e 1");
+        }
+        
+        // m = -n * ln(p) / ln(2)^2 e k = m / n * ln(2)
+        long bitsNecessarios = (long) Math.ceil(-elementosEsperados * Math.log(taxaFalsoPositivo)
+                / (Math.log(2) * Math.log(2)));
+        int palavras = (int) Math.max(1, (bitsNecessarios + 63) / 64);
+        this.bits = new AtomicLongArray(palavras);
+        this.totalBits = (long) palavras * 64;
+        this.funcoesHash = Math.max(1, (int) Math.round((double) totalBits / elementosEsperados * Math.log(2)));
+    }
+    
+    public void adicionar(long valor) {
+        long hash1 = misturar(valor);
+        long hash2 = misturar(hash1) | 1;
+        for (int i = 0; i < funcoesHash; i++) {
+            long posicao = Math.floorMod(hash1 + i * hash2, totalBits);
+            int palavra = (int) (posicao >>> 6);
+            long mascara = 1L << posicao;
+            long atual;
+            do {
+                atual = bits.get(palavra);
+            } while ((atual & mascara) == 0 && !bits.compareAndSet(palavra, atual, atual | mascara));
+        }
+    }
+    
+    public boolean podeConter(long valor) {
+        long hash1 = misturar(valor);
+        long hash2 = misturar(hash1) | 1;
+        for (int i = 0; i < funcoesHash; i++) {
+            long posicao = Math.floorMod(hash1 + i * hash2, totalBits);
+            if ((bits.get((int) (posicao >>> 6)) & (1L << posicao)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public int getFuncoesHash() {
+        return funcoesHash;
+    }
+    
+    public long getTotalBits() {
+        return totalBits;
+    }
+    
+    /**
+     * Finalizador de 64 bits do MurmurHash3: espalha IDs sequenciais pelo vetor de bits
+     */
+    private static long misturar(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xff51afd7ed558ccdL;
+        valor ^= valor >>> 33;
+        valor *= 0xc4ceb9fe1a85ec53L;
+        valor ^= valor >>> 33;
+        return valor;
+    }
+}
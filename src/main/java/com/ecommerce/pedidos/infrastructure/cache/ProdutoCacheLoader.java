@@ -0,0 +1,175 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.domain.exception.ServicoIndisponivelException;
+import com.ecommerce.pedidos.infrastructure.client.LimitadorConcorrenciaAdaptativo;
+import com.ecommerce.pedidos.infrastructure.client.ProdutoFeignClient;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Recarrega em segundo plano as entradas do cache "produtos" (refresh-ahead)
+ * 
+ * As leituras nunca esperam por este loader: a entrada atual continua sendo
+ * servida enquanto a nova versão é buscada. Com o circuit breaker do
+ * produtoService aberto, o refresh nem é tentado e a entrada antiga
+ * continua válida até a obsolescência máxima configurada.
+ * 
+ * A recarga passa pelo mesmo limite adaptativo de concorrência das buscas
+ * dos pedidos: com o serviço de produtos saturado ela é recusada como as
+ * demais chamadas e a entrada atual continua sendo servida.
+ * 
+ * Com a segunda camada (ProdutoDiskStore) habilitada, cada recarga é gravada
+ * também no disco, e o produto que deixou de existir sai das duas camadas:
+ * sem isso o disco guardaria a versão antiga e a devolveria após um reinício.
+ * 
+ * Uma recarga iniciada antes de um evento de alteração do mesmo produto
+ * (AlteracoesProdutos) é descartada: a entrada fica com o valor do evento,
+ * na memória e no disco.
+ */
+@Component
+public class ProdutoCacheLoader implements CacheLoader<Object, Object> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoCacheLoader.class);
+    private static final String PRODUTO_SERVICE = "produtoService";
+    
+    private final ProdutoFeignClient produtoFeignClient;
+    private final LimitadorConcorrenciaAdaptativo limitador;
+    private final CircuitBreaker circuitBreaker;
+    private final ProdutoDiskStore segundaCamada;
+    private final AlteracoesProdutos alteracoes;
+    private final Counter refreshSucesso;
+    private final Counter refreshFalha;
+    private final Counter refreshIgnorado;
+    private final Counter refreshRemovido;
+    private final Counter refreshDescartado;
+    
+    public ProdutoCacheLoader(
+            ProdutoFeignClient produtoFeignClient,
+            LimitadorConcorrenciaAdaptativo limitador,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            ObjectProvider<ProdutoDiskStore> produtoDiskStore,
+            AlteracoesProdutos alteracoes,
+            MeterRegistry meterRegistry) {
+        this.produtoFeignClient = produtoFeignClient;
+        this.limitador = limitador;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(PRODUTO_SERVICE);
+        this.segundaCamada = produtoDiskStore.getIfAvailable();
+        this.alteracoes = alteracoes;
+        this.refreshSucesso = contador(meterRegistry, "sucesso");
+        this.refreshFalha = contador(meterRegistry, "falha");
+        this.refreshIgnorado = contador(meterRegistry, "ignorado");
+        this.refreshRemovido = contador(meterRegistry, "removido");
+        this.refreshDescartado = contador(meterRegistry, "descartado");
+    }
+    
+    @Override
+    public Object load(Object key) {
+        long marca = alteracoes.marca();
+        ProdutoDTO produto = buscar((Long) key);
+        gravarNaSegundaCamada((Long) key, produto, marca);
+        return produto;
+    }
+    
+    @Override
+    public CompletableFuture<Object> asyncReload(Object key, Object oldValue, Executor executor) {
+        if (!circuitBreakerPermiteChamadas()) {
+            refreshIgnorado.increment();
+            logger.debug("Circuit breaker {} aberto: produto {} continua servido do cache", PRODUTO_SERVICE, key);
+            // CancellationException: o Caffeine mantém a entrada atual sem registrar warning
+            return CompletableFuture.failedFuture(new CancellationException("Circuit breaker aberto"));
+        }
+        
+        long marca = alteracoes.marca();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                ProdutoDTO produto = buscar((Long) key);
+                if (alteracoes.alteradoDesde((Long) key, marca)) {
+                    refreshDescartado.increment();
+                    logger.debug("Produto {} alterado por evento durante a recarga: resultado descartado", key);
+                    throw new CancellationException("Produto alterado por evento durante a recarga");
+                }
+                gravarNaSegundaCamada((Long) key, produto, marca);
+                if (produto == null) {
+                    refreshRemovido.increment();
+                } else {
+                    refreshSucesso.increment();
+                }
+                return produto;
+                
+            } catch (CancellationException e) {
+                throw e;
+                
+            } catch (ServicoIndisponivelException e) {
+                refreshIgnorado.increment();
+                logger.debug("Limite de concorrência atingido: produto {} continua servido do cache", key);
+                throw new CancellationException(e.getMessage());
+                
+            } catch (RuntimeException e) {
+                refreshFalha.increment();
+                logger.warn("Falha ao atualizar produto {} no cache: {}", key, e.getMessage());
+                throw e;
+            }
+        }, executor);
+    }
+    
+    /**
+     * Busca o produto no microserviço passando pelo circuit breaker e pelo
+     * limite de concorrência
+     * Retorna null quando o produto não existe mais (a entrada sai do cache)
+     */
+    private ProdutoDTO buscar(Long id) {
+        return circuitBreaker.executeSupplier(() -> {
+            try {
+                return limitador.executar(() -> produtoFeignClient.buscarPorId(id));
+            } catch (FeignException.NotFound | HttpClientErrorException.NotFound e) {
+                logger.info("Produto {} não existe mais: removendo do cache", id);
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * Leva o resultado da recarga ao disco: a nova versão, ou a remoção do
+     * produto que não existe mais. Um evento que chegou durante a gravação
+     * tira o produto do disco, em vez de deixar lá a versão possivelmente antiga
+     */
+    private void gravarNaSegundaCamada(Long id, ProdutoDTO produto, long marca) {
+        if (segundaCamada == null || alteracoes.alteradoDesde(id, marca)) {
+            return;
+        }
+        if (produto != null) {
+            segundaCamada.gravar(produto);
+            if (alteracoes.alteradoDesde(id, marca)) {
+                segundaCamada.remover(id);
+            }
+        } else {
+            segundaCamada.remover(id);
+        }
+    }
+    
+    private boolean circuitBreakerPermiteChamadas() {
+        CircuitBreaker.State estado = circuitBreaker.getState();
+        return estado != CircuitBreaker.State.OPEN && estado != CircuitBreaker.State.FORCED_OPEN;
+    }
+    
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("produtos.cache.refresh")
+                .description("Atualizações em segundo plano do cache de produtos")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,454 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Segunda camada do cache de produtos: log append-only em arquivo mapeado em memória
+ *
+ * Os ProdutoDTO ficam serializados fora do heap (no page cache do sistema
+ * operacional); no heap fica apenas o índice ID → posição. Cada gravação recebe
+ * uma versão crescente e é protegida por CRC32, o que permite reabrir o arquivo
+ * após uma queda: a leitura para no primeiro registro incompleto ou corrompido.
+ * Quando os registros substituídos passam a ocupar mais espaço que os vivos, o
+ * arquivo é compactado em um arquivo temporário e trocado por move atômico.
+ *
+ * Leituras não bloqueiam; gravações, remoções e compactação são serializadas.
+ */
+public class ProdutoDiskStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoDiskStore.class);
+
+    private static final int MAGICO = 0x50524F44; // "PROD"
+    private static final int VERSAO_FORMATO = 1;
+    private static final int TAMANHO_CABECALHO_ARQUIVO = 16;
+    private static final int TAMANHO_CABECALHO_REGISTRO = 8; // tamanho do corpo + CRC32
+    private static final byte TIPO_VALOR = 1;
+    private static final byte TIPO_REMOCAO = 2;
+    private static final int TAMANHO_INICIAL = 1 << 20;
+    private static final long MINIMO_PARA_COMPACTAR = 1 << 20;
+
+    private final Path arquivo;
+    private final long tamanhoMaximo;
+    private final Map<Long, Localizacao> indice = new ConcurrentHashMap<>();
+
+    private FileChannel canal;
+    private volatile MappedByteBuffer buffer;
+    private int posicaoEscrita;
+    private long ultimaVersao;
+    private long bytesMortos;
+    private boolean aberto;
+
+    /**
+     * Posição de um registro vivo; guarda o buffer em que foi gravado para que
+     * leituras concorrentes com uma compactação continuem consistentes
+     */
+    private record Localizacao(MappedByteBuffer buffer, int posicao, int tamanhoCorpo, long versao) {
+
+        int tamanhoTotal() {
+            return TAMANHO_CABECALHO_REGISTRO + tamanhoCorpo;
+        }
+    }
+
+    /**
+     * Entrada lida do disco com a versão e o instante da gravação
+     */
+    public record EntradaDisco(ProdutoDTO produto, long versao, Instant gravadoEm) {
+    }
+
+    public ProdutoDiskStore(Path arquivo, long tamanhoMaximo) {
+        if (tamanhoMaximo <= TAMANHO_CABECALHO_ARQUIVO || tamanhoMaximo > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tamanho máximo do cache em disco inválido: " + tamanhoMaximo);
+        }
+        this.arquivo = arquivo;
+        this.tamanhoMaximo = tamanhoMaximo;
+        abrir();
+    }
+
+    public Optional<EntradaDisco> buscar(Long id) {
+        Localizacao localizacao = indice.get(id);
+        if (localizacao == null) {
+            return Optional.empty();
+        }
+
+        byte[] corpo = new byte[localizacao.tamanhoCorpo()];
+        localizacao.buffer().get(localizacao.posicao() + TAMANHO_CABECALHO_REGISTRO, corpo);
+        ByteBuffer leitura = ByteBuffer.wrap(corpo);
+        leitura.getLong(); // id
+        long versao = leitura.getLong();
+        Instant gravadoEm = Instant.ofEpochMilli(leitura.getLong());
+        leitura.get(); // tipo
+        return Optional.of(new EntradaDisco(lerProduto(leitura), versao, gravadoEm));
+    }
+
+    /**
+     * Grava a versão atual do produto
+     *
+     * @return false quando o arquivo está cheio mesmo após compactar (produto não gravado)
+     */
+    public synchronized boolean gravar(ProdutoDTO produto) {
+        verificarAberto();
+        byte[] corpo = serializar(produto.id(), ultimaVersao + 1, Instant.now(), TIPO_VALOR, produto);
+        if (!garantirEspaco(corpo.length)) {
+            return false;
+        }
+
+        ultimaVersao++;
+        Localizacao nova = anexar(corpo, ultimaVersao);
+        Localizacao anterior = indice.put(produto.id(), nova);
+        if (anterior != null) {
+            bytesMortos += anterior.tamanhoTotal();
+        }
+        compactarSeNecessario();
+        return true;
+    }
+
+    public synchronized void remover(Long id) {
+        verificarAberto();
+        if (!indice.containsKey(id)) {
+            return;
+        }
+
+        // Marca de remoção: sem ela o registro voltaria ao reabrir o arquivo
+        byte[] corpo = serializar(id, ultimaVersao + 1, Instant.now(), TIPO_REMOCAO, null);
+        if (!garantirEspaco(corpo.length)) {
+            // Sem espaço nem para a marca: descarta tudo em vez de arriscar voltar um valor removido
+            limpar();
+            return;
+        }
+
+        ultimaVersao++;
+        anexar(corpo, ultimaVersao);
+        Localizacao anterior = indice.remove(id);
+        if (anterior != null) {
+            bytesMortos += anterior.tamanhoTotal();
+        }
+        bytesMortos += TAMANHO_CABECALHO_REGISTRO + corpo.length;
+        compactarSeNecessario();
+    }
+
+    public synchronized void limpar() {
+        verificarAberto();
+        indice.clear();
+        reescrever();
+    }
+
+    /**
+     * Reescreve o arquivo só com os registros vivos (mantendo as versões)
+     */
+    public synchronized void compactar() {
+        verificarAberto();
+        long antes = posicaoEscrita;
+        reescrever();
+        logger.info("Cache de produtos em disco compactado: {} -> {} bytes ({} produtos)",
+                antes, posicaoEscrita, indice.size());
+    }
+
+    public int getQuantidade() {
+        return indice.size();
+    }
+
+    public synchronized long getBytesUsados() {
+        return posicaoEscrita;
+    }
+
+    public synchronized long getBytesMortos() {
+        return bytesMortos;
+    }
+
+    public Optional<Long> versao(Long id) {
+        return Optional.ofNullable(indice.get(id)).map(Localizacao::versao);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!aberto) {
+            return;
+        }
+        aberto = false;
+        buffer.force();
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao fechar cache de produtos em disco", e);
+        }
+    }
+
+    private void abrir() {
+        try {
+            Files.createDirectories(arquivo.toAbsolutePath().getParent());
+            // Sobra de uma compactação interrompida: o arquivo original continua íntegro
+            Files.deleteIfExists(arquivoTemporario());
+
+            boolean novo = !Files.exists(arquivo) || Files.size(arquivo) < TAMANHO_CABECALHO_ARQUIVO;
+            canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long capacidade = Math.min(tamanhoMaximo, Math.max(TAMANHO_INICIAL, canal.size()));
+            buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, capacidade);
+            aberto = true;
+
+            if (novo || buffer.getInt(0) != MAGICO || buffer.getInt(4) != VERSAO_FORMATO) {
+                if (!novo) {
+                    logger.warn("Cache de produtos em disco {} com formato desconhecido: recriando", arquivo);
+                }
+                escreverCabecalho(buffer);
+                posicaoEscrita = TAMANHO_CABECALHO_ARQUIVO;
+                return;
+            }
+
+            recuperar();
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao abrir cache de produtos em disco " + arquivo, e);
+        }
+    }
+
+    /**
+     * Reconstrói o índice lendo o log do início; o primeiro registro incompleto
+     * (gravação interrompida) ou com CRC inválido marca o fim dos dados válidos
+     */
+    private void recuperar() {
+        int posicao = TAMANHO_CABECALHO_ARQUIVO;
+        int capacidade = buffer.capacity();
+        CRC32 crc = new CRC32();
+        long registrosLidos = 0;
+
+        while (posicao + TAMANHO_CABECALHO_REGISTRO <= capacidade) {
+            int tamanhoCorpo = buffer.getInt(posicao);
+            if (tamanhoCorpo <= 0 || posicao + TAMANHO_CABECALHO_REGISTRO + (long) tamanhoCorpo > capacidade) {
+                break;
+            }
+
+            byte[] corpo = new byte[tamanhoCorpo];
+            buffer.get(posicao + TAMANHO_CABECALHO_REGISTRO, corpo);
+            crc.reset();
+            crc.update(corpo);
+            if ((int) crc.getValue() != buffer.getInt(posicao + 4)) {
+                break;
+            }
+
+            ByteBuffer leitura = ByteBuffer.wrap(corpo);
+            long id = leitura.getLong();
+            long versao = leitura.getLong();
+            leitura.getLong(); // gravadoEm
+            byte tipo = leitura.get();
+
+            Localizacao anterior = tipo == TIPO_VALOR
+                    ? indice.put(id, new Localizacao(buffer, posicao, tamanhoCorpo, versao))
+                    : indice.remove(id);
+            if (anterior != null) {
+                bytesMortos += anterior.tamanhoTotal();
+            }
+            if (tipo == TIPO_REMOCAO) {
+                bytesMortos += TAMANHO_CABECALHO_REGISTRO + tamanhoCorpo;
+            }
+            ultimaVersao = Math.max(ultimaVersao, versao);
+            posicao += TAMANHO_CABECALHO_REGISTRO + tamanhoCorpo;
+            registrosLidos++;
+        }
+
+        posicaoEscrita = posicao;
+        if (posicao + 4 <= capacidade && buffer.getInt(posicao) != 0) {
+            // Cauda corrompida: zera para que restos não sejam lidos como registros depois
+            logger.warn("Cache de produtos em disco {}: descartando cauda corrompida a partir de {}", arquivo, posicao);
+            for (int i = posicao; i < capacidade; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        logger.info("Cache de produtos em disco {} reaberto: {} produtos ({} registros lidos)",
+                arquivo, indice.size(), registrosLidos);
+    }
+
+    private Localizacao anexar(byte[] corpo, long versao) {
+        CRC32 crc = new CRC32();
+        crc.update(corpo);
+        int posicao = posicaoEscrita;
+
+        // Corpo e CRC antes do tamanho: um tamanho válido só aparece com o registro completo
+        buffer.put(posicao + TAMANHO_CABECALHO_REGISTRO, corpo);
+        buffer.putInt(posicao + 4, (int) crc.getValue());
+        buffer.putInt(posicao, corpo.length);
+        posicaoEscrita = posicao + TAMANHO_CABECALHO_REGISTRO + corpo.length;
+        return new Localizacao(buffer, posicao, corpo.length, versao);
+    }
+
+    /**
+     * Garante espaço para o registro: compacta e/ou aumenta o mapeamento até o tamanho máximo
+     */
+    private boolean garantirEspaco(int tamanhoCorpo) {
+        long necessario = (long) posicaoEscrita + TAMANHO_CABECALHO_REGISTRO + tamanhoCorpo;
+        if (necessario <= buffer.capacity()) {
+            return true;
+        }
+        if (bytesMortos > 0) {
+            reescrever();
+            necessario = (long) posicaoEscrita + TAMANHO_CABECALHO_REGISTRO + tamanhoCorpo;
+            if (necessario <= buffer.capacity()) {
+                return true;
+            }
+        }
+        if (necessario > tamanhoMaximo) {
+            logger.warn("Cache de produtos em disco cheio ({} bytes): gravação ignorada", tamanhoMaximo);
+            return false;
+        }
+
+        long novaCapacidade = Math.min(tamanhoMaximo, Math.max(necessario, (long) buffer.capacity() * 2));
+        try {
+            // O mapeamento anterior continua válido para as localizações que o referenciam
+            buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, novaCapacidade);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao aumentar cache de produtos em disco", e);
+        }
+        return true;
+    }
+
+    private void compactarSeNecessario() {
+        if (bytesMortos >= MINIMO_PARA_COMPACTAR && bytesMortos > posicaoEscrita - bytesMortos) {
+            compactar();
+        }
+    }
+
+    /**
+     * Copia os registros vivos para um arquivo temporário e o troca pelo atual
+     * com move atômico: uma queda no meio deixa o arquivo original intacto
+     */
+    private void reescrever() {
+        Path temporario = arquivoTemporario();
+        try {
+            long vivos = indice.values().stream().mapToLong(Localizacao::tamanhoTotal).sum();
+            long capacidade = Math.min(tamanhoMaximo,
+                    Math.max(TAMANHO_INICIAL, (TAMANHO_CABECALHO_ARQUIVO + vivos) * 2));
+
+            FileChannel novoCanal = FileChannel.open(temporario, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer novoBuffer = novoCanal.map(FileChannel.MapMode.READ_WRITE, 0, capacidade);
+            escreverCabecalho(novoBuffer);
+
+            int posicao = TAMANHO_CABECALHO_ARQUIVO;
+            Map<Long, Localizacao> novoIndice = new HashMap<>();
+            for (Map.Entry<Long, Localizacao> entrada : indice.entrySet()) {
+                Localizacao antiga = entrada.getValue();
+                byte[] registro = new byte[antiga.tamanhoTotal()];
+                antiga.buffer().get(antiga.posicao(), registro);
+                novoBuffer.put(posicao, registro);
+                novoIndice.put(entrada.getKey(),
+                        new Localizacao(novoBuffer, posicao, antiga.tamanhoCorpo(), antiga.versao()));
+                posicao += registro.length;
+            }
+            novoBuffer.force();
+
+            Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            canal.close();
+            canal = novoCanal;
+            buffer = novoBuffer;
+            indice.putAll(novoIndice);
+            posicaoEscrita = posicao;
+            bytesMortos = 0;
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao compactar cache de produtos em disco", e);
+        }
+    }
+
+    private Path arquivoTemporario() {
+        return arquivo.resolveSibling(arquivo.getFileName() + ".compactando");
+    }
+
+    private void verificarAberto() {
+        if (!aberto) {
+            throw new IllegalStateException("Cache de produtos em disco fechado");
+        }
+    }
+
+    private static void escreverCabecalho(MappedByteBuffer destino) {
+        destino.putInt(0, MAGICO);
+        destino.putInt(4, VERSAO_FORMATO);
+        destino.putInt(TAMANHO_CABECALHO_ARQUIVO, 0);
+    }
+
+    private static byte[] serializar(Long id, long versao, Instant gravadoEm, byte tipo, ProdutoDTO produto) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream saida = new DataOutputStream(bytes);
+            saida.writeLong(id);
+            saida.writeLong(versao);
+            saida.writeLong(gravadoEm.toEpochMilli());
+            saida.writeByte(tipo);
+            if (produto != null) {
+                escreverTexto(saida, produto.nome());
+                escreverTexto(saida, produto.descricao());
+                escreverTexto(saida, produto.preco() != null ? produto.preco().toString() : null);
+                saida.writeBoolean(produto.estoque() != null);
+                saida.writeInt(produto.estoque() != null ? produto.estoque() : 0);
+                escreverTexto(saida, produto.categoria());
+                escreverTexto(saida, produto.dataCriacao() != null ? produto.dataCriacao().toString() : null);
+            }
+            saida.flush();
+            return bytes.toByteArray();
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ProdutoDTO lerProduto(ByteBuffer leitura) {
+        long id = leitura.getLong(0);
+        String nome = lerTexto(leitura);
+        String descricao = lerTexto(leitura);
+        String preco = lerTexto(leitura);
+        boolean temEstoque = leitura.get() != 0;
+        int estoque = leitura.getInt();
+        String categoria = lerTexto(leitura);
+        String dataCriacao = lerTexto(leitura);
+        return new ProdutoDTO(id, nome, descricao,
+                preco != null ? new BigDecimal(preco) : null,
+                temEstoque ? estoque : null,
+                categoria,
+                dataCriacao != null ? LocalDateTime.parse(dataCriacao) : null);
+    }
+
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        if (texto == null) {
+            saida.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        saida.writeInt(bytes.length);
+        saida.write(bytes);
+    }
+
+    private static String lerTexto(ByteBuffer leitura) {
+        int tamanho = leitura.getInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        String texto = new String(leitura.array(), leitura.arrayOffset() + leitura.position(), tamanho,
+                StandardCharsets.UTF_8);
+        leitura.position(leitura.position() + tamanho);
+        return texto;
+    }
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.infrastructure.client.ProdutoFeignClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cache negativo de produtos: evita chamadas remotas para IDs que não existem
+ * 
+ * - Tombstones: um 404 do microserviço de produtos é lembrado por um TTL curto,
+ *   com limite de tamanho próprio (separado do cache "produtos")
+ * - Filtro de Bloom (opcional): carregado com os IDs do catálogo e reconstruído
+ *   periodicamente; um ID fora do filtro é rejeitado sem nenhuma chamada remota.
+ *   Produtos criados depois da carga entram pelo ProdutoAlteradoListener.
+ */
+@Component
+public class ProdutosInexistentesCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProdutosInexistentesCache.class);
+    
+    private final ProdutoFeignClient produtoFeignClient;
+    private final Cache<Long, Boolean> tombstones;
+    private final boolean filtroBloomHabilitado;
+    private final long elementosEsperados;
+    private final double taxaFalsoPositivo;
+    private final Counter rejeitadosPorTombstone;
+    private final Counter rejeitadosPeloFiltro;
+    
+    private volatile FiltroBloom filtroBloom;
+    private volatile FiltroBloom filtroEmConstrucao;
+    
+    public ProdutosInexistentesCache(
+            ProdutoFeignClient produtoFeignClient,
+            MeterRegistry meterRegistry,
+            @Value("${produtos.cache.inexistentes.ttl:1m}") Duration ttl,
+            @Value("${produtos.cache.inexistentes.maximo-entradas:10000}") long maximoEntradas,
+            @Value("${produtos.filtro-bloom.habilitado:false}") boolean filtroBloomHabilitado,
+            @Value("${produtos.filtro-bloom.elementos-esperados:100000}") long elementosEsperados,
+            @Value("${produtos.filtro-bloom.taxa-falso-positivo:0.01}") double taxaFalsoPositivo) {
+        this.produtoFeignClient = produtoFeignClient;
+        this.tombstones = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximoEntradas)
+                .build();
+        this.filtroBloomHabilitado = filtroBloomHabilitado;
+        this.elementosEsperados = elementosEsperados;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+        this.rejeitadosPorTombstone = contador(meterRegistry, "tombstone");
+        this.rejeitadosPeloFiltro = contador(meterRegistry, "filtro-bloom");
+        Gauge.builder("produtos.inexistentes.tombstones", tombstones, Cache::estimatedSize)
+                .description("Produtos inexistentes lembrados pelo cache negativo")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Indica se o produto com certeza não existe (não vale a chamada remota)
+     */
+    public boolean sabidamenteInexistente(Long id) {
+        FiltroBloom filtro = filtroBloom;
+        if (filtro != null && !filtro.podeConter(id)) {
+            rejeitadosPeloFiltro.increment();
+            logger.debug("Produto {} rejeitado pelo filtro de Bloom", id);
+            return true;
+        }
+        if (tombstones.getIfPresent(id) != null) {
+            rejeitadosPorTombstone.increment();
+            logger.debug("Produto {} rejeitado pelo cache negativo", id);
+            return true;
+        }
+        return false;
+    }
+    
+    public void registrarInexistente(Long id) {
+        tombstones.put(id, Boolean.TRUE);
+    }
+    
+    public void registrarExistente(Long id) {
+        tombstones.invalidate(id);
+        FiltroBloom filtro = filtroBloom;
+        if (filtro != null) {
+            filtro.adicionar(id);
+        }
+        FiltroBloom emConstrucao = filtroEmConstrucao;
+        if (emConstrucao != null) {
+            emConstrucao.adicionar(id);
+        }
+    }
+    
+    /**
+     * Reconstrói o filtro de Bloom com os IDs atuais do catálogo
+     * Em caso de falha o filtro anterior continua valendo (sem filtro, só tombstones)
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${produtos.filtro-bloom.intervalo-reconstrucao:3600000}")
+    public void reconstruirFiltroBloom() {
+        if (!filtroBloomHabilitado) {
+            return;
+        }
+        
+        try {
+            // Produtos criados durante a listagem entram pelo registrarExistente
+            FiltroBloom novoFiltro = new FiltroBloom(elementosEsperados, taxaFalsoPositivo);
+            filtroEmConstrucao = novoFiltro;
+            List<Long> ids = produtoFeignClient.listarIds();
+            if (ids.size() > elementosEsperados) {
+                logger.warn("Catálogo com {} produtos excede os {} esperados pelo filtro de Bloom: "
+                        + "a taxa de falso positivo será maior", ids.size(), elementosEsperados);
+            }
+            ids.forEach(novoFiltro::adicionar);
+            
+            filtroBloom = novoFiltro;
+            logger.info("Filtro de Bloom de produtos reconstruído com {} IDs", ids.size());
+            
+        } catch (Exception e) {
+            logger.warn("Falha ao reconstruir filtro de Bloom de produtos: {}", e.getMessage());
+            
+        } finally {
+            filtroEmConstrucao = null;
+        }
+    }
+    
+    private static Counter contador(MeterRegistry meterRegistry, String origem) {
+        return Counter.builder("produtos.inexistentes.rejeitados")
+                .description("Buscas de produtos inexistentes respondidas sem chamada remota")
+                .tag("origem", origem)
+                .register(meterRegistry);
+    }
+}
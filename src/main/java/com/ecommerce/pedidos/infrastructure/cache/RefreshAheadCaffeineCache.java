@@ -0,0 +1,25 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Cache Caffeine com refresh-ahead exposto ao Spring Cache
+ * 
+ * O CaffeineCache padrão usa LoadingCache.get() nas leituras de um cache com
+ * loader, o que faria o loader buscar cada ausência (inclusive nas buscas em
+ * lote). Aqui a leitura é só getIfPresent(): uma ausência segue o fluxo normal
+ * do ProdutoServiceAdapter (retry, circuit breaker, coalescência) e uma entrada
+ * vencida é servida enquanto o loader a atualiza em segundo plano.
+ */
+public class RefreshAheadCaffeineCache extends CaffeineCache {
+    
+    public RefreshAheadCaffeineCache(String name, LoadingCache<Object, Object> cache) {
+        super(name, cache, false);
+    }
+    
+    @Override
+    protected Object lookup(Object key) {
+        return getNativeCache().getIfPresent(key);
+    }
+}
@@ -0,0 +1,373 @@
+package com.ecommerce.pedidos.infrastructure.client;
+
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Busca de produto com hedging entre o endpoint principal e o de fallback
+ *
+ * Se o principal não responde dentro do percentil configurado da sua latência
+ * observada (ex: p95), a mesma busca é enviada ao fallback e vale a primeira
+ * resposta. Um 404 é resposta válida; só uma falha faz esperar pelo outro.
+ *
+ * O principal é chamado sem o fallback do Feign (ProdutoFeignClientSemFallback):
+ * quando ele falha sem hedge em andamento, o fallback é chamado aqui. Assim o
+ * fallback recebe no máximo uma chamada por busca.
+ *
+ * O orçamento limita a carga extra: cada busca elegível (rápida ou lenta)
+ * acumula "orcamento-percentual" de um hedge, e cada hedge disparado consome
+ * um inteiro (saldo máximo limitado). Assim os hedges ficam perto desse
+ * percentual das buscas.
+ *
+ * A latência do principal vai para um histograma sem trava, e só com o hedging
+ * habilitado. Chamadas canceladas (o hedge venceu) ficam de fora: a latência
+ * delas seria cortada e puxaria o percentil para baixo.
+ *
+ * Nenhuma chamada (hedge ou fallback) começa depois que o prazo da requisição
+ * venceu, e a espera pelas respostas termina com PrazoExcedidoException no prazo.
+ */
+@Component
+public class HedgingProdutoClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingProdutoClient.class);
+    private static final int AMOSTRAS_MINIMAS = 20;
+    private static final int RECALCULAR_A_CADA = 50;
+    private static final double SALDO_MAXIMO = 10;
+
+    private final ProdutoFeignClient principal;
+    private final ProdutoFeignClient fallback;
+    private final boolean habilitado;
+    private final double percentil;
+    private final long atrasoMinimoNanos;
+    private final double orcamentoPorBusca;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final HistogramaLatencias latencias;
+    private volatile long atrasoAtualNanos;
+    private double saldoOrcamento = SALDO_MAXIMO;
+
+    private final Counter buscas;
+    private final Counter hedgesDisparados;
+    private final Counter hedgesSemOrcamento;
+    private final Counter vitoriasPrincipal;
+    private final Counter vitoriasFallback;
+
+    public HedgingProdutoClient(
+            ProdutoFeignClientSemFallback principal,
+            @Qualifier("produtoFeignClientFallback") ProdutoFeignClient fallback,
+            MeterRegistry meterRegistry,
+            @Value("${produto.service.hedging.habilitado:false}") boolean habilitado,
+            @Value("${produto.service.hedging.percentil:0.95}") double percentil,
+            @Value("${produto.service.hedging.atraso-minimo:50ms}") Duration atrasoMinimo,
+            @Value("${produto.service.hedging.orcamento-percentual:10}") double orcamentoPercentual,
+            @Value("${produto.service.hedging.janela-amostras:1000}") int janelaAmostras) {
+        this.principal = principal;
+        this.fallback = fallback;
+        this.habilitado = habilitado;
+        this.percentil = percentil;
+        this.atrasoMinimoNanos = atrasoMinimo.toNanos();
+        this.atrasoAtualNanos = atrasoMinimoNanos;
+        this.orcamentoPorBusca = orcamentoPercentual / 100.0;
+        this.latencias = new HistogramaLatencias(janelaAmostras);
+
+        this.buscas = Counter.builder("produtos.hedge.buscas")
+                .description("Buscas de produto elegíveis a hedging")
+                .register(meterRegistry);
+        this.hedgesDisparados = contador(meterRegistry, "produtos.hedge", "resultado", "disparado");
+        this.hedgesSemOrcamento = contador(meterRegistry, "produtos.hedge", "resultado", "sem-orcamento");
+        this.vitoriasPrincipal = contador(meterRegistry, "produtos.hedge.vencedor", "origem", "principal");
+        this.vitoriasFallback = contador(meterRegistry, "produtos.hedge.vencedor", "origem", "fallback");
+        Gauge.builder("produtos.hedge.atraso", this, hedging -> hedging.getAtraso().toMillis())
+                .description("Atraso atual antes de enviar a busca ao fallback")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public ProdutoDTO buscarPorId(Long id) {
+        return buscarPorId(id, Prazo.semLimite());
+    }
+
+    public ProdutoDTO buscarPorId(Long id, Prazo prazo) {
+        if (!habilitado) {
+            return principalOuFallback(chamarPrincipal(id), id, prazo);
+        }
+
+        buscas.increment();
+        acumularOrcamento();
+        CompletionService<Resposta> respostas = new ExecutorCompletionService<>(executor);
+        AtomicBoolean principalCancelado = new AtomicBoolean();
+        Future<Resposta> chamadaPrincipal = respostas.submit(() -> chamarPrincipalMedindo(id, principalCancelado));
+        Future<Resposta> chamadaFallback = null;
+
+        try {
+            long atrasoNanos = prazo.limitarNanos(getAtraso().toNanos());
+            Future<Resposta> primeira = respostas.poll(atrasoNanos, TimeUnit.NANOSECONDS);
+            if (primeira != null) {
+                return principalOuFallback(primeira.get(), id, prazo);
+            }
+            prazo.verificar("hedge-produto");
+
+            if (!consumirOrcamento()) {
+                hedgesSemOrcamento.increment();
+                return principalOuFallback(aguardar(chamadaPrincipal, prazo), id, prazo);
+            }
+
+            hedgesDisparados.increment();
+            logger.debug("Produto {} sem resposta em {} ms: enviando hedge ao fallback", id, getAtraso().toMillis());
+            chamadaFallback = respostas.submit(() -> chamarFallback(id));
+
+            Resposta resposta = proxima(respostas, prazo);
+            if (!resposta.sucesso()) {
+                Resposta outra = proxima(respostas, prazo);
+                // Os dois falharam: vale a falha do fallback, como no fallback do Feign
+                resposta = outra.sucesso() || outra.doFallback() ? outra : resposta;
+            }
+            if (resposta.sucesso()) {
+                (resposta.doFallback() ? vitoriasFallback : vitoriasPrincipal).increment();
+                return resposta.produto();
+            }
+            return resposta.lancar();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Busca do produto " + id + " interrompida", e);
+
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erro inesperado na busca do produto " + id, e.getCause());
+
+        } finally {
+            principalCancelado.set(true);
+            chamadaPrincipal.cancel(true);
+            if (chamadaFallback != null) {
+                chamadaFallback.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Atraso antes do hedge: percentil da latência do principal (nunca abaixo do mínimo)
+     */
+    public Duration getAtraso() {
+        return Duration.ofNanos(atrasoAtualNanos);
+    }
+
+    /**
+     * Resposta do principal ou, se ele falhou, a do fallback (o que o fallback do Feign faria)
+     */
+    private ProdutoDTO principalOuFallback(Resposta principal, Long id, Prazo prazo) {
+        if (principal.sucesso()) {
+            return principal.produto();
+        }
+        if (prazo.esgotado()) {
+            throw new PrazoExcedidoException("fallback-produto", prazo.getTotal(), principal.erro());
+        }
+        logger.debug("Principal falhou na busca do produto {} ({}): usando o fallback",
+                id, principal.erro().getMessage());
+        return chamarFallback(id).lancarOuRetornar();
+    }
+
+    /**
+     * Próxima resposta (principal ou fallback), esperando no máximo até o prazo
+     */
+    private static Resposta proxima(CompletionService<Resposta> respostas, Prazo prazo)
+            throws InterruptedException, ExecutionException {
+        if (!prazo.isLimitado()) {
+            return respostas.take().get();
+        }
+        Future<Resposta> resposta = respostas.poll(prazo.restante().toNanos(), TimeUnit.NANOSECONDS);
+        if (resposta == null) {
+            throw new PrazoExcedidoException("aguardando-produto", prazo.getTotal());
+        }
+        return resposta.get();
+    }
+
+    private static Resposta aguardar(Future<Resposta> chamada, Prazo prazo)
+            throws InterruptedException, ExecutionException {
+        if (!prazo.isLimitado()) {
+            return chamada.get();
+        }
+        try {
+            return chamada.get(prazo.restante().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new PrazoExcedidoException("aguardando-produto", prazo.getTotal());
+        }
+    }
+
+    /**
+     * Chamada ao principal com a latência registrada, a menos que tenha sido cancelada
+     */
+    private Resposta chamarPrincipalMedindo(Long id, AtomicBoolean cancelada) {
+        long inicio = System.nanoTime();
+        Resposta resposta = chamarPrincipal(id);
+        if (!cancelada.get()) {
+            registrarLatencia(System.nanoTime() - inicio);
+        }
+        return resposta;
+    }
+
+    private Resposta chamarPrincipal(Long id) {
+        try {
+            return Resposta.de(principal.buscarPorId(id), false);
+        } catch (FeignException.NotFound e) {
+            // Só sem dismiss404: com ele, o 404 já chega como null
+            return Resposta.de(null, false);
+        } catch (RuntimeException e) {
+            return Resposta.falha(e, false);
+        }
+    }
+
+    private Resposta chamarFallback(Long id) {
+        try {
+            return Resposta.de(fallback.buscarPorId(id), true);
+        } catch (HttpClientErrorException.NotFound e) {
+            return Resposta.de(null, true);
+        } catch (RuntimeException e) {
+            return Resposta.falha(e, true);
+        }
+    }
+
+    private void registrarLatencia(long latenciaNanos) {
+        long totalAmostras = latencias.registrar(latenciaNanos);
+        if (totalAmostras >= AMOSTRAS_MINIMAS && totalAmostras % RECALCULAR_A_CADA == 0) {
+            atrasoAtualNanos = Math.max(atrasoMinimoNanos, latencias.percentil(percentil));
+        }
+    }
+
+    private synchronized void acumularOrcamento() {
+        saldoOrcamento = Math.min(SALDO_MAXIMO, saldoOrcamento + orcamentoPorBusca);
+    }
+
+    private synchronized boolean consumirOrcamento() {
+        if (saldoOrcamento < 1) {
+            return false;
+        }
+        saldoOrcamento -= 1;
+        return true;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String nome, String tag, String valor) {
+        return Counter.builder(nome)
+                .description("Hedging de buscas de produto entre principal e fallback")
+                .tag(tag, valor)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resposta de um dos endpoints: produto (null quando inexistente) ou erro
+     */
+    private record Resposta(ProdutoDTO produto, RuntimeException erro, boolean sucesso, boolean doFallback) {
+
+        static Resposta de(ProdutoDTO produto, boolean doFallback) {
+            return new Resposta(produto, null, true, doFallback);
+        }
+
+        static Resposta falha(RuntimeException erro, boolean doFallback) {
+            return new Resposta(null, erro, false, doFallback);
+        }
+
+        ProdutoDTO lancar() {
+            throw erro;
+        }
+
+        ProdutoDTO lancarOuRetornar() {
+            return sucesso ? produto : lancar();
+        }
+    }
+
+    /**
+     * Histograma de latências sem trava: faixas logarítmicas de 10% (a partir
+     * de 1 µs) com contadores atômicos. A cada "janela" amostras as contagens
+     * caem pela metade, para o percentil acompanhar a latência recente.
+     */
+    static final class HistogramaLatencias {
+
+        private static final double LOG_LARGURA_FAIXA = Math.log(1.1);
+        private static final int FAIXAS = 200;
+
+        private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+        private final AtomicLong amostras = new AtomicLong();
+        private final int janela;
+
+        HistogramaLatencias(int janela) {
+            this.janela = Math.max(1, janela);
+        }
+
+        /**
+         * @return Total de amostras registradas até agora
+         */
+        long registrar(long latenciaNanos) {
+            contagens.incrementAndGet(faixa(latenciaNanos));
+            long total = amostras.incrementAndGet();
+            if (total % janela == 0) {
+                for (int i = 0; i < FAIXAS; i++) {
+                    contagens.getAndUpdate(i, contagem -> contagem / 2);
+                }
+            }
+            return total;
+        }
+
+        /**
+         * Limite superior da faixa que contém o percentil (0 sem amostras)
+         */
+        long percentil(double percentil) {
+            long[] copia = new long[FAIXAS];
+            long soma = 0;
+            for (int i = 0; i < FAIXAS; i++) {
+                copia[i] = contagens.get(i);
+                soma += copia[i];
+            }
+            if (soma == 0) {
+                return 0;
+            }
+
+            long alvo = Math.max(1, (long) Math.ceil(percentil * soma));
+            long acumulado = 0;
+            for (int i = 0; i < FAIXAS; i++) {
+                acumulado += copia[i];
+                if (acumulado >= alvo) {
+                    return limiteSuperiorNanos(i);
+                }
+            }
+            return limiteSuperiorNanos(FAIXAS - 1);
+        }
+
+        private static int faixa(long latenciaNanos) {
+            long micros = Math.max(1, latenciaNanos / 1_000);
+            return (int) Math.min(FAIXAS - 1, Math.log(micros) / LOG_LARGURA_FAIXA);
+        }
+
+        private static long limiteSuperiorNanos(int faixa) {
+            return (long) (Math.exp((faixa + 1) * LOG_LARGURA_FAIXA) * 1_000);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ecommerce.pedidos.infrastructure.client;
+
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.exception.ServicoIndisponivelException;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Limite adaptativo de chamadas simultâneas ao microserviço de produtos (AIMD)
+ * 
+ * - Aumento aditivo: cada chamada rápida (abaixo da latência alvo) com o limite
+ *   em uso soma 1 ao limite
+ * - Redução multiplicativa: uma chamada lenta ou com falha multiplica o limite
+ *   pelo fator de redução, no máximo uma vez por "rodada": só reduz a chamada
+ *   iniciada depois da última redução (as que já estavam em andamento viram a
+ *   mesma sobrecarga e não reduzem de novo)
+ * 
+ * Acima do limite a chamada espera no máximo "esperaMaxima" por uma vaga e
+ * então é recusada com ServicoIndisponivelException, sem chegar ao serviço.
+ * Cada tentativa do @Retry passa pelo limitador, e a recusa não é repetida.
+ * A espera por vaga nunca passa do prazo da requisição: se ele vence antes,
+ * a chamada termina com PrazoExcedidoException.
+ */
+@Component
+public class LimitadorConcorrenciaAdaptativo {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LimitadorConcorrenciaAdaptativo.class);
+    
+    private final boolean habilitado;
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final long latenciaAlvoNanos;
+    private final double fatorReducao;
+    private final long esperaMaximaNanos;
+    private final Counter rejeicoes;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition vagaLiberada = lock.newCondition();
+    private double limite;
+    private int emAndamento;
+    private long ultimaReducaoNanos = System.nanoTime();
+    
+    public LimitadorConcorrenciaAdaptativo(
+            MeterRegistry meterRegistry,
+            @Value("${produto.service.limite-concorrencia.habilitado:true}") boolean habilitado,
+            @Value("${produto.service.limite-concorrencia.inicial:20}") int limiteInicial,
+            @Value("${produto.service.limite-concorrencia.minimo:2}") int limiteMinimo,
+            @Value("${produto.service.limite-concorrencia.maximo:200}") int limiteMaximo,
+            @Value("${produto.service.limite-concorrencia.latencia-alvo:500ms}") Duration latenciaAlvo,
+            @Value("${produto.service.limite-concorrencia.fator-reducao:0.9}") double fatorReducao,
+            @Value("${produto.service.limite-concorrencia.espera-maxima:50ms}") Duration esperaMaxima) {
+        this.habilitado = habilitado;
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.latenciaAlvoNanos = latenciaAlvo.toNanos();
+        this.fatorReducao = fatorReducao;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.limite = Math.max(limiteMinimo, Math.min(limiteMaximo, limiteInicial));
+        
+        this.rejeicoes = Counter.builder("produtos.limite.concorrencia.rejeicoes")
+                .description("Chamadas ao microserviço de produtos recusadas pelo limite de concorrência")
+                .register(meterRegistry);
+        Gauge.builder("produtos.limite.concorrencia", this, LimitadorConcorrenciaAdaptativo::getLimite)
+                .description("Limite atual de chamadas simultâneas ao microserviço de produtos")
+                .register(meterRegistry);
+        Gauge.builder("produtos.limite.concorrencia.em.andamento", this, LimitadorConcorrenciaAdaptativo::getEmAndamento)
+                .description("Chamadas ao microserviço de produtos em andamento")
+                .register(meterRegistry);
+    }
+    
+    public <T> T executar(Supplier<T> chamada) {
+        return executar(chamada, Prazo.semLimite());
+    }
+    
+    public <T> T executar(Supplier<T> chamada, Prazo prazo) {
+        prazo.verificar("chamada-remota");
+        if (!habilitado) {
+            return chamada.get();
+        }
+        
+        adquirir(prazo);
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            T resultado = chamada.get();
+            sucesso = true;
+            return resultado;
+            
+        } catch (FeignException.NotFound | HttpClientErrorException.NotFound e) {
+            // 404 é resposta normal do serviço (principal ou fallback), não sinal de sobrecarga
+            sucesso = true;
+            throw e;
+            
+        } finally {
+            liberar(inicio, sucesso);
+        }
+    }
+    
+    public int getLimite() {
+        lock.lock();
+        try {
+            return (int) limite;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getEmAndamento() {
+        lock.lock();
+        try {
+            return emAndamento;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getRejeicoes() {
+        return (long) rejeicoes.count();
+    }
+    
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+    
+    public Duration getLatenciaAlvo() {
+        return Duration.ofNanos(latenciaAlvoNanos);
+    }
+    
+    private void adquirir(Prazo prazo) {
+        lock.lock();
+        try {
+            long restante = prazo.limitarNanos(esperaMaximaNanos);
+            while (emAndamento >= (int) limite) {
+                if (restante <= 0) {
+                    prazo.verificar("limite-concorrencia");
+                    rejeicoes.increment();
+                    logger.warn("Chamada ao microserviço de produtos recusada: {} em andamento (limite {})",
+                            emAndamento, (int) limite);
+                    throw new ServicoIndisponivelException(
+                            "Serviço de produtos sobrecarregado. Tente novamente em instantes.");
+                }
+                restante = vagaLiberada.awaitNanos(restante);
+            }
+            emAndamento++;
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicoIndisponivelException("Espera por vaga no serviço de produtos interrompida");
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void liberar(long inicio, boolean sucesso) {
+        long fim = System.nanoTime();
+        long latenciaNanos = fim - inicio;
+        lock.lock();
+        try {
+            int limiteAnterior = (int) limite;
+            
+            if (!sucesso || latenciaNanos > latenciaAlvoNanos) {
+                if (inicio - ultimaReducaoNanos >= 0) {
+                    limite = Math.max(limiteMinimo, limite * fatorReducao);
+                    ultimaReducaoNanos = fim;
+                }
+            } else if (emAndamento * 2 >= limite) {
+                // Só cresce quando o limite está de fato em uso
+                limite = Math.min(limiteMaximo, limite + 1);
+            }
+            emAndamento--;
+            
+            if ((int) limite != limiteAnterior) {
+                logger.debug("Limite de concorrência do microserviço de produtos: {} -> {} (latência {} ms)",
+                        limiteAnterior, (int) limite, TimeUnit.NANOSECONDS.toMillis(latenciaNanos));
+            }
+            vagaLiberada.signalAll();
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+}
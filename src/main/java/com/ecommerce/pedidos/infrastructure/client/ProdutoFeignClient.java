@@ -4,14 +4,39 @@ import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cliente do microserviço de produtos
+ * 
+ * Com dismiss404, um 404 vira resposta vazia (null ou lista vazia) em vez de
+ * FeignException: produto inexistente não conta como falha no circuit breaker
+ * nem aciona o fallback
+ */
 @FeignClient(
     name = "produto-service",
     url = "${produto.service.url}",
+    dismiss404 = true,
     fallback = ProdutoFeignClientFallback.class
 )
 public interface ProdutoFeignClient {
     
     @GetMapping("/{id}")
     ProdutoDTO buscarPorId(@PathVariable("id") Long id);
-}
\ No newline at end of file
+    
+    /**
+     * Busca vários produtos em uma única chamada (endpoint de lote).
+     * Produtos inexistentes são omitidos da resposta.
+     */
+    @GetMapping("/lote")
+    List<ProdutoDTO> buscarPorIds(@RequestParam("ids") Collection<Long> ids);
+    
+    /**
+     * Lista os IDs de todos os produtos do catálogo (carga do filtro de Bloom)
+     */
+    @GetMapping("/ids")
+    List<Long> listarIds();
+}
@@ -5,7 +5,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
 @Component
 public class ProdutoFeignClientFallback implements ProdutoFeignClient {
@@ -14,12 +21,15 @@ public class ProdutoFeignClientFallback implements ProdutoFeignClient {
     
     private final RestTemplate restTemplate;
     private final String fallbackServiceUrl;
+    private final boolean endpointLoteHabilitado;
     
     public ProdutoFeignClientFallback(
             RestTemplate restTemplate,
-            @Value("${fallback.service.url}") String fallbackServiceUrl) {
+            @Value("${fallback.service.url}") String fallbackServiceUrl,
+            @Value("${produto.service.lote.endpoint-habilitado:false}") boolean endpointLoteHabilitado) {
         this.restTemplate = restTemplate;
         this.fallbackServiceUrl = fallbackServiceUrl;
+        this.endpointLoteHabilitado = endpointLoteHabilitado;
     }
     
     @Override
@@ -28,4 +38,38 @@ public class ProdutoFeignClientFallback implements ProdutoFeignClient {
         String url = fallbackServiceUrl + "/" + id;
         return restTemplate.getForObject(url, ProdutoDTO.class);
     }
-}
\ No newline at end of file
+    
+    @Override
+    public List<ProdutoDTO> buscarPorIds(Collection<Long> ids) {
+        logger.warn("FALLBACK ativado para lote de {} produtos", ids.size());
+        
+        if (endpointLoteHabilitado) {
+            String url = UriComponentsBuilder.fromHttpUrl(fallbackServiceUrl + "/lote")
+                    .queryParam("ids", ids)
+                    .toUriString();
+            ProdutoDTO[] produtos = restTemplate.getForObject(url, ProdutoDTO[].class);
+            return produtos != null ? Arrays.asList(produtos) : List.of();
+        }
+        
+        // Serviço de fallback sem endpoint de lote: busca produto a produto
+        List<ProdutoDTO> produtos = new ArrayList<>();
+        for (Long id : ids) {
+            try {
+                ProdutoDTO produto = buscarPorId(id);
+                if (produto != null) {
+                    produtos.add(produto);
+                }
+            } catch (HttpClientErrorException.NotFound e) {
+                logger.warn("Produto {} não encontrado no serviço de fallback", id);
+            }
+        }
+        return produtos;
+    }
+    
+    @Override
+    public List<Long> listarIds() {
+        logger.warn("FALLBACK ativado para listagem de IDs de produtos");
+        Long[] ids = restTemplate.getForObject(fallbackServiceUrl + "/ids", Long[].class);
+        return ids != null ? Arrays.asList(ids) : List.of();
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.pedidos.infrastructure.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+
+/**
+ * Cliente do microserviço de produtos sem o fallback do Feign, usado pelo HedgingProdutoClient
+ * 
+ * O hedging decide sozinho quando chamar o ProdutoFeignClientFallback: se o principal
+ * também caísse no fallback, o fallback seria chamado duas vezes na mesma busca
+ * (uma pelo hedge, outra pela falha do principal). Uma falha chega como exceção
+ * (NoFallbackAvailableException quando o circuit breaker está ligado).
+ */
+@FeignClient(
+    name = "produto-service",
+    contextId = "produtoServiceSemFallback",
+    url = "${produto.service.url}",
+    dismiss404 = true,
+    primary = false
+)
+public interface ProdutoFeignClientSemFallback extends ProdutoFeignClient {
+}
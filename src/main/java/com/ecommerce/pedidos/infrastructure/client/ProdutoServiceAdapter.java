@@ -1,20 +1,45 @@
 package com.ecommerce.pedidos.infrastructure.client;
 
+import com.ecommerce.pedidos.application.service.ContextoConsultaProdutos;
+import com.ecommerce.pedidos.application.service.Prazo;
 import com.ecommerce.pedidos.application.service.ProdutoServicePort;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+import com.ecommerce.pedidos.infrastructure.cache.AlteracoesProdutos;
+import com.ecommerce.pedidos.infrastructure.cache.ProdutosInexistentesCache;
 import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
 
 import feign.FeignException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.core.functions.Either;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.ResourceAccessException;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Cliente REST para comunicação com o microserviço de produtos
@@ -25,37 +50,285 @@ public class ProdutoServiceAdapter implements ProdutoServicePort {
 
     private static final Logger logger = LoggerFactory.getLogger(ProdutoServiceAdapter.class);
     private static final String PRODUTO_SERVICE = "produtoService";
+    private static final String PRODUTOS_CACHE = "produtos";
     
     private final ProdutoFeignClient produtoFeignClient;
+    private final CacheManager cacheManager;
+    private final ProdutosInexistentesCache produtosInexistentes;
+    private final AlteracoesProdutos alteracoes;
+    private final LimitadorConcorrenciaAdaptativo limitador;
+    private final HedgingProdutoClient hedging;
+    private final RetryConfig retryConfig;
+    private final boolean endpointLoteHabilitado;
+    private final int paralelismoLote;
+    private final Counter chamadasRemotasUnitarias;
+    private final Counter chamadasRemotasLote;
+    private final DistributionSummary chamadasRemotasPorPedido;
+    private final SingleFlight<Long, Optional<ProdutoDTO>> buscasEmAndamento;
 
-    public ProdutoServiceAdapter(ProdutoFeignClient produtoFeignClient) {
+    public ProdutoServiceAdapter(
+            ProdutoFeignClient produtoFeignClient,
+            CacheManager cacheManager,
+            ProdutosInexistentesCache produtosInexistentes,
+            AlteracoesProdutos alteracoes,
+            LimitadorConcorrenciaAdaptativo limitador,
+            HedgingProdutoClient hedging,
+            RetryRegistry retryRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${produto.service.lote.endpoint-habilitado:false}") boolean endpointLoteHabilitado,
+            @Value("${produto.service.lote.paralelismo:8}") int paralelismoLote) {
         this.produtoFeignClient = produtoFeignClient;
+        this.cacheManager = cacheManager;
+        this.produtosInexistentes = produtosInexistentes;
+        this.alteracoes = alteracoes;
+        this.limitador = limitador;
+        this.hedging = hedging;
+        this.retryConfig = retryRegistry.retry(PRODUTO_SERVICE).getRetryConfig();
+        this.endpointLoteHabilitado = endpointLoteHabilitado;
+        this.paralelismoLote = paralelismoLote;
+        this.chamadasRemotasUnitarias = Counter.builder("produtos.chamadas.remotas")
+                .description("Chamadas remotas ao microserviço de produtos")
+                .tag("tipo", "unitaria")
+                .register(meterRegistry);
+        this.chamadasRemotasLote = Counter.builder("produtos.chamadas.remotas")
+                .description("Chamadas remotas ao microserviço de produtos")
+                .tag("tipo", "lote")
+                .register(meterRegistry);
+        this.chamadasRemotasPorPedido = DistributionSummary.builder("produtos.chamadas.remotas.por.pedido")
+                .description("Chamadas remotas ao microserviço de produtos feitas para criar um pedido")
+                .register(meterRegistry);
+        this.buscasEmAndamento = new SingleFlight<>(Counter.builder("produtos.chamadas.coalescidas")
+                .description("Buscas de produto que aguardaram uma chamada remota já em andamento para o mesmo ID")
+                .register(meterRegistry));
     }
 
+    /**
+     * Serve do cache "produtos" e, na ausência, busca remotamente; produto
+     * inexistente não entra no cache "produtos", e sim no cache negativo
+     * (TTL curto e tamanho próprio)
+     * 
+     * A gravação no cache é feita pela busca remota (e não por @Cacheable)
+     * para que um resultado anterior a um evento de alteração seja descartado
+     * 
+     * Cada tentativa do @Retry verifica o prazo do pedido antes da chamada
+     * remota, e uma falha sem tempo para a próxima tentativa vira PrazoExcedidoException
+     */
     @Override
-    @Cacheable(value = "produtos", key = "#id", unless = "#result == null")
     @Retry(name = PRODUTO_SERVICE)
     @CircuitBreaker(name = PRODUTO_SERVICE)
-    public Optional<ProdutoDTO> buscarProdutoPorId(Long id) {
+    public Optional<ProdutoDTO> buscarProdutoPorId(Long id, ContextoConsultaProdutos contexto) {
+        Optional<ProdutoDTO> emCache = buscarNoCache(id);
+        if (emCache.isPresent()) {
+            return emCache;
+        }
+        if (produtosInexistentes.sabidamenteInexistente(id)) {
+            return Optional.empty();
+        }
+        
         logger.debug("Buscando produto {} via Feign Client", id);
         
         try {
-            ProdutoDTO produto = produtoFeignClient.buscarPorId(id);
+            Optional<ProdutoDTO> produto = buscarRemoto(id, contexto);
+            produto.ifPresent(encontrado -> logger.info("Produto {} encontrado: {}", id, encontrado.nome()));
+            return produto;
             
-            if (produto != null) {
-                logger.info("Produto {} encontrado: {}", id, produto.nome());
-                return Optional.of(produto);
+        } catch (FeignException e) {
+            logger.error("Erro ao buscar produto {}: {}", id, e.getMessage());
+            verificarNovaTentativa(e, contexto, "produto:" + id);
+            throw e;
+            
+        } catch (RuntimeException e) {
+            verificarNovaTentativa(e, contexto, "produto:" + id);
+            throw e;
+        }
+    }
+
+    /**
+     * Busca vários produtos: serve o que estiver no cache "produtos" e busca
+     * remotamente apenas os que faltam (endpoint de lote ou blocos paralelos)
+     */
+    @Override
+    @Retry(name = PRODUTO_SERVICE)
+    @CircuitBreaker(name = PRODUTO_SERVICE)
+    public Map<Long, ProdutoDTO> buscarProdutosPorIds(Collection<Long> ids, ContextoConsultaProdutos contexto) {
+        Map<Long, ProdutoDTO> produtos = new LinkedHashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (produtosInexistentes.sabidamenteInexistente(id)) {
+                continue;
+            }
+            Optional<ProdutoDTO> emCache = buscarNoCache(id);
+            if (emCache.isPresent()) {
+                produtos.put(id, emCache.get());
+            } else {
+                faltantes.add(id);
+            }
+        }
+        
+        logger.debug("Lote de {} produtos: {} no cache, {} a buscar remotamente",
+                produtos.size() + faltantes.size(), produtos.size(), faltantes.size());
+        
+        if (faltantes.isEmpty()) {
+            return produtos;
+        }
+        
+        List<ProdutoDTO> encontrados;
+        try {
+            if (endpointLoteHabilitado) {
+                contexto.getPrazo().verificar("busca-lote");
+                registrarChamadaRemota(chamadasRemotasLote, contexto);
+                long marca = alteracoes.marca();
+                encontrados = limitador.executar(() -> produtoFeignClient.buscarPorIds(faltantes), contexto.getPrazo());
+                encontrados.forEach(produto -> armazenarNoCache(produto, marca));
+            } else {
+                // Cada busca remota já grava o produto encontrado no cache
+                encontrados = buscarEmBlocosParalelos(faltantes, contexto);
+            }
+        } catch (RuntimeException e) {
+            verificarNovaTentativa(e, contexto, "lote:" + ids);
+            throw e;
+        }
+        
+        for (ProdutoDTO produto : encontrados) {
+            produtos.put(produto.id(), produto);
+        }
+        faltantes.stream()
+                .filter(id -> !produtos.containsKey(id))
+                .forEach(produtosInexistentes::registrarInexistente);
+        
+        return produtos;
+    }
+    
+    /**
+     * Sem endpoint de lote: divide os IDs em até "paralelismoLote" blocos,
+     * cada bloco buscado sequencialmente em um Virtual Thread
+     */
+    private List<ProdutoDTO> buscarEmBlocosParalelos(List<Long> ids, ContextoConsultaProdutos contexto) {
+        int quantidadeBlocos = Math.min(paralelismoLote, ids.size());
+        List<List<Long>> blocos = new ArrayList<>();
+        for (int i = 0; i < quantidadeBlocos; i++) {
+            blocos.add(new ArrayList<>());
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            blocos.get(i % quantidadeBlocos).add(ids.get(i));
+        }
+        
+        Map<Long, ProdutoDTO> encontrados = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (List<Long> bloco : blocos) {
+                tarefas.add(executor.submit(() -> bloco.forEach(id -> buscarRemoto(id, contexto)
+                        .ifPresent(produto -> encontrados.put(id, produto)))));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
             }
             
-            return Optional.empty();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Erro ao buscar lote de produtos", e.getCause());
             
-        } catch (FeignException.NotFound e) {
-            logger.warn("Produto {} não encontrado", id);
-            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Busca de lote de produtos interrompida", e);
             
-        } catch (FeignException e) {
-            logger.error("Erro ao buscar produto {}: {}", id, e.getMessage());
-            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        // Mantém a ordem dos IDs solicitados
+        return ids.stream()
+                .filter(encontrados::containsKey)
+                .map(encontrados::get)
+                .toList();
+    }
+    
+    /**
+     * Busca um produto diretamente no microserviço e grava o resultado no cache
+     * Buscas concorrentes do mesmo ID compartilham uma única chamada remota,
+     * que passa pelo limite adaptativo de concorrência (e pelo hedging, se habilitado)
+     */
+    private Optional<ProdutoDTO> buscarRemoto(Long id, ContextoConsultaProdutos contexto) {
+        Prazo prazo = contexto.getPrazo();
+        prazo.verificar("busca-produto");
+        return buscasEmAndamento.executar(id, () -> {
+            try {
+                registrarChamadaRemota(chamadasRemotasUnitarias, contexto);
+                long marca = alteracoes.marca();
+                Optional<ProdutoDTO> produto = Optional.ofNullable(
+                        limitador.executar(() -> hedging.buscarPorId(id, prazo), prazo));
+                if (produto.isEmpty()) {
+                    produtosInexistentes.registrarInexistente(id);
+                } else {
+                    armazenarNoCache(produto.get(), marca);
+                }
+                return produto;
+            } catch (FeignException.NotFound | HttpClientErrorException.NotFound e) {
+                // 404 do fallback (RestTemplate) ou do Feign sem dismiss404
+                logger.warn("Produto {} não encontrado", id);
+                produtosInexistentes.registrarInexistente(id);
+                return Optional.empty();
+            }
+        }, prazo);
+    }
+    
+    /**
+     * Decisão de nova tentativa: se o @Retry repetiria esta falha, mas o prazo
+     * do pedido não comporta nem a espera até a próxima tentativa, desiste já
+     * (PrazoExcedidoException é ignorada pelo @Retry e pelo @CircuitBreaker)
+     * 
+     * As falhas são contadas por consulta no contexto: com backoff exponencial,
+     * a espera considerada é a que o @Retry fará antes da próxima tentativa
+     */
+    private void verificarNovaTentativa(RuntimeException erro, ContextoConsultaProdutos contexto, String consulta) {
+        Prazo prazo = contexto.getPrazo();
+        if (!prazo.isLimitado() || erro instanceof PrazoExcedidoException
+                || !retryConfig.getExceptionPredicate().test(erro)) {
+            return;
+        }
+        
+        int tentativa = contexto.registrarFalha(consulta);
+        if (tentativa >= retryConfig.getMaxAttempts()) {
+            // Última tentativa: o @Retry não repete, a falha original segue
+            return;
+        }
+        Duration espera = Duration.ofMillis(
+                retryConfig.<Object>getIntervalBiFunction().apply(tentativa, Either.left(erro)));
+        if (!prazo.comporta(espera)) {
+            logger.warn("Sem nova tentativa no serviço de produtos: restam {} ms do prazo, espera de {} ms",
+                    prazo.restante().toMillis(), espera.toMillis());
+            throw new PrazoExcedidoException("nova-tentativa", prazo.getTotal(), erro);
+        }
+    }
+    
+    private void registrarChamadaRemota(Counter contador, ContextoConsultaProdutos contexto) {
+        contador.increment();
+        contexto.registrarChamadaRemota();
+    }
+    
+    private Optional<ProdutoDTO> buscarNoCache(Long id) {
+        Cache cache = cacheManager.getCache(PRODUTOS_CACHE);
+        return cache != null ? Optional.ofNullable(cache.get(id, ProdutoDTO.class)) : Optional.empty();
+    }
+    
+    /**
+     * Grava o resultado de uma busca remota iniciada na "marca", a menos que um
+     * evento tenha alterado o produto desde então; um evento que chegou durante
+     * a gravação tira a entrada do cache (a próxima leitura busca de novo)
+     */
+    private void armazenarNoCache(ProdutoDTO produto, long marca) {
+        Cache cache = cacheManager.getCache(PRODUTOS_CACHE);
+        if (cache == null || alteracoes.alteradoDesde(produto.id(), marca)) {
+            return;
+        }
+        cache.put(produto.id(), produto);
+        if (alteracoes.alteradoDesde(produto.id(), marca)) {
+            cache.evict(produto.id());
         }
     }
 
@@ -89,31 +362,30 @@ public class ProdutoServiceAdapter implements ProdutoServicePort {
         }
     }
 
+    /**
+     * Verifica o estoque no produto já carregado pelo pedido: não há nova busca
+     * (nem remota, nem no cache)
+     */
     @Override
-    @Retry(name = PRODUTO_SERVICE)
-    @CircuitBreaker(name = PRODUTO_SERVICE)
-    public boolean verificarEstoque(Long produtoId, Integer quantidade) {
-        logger.debug("Verificando estoque do produto {} (quantidade: {})", produtoId, quantidade);
+    public boolean verificarEstoque(ProdutoDTO produto, Integer quantidade) {
+        logger.debug("Verificando estoque do produto {} (quantidade: {})", produto.id(), quantidade);
         
-        Optional<ProdutoDTO> produtoOpt = buscarProdutoPorId(produtoId);
-        
-        if (produtoOpt.isEmpty()) {
-            logger.warn("Produto {} não encontrado para verificação de estoque", produtoId);
-            return false;
-        }
-
-        ProdutoDTO produto = produtoOpt.get();
         boolean estoqueDisponivel = produto.estoque() != null && produto.estoque() >= quantidade;
 
         if (!estoqueDisponivel) {
             logger.warn("Estoque insuficiente para produto {}. Disponível: {}, Solicitado: {}",
-                    produtoId, produto.estoque(), quantidade);
+                    produto.id(), produto.estoque(), quantidade);
         } else {
             logger.info("Estoque OK para produto {}. Disponível: {}, Solicitado: {}",
-                    produtoId, produto.estoque(), quantidade);
+                    produto.id(), produto.estoque(), quantidade);
         }
 
         return estoqueDisponivel;
     }
+    
+    @Override
+    public void registrarConsultasDoPedido(ContextoConsultaProdutos contexto) {
+        chamadasRemotasPorPedido.record(contexto.getChamadasRemotas());
+        logger.debug("Pedido consultou o microserviço de produtos {} vez(es)", contexto.getChamadasRemotas());
+    }
 }
-
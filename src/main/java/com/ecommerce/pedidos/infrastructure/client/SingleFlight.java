@@ -0,0 +1,140 @@
+package com.ecommerce.pedidos.infrastructure.client;
+
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+import com.ecommerce.pedidos.domain.exception.ServicoIndisponivelException;
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalescência de chamadas concorrentes (single-flight)
+ * Enquanto uma chamada para uma chave está em andamento, as demais chamadas
+ * para a mesma chave aguardam e recebem o mesmo resultado (ou a mesma falha)
+ * 
+ * Quem aguarda espera no máximo até o seu próprio prazo (PrazoExcedidoException),
+ * mesmo que a chamada em andamento seja de outra requisição com prazo maior
+ * 
+ * Só o resultado remoto é compartilhado: se a chamada em andamento termina por
+ * motivo de quem a fez (prazo dele vencido ou recusa do limite de concorrência),
+ * quem aguarda e ainda tem prazo passa a fazer a chamada no lugar dela
+ */
+public class SingleFlight<K, V> {
+    
+    private final ConcurrentMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter chamadasCoalescidas;
+    
+    public SingleFlight(Counter chamadasCoalescidas) {
+        this.chamadasCoalescidas = chamadasCoalescidas;
+    }
+    
+    /**
+     * Executa a chamada, ou aguarda a chamada já em andamento para a mesma chave
+     */
+    public V executar(K chave, Supplier<V> chamada) {
+        return executar(chave, chamada, Prazo.semLimite());
+    }
+    
+    /**
+     * Como executar(chave, chamada), mas a espera pela chamada em andamento
+     * termina com PrazoExcedidoException quando o prazo de quem aguarda vence
+     */
+    public V executar(K chave, Supplier<V> chamada, Prazo prazo) {
+        while (true) {
+            CompletableFuture<V> minhaChamada = new CompletableFuture<>();
+            CompletableFuture<V> chamadaExistente = emAndamento.putIfAbsent(chave, minhaChamada);
+            
+            if (chamadaExistente == null) {
+                return chamar(chave, chamada, minhaChamada);
+            }
+            
+            chamadasCoalescidas.increment();
+            try {
+                return aguardar(chamadaExistente, prazo);
+            } catch (ChamadaAbandonadaException e) {
+                // A falha é de quem fez a chamada: sem prazo, quem aguarda também desiste
+                prazo.verificar("aguardando-busca");
+            }
+        }
+    }
+    
+    /**
+     * Quantidade de chaves com chamada em andamento
+     */
+    public int getChamadasEmAndamento() {
+        return emAndamento.size();
+    }
+    
+    private V chamar(K chave, Supplier<V> chamada, CompletableFuture<V> minhaChamada) {
+        try {
+            V resultado = chamada.get();
+            emAndamento.remove(chave, minhaChamada);
+            minhaChamada.complete(resultado);
+            return resultado;
+            
+        } catch (PrazoExcedidoException | ServicoIndisponivelException e) {
+            emAndamento.remove(chave, minhaChamada);
+            minhaChamada.completeExceptionally(new ChamadaAbandonadaException(e));
+            throw e;
+            
+        } catch (RuntimeException | Error e) {
+            emAndamento.remove(chave, minhaChamada);
+            minhaChamada.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    private V aguardar(CompletableFuture<V> chamada, Prazo prazo) {
+        if (!prazo.isLimitado()) {
+            try {
+                return chamada.join();
+            } catch (CompletionException e) {
+                throw propagar(e.getCause(), e);
+            }
+        }
+        
+        try {
+            return chamada.get(prazo.restante().toNanos(), TimeUnit.NANOSECONDS);
+            
+        } catch (TimeoutException e) {
+            throw new PrazoExcedidoException("aguardando-busca", prazo.getTotal());
+            
+        } catch (ExecutionException e) {
+            throw propagar(e.getCause(), e);
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera pela chamada em andamento interrompida", e);
+        }
+    }
+    
+    private static RuntimeException propagar(Throwable causa, Exception embrulho) {
+        if (causa instanceof ChamadaAbandonadaException abandonada) {
+            return abandonada;
+        }
+        if (causa instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (causa instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(causa != null ? causa : embrulho);
+    }
+    
+    /**
+     * A chamada terminou sem resultado remoto, por motivo de quem a fez
+     */
+    private static class ChamadaAbandonadaException extends RuntimeException {
+        
+        ChamadaAbandonadaException(RuntimeException causa) {
+            super(causa.getMessage(), causa, false, false);
+        }
+    }
+}
@@ -2,15 +2,32 @@ package com.ecommerce.pedidos.infrastructure.config;
 
 import com.ecommerce.pedidos.application.service.ProdutoServicePort;
 import com.ecommerce.pedidos.application.usecase.BuscarPedidoPorIdUseCase;
+import com.ecommerce.pedidos.application.usecase.BuscarSolicitacaoPedidoUseCase;
 import com.ecommerce.pedidos.application.usecase.CancelarPedidoUseCase;
+import com.ecommerce.pedidos.application.usecase.CriarPedidoIdempotenteUseCase;
 import com.ecommerce.pedidos.application.usecase.CriarPedidoUseCase;
+import com.ecommerce.pedidos.application.usecase.CriarPedidosEmLoteUseCase;
 import com.ecommerce.pedidos.application.usecase.ListarPedidosUseCase;
+import com.ecommerce.pedidos.application.usecase.ModoValidacaoProdutos;
+import com.ecommerce.pedidos.application.usecase.ProcessarSolicitacaoPedidoUseCase;
+import com.ecommerce.pedidos.application.usecase.ReceberPedidoUseCase;
+import com.ecommerce.pedidos.domain.repository.ChaveIdempotenciaRepositoryPort;
+import com.ecommerce.pedidos.domain.repository.GravacaoPedidoPort;
 import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
 import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import com.ecommerce.pedidos.domain.repository.SolicitacaoPedidoRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.persistence.TransacaoEmGrupo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
 
 /**
  * Configuração dos Beans - Injeção de Dependências
@@ -31,14 +48,98 @@ public class BeanConfiguration {
     
     /**
      * Bean para CriarPedidoUseCase
+     * A transação é só da gravação (TransactionTemplate), não do caso de uso inteiro;
+     * com o group commit habilitado, gravações concorrentes compartilham uma transação.
+     * Com a gravação JDBC habilitada, pedido, itens e evento Outbox saem em INSERTs diretos.
      */
     @Bean
     public CriarPedidoUseCase criarPedidoUseCase(
             PedidoRepositoryPort pedidoRepository,
             OutboxRepositoryPort outboxRepository,
             ProdutoServicePort produtoService,
-            ObjectMapper objectMapper) {
-        return new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper);
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            GravacaoPedidoPort gravacaoPedidoJdbc,
+            @Value("${pedido.validacao.modo:LOTE}") ModoValidacaoProdutos modoValidacao,
+            @Value("${pedido.validacao.prazo:10s}") Duration prazoValidacao,
+            @Value("${pedido.gravacao.grupo.habilitado:false}") boolean grupoHabilitado,
+            @Value("${pedido.gravacao.grupo.janela:2ms}") Duration janelaGrupo,
+            @Value("${pedido.gravacao.grupo.tamanho-maximo:50}") int tamanhoMaximoGrupo,
+            @Value("${pedido.gravacao.jdbc.habilitado:true}") boolean gravacaoJdbcHabilitada) {
+        TransactionOperations transacao = new TransactionTemplate(transactionManager);
+        if (grupoHabilitado) {
+            transacao = new TransacaoEmGrupo(transacao, janelaGrupo, tamanhoMaximoGrupo, meterRegistry);
+        }
+        return new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                modoValidacao, prazoValidacao, transacao, gravacaoJdbcHabilitada ? gravacaoPedidoJdbc : null);
+    }
+    
+    /**
+     * Bean para CriarPedidoIdempotenteUseCase (POST /api/pedidos com Idempotency-Key)
+     */
+    @Bean
+    public CriarPedidoIdempotenteUseCase criarPedidoIdempotenteUseCase(
+            CriarPedidoUseCase criarPedidoUseCase,
+            ChaveIdempotenciaRepositoryPort chaveIdempotenciaRepository,
+            PedidoRepositoryPort pedidoRepository,
+            @Value("${pedido.idempotencia.ttl:24h}") Duration validade,
+            @Value("${pedido.idempotencia.reserva:2m}") Duration reserva,
+            @Value("${pedido.idempotencia.cache.maximo-entradas:10000}") long maximoEntradasCache,
+            @Value("${pedido.idempotencia.espera-maxima:10s}") Duration esperaMaxima) {
+        return new CriarPedidoIdempotenteUseCase(criarPedidoUseCase, chaveIdempotenciaRepository, pedidoRepository,
+                validade, reserva, maximoEntradasCache, esperaMaxima);
+    }
+    
+    /**
+     * Bean para CriarPedidosEmLoteUseCase
+     */
+    @Bean
+    public CriarPedidosEmLoteUseCase criarPedidosEmLoteUseCase(
+            CriarPedidoUseCase criarPedidoUseCase,
+            ProdutoServicePort produtoService,
+            PlatformTransactionManager transactionManager,
+            @Value("${pedido.lote.tamanho-maximo:1000}") int tamanhoMaximo) {
+        return new CriarPedidosEmLoteUseCase(criarPedidoUseCase, produtoService,
+                new TransactionTemplate(transactionManager), tamanhoMaximo);
+    }
+    
+    /**
+     * Bean para ReceberPedidoUseCase (POST /api/pedidos no modo de recepção ASSINCRONO)
+     */
+    @Bean
+    public ReceberPedidoUseCase receberPedidoUseCase(
+            SolicitacaoPedidoRepositoryPort solicitacaoRepository,
+            ObjectMapper objectMapper,
+            @Value("${pedido.recepcao.fila.tamanho-maximo:10000}") long tamanhoMaximoFila) {
+        return new ReceberPedidoUseCase(solicitacaoRepository, objectMapper, tamanhoMaximoFila);
+    }
+    
+    /**
+     * Bean para ProcessarSolicitacaoPedidoUseCase (trabalhadores da recepção assíncrona)
+     */
+    @Bean
+    public ProcessarSolicitacaoPedidoUseCase processarSolicitacaoPedidoUseCase(
+            CriarPedidoUseCase criarPedidoUseCase,
+            CriarPedidoIdempotenteUseCase criarPedidoIdempotenteUseCase,
+            SolicitacaoPedidoRepositoryPort solicitacaoRepository,
+            ObjectMapper objectMapper,
+            @Value("${pedido.recepcao.max-tentativas:5}") int maximoTentativas,
+            @Value("${pedido.recepcao.prazo-processamento:30s}") Duration prazoProcessamento,
+            @Value("${pedido.recepcao.espera-inicial:5s}") Duration esperaInicial,
+            @Value("${pedido.recepcao.espera-maxima:5m}") Duration esperaMaxima) {
+        return new ProcessarSolicitacaoPedidoUseCase(criarPedidoUseCase, criarPedidoIdempotenteUseCase,
+                solicitacaoRepository, objectMapper, maximoTentativas, prazoProcessamento, esperaInicial,
+                esperaMaxima);
+    }
+    
+    /**
+     * Bean para BuscarSolicitacaoPedidoUseCase
+     */
+    @Bean
+    public BuscarSolicitacaoPedidoUseCase buscarSolicitacaoPedidoUseCase(
+            SolicitacaoPedidoRepositoryPort solicitacaoRepository) {
+        return new BuscarSolicitacaoPedidoUseCase(solicitacaoRepository);
     }
     
     /**
@@ -68,7 +169,3 @@ public class BeanConfiguration {
         return new CancelarPedidoUseCase(pedidoRepository, outboxRepository, objectMapper);
     }
 }
-
-
-
-
@@ -1,36 +1,157 @@
 package com.ecommerce.pedidos.infrastructure.config;
 
+import com.ecommerce.pedidos.infrastructure.cache.CacheDuasCamadas;
+import com.ecommerce.pedidos.infrastructure.cache.ProdutoCacheLoader;
+import com.ecommerce.pedidos.infrastructure.cache.ProdutoDiskStore;
+import com.ecommerce.pedidos.infrastructure.cache.RefreshAheadCaffeineCache;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 
 /**
  * Configuração de cache usando Caffeine
+ * 
+ * O cache "produtos" usa refresh-ahead: após "atualizar-apos" a entrada é
+ * recarregada em segundo plano na próxima leitura, sem bloquear quem lê.
+ * Se a atualização falhar (ou o circuit breaker estiver aberto), a entrada
+ * antiga continua sendo servida por até "obsolescencia-maxima".
+ * Alterações de produtos chegam por evento (ProdutoAlteradoListener), por
+ * isso os intervalos padrão são longos.
+ * 
+ * Com "produtos.cache.disco.habilitado", o Caffeine passa a ser a primeira
+ * camada de um CacheDuasCamadas, com o catálogo inteiro em um arquivo mapeado
+ * em memória que sobrevive a reinícios.
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
+    public static final String PRODUTOS_CACHE = "produtos";
+    
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("produtos");
+    public CacheManager cacheManager(
+            ProdutoCacheLoader produtoCacheLoader,
+            ObjectProvider<ProdutoDiskStore> produtoDiskStore,
+            MeterRegistry meterRegistry,
+            @Qualifier("produtosCacheRecargaExecutor") ExecutorService produtosCacheRecargaExecutor,
+            @Value("${produtos.cache.maximo-entradas:100}") long maximoEntradas,
+            @Value("${produtos.cache.atualizar-apos:1h}") Duration atualizarApos,
+            @Value("${produtos.cache.obsolescencia-maxima:6h}") Duration obsolescenciaMaxima,
+            @Value("${produtos.cache.disco.idade-maxima:24h}") Duration idadeMaximaDisco) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                if (cache instanceof LoadingCache<Object, Object> loadingCache) {
+                    RefreshAheadCaffeineCache primeiraCamada = new RefreshAheadCaffeineCache(name, loadingCache);
+                    ProdutoDiskStore segundaCamada = produtoDiskStore.getIfAvailable();
+                    if (segundaCamada != null && PRODUTOS_CACHE.equals(name)) {
+                        return new CacheDuasCamadas(primeiraCamada, segundaCamada,
+                                atualizarApos, idadeMaximaDisco, meterRegistry);
+                    }
+                    return primeiraCamada;
+                }
+                return super.adaptCaffeineCache(name, cache);
+            }
+        };
         cacheManager.setCaffeine(caffeineCacheBuilder());
+        
+        LoadingCache<Object, Object> produtosCache = Caffeine.newBuilder()
+                .maximumSize(maximoEntradas)
+                .refreshAfterWrite(atualizarApos)
+                .expireAfterWrite(atualizarApos.plus(obsolescenciaMaxima))
+                .executor(produtosCacheRecargaExecutor)
+                .recordStats()
+                .build(produtoCacheLoader);
+        cacheManager.registerCustomCache(PRODUTOS_CACHE, produtosCache);
+        registrarMetricasDeObsolescencia(produtosCache, atualizarApos, meterRegistry);
+        
         return cacheManager;
     }
     
+    /**
+     * Recargas em segundo plano do cache "produtos" (refresh-ahead), uma thread virtual por recarga
+     * Fechado no encerramento do contexto, esperando as recargas em andamento
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService produtosCacheRecargaExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+    
+    /**
+     * Segunda camada do cache "produtos" (opcional): arquivo mapeado em memória
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "produtos.cache.disco.habilitado", havingValue = "true")
+    public ProdutoDiskStore produtoDiskStore(
+            MeterRegistry meterRegistry,
+            @Value("${produtos.cache.disco.arquivo:data/produtos-cache.dat}") Path arquivo,
+            @Value("${produtos.cache.disco.tamanho-maximo:268435456}") long tamanhoMaximo) {
+        ProdutoDiskStore store = new ProdutoDiskStore(arquivo, tamanhoMaximo);
+        Gauge.builder("produtos.cache.disco.entradas", store, ProdutoDiskStore::getQuantidade)
+                .description("Produtos na segunda camada (disco) do cache")
+                .register(meterRegistry);
+        Gauge.builder("produtos.cache.disco.bytes", store, ProdutoDiskStore::getBytesUsados)
+                .description("Bytes usados no arquivo do cache de produtos")
+                .baseUnit("bytes")
+                .tag("tipo", "usados")
+                .register(meterRegistry);
+        Gauge.builder("produtos.cache.disco.bytes", store, ProdutoDiskStore::getBytesMortos)
+                .description("Bytes de registros substituídos no arquivo do cache de produtos (liberados na compactação)")
+                .baseUnit("bytes")
+                .tag("tipo", "mortos")
+                .register(meterRegistry);
+        return store;
+    }
+    
     private Caffeine<Object, Object> caffeineCacheBuilder() {
         return Caffeine.newBuilder()
                 .expireAfterWrite(5, TimeUnit.MINUTES)
                 .maximumSize(100)
                 .recordStats();
     }
+    
+    /**
+     * Entradas obsoletas: mais antigas que o intervalo de atualização
+     * (servidas enquanto o refresh não conclui ou enquanto o produtoService está fora)
+     */
+    private void registrarMetricasDeObsolescencia(
+            LoadingCache<Object, Object> cache, Duration atualizarApos, MeterRegistry meterRegistry) {
+        Gauge.builder("produtos.cache.entradas.obsoletas", cache,
+                        c -> idades(c).filter(idade -> idade > atualizarApos.toMillis()).count())
+                .description("Entradas do cache de produtos mais antigas que o intervalo de atualização")
+                .register(meterRegistry);
+        Gauge.builder("produtos.cache.idade.maxima", cache,
+                        c -> idades(c).max().orElse(0) / 1000.0)
+                .description("Idade da entrada mais antiga do cache de produtos")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+    
+    private static LongStream idades(LoadingCache<Object, Object> cache) {
+        return cache.policy().expireAfterWrite()
+                .map(expiracao -> cache.asMap().keySet().stream()
+                        .map(chave -> expiracao.ageOf(chave, TimeUnit.MILLISECONDS))
+                        .filter(OptionalLong::isPresent)
+                        .mapToLong(OptionalLong::getAsLong))
+                .orElseGet(LongStream::empty);
+    }
 }
-
-
-
-
@@ -15,16 +15,20 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class RabbitMQConfig {
     
-    // Exchange
+    // Exchanges
     public static final String PEDIDOS_EXCHANGE = "pedidos.exchange";
+    public static final String PRODUTOS_ALTERADOS_EXCHANGE = "produtos.alterados.exchange";
     
     // Queues
     public static final String PEDIDOS_CRIADOS_QUEUE = "pedidos.criados.queue";
+    public static final String PEDIDOS_CANCELADOS_QUEUE = "pedidos.cancelados.queue";
     public static final String PEDIDOS_DLQ = "pedidos.dlq";
+    public static final String PRODUTOS_ALTERADOS_QUEUE_PREFIXO = "pedidos.produtos.alterados.";
     
     // Routing Keys
     public static final String PEDIDO_CRIADO_ROUTING_KEY = "pedido.criado";
     public static final String PEDIDO_CANCELADO_ROUTING_KEY = "pedido.cancelado";
+    public static final String PEDIDO_EVENTO_ROUTING_KEY = "pedido.evento";
     
     /**
      * Exchange principal (Topic)
@@ -45,6 +49,18 @@ public class RabbitMQConfig {
                 .build();
     }
     
+    /**
+     * Queue para pedidos cancelados
+     * (sem ela, os eventos de cancelamento não teriam rota e voltariam como devolvidos)
+     */
+    @Bean
+    public Queue pedidosCanceladosQueue() {
+        return QueueBuilder.durable(PEDIDOS_CANCELADOS_QUEUE)
+                .withArgument("x-dead-letter-exchange", "")
+                .withArgument("x-dead-letter-routing-key", PEDIDOS_DLQ)
+                .build();
+    }
+    
     /**
      * Dead Letter Queue (DLQ)
      */
@@ -64,6 +80,57 @@ public class RabbitMQConfig {
                 .with(PEDIDO_CRIADO_ROUTING_KEY);
     }
     
+    /**
+     * Binding entre exchange e queue de pedidos cancelados
+     */
+    @Bean
+    public Binding bindingPedidosCancelados(Queue pedidosCanceladosQueue, TopicExchange pedidosExchange) {
+        return BindingBuilder
+                .bind(pedidosCanceladosQueue)
+                .to(pedidosExchange)
+                .with(PEDIDO_CANCELADO_ROUTING_KEY);
+    }
+    
+    /**
+     * Binding dos eventos de tipo sem routing key própria para a DLQ
+     * (com mandatory, sem essa rota eles voltariam do broker e acabariam FAILED)
+     */
+    @Bean
+    public Binding bindingPedidosEventosSemRota(Queue pedidosDlq, TopicExchange pedidosExchange) {
+        return BindingBuilder
+                .bind(pedidosDlq)
+                .to(pedidosExchange)
+                .with(PEDIDO_EVENTO_ROUTING_KEY);
+    }
+    
+    /**
+     * Exchange de alterações de produtos (Fanout), publicado pelo microserviço de produtos
+     */
+    @Bean
+    public FanoutExchange produtosAlteradosExchange() {
+        return new FanoutExchange(PRODUTOS_ALTERADOS_EXCHANGE, true, false);
+    }
+    
+    /**
+     * Queue anônima de alterações de produtos
+     * Cada instância tem a sua (exclusiva e removida ao desconectar), então
+     * todas recebem todos os eventos e invalidam o próprio cache local
+     */
+    @Bean
+    public Queue produtosAlteradosQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(PRODUTOS_ALTERADOS_QUEUE_PREFIXO));
+    }
+    
+    /**
+     * Binding entre exchange e queue de alterações de produtos
+     */
+    @Bean
+    public Binding bindingProdutosAlterados(Queue produtosAlteradosQueue, FanoutExchange produtosAlteradosExchange) {
+        return BindingBuilder
+                .bind(produtosAlteradosQueue)
+                .to(produtosAlteradosExchange);
+    }
+    
     /**
      * Conversor de mensagens JSON
      */
@@ -74,15 +141,14 @@ public class RabbitMQConfig {
     
     /**
      * RabbitTemplate configurado com conversor JSON
+     * Mensagens obrigatórias: sem rota, voltam para o publicador (publisher returns)
+     * em vez de serem descartadas em silêncio
      */
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter());
+        template.setMandatory(true);
         return template;
     }
 }
-
-
-
-
@@ -1,14 +1,173 @@
 package com.ecommerce.pedidos.infrastructure.config;
 
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Transporte HTTP do ProdutoFeignClient e do RestTemplate do fallback
+ *
+ * Cada um tem o seu pool (Apache HttpClient 5), para que o fallback, usado
+ * justamente quando o serviço principal está degradado, não dispute conexões
+ * com ele. Com "produto.service.http.http2" os dois passam a usar o
+ * java.net.http.HttpClient (HTTP/2 com multiplexação, sem pool a configurar).
+ *
+ * As métricas dos pools saem como httpcomponents.httpclient.pool.* com a tag
+ * httpclient=produto-service ou produto-fallback.
+ *
+ * Os clientes HTTP (e o executor do java.net.http.HttpClient) são beans: o
+ * contexto os fecha no encerramento, liberando conexões e threads.
+ */
 @Configuration
 public class RestClientConfig {
-    
+
+    private final ConfiguracaoTransporte configuracao;
+
+    public RestClientConfig(
+            @Value("${produto.service.http.max-conexoes:200}") int maxConexoes,
+            @Value("${produto.service.http.max-conexoes-por-rota:50}") int maxConexoesPorRota,
+            @Value("${produto.service.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${produto.service.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${produto.service.http.timeout-aguardando-conexao:1s}") Duration timeoutAguardandoConexao,
+            @Value("${produto.service.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${produto.service.http.http2:false}") boolean http2) {
+        this.configuracao = new ConfiguracaoTransporte(maxConexoes, maxConexoesPorRota, connectTimeout,
+                readTimeout, timeoutAguardandoConexao, keepAlive, http2);
+    }
+
+    /**
+     * Client usado pelo ProdutoFeignClient (substitui o HttpURLConnection padrão do Feign)
+     * Os timeouts por requisição continuam vindo de spring.cloud.openfeign.client.config
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public Client feignClient(
+            @Qualifier("produtoServiceHttpClient") ObjectProvider<CloseableHttpClient> clientePool,
+            ObjectProvider<HttpClient> clienteHttp2) {
+        if (configuracao.http2()) {
+            return new Http2Client(clienteHttp2.getObject());
+        }
+        return new ApacheHttp5Client(clientePool.getObject());
+    }
+
+    @Bean
+    public RestTemplate restTemplate(
+            @Qualifier("produtoFallbackHttpClient") ObjectProvider<CloseableHttpClient> clientePool,
+            ObjectProvider<HttpClient> clienteHttp2) {
+        ClientHttpRequestFactory requestFactory;
+        if (configuracao.http2()) {
+            JdkClientHttpRequestFactory jdkRequestFactory = new JdkClientHttpRequestFactory(clienteHttp2.getObject());
+            jdkRequestFactory.setReadTimeout(configuracao.readTimeout());
+            requestFactory = jdkRequestFactory;
+        } else {
+            requestFactory = new HttpComponentsClientHttpRequestFactory(clientePool.getObject());
+        }
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Pool do ProdutoFeignClient; o close encerra as conexões e as threads de limpeza do pool
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "produto.service.http.http2", havingValue = "false", matchIfMissing = true)
+    public CloseableHttpClient produtoServiceHttpClient(MeterRegistry meterRegistry) {
+        return criarClientePool("produto-service", meterRegistry);
+    }
+
+    /**
+     * Pool do RestTemplate do fallback, separado do pool do principal
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "produto.service.http.http2", havingValue = "false", matchIfMissing = true)
+    public CloseableHttpClient produtoFallbackHttpClient(MeterRegistry meterRegistry) {
+        return criarClientePool("produto-fallback", meterRegistry);
+    }
+
+    /**
+     * Cliente HTTP/2, compartilhado pelo Feign e pelo fallback (multiplexa as
+     * requisições, sem pool a separar)
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    @ConditionalOnProperty(name = "produto.service.http.http2", havingValue = "true")
+    public HttpClient produtoHttp2Client(ExecutorService produtoHttp2Executor) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(configuracao.connectTimeout())
+                .executor(produtoHttp2Executor)
+                .build();
+    }
+
+    /**
+     * Executor do cliente HTTP/2 (o HttpClient não encerra um executor recebido de fora)
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    @ConditionalOnProperty(name = "produto.service.http.http2", havingValue = "true")
+    public ExecutorService produtoHttp2Executor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    private CloseableHttpClient criarClientePool(String nome, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(configuracao.maxConexoes())
+                .setMaxConnPerRoute(configuracao.maxConexoesPorRota())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(configuracao.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(configuracao.readTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoKeepAlive(true)
+                        .setTcpNoDelay(true)
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, nome, Tags.empty())
+                .bindTo(meterRegistry);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(configuracao.timeoutAguardandoConexao()))
+                        .setResponseTimeout(Timeout.of(configuracao.readTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(configuracao.keepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(configuracao.keepAlive()))
+                .build();
+    }
+
+    private record ConfiguracaoTransporte(
+            int maxConexoes,
+            int maxConexoesPorRota,
+            Duration connectTimeout,
+            Duration readTimeout,
+            Duration timeoutAguardandoConexao,
+            Duration keepAlive,
+            boolean http2) {
     }
-}
\ No newline at end of file
+}
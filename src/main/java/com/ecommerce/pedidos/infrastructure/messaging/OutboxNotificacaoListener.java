@@ -0,0 +1,124 @@
+package com.ecommerce.pedidos.infrastructure.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Despertador do OutboxProcessor por LISTEN/NOTIFY do PostgreSQL (opcional)
+ *
+ * O trigger da tabela outbox (V6) notifica o canal outbox_eventos no commit de cada
+ * transação que grava eventos. Uma conexão dedicada, fora do pool, escuta o canal e
+ * executa o OutboxProcessor assim que chega uma notificação: o evento é publicado em
+ * milissegundos em vez de esperar a próxima consulta periódica. Notificações que
+ * chegam durante uma execução resultam numa execução só, logo em seguida.
+ *
+ * Notificações emitidas com a conexão caída se perdem; por isso, a cada (re)conexão
+ * o processador é executado uma vez, e a consulta periódica continua como rede de
+ * segurança (com o ouvinte ativo, outbox.processor.fixed-delay pode ser bem maior).
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.notify.habilitado", havingValue = "true")
+public class OutboxNotificacaoListener implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxNotificacaoListener.class);
+    
+    private static final String CANAL = "outbox_eventos";
+    
+    private final OutboxProcessor outboxProcessor;
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final Duration esperaMaxima;
+    private final Duration intervaloReconexao;
+    private final Counter despertares;
+    
+    private volatile boolean ativo = true;
+    private Thread ouvinte;
+    
+    public OutboxNotificacaoListener(
+            OutboxProcessor outboxProcessor,
+            MeterRegistry meterRegistry,
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String usuario,
+            @Value("${spring.datasource.password}") String senha,
+            @Value("${outbox.notify.espera-maxima:1s}") Duration esperaMaxima,
+            @Value("${outbox.notify.intervalo-reconexao:5s}") Duration intervaloReconexao) {
+        this.outboxProcessor = outboxProcessor;
+        this.url = url;
+        this.usuario = usuario;
+        this.senha = senha;
+        this.esperaMaxima = esperaMaxima;
+        this.intervaloReconexao = intervaloReconexao;
+        this.despertares = Counter.builder("outbox.notify.despertares")
+                .description("Execuções do OutboxProcessor disparadas por NOTIFY")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        ouvinte = Thread.ofPlatform().name("outbox-notify").daemon().start(this::escutar);
+    }
+    
+    private void escutar() {
+        while (ativo) {
+            try (Connection conexao = DriverManager.getConnection(url, usuario, senha)) {
+                try (Statement statement = conexao.createStatement()) {
+                    statement.execute("LISTEN " + CANAL);
+                }
+                PGConnection pgConexao = conexao.unwrap(PGConnection.class);
+                logger.info("Escutando o canal {} para publicar eventos da Outbox", CANAL);
+    
+                // Eventos gravados enquanto não havia ouvinte
+                outboxProcessor.processarEventosPendentes();
+    
+                while (ativo) {
+                    // A espera máxima só serve para notar o encerramento e conexões caídas
+                    PGNotification[] notificacoes = pgConexao.getNotifications((int) esperaMaxima.toMillis());
+                    if (notificacoes != null && notificacoes.length > 0) {
+                        despertares.increment();
+                        outboxProcessor.processarEventosPendentes();
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (ativo) {
+                    logger.warn("Conexão de LISTEN {} perdida ({}); reconectando em {}",
+                            CANAL, e.getMessage(), intervaloReconexao);
+                    aguardarReconexao();
+                }
+            }
+        }
+    }
+    
+    private void aguardarReconexao() {
+        try {
+            Thread.sleep(intervaloReconexao);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ativo = false;
+        }
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        ativo = false;
+        if (ouvinte != null) {
+            ouvinte.interrupt();
+        }
+    }
+}
@@ -7,16 +7,55 @@ import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
 import com.ecommerce.pedidos.infrastructure.config.RabbitMQConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Processador de eventos da tabela Outbox
  * Executa periodicamente para publicar eventos pendentes no RabbitMQ
+ * 
+ * Cada execução reserva lotes (OutboxRepositoryPort.reservarPendentes) até a reserva
+ * voltar vazia (um lote incompleto pode ter liberado os próximos eventos dos seus
+ * agregados). Os eventos de cada lote são divididos em K faixas pelo hash do agregado:
+ * cada faixa publica seus eventos em sequência, na ordem de criação, e as faixas rodam
+ * em paralelo (Virtual Threads). Eventos de um mesmo pedido (PEDIDO_CRIADO e depois
+ * PEDIDO_CANCELADO) caem sempre na mesma faixa; e a reserva só entrega um evento
+ * quando os mais antigos do agregado já saíram de PENDING, o que mantém a ordem entre
+ * lotes, retentativas e instâncias. A reserva também garante que um evento vai para
+ * um único publicador, então várias instâncias podem rodar o processador ao mesmo tempo.
+ * Dentro da instância, só uma execução roda por vez (agendamento e OutboxNotificacaoListener
+ * compartilham as faixas e suas métricas): quem chega durante uma execução só pede
+ * mais uma passada, feita por quem está executando.
+ * 
+ * Na publicação em lote (outbox.processor.batch-publish), o lote reservado é enviado
+ * de uma vez (EventPublisherPort.publicarEmLote) e os eventos confirmados pelo broker
+ * são marcados como processados num único UPDATE; os rejeitados, devolvidos ou sem
+ * confirmação seguem o caminho individual, com contagem de tentativas.
+ * 
+ * Com a publicação imediata ligada (PublicacaoImediataOutbox), eventos mais novos
+ * que a carência são deixados para ela: o processador só pega os que ela não
+ * conseguiu publicar (falha do broker, fila cheia, instância caída após o commit).
  */
 @Component
 public class OutboxProcessor {
@@ -27,42 +66,232 @@ public class OutboxProcessor {
     private final EventPublisherPort eventPublisher;
     private final int maxRetries;
     private final int batchSize;
+    private final int faixas;
+    private final Duration lease;
+    private final Duration retryDelay;
+    private final boolean publicacaoEmLote;
+    private final Duration carencia;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock emExecucao = new ReentrantLock();
+    private final AtomicBoolean execucaoSolicitada = new AtomicBoolean();
+    private final Timer latencia;
+    
+    // Por faixa: created_at (epoch ms) do evento mais antigo em andamento (0 = ociosa) e eventos a publicar
+    private final AtomicLongArray inicioFaixa;
+    private final AtomicIntegerArray pendentesFaixa;
     
     public OutboxProcessor(
             OutboxRepositoryPort outboxRepository,
             EventPublisherPort eventPublisher,
+            MeterRegistry meterRegistry,
             @Value("${outbox.processor.max-retries:3}") int maxRetries,
-            @Value("${outbox.processor.batch-size:100}") int batchSize) {
+            @Value("${outbox.processor.batch-size:100}") int batchSize,
+            @Value("${outbox.processor.lanes:8}") int faixas,
+            @Value("${outbox.processor.lease:5m}") Duration lease,
+            @Value("${outbox.processor.retry-delay:10s}") Duration retryDelay,
+            @Value("${outbox.processor.batch-publish:false}") boolean publicacaoEmLote,
+            @Value("${outbox.publicacao-imediata.habilitado:false}") boolean publicacaoImediata,
+            @Value("${outbox.publicacao-imediata.carencia:30s}") Duration carencia) {
         this.outboxRepository = outboxRepository;
         this.eventPublisher = eventPublisher;
         this.maxRetries = maxRetries;
         this.batchSize = batchSize;
+        this.faixas = faixas;
+        this.lease = lease;
+        this.retryDelay = retryDelay;
+        this.publicacaoEmLote = publicacaoEmLote;
+        this.carencia = publicacaoImediata ? carencia : Duration.ZERO;
+        this.latencia = registrarLatencia(meterRegistry, "processor");
+        this.inicioFaixa = new AtomicLongArray(faixas);
+        this.pendentesFaixa = new AtomicIntegerArray(faixas);
+        registrarMetricasFaixas(meterRegistry);
+    }
+    
+    private void registrarMetricasFaixas(MeterRegistry meterRegistry) {
+        Gauge.builder("outbox.processor.faixas", () -> faixas)
+                .description("Faixas de publicação em paralelo (eventos do mesmo agregado ficam na mesma faixa)")
+                .register(meterRegistry);
+        for (int i = 0; i < faixas; i++) {
+            int faixa = i;
+            Gauge.builder("outbox.processor.faixa.atraso", inicioFaixa, inicios -> atrasoEmSegundos(inicios.get(faixa)))
+                    .description("Idade do evento mais antigo em publicação na faixa (0 quando ociosa)")
+                    .baseUnit("seconds")
+                    .tag("faixa", String.valueOf(faixa))
+                    .register(meterRegistry);
+            Gauge.builder("outbox.processor.faixa.pendentes", pendentesFaixa, pendentes -> pendentes.get(faixa))
+                    .description("Eventos reservados aguardando publicação na faixa")
+                    .tag("faixa", String.valueOf(faixa))
+                    .register(meterRegistry);
+        }
+    }
+    
+    private static double atrasoEmSegundos(long inicio) {
+        return inicio == 0 ? 0 : Math.max(0, System.currentTimeMillis() - inicio) / 1000.0;
     }
     
     /**
-     * Job agendado que processa eventos pendentes da Outbox
+     * Job agendado que dispara o processamento dos eventos pendentes da Outbox
      * Executa a cada 10 segundos (configurável via application.properties)
+     * 
+     * O processamento roda numa thread própria e o job retorna em seguida: esvaziar
+     * uma Outbox acumulada (ex: após o broker ficar fora do ar) não prende o agendador,
+     * compartilhado com os demais jobs (com Virtual Threads, os de fixed-delay rodam
+     * todos na única thread do agendador, como a consulta da fila de solicitações)
      */
     @Scheduled(fixedDelayString = "${outbox.processor.fixed-delay:10000}")
-    @Transactional
+    public void agendarProcessamento() {
+        if (!executor.isShutdown()) {
+            executor.execute(this::processarEventosPendentes);
+        }
+    }
+    
+    /**
+     * Processa os eventos pendentes na thread atual, até a Outbox esvaziar
+     */
     public void processarEventosPendentes() {
+        execucaoSolicitada.set(true);
+        // Sem bloquear: com uma execução em andamento, ela fará mais uma passada ao terminar
+        while (execucaoSolicitada.get() && emExecucao.tryLock()) {
+            try {
+                execucaoSolicitada.set(false);
+                processarAteEsvaziar();
+            } finally {
+                emExecucao.unlock();
+            }
+        }
+    }
+    
+    private void processarAteEsvaziar() {
+        int processados = 0;
+        List<OutboxEvent> reservados;
         try {
-            // Busca eventos pendentes (limitado por batch)
-            List<OutboxEvent> eventosPendentes = outboxRepository.buscarPendentesPaginado(batchSize);
-            
-            if (eventosPendentes.isEmpty()) {
-                logger.debug("Nenhum evento pendente para processar");
+            // Reserva e processa lotes até não haver evento disponível
+            do {
+                reservados = outboxRepository.reservarPendentes(batchSize, lease, retryDelay, carencia);
+                processarEmFaixas(reservados);
+                processados += reservados.size();
+            } while (!reservados.isEmpty() && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            logger.error("Erro ao processar eventos da Outbox: {}", e.getMessage(), e);
+        }
+        
+        if (processados == 0) {
+            logger.debug("Nenhum evento pendente para processar");
+        } else {
+            logger.info("{} eventos da Outbox processados em {} faixas", processados, faixas);
+        }
+    }
+    
+    /**
+     * Divide o lote nas faixas (mantendo a ordem de criação dentro de cada uma)
+     * e espera todas as faixas terminarem
+     */
+    private void processarEmFaixas(List<OutboxEvent> reservados) {
+        if (reservados.isEmpty()) {
+            return;
+        }
+        
+        List<List<OutboxEvent>> porFaixa = new ArrayList<>(faixas);
+        for (int i = 0; i < faixas; i++) {
+            porFaixa.add(new ArrayList<>());
+        }
+        for (OutboxEvent evento : reservados) {
+            porFaixa.get(faixaDe(evento.getAggregateId(), faixas)).add(evento);
+        }
+        
+        List<Future<?>> execucoes = new ArrayList<>(faixas);
+        for (int i = 0; i < faixas; i++) {
+            List<OutboxEvent> eventos = porFaixa.get(i);
+            if (!eventos.isEmpty()) {
+                int faixa = i;
+                pendentesFaixa.set(faixa, eventos.size());
+                execucoes.add(executor.submit(() -> processarFaixa(faixa, eventos)));
+            }
+        }
+        
+        for (Future<?> execucao : execucoes) {
+            try {
+                execucao.get();
+            } catch (ExecutionException e) {
+                logger.error("Erro ao processar faixa da Outbox: {}", e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 return;
             }
-            
-            logger.info("Processando {} eventos pendentes da Outbox", eventosPendentes.size());
-            
-            for (OutboxEvent evento : eventosPendentes) {
-                processarEvento(evento);
+        }
+    }
+    
+    /**
+     * Publica os eventos da faixa em sequência (um após o outro, ou num único lote)
+     */
+    private void processarFaixa(int faixa, List<OutboxEvent> eventos) {
+        try {
+            if (publicacaoEmLote) {
+                inicioFaixa.set(faixa, epochMillis(eventos.get(0).getCreatedAt()));
+                processarLote(eventos);
+            } else {
+                for (OutboxEvent evento : eventos) {
+                    inicioFaixa.set(faixa, epochMillis(evento.getCreatedAt()));
+                    processarEvento(evento);
+                    pendentesFaixa.decrementAndGet(faixa);
+                }
             }
-            
+        } finally {
+            inicioFaixa.set(faixa, 0);
+            pendentesFaixa.set(faixa, 0);
+        }
+    }
+    
+    private static long epochMillis(LocalDateTime dataHora) {
+        return dataHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Faixa do agregado: eventos do mesmo agregado sempre na mesma faixa
+     */
+    static int faixaDe(Long aggregateId, int faixas) {
+        return Math.floorMod(Long.hashCode(aggregateId), faixas);
+    }
+    
+    /**
+     * Publica o lote de uma vez e marca os confirmados como processados num único UPDATE;
+     * os não confirmados são tentados de novo individualmente
+     */
+    private void processarLote(List<OutboxEvent> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        
+        Set<Long> confirmados;
+        try {
+            confirmados = eventPublisher.publicarEmLote(lote, OutboxProcessor::obterRoutingKey);
         } catch (Exception e) {
-            logger.error("Erro ao processar eventos da Outbox: {}", e.getMessage(), e);
+            logger.warn("Publicação em lote de {} eventos falhou ({}); tentando um a um",
+                    lote.size(), e.getMessage());
+            confirmados = Set.of();
+        }
+        
+        if (!confirmados.isEmpty()) {
+            LocalDateTime agora = LocalDateTime.now();
+            for (OutboxEvent evento : lote) {
+                if (confirmados.contains(evento.getId())) {
+                    latencia.record(Duration.between(evento.getCreatedAt(), agora));
+                }
+            }
+            try {
+                outboxRepository.marcarComoProcessados(confirmados);
+                logger.info("{} eventos publicados e confirmados em lote", confirmados.size());
+            } catch (Exception e) {
+                // A reserva vence e os eventos são publicados de novo (pelo menos uma vez)
+                logger.error("Erro ao marcar {} eventos publicados como processados: {}",
+                        confirmados.size(), e.getMessage(), e);
+            }
+        }
+        
+        for (OutboxEvent evento : lote) {
+            if (!confirmados.contains(evento.getId())) {
+                processarEvento(evento);
+            }
         }
     }
     
@@ -79,6 +308,7 @@ public class OutboxProcessor {
             
             // Publica o evento no RabbitMQ
             eventPublisher.publicarEvento(evento.getEventType(), routingKey, evento.getPayload());
+            latencia.record(Duration.between(evento.getCreatedAt(), LocalDateTime.now()));
             
             // Marca como processado
             evento.marcarComoProcessado();
@@ -119,14 +349,28 @@ public class OutboxProcessor {
         }
     }
     
+    /**
+     * Histograma da latência da gravação do evento na Outbox (created_at) até a publicação,
+     * por origem da publicação (também usado pela publicação imediata)
+     */
+    static Timer registrarLatencia(MeterRegistry meterRegistry, String origem) {
+        return Timer.builder("outbox.eventos.latencia")
+                .description("Tempo da gravação do evento na Outbox (created_at) até a publicação no broker")
+                .tag("origem", origem)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
     /**
      * Obtém a routing key apropriada baseada no tipo de evento
+     * (também usado pela publicação imediata); tipos sem routing key própria
+     * vão para a DLQ (RabbitMQConfig.bindingPedidosEventosSemRota)
      */
-    private String obterRoutingKey(String eventType) {
+    static String obterRoutingKey(String eventType) {
         return switch (eventType) {
             case "PEDIDO_CRIADO" -> RabbitMQConfig.PEDIDO_CRIADO_ROUTING_KEY;
             case "PEDIDO_CANCELADO" -> RabbitMQConfig.PEDIDO_CANCELADO_ROUTING_KEY;
-            default -> "pedido.evento";
+            default -> RabbitMQConfig.PEDIDO_EVENTO_ROUTING_KEY;
         };
     }
     
@@ -153,8 +397,9 @@ public class OutboxProcessor {
             logger.error("Erro ao limpar eventos processados: {}", e.getMessage(), e);
         }
     }
+    
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
 }
-
-
-
-
@@ -0,0 +1,22 @@
+package com.ecommerce.pedidos.infrastructure.messaging;
+
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+
+/**
+ * Evento de alteração de produto publicado pelo microserviço de produtos
+ * 
+ * Quando o evento traz o produto atualizado, a entrada do cache é substituída;
+ * sem o produto (ou em remoções), a entrada é apenas invalidada.
+ */
+public record ProdutoAlteradoEvent(Long produtoId, TipoAlteracao tipo, ProdutoDTO produto) {
+    
+    public enum TipoAlteracao {
+        CRIADO,
+        ATUALIZADO,
+        REMOVIDO
+    }
+    
+    public boolean trazProdutoAtual() {
+        return tipo != TipoAlteracao.REMOVIDO && produto != null && produtoId.equals(produto.id());
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.pedidos.infrastructure.messaging;
+
+import com.ecommerce.pedidos.infrastructure.cache.AlteracoesProdutos;
+import com.ecommerce.pedidos.infrastructure.cache.ProdutosInexistentesCache;
+import com.ecommerce.pedidos.infrastructure.config.CacheConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consome as alterações de produtos e mantém o cache "produtos" coerente
+ * 
+ * Com a invalidação por evento, o TTL do cache deixa de ser o que garante
+ * preço e estoque atualizados e pode ser bem mais longo. A alteração é
+ * registrada em AlteracoesProdutos antes de o cache ser tocado: uma carga
+ * remota iniciada antes do evento (refresh ou busca de pedido) descarta o
+ * próprio resultado em vez de sobrescrever o valor do evento com um antigo.
+ */
+@Component
+public class ProdutoAlteradoListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProdutoAlteradoListener.class);
+    
+    private final Cache produtosCache;
+    private final ProdutosInexistentesCache produtosInexistentes;
+    private final AlteracoesProdutos alteracoes;
+    private final Counter entradasAtualizadas;
+    private final Counter entradasInvalidadas;
+    
+    public ProdutoAlteradoListener(
+            CacheManager cacheManager,
+            ProdutosInexistentesCache produtosInexistentes,
+            AlteracoesProdutos alteracoes,
+            MeterRegistry meterRegistry) {
+        this.produtosCache = cacheManager.getCache(CacheConfig.PRODUTOS_CACHE);
+        this.produtosInexistentes = produtosInexistentes;
+        this.alteracoes = alteracoes;
+        this.entradasAtualizadas = contador(meterRegistry, "atualizada");
+        this.entradasInvalidadas = contador(meterRegistry, "invalidada");
+    }
+    
+    @RabbitListener(queues = "#{produtosAlteradosQueue.name}")
+    public void onProdutoAlterado(ProdutoAlteradoEvent evento) {
+        if (evento == null || evento.produtoId() == null) {
+            logger.warn("Evento de alteração de produto sem ID ignorado: {}", evento);
+            return;
+        }
+        
+        if (evento.tipo() == ProdutoAlteradoEvent.TipoAlteracao.REMOVIDO) {
+            produtosInexistentes.registrarInexistente(evento.produtoId());
+        } else {
+            produtosInexistentes.registrarExistente(evento.produtoId());
+        }
+        
+        alteracoes.registrar(evento.produtoId());
+        if (evento.trazProdutoAtual()) {
+            produtosCache.put(evento.produtoId(), evento.produto());
+            entradasAtualizadas.increment();
+            logger.debug("Produto {} atualizado no cache ({})", evento.produtoId(), evento.tipo());
+        } else {
+            produtosCache.evict(evento.produtoId());
+            entradasInvalidadas.increment();
+            logger.debug("Produto {} invalidado no cache ({})", evento.produtoId(), evento.tipo());
+        }
+    }
+    
+    private static Counter contador(MeterRegistry meterRegistry, String acao) {
+        return Counter.builder("produtos.cache.eventos")
+                .description("Entradas do cache de produtos alteradas por eventos do microserviço de produtos")
+                .tag("acao", acao)
+                .register(meterRegistry);
+    }
+}
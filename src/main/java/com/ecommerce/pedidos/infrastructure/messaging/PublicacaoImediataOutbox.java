@@ -0,0 +1,185 @@
+package com.ecommerce.pedidos.infrastructure.messaging;
+
+import com.ecommerce.pedidos.application.service.EventPublisherPort;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.persistence.OutboxEventosGravados;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publicação dos eventos da Outbox logo após o commit da transação que os gravou (opcional)
+ *
+ * Os eventos chegam por OutboxEventosGravados (criação, cancelamento, lote, recepção
+ * assíncrona) e, só se a transação confirmar, vão para um executor limitado que publica
+ * no RabbitMQ e marca o evento como PROCESSED, sem esperar o OutboxProcessor.
+ *
+ * A Outbox continua sendo a garantia de entrega: se a publicação falhar, a fila do
+ * executor estiver cheia ou a instância cair entre o commit e a publicação, o evento
+ * fica PENDING e o OutboxProcessor o publica depois da carência.
+ *
+ * Para os dois não publicarem o mesmo evento, a publicação imediata desiste de um
+ * evento que esperou na fila do executor mais que a carência (o OutboxProcessor já
+ * pode tê-lo reservado) e, antes de publicar, reserva o evento com um UPDATE
+ * condicional (pendente e sem reserva): se não conseguir, o evento já é de outro
+ * publicador. Ao terminar, marca só esse evento como PROCESSED (ou desfaz a reserva
+ * se a publicação falhou), sem sobrescrever o estado de retentativa da Outbox. Se a
+ * marcação falhar depois da publicação, o evento é publicado de novo (pelo menos uma vez).
+ *
+ * Para manter a ordem por agregado, um evento com evento mais antigo do mesmo agregado
+ * ainda pendente (cuja publicação imediata falhou ou ainda não terminou) não é publicado
+ * aqui: fica para o OutboxProcessor, que só o reserva depois do anterior.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.publicacao-imediata.habilitado", havingValue = "true")
+public class PublicacaoImediataOutbox {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PublicacaoImediataOutbox.class);
+    
+    private final OutboxRepositoryPort outboxRepository;
+    private final EventPublisherPort eventPublisher;
+    private final ThreadPoolExecutor executor;
+    private final Duration carencia;
+    private final Duration reserva;
+    private final Timer latencia;
+    private final Counter publicados;
+    private final Counter falhas;
+    private final Counter descartados;
+    private final Counter adiados;
+    private final Counter expirados;
+    private final Counter jaReservados;
+    
+    public PublicacaoImediataOutbox(
+            OutboxRepositoryPort outboxRepository,
+            EventPublisherPort eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.publicacao-imediata.threads:4}") int threads,
+            @Value("${outbox.publicacao-imediata.capacidade-fila:1000}") int capacidadeFila,
+            @Value("${outbox.publicacao-imediata.carencia:30s}") Duration carencia,
+            @Value("${outbox.processor.lease:5m}") Duration reserva) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.carencia = carencia;
+        this.reserva = reserva;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila),
+                Thread.ofPlatform().name("outbox-imediata-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    
+        this.latencia = OutboxProcessor.registrarLatencia(meterRegistry, "imediata");
+        this.publicados = contador(meterRegistry, "publicado");
+        this.falhas = contador(meterRegistry, "falha");
+        this.descartados = contador(meterRegistry, "descartado");
+        this.adiados = contador(meterRegistry, "adiado");
+        this.expirados = contador(meterRegistry, "expirado");
+        this.jaReservados = contador(meterRegistry, "ja-reservado");
+        Gauge.builder("outbox.publicacao.imediata.fila", executor, pool -> pool.getQueue().size())
+                .description("Eventos aguardando a publicação imediata")
+                .register(meterRegistry);
+    }
+    
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("outbox.publicacao.imediata")
+                .description("Eventos da Outbox por resultado da publicação imediata"
+                        + " (falha, descartado, adiado e expirado ficam para o OutboxProcessor)")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Agenda a publicação dos eventos gravados, depois do commit (roda na thread que confirmou a transação)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aoConfirmar(OutboxEventosGravados gravados) {
+        for (OutboxEvent evento : gravados.eventos()) {
+            try {
+                executor.execute(() -> publicar(evento));
+            } catch (RejectedExecutionException e) {
+                descartados.increment();
+                logger.debug("Fila da publicação imediata cheia: evento {} fica para o OutboxProcessor", evento.getId());
+            }
+        }
+    }
+    
+    private void publicar(OutboxEvent evento) {
+        if (Duration.between(evento.getCreatedAt(), LocalDateTime.now()).compareTo(carencia) >= 0) {
+            expirados.increment();
+            logger.debug("Evento {} esperou mais que a carência na fila; fica para o OutboxProcessor", evento.getId());
+            return;
+        }
+        
+        try {
+            if (outboxRepository.existePendenteAnterior(evento)) {
+                adiados.increment();
+                logger.debug("Evento {} tem evento anterior do agregado pendente; fica para o OutboxProcessor",
+                        evento.getId());
+                return;
+            }
+            if (!outboxRepository.reservarSeDisponivel(evento.getId(), reserva)) {
+                jaReservados.increment();
+                logger.debug("Evento {} já reservado ou publicado por outro publicador", evento.getId());
+                return;
+            }
+        } catch (Exception e) {
+            falhas.increment();
+            logger.warn("Reserva do evento {} para publicação imediata falhou ({}); fica para o OutboxProcessor",
+                    evento.getId(), e.getMessage());
+            return;
+        }
+        
+        try {
+            eventPublisher.publicarEvento(evento.getEventType(), OutboxProcessor.obterRoutingKey(evento.getEventType()),
+                    evento.getPayload());
+        } catch (Exception e) {
+            falhas.increment();
+            logger.warn("Publicação imediata do evento {} falhou ({}); fica para o OutboxProcessor",
+                    evento.getId(), e.getMessage());
+            liberar(evento);
+            return;
+        }
+        latencia.record(Duration.between(evento.getCreatedAt(), LocalDateTime.now()));
+    
+        try {
+            outboxRepository.marcarComoProcessados(List.of(evento.getId()));
+            publicados.increment();
+        } catch (Exception e) {
+            logger.warn("Evento {} publicado mas não marcado como processado ({}); será publicado de novo",
+                    evento.getId(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Devolve o evento ao OutboxProcessor (sem isso, ele só o pegaria ao fim da reserva)
+     */
+    private void liberar(OutboxEvent evento) {
+        try {
+            outboxRepository.liberarReserva(evento.getId());
+        } catch (Exception e) {
+            logger.warn("Reserva do evento {} não desfeita ({}); o OutboxProcessor o pega ao fim dela",
+                    evento.getId(), e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+}
@@ -1,20 +1,43 @@
 package com.ecommerce.pedidos.infrastructure.messaging;
 
 import com.ecommerce.pedidos.application.service.EventPublisherPort;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
 import com.ecommerce.pedidos.infrastructure.config.RabbitMQConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 /**
  * Implementação do publisher de eventos usando RabbitMQ
+ * 
+ * Com publisher confirms correlacionados (spring.rabbitmq.publisher-confirm-type=correlated)
+ * e mensagens obrigatórias (publisher-returns), uma publicação só é considerada feita
+ * quando o broker confirma (ack) e a mensagem não volta por falta de rota. O lote é
+ * enviado inteiro num único canal e as confirmações, que chegam de forma assíncrona,
+ * são aguardadas depois, com um prazo único para o lote.
+ * 
+ * A publicação de um evento só (OutboxProcessor sem publicação em lote, publicação
+ * imediata) bloqueia a thread até a confirmação, por até outbox.publisher.confirm-timeout-evento;
+ * com zero, envia sem esperar e a mensagem conta como publicada sem a confirmação do broker.
  */
 @Component
 public class RabbitMQPublisher implements EventPublisherPort {
@@ -22,26 +45,33 @@ public class RabbitMQPublisher implements EventPublisherPort {
     private static final Logger logger = LoggerFactory.getLogger(RabbitMQPublisher.class);
     
     private final RabbitTemplate rabbitTemplate;
+    private final Duration prazoConfirmacao;
+    private final Duration prazoConfirmacaoEvento;
     
-    public RabbitMQPublisher(RabbitTemplate rabbitTemplate) {
+    public RabbitMQPublisher(RabbitTemplate rabbitTemplate,
+                             @Value("${outbox.publisher.confirm-timeout:5s}") Duration prazoConfirmacao,
+                             @Value("${outbox.publisher.confirm-timeout-evento:${outbox.publisher.confirm-timeout:5s}}")
+                             Duration prazoConfirmacaoEvento) {
         this.rabbitTemplate = rabbitTemplate;
+        this.prazoConfirmacao = prazoConfirmacao;
+        this.prazoConfirmacaoEvento = prazoConfirmacaoEvento;
     }
     
     @Override
     public void publicarEvento(String eventType, String routingKey, String payload) {
         try {
-            // Cria propriedades da mensagem
-            MessageProperties messageProperties = new MessageProperties();
-            messageProperties.setContentType("application/json");
-            messageProperties.setHeader("event_type", eventType);
-            messageProperties.setHeader("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
-            messageProperties.setHeader("correlation_id", UUID.randomUUID().toString());
-            
-            // Cria a mensagem
-            Message message = new Message(payload.getBytes(), messageProperties);
+            CorrelationData correlacao = new CorrelationData(UUID.randomUUID().toString());
             
             // Publica no exchange
-            rabbitTemplate.send(RabbitMQConfig.PEDIDOS_EXCHANGE, routingKey, message);
+            rabbitTemplate.send(RabbitMQConfig.PEDIDOS_EXCHANGE, routingKey, criarMensagem(eventType, payload),
+                    correlacao);
+            
+            if (confirmacoesHabilitadas() && !prazoConfirmacaoEvento.isZero()) {
+                String recusa = aguardarConfirmacao(correlacao, System.nanoTime() + prazoConfirmacaoEvento.toNanos());
+                if (recusa != null) {
+                    throw new IllegalStateException(recusa);
+                }
+            }
             
             logger.info("Evento publicado com sucesso: tipo={}, routingKey={}", eventType, routingKey);
             
@@ -51,8 +81,81 @@ public class RabbitMQPublisher implements EventPublisherPort {
             throw new RuntimeException("Erro ao publicar evento no RabbitMQ", e);
         }
     }
+    
+    @Override
+    public Set<Long> publicarEmLote(List<OutboxEvent> eventos, Function<String, String> routingKeyPorTipo) {
+        Map<Long, CorrelationData> correlacoes = new LinkedHashMap<>();
+        
+        // Todo o lote no mesmo canal, sem esperar confirmação entre as mensagens
+        rabbitTemplate.invoke(operacoes -> {
+            for (OutboxEvent evento : eventos) {
+                CorrelationData correlacao = new CorrelationData(String.valueOf(evento.getId()));
+                operacoes.send(RabbitMQConfig.PEDIDOS_EXCHANGE, routingKeyPorTipo.apply(evento.getEventType()),
+                        criarMensagem(evento.getEventType(), evento.getPayload()), correlacao);
+                correlacoes.put(evento.getId(), correlacao);
+            }
+            return null;
+        });
+        
+        if (!confirmacoesHabilitadas()) {
+            logger.debug("Publisher confirms desligados: {} eventos enviados sem confirmação", correlacoes.size());
+            return new HashSet<>(correlacoes.keySet());
+        }
+        
+        long limite = System.nanoTime() + prazoConfirmacao.toNanos();
+        Set<Long> confirmados = new HashSet<>();
+        for (Map.Entry<Long, CorrelationData> correlacao : correlacoes.entrySet()) {
+            String recusa = aguardarConfirmacao(correlacao.getValue(), limite);
+            if (recusa == null) {
+                confirmados.add(correlacao.getKey());
+            } else {
+                logger.warn("Evento id={} não confirmado pelo broker: {}", correlacao.getKey(), recusa);
+            }
+        }
+        logger.debug("Lote publicado: {} de {} eventos confirmados", confirmados.size(), eventos.size());
+        return confirmados;
+    }
+    
+    private boolean confirmacoesHabilitadas() {
+        return rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+    }
+    
+    /**
+     * Espera a confirmação da mensagem até o limite (System.nanoTime)
+     * 
+     * @return null se confirmada; senão, o motivo (nack, devolução ou prazo esgotado)
+     */
+    private static String aguardarConfirmacao(CorrelationData correlacao, long limite) {
+        try {
+            CorrelationData.Confirm confirmacao = correlacao.getFuture()
+                    .get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!confirmacao.isAck()) {
+                return "rejeitado pelo broker (" + confirmacao.getReason() + ")";
+            }
+            // A devolução (mandatory sem rota) chega antes do ack
+            if (correlacao.getReturned() != null) {
+                return "devolvido pelo broker (" + correlacao.getReturned().getReplyText() + ")";
+            }
+            return null;
+        } catch (TimeoutException e) {
+            return "sem confirmação no prazo";
+        } catch (ExecutionException e) {
+            return "erro na confirmação (" + e.getCause().getMessage() + ")";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrompido aguardando a confirmação";
+        }
+    }
+    
+    private static Message criarMensagem(String eventType, String payload) {
+        // Cria propriedades da mensagem
+        MessageProperties messageProperties = new MessageProperties();
+        messageProperties.setContentType("application/json");
+        messageProperties.setHeader("event_type", eventType);
+        messageProperties.setHeader("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+        messageProperties.setHeader("correlation_id", UUID.randomUUID().toString());
+        
+        // Cria a mensagem
+        return new Message(payload.getBytes(), messageProperties);
+    }
 }
-
-
-
-
@@ -0,0 +1,16 @@
+package com.ecommerce.pedidos.infrastructure.persistence;
+
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Evento interno (Spring) publicado pelos adaptadores de persistência ao gravar
+ * eventos novos na Outbox, dentro da transação que os grava
+ * 
+ * Quem precisa agir depois do commit (@TransactionalEventListener) recebe os
+ * eventos já com ID, sem que os casos de uso saibam disso. Se a transação for
+ * desfeita, os ouvintes de AFTER_COMMIT não recebem nada.
+ */
+public record OutboxEventosGravados(List<OutboxEvent> eventos) {
+}
@@ -0,0 +1,245 @@
+package com.ecommerce.pedidos.infrastructure.persistence;
+
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.application.service.TransacaoComPrazo;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Group commit: gravações concorrentes que chegam dentro de uma janela curta
+ * (ou até o tamanho máximo do grupo) são executadas numa única transação
+ *
+ * O primeiro chamador de um grupo é o líder: espera a janela, fecha o grupo e
+ * executa os callbacks de todos na sua thread, numa transação só (um commit,
+ * INSERTs em lote entre pedidos). Os demais esperam o resultado do próprio
+ * callback. Se a transação do grupo falhar, cada callback é executado de novo
+ * na sua própria transação, e cada chamador recebe o seu resultado ou a sua falha.
+ *
+ * A espera de quem não é líder vai no máximo até o prazo da requisição
+ * (PrazoExcedidoException). Se o líder ainda não começou a gravação, ela é
+ * retirada do grupo; se já começou, pode ser confirmada mesmo assim.
+ *
+ * Os callbacks rodam na thread do líder e compartilham o TransactionStatus do
+ * grupo: não devem depender de estado da thread nem marcar rollback-only.
+ */
+public class TransacaoEmGrupo implements TransacaoComPrazo {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransacaoEmGrupo.class);
+    
+    private final TransactionOperations transacao;
+    private final long janelaNanos;
+    private final int tamanhoMaximo;
+    private final ReentrantLock trava = new ReentrantLock();
+    private final DistributionSummary tamanhoGrupos;
+    private final Counter gruposDesfeitos;
+    
+    // Grupo aceitando novos chamadores (null: o próximo chamador abre um grupo)
+    private Grupo emFormacao;
+    
+    public TransacaoEmGrupo(TransactionOperations transacao, Duration janela, int tamanhoMaximo,
+                            MeterRegistry meterRegistry) {
+        if (tamanhoMaximo < 1) {
+            throw new IllegalArgumentException("O tamanho máximo do grupo deve ser pelo menos 1");
+        }
+        this.transacao = transacao;
+        this.janelaNanos = janela.toNanos();
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.tamanhoGrupos = DistributionSummary.builder("pedidos.gravacao.grupo.tamanho")
+                .description("Gravações executadas por transação do group commit")
+                .register(meterRegistry);
+        this.gruposDesfeitos = Counter.builder("pedidos.gravacao.grupo.desfeitos")
+                .description("Grupos cuja transação falhou e foram regravados um a um")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public <T> T execute(TransactionCallback<T> callback) throws TransactionException {
+        return execute(callback, Prazo.semLimite());
+    }
+    
+    @Override
+    public <T> T execute(TransactionCallback<T> callback, Prazo prazo) throws TransactionException {
+        Gravacao<T> gravacao = new Gravacao<>(callback);
+        Grupo grupo;
+        boolean lider;
+    
+        trava.lock();
+        try {
+            lider = emFormacao == null;
+            if (lider) {
+                emFormacao = new Grupo();
+            }
+            grupo = emFormacao;
+            grupo.gravacoes.add(gravacao);
+            if (grupo.gravacoes.size() >= tamanhoMaximo) {
+                emFormacao = null;
+                grupo.cheio.countDown();
+            }
+        } finally {
+            trava.unlock();
+        }
+    
+        if (lider) {
+            aguardarJanela(grupo);
+            gravar(grupo.gravacoes);
+        }
+        return gravacao.aguardar(prazo);
+    }
+    
+    /**
+     * Espera a janela (ou o grupo encher) e fecha o grupo para novos chamadores
+     */
+    private void aguardarJanela(Grupo grupo) {
+        boolean interrompido = false;
+        long limite = System.nanoTime() + janelaNanos;
+        long restante = janelaNanos;
+        while (restante > 0) {
+            try {
+                if (grupo.cheio.await(restante, TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                // Os outros chamadores dependem do líder: grava mesmo assim
+                interrompido = true;
+            }
+            restante = limite - System.nanoTime();
+        }
+    
+        trava.lock();
+        try {
+            if (emFormacao == grupo) {
+                emFormacao = null;
+            }
+        } finally {
+            trava.unlock();
+        }
+    
+        if (interrompido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Executa o grupo fechado numa única transação; se ela falhar, uma transação por gravação
+     */
+    private void gravar(List<Gravacao<?>> grupo) {
+        // Quem desistiu por prazo antes do início fica de fora (o líder nunca desiste)
+        List<Gravacao<?>> gravacoes = grupo.stream().filter(Gravacao::iniciar).toList();
+        tamanhoGrupos.record(gravacoes.size());
+        if (gravacoes.size() == 1) {
+            gravacoes.get(0).executarSozinha(transacao);
+            return;
+        }
+    
+        List<Object> resultados;
+        try {
+            resultados = transacao.execute(status -> {
+                List<Object> executados = new ArrayList<>(gravacoes.size());
+                for (Gravacao<?> gravacao : gravacoes) {
+                    executados.add(gravacao.callback.doInTransaction(status));
+                }
+                return executados;
+            });
+        } catch (RuntimeException | Error e) {
+            gruposDesfeitos.increment();
+            logger.warn("Transação do grupo de {} gravações falhou ({}); gravando uma a uma",
+                    gravacoes.size(), e.getMessage());
+            gravacoes.forEach(gravacao -> gravacao.executarSozinha(transacao));
+            return;
+        }
+    
+        for (int i = 0; i < gravacoes.size(); i++) {
+            gravacoes.get(i).concluir(resultados.get(i));
+        }
+    }
+    
+    private static final class Grupo {
+        // Só alterada sob a trava, enquanto o grupo está em formação
+        private final List<Gravacao<?>> gravacoes = new ArrayList<>();
+        private final CountDownLatch cheio = new CountDownLatch(1);
+    }
+    
+    private static final class Gravacao<T> {
+        private final TransactionCallback<T> callback;
+        private final CompletableFuture<T> resultado = new CompletableFuture<>();
+        // Marcada pelo líder ao incluir a gravação na transação, ou por quem desistiu antes disso
+        private final AtomicBoolean iniciada = new AtomicBoolean();
+    
+        private Gravacao(TransactionCallback<T> callback) {
+            this.callback = callback;
+        }
+    
+        private boolean iniciar() {
+            return iniciada.compareAndSet(false, true);
+        }
+    
+        @SuppressWarnings("unchecked")
+        private void concluir(Object valor) {
+            resultado.complete((T) valor);
+        }
+    
+        private void executarSozinha(TransactionOperations transacao) {
+            try {
+                resultado.complete(transacao.execute(callback));
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+        }
+    
+        private T aguardar(Prazo prazo) {
+            if (!prazo.isLimitado()) {
+                try {
+                    return resultado.join();
+                } catch (CompletionException e) {
+                    throw propagar(e.getCause(), e);
+                }
+            }
+    
+            try {
+                return resultado.get(prazo.limitarNanos(Long.MAX_VALUE), TimeUnit.NANOSECONDS);
+    
+            } catch (TimeoutException e) {
+                // Retira a gravação do grupo se o líder ainda não a começou
+                iniciar();
+                throw new PrazoExcedidoException("gravacao-em-grupo", prazo.getTotal());
+    
+            } catch (ExecutionException e) {
+                throw propagar(e.getCause(), e);
+    
+            } catch (InterruptedException e) {
+                iniciar();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Espera pela gravação em grupo interrompida", e);
+            }
+        }
+    
+        private static RuntimeException propagar(Throwable causa, Exception embrulho) {
+            if (causa instanceof RuntimeException runtimeException) {
+                return runtimeException;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            return new IllegalStateException(causa != null ? causa : embrulho);
+        }
+    }
+}
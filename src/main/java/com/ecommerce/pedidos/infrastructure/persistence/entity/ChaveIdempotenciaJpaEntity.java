@@ -0,0 +1,83 @@
+package com.ecommerce.pedidos.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidade JPA para Chave de Idempotência
+ * Representa a tabela chaves_idempotencia (a chave é a própria PK, índice único)
+ */
+@Entity
+@Table(name = "chaves_idempotencia", indexes = {
+    @Index(name = "idx_chaves_idempotencia_expira_em", columnList = "expira_em")
+})
+public class ChaveIdempotenciaJpaEntity {
+    
+    @Id
+    @Column(length = 255)
+    private String chave;
+    
+    @Column(name = "hash_requisicao", nullable = false, length = 64)
+    private String hashRequisicao;
+    
+    @Column(name = "pedido_id")
+    private Long pedidoId;
+    
+    @Column(name = "token_reserva", length = 36)
+    private String tokenReserva;
+    
+    @Column(name = "criada_em", nullable = false)
+    private LocalDateTime criadaEm;
+    
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    public String getChave() {
+        return chave;
+    }
+
+    public void setChave(String chave) {
+        this.chave = chave;
+    }
+
+    public String getHashRequisicao() {
+        return hashRequisicao;
+    }
+
+    public void setHashRequisicao(String hashRequisicao) {
+        this.hashRequisicao = hashRequisicao;
+    }
+
+    public Long getPedidoId() {
+        return pedidoId;
+    }
+
+    public void setPedidoId(Long pedidoId) {
+        this.pedidoId = pedidoId;
+    }
+
+    public String getTokenReserva() {
+        return tokenReserva;
+    }
+
+    public void setTokenReserva(String tokenReserva) {
+        this.tokenReserva = tokenReserva;
+    }
+
+    public LocalDateTime getCriadaEm() {
+        return criadaEm;
+    }
+
+    public void setCriadaEm(LocalDateTime criadaEm) {
+        this.criadaEm = criadaEm;
+    }
+
+    public LocalDateTime getExpiraEm() {
+        return expiraEm;
+    }
+
+    public void setExpiraEm(LocalDateTime expiraEm) {
+        this.expiraEm = expiraEm;
+    }
+}
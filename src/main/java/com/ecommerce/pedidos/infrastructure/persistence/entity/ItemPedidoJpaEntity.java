@@ -14,7 +14,8 @@ import java.util.Objects;
 public class ItemPedidoJpaEntity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "itens_pedido_seq")
+    @SequenceGenerator(name = "itens_pedido_seq", sequenceName = "itens_pedido_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "produto_id", nullable = false)
@@ -20,7 +20,8 @@ import java.util.Objects;
 public class OutboxJpaEntity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "aggregate_type", nullable = false, length = 50)
@@ -50,6 +51,10 @@ public class OutboxJpaEntity {
     
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
+    
+    // Fim da reserva por um publicador (null: não reservado). Só a reserva grava este campo
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
 
     public Long getId() {
         return id;
@@ -91,6 +96,10 @@ public class OutboxJpaEntity {
         return errorMessage;
     }
 
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -131,6 +140,10 @@ public class OutboxJpaEntity {
         this.errorMessage = errorMessage;
     }
 
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
@@ -17,8 +17,11 @@ import java.util.Objects;
 @Table(name = "pedidos")
 public class PedidoJpaEntity {
     
+    // IDs por sequência com incremento 50 (otimizador pooled): o Hibernate reserva 50 IDs por consulta
+    // e agrupa os INSERTs em lote (hibernate.jdbc.batch_size), o que não acontece com IDENTITY
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedidos_seq")
+    @SequenceGenerator(name = "pedidos_seq", sequenceName = "pedidos_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "numero_pedido", nullable = false, unique = true, length = 50)
@@ -0,0 +1,130 @@
+package com.ecommerce.pedidos.infrastructure.persistence.entity;
+
+import com.ecommerce.pedidos.domain.entity.StatusSolicitacao;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidade JPA para Solicitação de Pedido
+ * Representa a tabela solicitacoes_pedido (fila da recepção assíncrona)
+ */
+@Entity
+@Table(name = "solicitacoes_pedido", indexes = {
+    @Index(name = "idx_solicitacoes_pedido_status_criada_em", columnList = "status, criada_em")
+})
+public class SolicitacaoPedidoJpaEntity {
+    
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @Column(name = "chave_idempotencia", length = 255)
+    private String chaveIdempotencia;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusSolicitacao status;
+    
+    @Column(name = "pedido_id")
+    private Long pedidoId;
+    
+    @Column(columnDefinition = "TEXT")
+    private String erro;
+    
+    @Column(nullable = false)
+    private Integer tentativas;
+    
+    @Column(name = "criada_em", nullable = false)
+    private LocalDateTime criadaEm;
+    
+    @Column(name = "atualizada_em", nullable = false)
+    private LocalDateTime atualizadaEm;
+    
+    // Antes disto a solicitação não é reservada (espera entre tentativas)
+    @Column(name = "disponivel_em", nullable = false)
+    private LocalDateTime disponivelEm;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getChaveIdempotencia() {
+        return chaveIdempotencia;
+    }
+
+    public void setChaveIdempotencia(String chaveIdempotencia) {
+        this.chaveIdempotencia = chaveIdempotencia;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public StatusSolicitacao getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusSolicitacao status) {
+        this.status = status;
+    }
+
+    public Long getPedidoId() {
+        return pedidoId;
+    }
+
+    public void setPedidoId(Long pedidoId) {
+        this.pedidoId = pedidoId;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public void setErro(String erro) {
+        this.erro = erro;
+    }
+
+    public Integer getTentativas() {
+        return tentativas;
+    }
+
+    public void setTentativas(Integer tentativas) {
+        this.tentativas = tentativas;
+    }
+
+    public LocalDateTime getCriadaEm() {
+        return criadaEm;
+    }
+
+    public void setCriadaEm(LocalDateTime criadaEm) {
+        this.criadaEm = criadaEm;
+    }
+
+    public LocalDateTime getAtualizadaEm() {
+        return atualizadaEm;
+    }
+
+    public void setAtualizadaEm(LocalDateTime atualizadaEm) {
+        this.atualizadaEm = atualizadaEm;
+    }
+
+    public LocalDateTime getDisponivelEm() {
+        return disponivelEm;
+    }
+
+    public void setDisponivelEm(LocalDateTime disponivelEm) {
+        this.disponivelEm = disponivelEm;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.pedidos.infrastructure.persistence.mapper;
+
+import com.ecommerce.pedidos.domain.entity.ChaveIdempotencia;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.ChaveIdempotenciaJpaEntity;
+
+/**
+ * Mapper para conversão entre ChaveIdempotencia (domínio) e ChaveIdempotenciaJpaEntity (infraestrutura)
+ */
+public class ChaveIdempotenciaMapper {
+    
+    /**
+     * Converte entidade JPA para entidade de domínio
+     */
+    public static ChaveIdempotencia toDomain(ChaveIdempotenciaJpaEntity jpaEntity) {
+        if (jpaEntity == null) {
+            return null;
+        }
+        
+        return new ChaveIdempotencia(
+                jpaEntity.getChave(),
+                jpaEntity.getHashRequisicao(),
+                jpaEntity.getPedidoId(),
+                jpaEntity.getTokenReserva(),
+                jpaEntity.getCriadaEm(),
+                jpaEntity.getExpiraEm()
+        );
+    }
+}
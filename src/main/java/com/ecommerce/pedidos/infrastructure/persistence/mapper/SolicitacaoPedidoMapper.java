@@ -0,0 +1,55 @@
+package com.ecommerce.pedidos.infrastructure.persistence.mapper;
+
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.SolicitacaoPedidoJpaEntity;
+
+/**
+ * Mapper para conversão entre SolicitacaoPedido (domínio) e SolicitacaoPedidoJpaEntity (infraestrutura)
+ */
+public class SolicitacaoPedidoMapper {
+    
+    /**
+     * Converte entidade de domínio para entidade JPA
+     */
+    public static SolicitacaoPedidoJpaEntity toJpaEntity(SolicitacaoPedido solicitacao) {
+        if (solicitacao == null) {
+            return null;
+        }
+        
+        SolicitacaoPedidoJpaEntity jpaEntity = new SolicitacaoPedidoJpaEntity();
+        jpaEntity.setId(solicitacao.getId());
+        jpaEntity.setChaveIdempotencia(solicitacao.getChaveIdempotencia());
+        jpaEntity.setPayload(solicitacao.getPayload());
+        jpaEntity.setStatus(solicitacao.getStatus());
+        jpaEntity.setPedidoId(solicitacao.getPedidoId());
+        jpaEntity.setErro(solicitacao.getErro());
+        jpaEntity.setTentativas(solicitacao.getTentativas());
+        jpaEntity.setCriadaEm(solicitacao.getCriadaEm());
+        jpaEntity.setAtualizadaEm(solicitacao.getAtualizadaEm());
+        // Solicitação nova: disponível para reserva desde já
+        jpaEntity.setDisponivelEm(solicitacao.getAtualizadaEm());
+        
+        return jpaEntity;
+    }
+    
+    /**
+     * Converte entidade JPA para entidade de domínio
+     */
+    public static SolicitacaoPedido toDomain(SolicitacaoPedidoJpaEntity jpaEntity) {
+        if (jpaEntity == null) {
+            return null;
+        }
+        
+        return new SolicitacaoPedido(
+                jpaEntity.getId(),
+                jpaEntity.getChaveIdempotencia(),
+                jpaEntity.getPayload(),
+                jpaEntity.getStatus(),
+                jpaEntity.getPedidoId(),
+                jpaEntity.getErro(),
+                jpaEntity.getTentativas(),
+                jpaEntity.getCriadaEm(),
+                jpaEntity.getAtualizadaEm()
+        );
+    }
+}
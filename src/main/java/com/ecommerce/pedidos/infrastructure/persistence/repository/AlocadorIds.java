@@ -0,0 +1,52 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reserva IDs de uma sequência em blocos, do mesmo jeito que o otimizador pooled do Hibernate
+ * 
+ * Cada valor V lido da sequência (INCREMENT BY = tamanho do bloco) reserva os IDs
+ * (V - tamanho + 1) .. V. Hibernate e este alocador podem usar a mesma sequência
+ * ao mesmo tempo sem colisão: cada um só usa os blocos cujo valor ele mesmo leu.
+ */
+class AlocadorIds {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final String consultaProximoValor;
+    private final int tamanhoBloco;
+    private final ReentrantLock trava = new ReentrantLock();
+    
+    // Próximo ID livre e último ID do bloco atual (bloco vazio até a primeira reserva)
+    private long proximo = 1;
+    private long ultimo = 0;
+    
+    AlocadorIds(JdbcTemplate jdbcTemplate, String sequencia, int tamanhoBloco) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.consultaProximoValor = "SELECT nextval('" + sequencia + "')";
+        this.tamanhoBloco = tamanhoBloco;
+    }
+    
+    /**
+     * Reserva a quantidade de IDs pedida (uma leitura da sequência a cada bloco esgotado)
+     */
+    long[] reservar(int quantidade) {
+        long[] ids = new long[quantidade];
+        trava.lock();
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                if (proximo > ultimo) {
+                    long valor = jdbcTemplate.queryForObject(consultaProximoValor, Long.class);
+                    // O primeiro valor de uma sequência nova (1) é usado sozinho: nada de IDs negativos
+                    proximo = Math.max(1, valor - tamanhoBloco + 1);
+                    ultimo = valor;
+                }
+                ids[i] = proximo++;
+            }
+        } finally {
+            trava.unlock();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.infrastructure.persistence.entity.ChaveIdempotenciaJpaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repositório Spring Data JPA para Chaves de Idempotência
+ */
+@Repository
+public interface ChaveIdempotenciaJpaRepository extends JpaRepository<ChaveIdempotenciaJpaEntity, String> {
+    
+    /**
+     * INSERT explícito: com chave duplicada falha pelo índice único
+     * (o save() faria merge e sobrescreveria a reserva de outra requisição)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO chaves_idempotencia (chave, hash_requisicao, token_reserva, criada_em, expira_em)"
+            + " VALUES (:chave, :hashRequisicao, :tokenReserva, :criadaEm, :expiraEm)", nativeQuery = true)
+    void inserir(@Param("chave") String chave,
+                 @Param("hashRequisicao") String hashRequisicao,
+                 @Param("tokenReserva") String tokenReserva,
+                 @Param("criadaEm") LocalDateTime criadaEm,
+                 @Param("expiraEm") LocalDateTime expiraEm);
+    
+    /**
+     * Conclui só a reserva ainda em andamento e do mesmo dono
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChaveIdempotenciaJpaEntity c SET c.pedidoId = :pedidoId, c.expiraEm = :expiraEm"
+            + " WHERE c.chave = :chave AND c.tokenReserva = :tokenReserva AND c.pedidoId IS NULL")
+    int concluir(@Param("chave") String chave,
+                 @Param("tokenReserva") String tokenReserva,
+                 @Param("pedidoId") Long pedidoId,
+                 @Param("expiraEm") LocalDateTime expiraEm);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChaveIdempotenciaJpaEntity c"
+            + " WHERE c.chave = :chave AND c.tokenReserva = :tokenReserva AND c.pedidoId IS NULL")
+    int removerReserva(@Param("chave") String chave, @Param("tokenReserva") String tokenReserva);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChaveIdempotenciaJpaEntity c WHERE c.chave = :chave AND c.expiraEm <= :agora")
+    int removerSeExpirada(@Param("chave") String chave, @Param("agora") LocalDateTime agora);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChaveIdempotenciaJpaEntity c WHERE c.expiraEm <= :agora")
+    int removerExpiradas(@Param("agora") LocalDateTime agora);
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.domain.entity.ChaveIdempotencia;
+import com.ecommerce.pedidos.domain.repository.ChaveIdempotenciaRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.persistence.mapper.ChaveIdempotenciaMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Implementação do repositório de chaves de idempotência usando Spring Data JPA
+ * 
+ * A unicidade entre instâncias vem do índice único da tabela: das requisições
+ * concorrentes com a mesma chave, só uma consegue o INSERT da reserva. Conclusão
+ * e liberação conferem o token da reserva, que muda quando outra requisição
+ * assume uma reserva vencida.
+ */
+@Component
+public class ChaveIdempotenciaRepositoryImpl implements ChaveIdempotenciaRepositoryPort {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ChaveIdempotenciaRepositoryImpl.class);
+    
+    private final ChaveIdempotenciaJpaRepository jpaRepository;
+    
+    public ChaveIdempotenciaRepositoryImpl(ChaveIdempotenciaJpaRepository jpaRepository) {
+        this.jpaRepository = jpaRepository;
+    }
+    
+    @Override
+    public boolean reservar(ChaveIdempotencia chave) {
+        jpaRepository.removerSeExpirada(chave.getChave(), LocalDateTime.now());
+        try {
+            jpaRepository.inserir(chave.getChave(), chave.getHashRequisicao(), chave.getTokenReserva(),
+                    chave.getCriadaEm(), chave.getExpiraEm());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Idempotency-Key {} já reservada por outra requisição", chave.getChave());
+            return false;
+        }
+    }
+    
+    @Override
+    public Optional<ChaveIdempotencia> buscar(String chave) {
+        return jpaRepository.findById(chave)
+                .map(ChaveIdempotenciaMapper::toDomain);
+    }
+    
+    @Override
+    public void concluir(String chave, String tokenReserva, Long pedidoId, LocalDateTime expiraEm) {
+        if (jpaRepository.concluir(chave, tokenReserva, pedidoId, expiraEm) == 0) {
+            throw new IllegalStateException(
+                    "Idempotency-Key " + chave + " não está mais reservada por esta requisição");
+        }
+    }
+    
+    @Override
+    public void remover(String chave, String tokenReserva) {
+        jpaRepository.removerReserva(chave, tokenReserva);
+    }
+    
+    @Override
+    public int removerExpiradas(LocalDateTime agora) {
+        return jpaRepository.removerExpiradas(agora);
+    }
+    
+    /**
+     * Remove periodicamente as chaves vencidas (as demais continuam valendo até expirar)
+     */
+    @Scheduled(fixedDelayString = "${pedido.idempotencia.intervalo-limpeza:3600000}")
+    public void limparExpiradas() {
+        int removidas = removerExpiradas(LocalDateTime.now());
+        if (removidas > 0) {
+            logger.info("{} chaves de idempotência expiradas removidas", removidas);
+        }
+    }
+}
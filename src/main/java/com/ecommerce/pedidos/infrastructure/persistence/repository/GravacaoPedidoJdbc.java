@@ -0,0 +1,108 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.domain.entity.ItemPedido;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.repository.GravacaoPedidoPort;
+import com.ecommerce.pedidos.infrastructure.persistence.OutboxEventosGravados;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Gravação de pedidos novos direto por JDBC: um INSERT em lote por tabela
+ * (pedidos, itens_pedido, outbox), sem contexto de persistência, sem mapear
+ * entidades JPA e sem reler o agregado
+ *
+ * Os IDs são reservados das mesmas sequências das entidades JPA e com o mesmo
+ * tamanho de bloco (allocationSize), então os dois caminhos convivem. Os
+ * statements usam a conexão da transação corrente (JpaTransactionManager).
+ * Os eventos gravados são anunciados como OutboxEventosGravados, como no
+ * OutboxRepositoryImpl.
+ */
+@Component
+public class GravacaoPedidoJdbc implements GravacaoPedidoPort {
+    
+    // Igual ao allocationSize das entidades e ao INCREMENT BY das sequências
+    private static final int TAMANHO_BLOCO_IDS = 50;
+    
+    private static final String INSERT_PEDIDO = "INSERT INTO pedidos"
+            + " (id, numero_pedido, cliente_id, status, data_criacao, data_atualizacao) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ITEM = "INSERT INTO itens_pedido"
+            + " (id, pedido_id, produto_id, nome_produto, quantidade, preco_unitario) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OUTBOX = "INSERT INTO outbox"
+            + " (id, aggregate_type, aggregate_id, event_type, payload, status, created_at, processed_at, retry_count,"
+            + " error_message) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final AlocadorIds idsPedidos;
+    private final AlocadorIds idsItens;
+    private final AlocadorIds idsOutbox;
+    
+    public GravacaoPedidoJdbc(JdbcTemplate jdbcTemplate, ApplicationEventPublisher applicationEventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.idsPedidos = new AlocadorIds(jdbcTemplate, "pedidos_seq", TAMANHO_BLOCO_IDS);
+        this.idsItens = new AlocadorIds(jdbcTemplate, "itens_pedido_seq", TAMANHO_BLOCO_IDS);
+        this.idsOutbox = new AlocadorIds(jdbcTemplate, "outbox_seq", TAMANHO_BLOCO_IDS);
+    }
+    
+    @Override
+    public List<Pedido> gravarComEventos(List<Pedido> pedidos, Function<Pedido, OutboxEvent> criarEvento) {
+        if (pedidos.isEmpty()) {
+            return List.of();
+        }
+    
+        int quantidadeItens = pedidos.stream().mapToInt(pedido -> pedido.getItens().size()).sum();
+        long[] idPedido = idsPedidos.reservar(pedidos.size());
+        long[] idItem = idsItens.reservar(quantidadeItens);
+        long[] idEvento = idsOutbox.reservar(pedidos.size());
+    
+        List<Pedido> gravados = new ArrayList<>(pedidos.size());
+        List<Object[]> linhasPedidos = new ArrayList<>(pedidos.size());
+        List<Object[]> linhasItens = new ArrayList<>(quantidadeItens);
+        List<Object[]> linhasEventos = new ArrayList<>(pedidos.size());
+        List<OutboxEvent> eventos = new ArrayList<>(pedidos.size());
+        int proximoItem = 0;
+    
+        for (int i = 0; i < pedidos.size(); i++) {
+            Pedido pedido = pedidos.get(i);
+            linhasPedidos.add(new Object[] {idPedido[i], pedido.getNumeroPedido(), pedido.getClienteId(),
+                    pedido.getStatus().name(), pedido.getDataCriacao(), pedido.getDataAtualizacao()});
+    
+            List<ItemPedido> itens = new ArrayList<>(pedido.getItens().size());
+            for (ItemPedido item : pedido.getItens()) {
+                long id = idItem[proximoItem++];
+                linhasItens.add(new Object[] {id, idPedido[i], item.getProdutoId(), item.getNomeProduto(),
+                        item.getQuantidade(), item.getPrecoUnitario()});
+                itens.add(new ItemPedido(id, item.getProdutoId(), item.getNomeProduto(),
+                        item.getQuantidade(), item.getPrecoUnitario()));
+            }
+    
+            Pedido gravado = new Pedido(idPedido[i], pedido.getNumeroPedido(), pedido.getClienteId(), itens,
+                    pedido.getStatus(), pedido.getDataCriacao(), pedido.getDataAtualizacao());
+            gravados.add(gravado);
+    
+            OutboxEvent evento = criarEvento.apply(gravado);
+            linhasEventos.add(new Object[] {idEvento[i], evento.getAggregateType(), evento.getAggregateId(),
+                    evento.getEventType(), evento.getPayload(), evento.getStatus().name(), evento.getCreatedAt(),
+                    evento.getProcessedAt(), evento.getRetryCount(), evento.getErrorMessage()});
+            eventos.add(new OutboxEvent(idEvento[i], evento.getAggregateType(), evento.getAggregateId(),
+                    evento.getEventType(), evento.getPayload(), evento.getStatus(), evento.getCreatedAt(),
+                    evento.getProcessedAt(), evento.getRetryCount(), evento.getErrorMessage()));
+        }
+    
+        // Pedidos antes dos itens (chave estrangeira)
+        jdbcTemplate.batchUpdate(INSERT_PEDIDO, linhasPedidos);
+        jdbcTemplate.batchUpdate(INSERT_ITEM, linhasItens);
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, linhasEventos);
+        applicationEventPublisher.publishEvent(new OutboxEventosGravados(eventos));
+    
+        return gravados;
+    }
+}
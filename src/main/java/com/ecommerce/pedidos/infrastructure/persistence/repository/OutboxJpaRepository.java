@@ -3,9 +3,19 @@ package com.ecommerce.pedidos.infrastructure.persistence.repository;
 import com.ecommerce.pedidos.domain.entity.OutboxStatus;
 import com.ecommerce.pedidos.infrastructure.persistence.entity.OutboxJpaEntity;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -23,8 +33,69 @@ public interface OutboxJpaRepository extends JpaRepository<OutboxJpaEntity, Long
      * Busca eventos pendentes com limite (paginação)
      */
     List<OutboxJpaEntity> findByStatusOrderByCreatedAtAsc(OutboxStatus status, Pageable pageable);
+    
+    /**
+     * Eventos disponíveis mais antigos com o status, bloqueados para esta transação
+     * (SELECT ... FOR UPDATE SKIP LOCKED): linhas já bloqueadas por outra transação
+     * são puladas em vez de esperadas. Disponível: criado até criadoAntesDe,
+     * sem reserva vigente, sem falha mais recente que ultimaFalhaAntesDe e sem
+     * evento mais antigo do mesmo agregado ainda com o status (ordem por agregado).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxJpaEntity o WHERE o.status = :status AND o.createdAt <= :criadoAntesDe"
+            + " AND (o.lockedUntil IS NULL OR o.lockedUntil < :agora)"
+            + " AND (o.processedAt IS NULL OR o.processedAt < :ultimaFalhaAntesDe)"
+            + " AND NOT EXISTS (SELECT 1 FROM OutboxJpaEntity a WHERE a.status = :status"
+            + " AND a.aggregateType = o.aggregateType AND a.aggregateId = o.aggregateId"
+            + " AND (a.createdAt < o.createdAt OR (a.createdAt = o.createdAt AND a.id < o.id)))"
+            + " ORDER BY o.createdAt")
+    List<OutboxJpaEntity> findDisponiveisParaReserva(@Param("status") OutboxStatus status,
+                                                     @Param("agora") LocalDateTime agora,
+                                                     @Param("ultimaFalhaAntesDe") LocalDateTime ultimaFalhaAntesDe,
+                                                     @Param("criadoAntesDe") LocalDateTime criadoAntesDe,
+                                                     Pageable pageable);
+    
+    /**
+     * Há evento mais antigo do mesmo agregado ainda com o status?
+     */
+    @Query("SELECT COUNT(a) > 0 FROM OutboxJpaEntity a WHERE a.status = :status"
+            + " AND a.aggregateType = :aggregateType AND a.aggregateId = :aggregateId AND a.id <> :id"
+            + " AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id))")
+    boolean existsAnteriorDoAgregado(@Param("status") OutboxStatus status,
+                                     @Param("aggregateType") String aggregateType,
+                                     @Param("aggregateId") Long aggregateId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id);
+    
+    /**
+     * Reserva o evento só se ele tem o status e não está reservado (UPDATE condicional)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxJpaEntity o SET o.lockedUntil = :reservadoAte"
+            + " WHERE o.id = :id AND o.status = :status AND o.lockedUntil IS NULL")
+    int reservarSeLivre(@Param("id") Long id,
+                        @Param("status") OutboxStatus status,
+                        @Param("reservadoAte") LocalDateTime reservadoAte);
+    
+    /**
+     * Desfaz a reserva do evento se ele ainda tem o status
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxJpaEntity o SET o.lockedUntil = NULL WHERE o.id = :id AND o.status = :status")
+    int liberarReserva(@Param("id") Long id, @Param("status") OutboxStatus status);
+    
+    /**
+     * Muda o status de vários eventos num único UPDATE ... WHERE id IN (...),
+     * encerrando a reserva deles
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxJpaEntity o SET o.status = :status, o.processedAt = :agora, o.lockedUntil = NULL"
+            + " WHERE o.id IN :ids")
+    int atualizarStatus(@Param("ids") Collection<Long> ids,
+                        @Param("status") OutboxStatus status,
+                        @Param("agora") LocalDateTime agora);
 }
-
-
-
-
@@ -3,30 +3,64 @@ package com.ecommerce.pedidos.infrastructure.persistence.repository;
 import com.ecommerce.pedidos.domain.entity.OutboxEvent;
 import com.ecommerce.pedidos.domain.entity.OutboxStatus;
 import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.persistence.OutboxEventosGravados;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.OutboxJpaEntity;
 import com.ecommerce.pedidos.infrastructure.persistence.mapper.OutboxMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Implementação do repositório de Outbox usando Spring Data JPA
+ * 
+ * A reserva é uma transação curta: SELECT ... FOR UPDATE SKIP LOCKED dos eventos
+ * disponíveis e gravação do fim da reserva (locked_until). A publicação acontece
+ * depois, fora dela; atualizar o evento (processado ou falho) encerra a reserva.
+ * 
+ * Eventos novos (salvar, salvarTodos) são anunciados como OutboxEventosGravados
+ * na transação corrente, para a publicação imediata após o commit.
  */
 @Component
 public class OutboxRepositoryImpl implements OutboxRepositoryPort {
     
     private final OutboxJpaRepository jpaRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
     
-    public OutboxRepositoryImpl(OutboxJpaRepository jpaRepository) {
+    public OutboxRepositoryImpl(OutboxJpaRepository jpaRepository,
+                                ApplicationEventPublisher applicationEventPublisher) {
         this.jpaRepository = jpaRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
     
     @Override
     public OutboxEvent salvar(OutboxEvent event) {
         var jpaEntity = OutboxMapper.toJpaEntity(event);
         var savedEntity = jpaRepository.save(jpaEntity);
-        return OutboxMapper.toDomain(savedEntity);
+        OutboxEvent salvo = OutboxMapper.toDomain(savedEntity);
+        applicationEventPublisher.publishEvent(new OutboxEventosGravados(List.of(salvo)));
+        return salvo;
+    }
+    
+    @Override
+    public List<OutboxEvent> salvarTodos(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        
+        List<OutboxEvent> salvos = jpaRepository.saveAll(events.stream().map(OutboxMapper::toJpaEntity).toList())
+                .stream()
+                .map(OutboxMapper::toDomain)
+                .collect(Collectors.toList());
+        applicationEventPublisher.publishEvent(new OutboxEventosGravados(salvos));
+        return salvos;
     }
     
     @Override
@@ -44,14 +78,52 @@ public class OutboxRepositoryImpl implements OutboxRepositoryPort {
                 .collect(Collectors.toList());
     }
     
+    @Override
+    @Transactional
+    public List<OutboxEvent> reservarPendentes(int limite, Duration reserva, Duration intervaloRetentativa,
+                                               Duration carencia) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<OutboxJpaEntity> disponiveis = jpaRepository.findDisponiveisParaReserva(OutboxStatus.PENDING, agora,
+                agora.minus(intervaloRetentativa), agora.minus(carencia), PageRequest.of(0, limite));
+        
+        // Entidades gerenciadas: gravadas no commit, ainda com as linhas bloqueadas
+        LocalDateTime reservadoAte = agora.plus(reserva);
+        disponiveis.forEach(entidade -> entidade.setLockedUntil(reservadoAte));
+        
+        return disponiveis.stream()
+                .map(OutboxMapper::toDomain)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public boolean reservarSeDisponivel(Long id, Duration reserva) {
+        return jpaRepository.reservarSeLivre(id, OutboxStatus.PENDING, LocalDateTime.now().plus(reserva)) == 1;
+    }
+    
+    @Override
+    public void liberarReserva(Long id) {
+        jpaRepository.liberarReserva(id, OutboxStatus.PENDING);
+    }
+    
+    @Override
+    public boolean existePendenteAnterior(OutboxEvent event) {
+        // created_at é gravado com precisão de microssegundos
+        return jpaRepository.existsAnteriorDoAgregado(OutboxStatus.PENDING, event.getAggregateType(),
+                event.getAggregateId(), event.getCreatedAt().truncatedTo(ChronoUnit.MICROS), event.getId());
+    }
+    
     @Override
     public OutboxEvent atualizar(OutboxEvent event) {
         var jpaEntity = OutboxMapper.toJpaEntity(event);
         var updatedEntity = jpaRepository.save(jpaEntity);
         return OutboxMapper.toDomain(updatedEntity);
     }
+    
+    @Override
+    public int marcarComoProcessados(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jpaRepository.atualizarStatus(ids, OutboxStatus.PROCESSED, LocalDateTime.now());
+    }
 }
-
-
-
-
@@ -1,9 +1,13 @@
 package com.ecommerce.pedidos.infrastructure.persistence.repository;
 
 import com.ecommerce.pedidos.infrastructure.persistence.entity.PedidoJpaEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +26,15 @@ public interface PedidoJpaRepository extends JpaRepository<PedidoJpaEntity, Long
      * Lista pedidos de um cliente
      */
     List<PedidoJpaEntity> findByClienteId(Long clienteId);
+    
+    /**
+     * IDs dos produtos mais pedidos desde a data informada (ordem decrescente)
+     */
+    @Query("SELECT i.produtoId FROM ItemPedidoJpaEntity i "
+            + "WHERE i.pedido.dataCriacao >= :desde "
+            + "GROUP BY i.produtoId "
+            + "ORDER BY COUNT(i) DESC")
+    List<Long> findProdutosMaisPedidos(@Param("desde") LocalDateTime desde, Pageable pageable);
 }
 
 
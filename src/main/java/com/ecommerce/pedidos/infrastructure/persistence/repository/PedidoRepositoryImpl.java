@@ -3,8 +3,10 @@ package com.ecommerce.pedidos.infrastructure.persistence.repository;
 import com.ecommerce.pedidos.domain.entity.Pedido;
 import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
 import com.ecommerce.pedidos.infrastructure.persistence.mapper.PedidoMapper;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -28,6 +30,21 @@ public class PedidoRepositoryImpl implements PedidoRepositoryPort {
         return PedidoMapper.toDomain(savedEntity);
     }
     
+    /**
+     * Os IDs vêm da sequência (já na persistência); os INSERTs de pedidos e de
+     * itens saem em lote no flush da transação
+     */
+    @Override
+    public List<Pedido> salvarTodos(List<Pedido> pedidos) {
+        if (pedidos.isEmpty()) {
+            return List.of();
+        }
+        
+        return jpaRepository.saveAll(pedidos.stream().map(PedidoMapper::toJpaEntity).toList()).stream()
+                .map(PedidoMapper::toDomain)
+                .collect(Collectors.toList());
+    }
+    
     @Override
     public Optional<Pedido> buscarPorId(Long id) {
         return jpaRepository.findById(id)
@@ -65,8 +82,9 @@ public class PedidoRepositoryImpl implements PedidoRepositoryPort {
     public void deletar(Long id) {
         jpaRepository.deleteById(id);
     }
+    
+    @Override
+    public List<Long> listarProdutosMaisPedidos(LocalDateTime desde, int limite) {
+        return jpaRepository.findProdutosMaisPedidos(desde, PageRequest.of(0, limite));
+    }
 }
-
-
-
-
@@ -0,0 +1,93 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.domain.entity.StatusSolicitacao;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.SolicitacaoPedidoJpaEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório Spring Data JPA para Solicitações de Pedido
+ */
+@Repository
+public interface SolicitacaoPedidoJpaRepository extends JpaRepository<SolicitacaoPedidoJpaEntity, String> {
+    
+    /**
+     * IDs das solicitações mais antigas com o status e já disponíveis (fora da espera entre tentativas)
+     */
+    @Query("SELECT s.id FROM SolicitacaoPedidoJpaEntity s WHERE s.status = :status AND s.disponivelEm <= :agora"
+            + " ORDER BY s.criadaEm")
+    List<String> findIdsDisponiveis(@Param("status") StatusSolicitacao status,
+                                    @Param("agora") LocalDateTime agora,
+                                    Pageable pageable);
+    
+    /**
+     * Mudança de status condicional: só quem encontra a solicitação ainda no status
+     * esperado a altera (é assim que um trabalhador reserva uma solicitação)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SolicitacaoPedidoJpaEntity s SET s.status = :novo, s.tentativas = s.tentativas + 1,"
+            + " s.atualizadaEm = :agora WHERE s.id = :id AND s.status = :atual")
+    int reservar(@Param("id") String id,
+                 @Param("atual") StatusSolicitacao atual,
+                 @Param("novo") StatusSolicitacao novo,
+                 @Param("agora") LocalDateTime agora);
+    
+    /**
+     * Devolve à fila uma solicitação ainda no status e na reserva (tentativa) esperados,
+     * reservável só a partir de "disponivelEm"
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SolicitacaoPedidoJpaEntity s SET s.status = :novo, s.erro = :erro, s.atualizadaEm = :agora,"
+            + " s.disponivelEm = :disponivelEm WHERE s.id = :id AND s.status = :atual AND s.tentativas = :tentativa")
+    int devolver(@Param("id") String id,
+                 @Param("atual") StatusSolicitacao atual,
+                 @Param("tentativa") int tentativa,
+                 @Param("novo") StatusSolicitacao novo,
+                 @Param("erro") String erro,
+                 @Param("agora") LocalDateTime agora,
+                 @Param("disponivelEm") LocalDateTime disponivelEm);
+    
+    /**
+     * Finaliza uma solicitação que ainda está no status e na reserva (tentativa) esperados
+     * (a que outro trabalhador já reassumiu ou finalizou não é alterada)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SolicitacaoPedidoJpaEntity s SET s.status = :status, s.pedidoId = :pedidoId, s.erro = :erro,"
+            + " s.atualizadaEm = :agora WHERE s.id = :id AND s.status = :atual AND s.tentativas = :tentativa")
+    int atualizarStatus(@Param("id") String id,
+                        @Param("atual") StatusSolicitacao atual,
+                        @Param("tentativa") int tentativa,
+                        @Param("status") StatusSolicitacao status,
+                        @Param("pedidoId") Long pedidoId,
+                        @Param("erro") String erro,
+                        @Param("agora") LocalDateTime agora);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE SolicitacaoPedidoJpaEntity s SET s.status = :novo, s.atualizadaEm = :agora"
+            + " WHERE s.status = :atual AND s.atualizadaEm < :desde")
+    int mudarStatusAntesDe(@Param("atual") StatusSolicitacao atual,
+                           @Param("novo") StatusSolicitacao novo,
+                           @Param("desde") LocalDateTime desde,
+                           @Param("agora") LocalDateTime agora);
+    
+    long countByStatus(StatusSolicitacao status);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SolicitacaoPedidoJpaEntity s WHERE s.status IN :status AND s.atualizadaEm < :data")
+    int removerPorStatusAntesDe(@Param("status") Collection<StatusSolicitacao> status,
+                                @Param("data") LocalDateTime data);
+}
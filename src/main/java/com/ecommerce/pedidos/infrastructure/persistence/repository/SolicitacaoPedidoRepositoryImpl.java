@@ -0,0 +1,108 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+import com.ecommerce.pedidos.domain.entity.StatusSolicitacao;
+import com.ecommerce.pedidos.domain.repository.SolicitacaoPedidoRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.persistence.mapper.SolicitacaoPedidoMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Implementação da fila de solicitações de pedido usando Spring Data JPA
+ * 
+ * A reserva é um UPDATE condicional por solicitação (status RECEBIDA → PROCESSANDO):
+ * entre trabalhadores concorrentes, de qualquer instância, só um UPDATE altera a linha.
+ * A reserva incrementa "tentativas", que passa a identificar quem a detém: concluir,
+ * rejeitar e devolver só alteram a solicitação ainda em PROCESSANDO com a mesma
+ * tentativa. Um trabalhador atrasado (solicitação devolvida como travada e reservada
+ * de novo por outro) perdeu a reserva e não sobrescreve o resultado do outro.
+ */
+@Component
+public class SolicitacaoPedidoRepositoryImpl implements SolicitacaoPedidoRepositoryPort {
+    
+    private final SolicitacaoPedidoJpaRepository jpaRepository;
+    
+    public SolicitacaoPedidoRepositoryImpl(SolicitacaoPedidoJpaRepository jpaRepository) {
+        this.jpaRepository = jpaRepository;
+    }
+    
+    @Override
+    public SolicitacaoPedido salvar(SolicitacaoPedido solicitacao) {
+        var jpaEntity = SolicitacaoPedidoMapper.toJpaEntity(solicitacao);
+        var savedEntity = jpaRepository.save(jpaEntity);
+        return SolicitacaoPedidoMapper.toDomain(savedEntity);
+    }
+    
+    @Override
+    public Optional<SolicitacaoPedido> buscarPorId(String id) {
+        return jpaRepository.findById(id)
+                .map(SolicitacaoPedidoMapper::toDomain);
+    }
+    
+    @Override
+    public List<SolicitacaoPedido> reservarProximas(int limite) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<String> reservadas = jpaRepository.findIdsDisponiveis(StatusSolicitacao.RECEBIDA, agora,
+                        PageRequest.of(0, limite))
+                .stream()
+                .filter(id -> jpaRepository.reservar(id, StatusSolicitacao.RECEBIDA, StatusSolicitacao.PROCESSANDO,
+                        agora) == 1)
+                .toList();
+        
+        if (reservadas.isEmpty()) {
+            return List.of();
+        }
+        return jpaRepository.findAllById(reservadas).stream()
+                .map(SolicitacaoPedidoMapper::toDomain)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public void concluir(String id, int tentativa, Long pedidoId) {
+        if (atualizarEmProcessamento(id, tentativa, StatusSolicitacao.CRIADO, pedidoId, null) == 0) {
+            throw new IllegalStateException(
+                    "Solicitação " + id + " não está mais reservada pela tentativa " + tentativa);
+        }
+    }
+    
+    @Override
+    public boolean rejeitar(String id, int tentativa, String erro) {
+        return atualizarEmProcessamento(id, tentativa, StatusSolicitacao.REJEITADO, null, erro) == 1;
+    }
+    
+    @Override
+    public boolean devolverParaFila(String id, int tentativa, String erro, Duration espera) {
+        LocalDateTime agora = LocalDateTime.now();
+        return jpaRepository.devolver(id, StatusSolicitacao.PROCESSANDO, tentativa, StatusSolicitacao.RECEBIDA,
+                erro, agora, agora.plus(espera)) == 1;
+    }
+    
+    @Override
+    public int devolverTravadas(LocalDateTime processandoDesde) {
+        return jpaRepository.mudarStatusAntesDe(StatusSolicitacao.PROCESSANDO, StatusSolicitacao.RECEBIDA,
+                processandoDesde, LocalDateTime.now());
+    }
+    
+    @Override
+    public long contarNaFila() {
+        return jpaRepository.countByStatus(StatusSolicitacao.RECEBIDA);
+    }
+    
+    @Override
+    public int removerFinalizadasAntesDe(LocalDateTime data) {
+        return jpaRepository.removerPorStatusAntesDe(
+                List.of(StatusSolicitacao.CRIADO, StatusSolicitacao.REJEITADO), data);
+    }
+    
+    private int atualizarEmProcessamento(String id, int tentativa, StatusSolicitacao status, Long pedidoId,
+            String erro) {
+        return jpaRepository.atualizarStatus(id, StatusSolicitacao.PROCESSANDO, tentativa, status, pedidoId, erro,
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecommerce.pedidos.infrastructure.recepcao;
+
+import com.ecommerce.pedidos.application.usecase.ProcessarSolicitacaoPedidoUseCase;
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+import com.ecommerce.pedidos.domain.entity.StatusSolicitacao;
+import com.ecommerce.pedidos.domain.repository.SolicitacaoPedidoRepositoryPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trabalhadores da recepção assíncrona de pedidos
+ *
+ * A cada consulta reserva da fila no máximo tantas solicitações quantos trabalhadores
+ * livres houver (Semaphore), e processa cada uma numa Virtual Thread. Com todos os
+ * trabalhadores ocupados nada é reservado: as solicitações esperam na fila, e a
+ * recepção passa a recusar pedidos quando a fila chega ao tamanho máximo.
+ *
+ * Só existe com pedido.recepcao.modo=ASSINCRONO: no modo síncrono nada é enfileirado
+ * e a tabela não é consultada.
+ */
+@Component
+@ConditionalOnProperty(name = "pedido.recepcao.modo", havingValue = "ASSINCRONO")
+public class ProcessadorSolicitacoesPedido {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProcessadorSolicitacoesPedido.class);
+    
+    private final SolicitacaoPedidoRepositoryPort solicitacaoRepository;
+    private final ProcessarSolicitacaoPedidoUseCase processarSolicitacaoUseCase;
+    private final int trabalhadores;
+    private final Duration processandoMaximo;
+    private final Duration retencao;
+    private final Semaphore vagas;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong tamanhoFila = new AtomicLong();
+    private final Map<StatusSolicitacao, Counter> processadas = new EnumMap<>(StatusSolicitacao.class);
+    
+    public ProcessadorSolicitacoesPedido(
+            SolicitacaoPedidoRepositoryPort solicitacaoRepository,
+            ProcessarSolicitacaoPedidoUseCase processarSolicitacaoUseCase,
+            MeterRegistry meterRegistry,
+            @Value("${pedido.recepcao.trabalhadores:16}") int trabalhadores,
+            @Value("${pedido.recepcao.processando-maximo:5m}") Duration processandoMaximo,
+            @Value("${pedido.recepcao.retencao:7d}") Duration retencao) {
+        this.solicitacaoRepository = solicitacaoRepository;
+        this.processarSolicitacaoUseCase = processarSolicitacaoUseCase;
+        this.trabalhadores = trabalhadores;
+        this.processandoMaximo = processandoMaximo;
+        this.retencao = retencao;
+        this.vagas = new Semaphore(trabalhadores);
+    
+        Gauge.builder("pedidos.recepcao.fila", tamanhoFila, AtomicLong::get)
+                .description("Solicitações de pedido aguardando na fila (última contagem)")
+                .register(meterRegistry);
+        Gauge.builder("pedidos.recepcao.em.andamento", vagas, semaforo -> trabalhadores - semaforo.availablePermits())
+                .description("Solicitações de pedido sendo processadas nesta instância")
+                .register(meterRegistry);
+        for (StatusSolicitacao resultado : List.of(StatusSolicitacao.CRIADO, StatusSolicitacao.REJEITADO,
+                StatusSolicitacao.RECEBIDA, StatusSolicitacao.PROCESSANDO)) {
+            processadas.put(resultado, Counter.builder("pedidos.recepcao.processadas")
+                    .description("Solicitações de pedido processadas, por status resultante (RECEBIDA = devolvida"
+                            + " à fila, PROCESSANDO = reserva perdida para outro trabalhador)")
+                    .tag("resultado", resultado.name())
+                    .register(meterRegistry));
+        }
+    }
+    
+    /**
+     * Reserva e dispara o processamento das próximas solicitações da fila
+     */
+    @Scheduled(fixedDelayString = "${pedido.recepcao.intervalo-consulta:500}")
+    public void processarFila() {
+        int livres = vagas.availablePermits();
+        if (livres == 0) {
+            logger.debug("Todos os {} trabalhadores ocupados", trabalhadores);
+            return;
+        }
+    
+        try {
+            List<SolicitacaoPedido> reservadas = solicitacaoRepository.reservarProximas(livres);
+            if (!reservadas.isEmpty()) {
+                logger.debug("{} solicitações de pedido reservadas", reservadas.size());
+            }
+    
+            for (SolicitacaoPedido solicitacao : reservadas) {
+                // Só este método adquire vagas, e nunca mais do que as livres: não bloqueia
+                vagas.acquireUninterruptibly();
+                executor.execute(() -> processar(solicitacao));
+            }
+        } catch (Exception e) {
+            logger.error("Erro ao reservar solicitações de pedido: {}", e.getMessage(), e);
+        }
+    }
+    
+    private void processar(SolicitacaoPedido solicitacao) {
+        try {
+            StatusSolicitacao resultado = processarSolicitacaoUseCase.executar(solicitacao);
+            processadas.get(resultado).increment();
+        } catch (Exception e) {
+            // Falha ao registrar o resultado: a solicitação volta à fila ao passar do tempo máximo em processamento
+            logger.error("Erro ao processar solicitação {}: {}", solicitacao.getId(), e.getMessage(), e);
+        } finally {
+            vagas.release();
+        }
+    }
+    
+    /**
+     * Devolve à fila solicitações presas em processamento (instância reiniciada no meio)
+     * e atualiza a métrica de tamanho da fila
+     */
+    @Scheduled(fixedDelayString = "${pedido.recepcao.intervalo-manutencao:30000}")
+    public void devolverTravadas() {
+        try {
+            int devolvidas = solicitacaoRepository.devolverTravadas(LocalDateTime.now().minus(processandoMaximo));
+            if (devolvidas > 0) {
+                logger.warn("{} solicitações de pedido presas em processamento devolvidas à fila", devolvidas);
+            }
+            tamanhoFila.set(solicitacaoRepository.contarNaFila());
+        } catch (Exception e) {
+            logger.error("Erro na manutenção da fila de solicitações de pedido: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Remove solicitações finalizadas há mais tempo que a retenção
+     */
+    @Scheduled(cron = "${pedido.recepcao.limpeza-cron:0 30 2 * * ?}")
+    public void limparFinalizadas() {
+        try {
+            int removidas = solicitacaoRepository.removerFinalizadasAntesDe(LocalDateTime.now().minus(retencao));
+            logger.info("Limpeza da fila de solicitações de pedido concluída: {} removidas", removidas);
+        } catch (Exception e) {
+            logger.error("Erro ao limpar solicitações de pedido: {}", e.getMessage(), e);
+        }
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+}
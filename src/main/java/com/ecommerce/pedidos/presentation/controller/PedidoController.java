@@ -1,13 +1,25 @@
 package com.ecommerce.pedidos.presentation.controller;
 
 import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.dto.NovoPedidoRequest;
+import com.ecommerce.pedidos.application.dto.ResultadoPedidoIdempotente;
+import com.ecommerce.pedidos.application.dto.ResultadoPedidoLote;
+import com.ecommerce.pedidos.application.service.Prazo;
 import com.ecommerce.pedidos.application.usecase.BuscarPedidoPorIdUseCase;
+import com.ecommerce.pedidos.application.usecase.BuscarSolicitacaoPedidoUseCase;
 import com.ecommerce.pedidos.application.usecase.CancelarPedidoUseCase;
+import com.ecommerce.pedidos.application.usecase.CriarPedidoIdempotenteUseCase;
 import com.ecommerce.pedidos.application.usecase.CriarPedidoUseCase;
+import com.ecommerce.pedidos.application.usecase.CriarPedidosEmLoteUseCase;
 import com.ecommerce.pedidos.application.usecase.ListarPedidosUseCase;
+import com.ecommerce.pedidos.application.usecase.ModoRecepcaoPedidos;
+import com.ecommerce.pedidos.application.usecase.ReceberPedidoUseCase;
 import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
 import com.ecommerce.pedidos.presentation.dto.PedidoRequestDTO;
 import com.ecommerce.pedidos.presentation.dto.PedidoResponseDTO;
+import com.ecommerce.pedidos.presentation.dto.PedidosLoteResponseDTO;
+import com.ecommerce.pedidos.presentation.dto.SolicitacaoPedidoResponseDTO;
 import com.ecommerce.pedidos.presentation.mapper.PedidoDTOMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,10 +29,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -32,41 +47,146 @@ import java.util.stream.Collectors;
 @Tag(name = "Pedidos", description = "API para gerenciamento de pedidos")
 public class PedidoController {
     
+    static final String HEADER_PRAZO = "X-Request-Timeout";
+    static final String HEADER_IDEMPOTENCIA = "Idempotency-Key";
+    static final String HEADER_REPETICAO = "Idempotent-Replayed";
+    
     private final CriarPedidoUseCase criarPedidoUseCase;
+    private final CriarPedidoIdempotenteUseCase criarPedidoIdempotenteUseCase;
+    private final CriarPedidosEmLoteUseCase criarPedidosEmLoteUseCase;
     private final BuscarPedidoPorIdUseCase buscarPedidoPorIdUseCase;
     private final ListarPedidosUseCase listarPedidosUseCase;
     private final CancelarPedidoUseCase cancelarPedidoUseCase;
+    private final ReceberPedidoUseCase receberPedidoUseCase;
+    private final BuscarSolicitacaoPedidoUseCase buscarSolicitacaoPedidoUseCase;
+    private final ModoRecepcaoPedidos modoRecepcao;
+    private final Duration prazoPadrao;
+    private final Duration prazoMaximo;
     
     public PedidoController(
             CriarPedidoUseCase criarPedidoUseCase,
+            CriarPedidoIdempotenteUseCase criarPedidoIdempotenteUseCase,
+            CriarPedidosEmLoteUseCase criarPedidosEmLoteUseCase,
             BuscarPedidoPorIdUseCase buscarPedidoPorIdUseCase,
             ListarPedidosUseCase listarPedidosUseCase,
-            CancelarPedidoUseCase cancelarPedidoUseCase) {
+            CancelarPedidoUseCase cancelarPedidoUseCase,
+            ReceberPedidoUseCase receberPedidoUseCase,
+            BuscarSolicitacaoPedidoUseCase buscarSolicitacaoPedidoUseCase,
+            @Value("${pedido.recepcao.modo:SINCRONO}") ModoRecepcaoPedidos modoRecepcao,
+            @Value("${pedido.prazo.padrao:8s}") Duration prazoPadrao,
+            @Value("${pedido.prazo.maximo:30s}") Duration prazoMaximo) {
         this.criarPedidoUseCase = criarPedidoUseCase;
+        this.criarPedidoIdempotenteUseCase = criarPedidoIdempotenteUseCase;
+        this.criarPedidosEmLoteUseCase = criarPedidosEmLoteUseCase;
         this.buscarPedidoPorIdUseCase = buscarPedidoPorIdUseCase;
         this.listarPedidosUseCase = listarPedidosUseCase;
         this.cancelarPedidoUseCase = cancelarPedidoUseCase;
+        this.receberPedidoUseCase = receberPedidoUseCase;
+        this.buscarSolicitacaoPedidoUseCase = buscarSolicitacaoPedidoUseCase;
+        this.modoRecepcao = modoRecepcao;
+        this.prazoPadrao = prazoPadrao;
+        this.prazoMaximo = prazoMaximo;
     }
     
-    @Operation(summary = "Criar novo pedido")
+    @Operation(summary = "Criar novo pedido",
+            description = "No modo de recepção ASSINCRONO o pedido é só enfileirado (202); o resultado é consultado"
+                    + " em GET /api/pedidos/solicitacoes/{id}")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Pedido criado com sucesso",
                     content = @Content(schema = @Schema(implementation = PedidoResponseDTO.class))),
-            @ApiResponse(responseCode = "400", description = "Dados inválidos"),
-            @ApiResponse(responseCode = "422", description = "Produto indisponível ou estoque insuficiente")
+            @ApiResponse(responseCode = "202", description = "Pedido recebido para criação assíncrona",
+                    content = @Content(schema = @Schema(implementation = SolicitacaoPedidoResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos ou Idempotency-Key usada com outra requisição"),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em andamento"),
+            @ApiResponse(responseCode = "422", description = "Produto indisponível ou estoque insuficiente"),
+            @ApiResponse(responseCode = "503", description = "Fila de pedidos cheia (modo ASSINCRONO)"),
+            @ApiResponse(responseCode = "504", description = "Prazo da requisição esgotado")
     })
     @PostMapping
-    public ResponseEntity<PedidoResponseDTO> criarPedido(
-            @Valid @RequestBody PedidoRequestDTO request) {
+    public ResponseEntity<?> criarPedido(
+            @Valid @RequestBody PedidoRequestDTO request,
+            @Parameter(description = "Prazo total da requisição em milissegundos (limitado ao máximo configurado)")
+            @RequestHeader(value = HEADER_PRAZO, required = false) Long prazoMs,
+            @Parameter(description = "Chave única da requisição: repetições devolvem o pedido já criado")
+            @RequestHeader(value = HEADER_IDEMPOTENCIA, required = false) String chaveIdempotencia) {
+        
+        // O prazo começa a contar aqui e vale para todo o caminho de criação
+        Prazo prazo = Prazo.em(resolverPrazo(prazoMs));
         
         // Converte itens do DTO para o formato esperado pelo use case
         var itensRequest = request.itens().stream()
         .map(item -> new ItemPedidoRequest(item.produtoId(), item.quantidade())).collect(Collectors.toList());
+        
+        if (modoRecepcao == ModoRecepcaoPedidos.ASSINCRONO) {
+            SolicitacaoPedido solicitacao = receberPedidoUseCase.executar(
+                    chaveIdempotencia, request.clienteId(), itensRequest);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                            .path("/solicitacoes/{id}").buildAndExpand(solicitacao.getId()).toUri())
+                    .body(PedidoDTOMapper.toResponseDTO(solicitacao));
+        }
                 
-        Pedido pedido = criarPedidoUseCase.executar(request.clienteId(), itensRequest);
+        if (chaveIdempotencia == null) {
+            Pedido pedido = criarPedidoUseCase.executar(request.clienteId(), itensRequest, prazo);
+            return new ResponseEntity<>(PedidoDTOMapper.toResponseDTO(pedido), HttpStatus.CREATED);
+        }
         
-        PedidoResponseDTO response = PedidoDTOMapper.toResponseDTO(pedido);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        ResultadoPedidoIdempotente resultado = criarPedidoIdempotenteUseCase.executar(
+                chaveIdempotencia, request.clienteId(), itensRequest, prazo);
+        
+        PedidoResponseDTO response = PedidoDTOMapper.toResponseDTO(resultado.pedido());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(HEADER_REPETICAO, String.valueOf(resultado.repeticao()))
+                .body(response);
+    }
+    
+    @Operation(summary = "Criar pedidos em lote",
+            description = "Cada pedido é validado e criado de forma independente; a resposta traz um resultado por pedido")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Todos os pedidos criados",
+                    content = @Content(schema = @Schema(implementation = PedidosLoteResponseDTO.class))),
+            @ApiResponse(responseCode = "207", description = "Parte dos pedidos falhou (ver resultados)",
+                    content = @Content(schema = @Schema(implementation = PedidosLoteResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do tamanho máximo"),
+            @ApiResponse(responseCode = "504", description = "Prazo da requisição esgotado")
+    })
+    @PostMapping("/lote")
+    public ResponseEntity<PedidosLoteResponseDTO> criarPedidosEmLote(
+            @RequestBody List<PedidoRequestDTO> requests,
+            @Parameter(description = "Prazo total da requisição em milissegundos (limitado ao máximo configurado)")
+            @RequestHeader(value = HEADER_PRAZO, required = false) Long prazoMs) {
+        
+        Prazo prazo = Prazo.em(resolverPrazo(prazoMs));
+        
+        // Pedidos e itens nulos seguem como null: o caso de uso os recusa um a um
+        var novosPedidos = requests.stream()
+                .map(request -> request == null ? null
+                        : new NovoPedidoRequest(request.clienteId(), request.itens() == null ? null
+                                : request.itens().stream()
+                                        .map(item -> item == null ? null
+                                                : new ItemPedidoRequest(item.produtoId(), item.quantidade()))
+                                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+        
+        List<ResultadoPedidoLote> resultados = criarPedidosEmLoteUseCase.executar(novosPedidos, prazo);
+        
+        PedidosLoteResponseDTO response = PedidoDTOMapper.toLoteResponseDTO(resultados);
+        HttpStatus status = response.falhas() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(response, status);
+    }
+    
+    /**
+     * Prazo pedido pelo cliente (nunca acima do máximo) ou o padrão
+     */
+    private Duration resolverPrazo(Long prazoMs) {
+        if (prazoMs == null) {
+            return prazoPadrao;
+        }
+        if (prazoMs <= 0) {
+            throw new IllegalArgumentException("Header " + HEADER_PRAZO + " deve ser um número positivo de milissegundos");
+        }
+        Duration solicitado = Duration.ofMillis(prazoMs);
+        return solicitado.compareTo(prazoMaximo) > 0 ? prazoMaximo : solicitado;
     }
     
     @Operation(summary = "Buscar pedido por ID")
@@ -86,6 +206,21 @@ public class PedidoController {
         return ResponseEntity.ok(response);
     }
     
+    @Operation(summary = "Acompanhar pedido recebido de forma assíncrona")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Solicitação encontrada (pedidoId preenchido quando CRIADO)",
+                    content = @Content(schema = @Schema(implementation = SolicitacaoPedidoResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Solicitação não encontrada")
+    })
+    @GetMapping("/solicitacoes/{id}")
+    public ResponseEntity<SolicitacaoPedidoResponseDTO> buscarSolicitacao(
+            @Parameter(description = "ID de acompanhamento devolvido no 202") @PathVariable String id) {
+        
+        SolicitacaoPedido solicitacao = buscarSolicitacaoPedidoUseCase.executar(id);
+        
+        return ResponseEntity.ok(PedidoDTOMapper.toResponseDTO(solicitacao));
+    }
+    
     @Operation(summary = "Listar todos os pedidos")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de pedidos retornada com sucesso")
@@ -135,7 +270,3 @@ public class PedidoController {
         return ResponseEntity.ok(response);
     }
 }
-
-
-
-
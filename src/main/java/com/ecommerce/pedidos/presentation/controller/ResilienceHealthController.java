@@ -1,5 +1,6 @@
 package com.ecommerce.pedidos.presentation.controller;
 
+import com.ecommerce.pedidos.infrastructure.client.LimitadorConcorrenciaAdaptativo;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,9 +14,13 @@ import java.util.Map;
 public class ResilienceHealthController {
     
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final LimitadorConcorrenciaAdaptativo limitadorConcorrencia;
     
-    public ResilienceHealthController(CircuitBreakerRegistry circuitBreakerRegistry) {
+    public ResilienceHealthController(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            LimitadorConcorrenciaAdaptativo limitadorConcorrencia) {
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.limitadorConcorrencia = limitadorConcorrencia;
     }
     
     @GetMapping("/circuit-breaker")
@@ -34,4 +39,15 @@ public class ResilienceHealthController {
         
         return status;
     }
-}
\ No newline at end of file
+    
+    @GetMapping("/limite-concorrencia")
+    public Map<String, Object> getLimiteConcorrenciaStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", limitadorConcorrencia.isHabilitado());
+        status.put("limit", limitadorConcorrencia.getLimite());
+        status.put("inFlight", limitadorConcorrencia.getEmAndamento());
+        status.put("rejections", limitadorConcorrencia.getRejeicoes());
+        status.put("targetLatencyMs", limitadorConcorrencia.getLatenciaAlvo().toMillis());
+        return status;
+    }
+}
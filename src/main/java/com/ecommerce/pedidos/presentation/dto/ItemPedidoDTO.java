@@ -7,8 +7,15 @@ import java.math.BigDecimal;
 
 /**
  * DTO para representar um item de pedido nas requisições/respostas
+ * As restrições valem só na entrada (@Valid no PedidoRequestDTO)
  */
-public record ItemPedidoDTO(Long produtoId, String nomeProduto, Integer quantidade, BigDecimal precoUnitario, BigDecimal subtotal) {
+public record ItemPedidoDTO(
+        @NotNull(message = "ID do produto é obrigatório") Long produtoId,
+        String nomeProduto,
+        @NotNull(message = "Quantidade é obrigatória") @Min(value = 1, message = "Quantidade deve ser maior que zero")
+        Integer quantidade,
+        BigDecimal precoUnitario,
+        BigDecimal subtotal) {
 }
 
 
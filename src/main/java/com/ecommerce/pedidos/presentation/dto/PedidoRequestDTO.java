@@ -1,6 +1,9 @@
 package com.ecommerce.pedidos.presentation.dto;
 
-
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 import java.util.List;
 
@@ -8,7 +11,12 @@ import java.util.List;
  * DTO para requisição de criação de pedido
  */
 
-public record PedidoRequestDTO(Long clienteId, List<ItemPedidoDTO> itens) {
+public record PedidoRequestDTO(
+        @NotNull(message = "ID do cliente é obrigatório")
+        @Positive(message = "ID do cliente deve ser positivo")
+        Long clienteId,
+        @NotEmpty(message = "O pedido deve conter pelo menos um item")
+        List<@NotNull(message = "Item do pedido é obrigatório") @Valid ItemPedidoDTO> itens) {
     
 }
 
@@ -0,0 +1,10 @@
+package com.ecommerce.pedidos.presentation.dto;
+
+import java.util.List;
+
+/**
+ * DTO para resposta da criação de pedidos em lote
+ */
+public record PedidosLoteResponseDTO(int total, int criados, int falhas, List<ResultadoPedidoLoteDTO> resultados) {
+    
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.pedidos.presentation.dto;
+
+/**
+ * DTO com o resultado de um pedido da criação em lote
+ * Tem o pedido criado ou o erro, nunca os dois
+ */
+public record ResultadoPedidoLoteDTO(int indice, String status, PedidoResponseDTO pedido, String erro) {
+    
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.pedidos.presentation.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de acompanhamento de um pedido recebido de forma assíncrona
+ * Tem o ID do pedido quando criado, ou o erro quando rejeitado
+ */
+public record SolicitacaoPedidoResponseDTO(
+        String id,
+        String status,
+        Long pedidoId,
+        String erro,
+        LocalDateTime criadaEm,
+        LocalDateTime atualizadaEm
+) {
+}
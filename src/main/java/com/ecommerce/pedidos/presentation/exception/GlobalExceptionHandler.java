@@ -1,9 +1,16 @@
 package com.ecommerce.pedidos.presentation.exception;
 
+import com.ecommerce.pedidos.domain.exception.ChaveIdempotenciaEmUsoException;
 import com.ecommerce.pedidos.domain.exception.PedidoNotFoundException;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
 import com.ecommerce.pedidos.domain.exception.ProdutoIndisponivelException;
+import com.ecommerce.pedidos.domain.exception.ServicoIndisponivelException;
+import com.ecommerce.pedidos.domain.exception.SolicitacaoPedidoNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -25,6 +32,12 @@ public class GlobalExceptionHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     
+    private final MeterRegistry meterRegistry;
+    
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
     /**
      * Trata exceção de pedido não encontrado
      */
@@ -45,6 +58,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
     
+    /**
+     * Trata exceção de solicitação de pedido (recepção assíncrona) não encontrada
+     */
+    @ExceptionHandler(SolicitacaoPedidoNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleSolicitacaoPedidoNotFoundException(
+            SolicitacaoPedidoNotFoundException ex, WebRequest request) {
+        
+        logger.warn("Solicitação de pedido não encontrada: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.NOT_FOUND.value(),
+                "Not Found",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    }
+    
     /**
      * Trata exceção de produto indisponível
      */
@@ -65,6 +98,75 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
     }
     
+    /**
+     * Trata exceção de serviço externo sobrecarregado (chamada recusada antes de ser feita)
+     */
+    @ExceptionHandler(ServicoIndisponivelException.class)
+    public ResponseEntity<ErrorResponse> handleServicoIndisponivelException(
+            ServicoIndisponivelException ex, WebRequest request) {
+        
+        logger.warn("Serviço indisponível: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+    
+    /**
+     * Trata exceção de prazo da requisição esgotado (504, com métrica por etapa)
+     */
+    @ExceptionHandler(PrazoExcedidoException.class)
+    public ResponseEntity<ErrorResponse> handlePrazoExcedidoException(
+            PrazoExcedidoException ex, WebRequest request) {
+        
+        logger.warn("Prazo excedido: {}", ex.getMessage());
+        Counter.builder("pedidos.prazo.excedido")
+                .description("Requisições encerradas com 504 por prazo esgotado, por etapa não iniciada")
+                .tag("etapa", ex.getEtapa())
+                .register(meterRegistry)
+                .increment();
+        
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.GATEWAY_TIMEOUT.value(),
+                "Gateway Timeout",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(error, HttpStatus.GATEWAY_TIMEOUT);
+    }
+    
+    /**
+     * Trata requisição repetida (mesma Idempotency-Key) enquanto a original ainda está em andamento
+     */
+    @ExceptionHandler(ChaveIdempotenciaEmUsoException.class)
+    public ResponseEntity<ErrorResponse> handleChaveIdempotenciaEmUsoException(
+            ChaveIdempotenciaEmUsoException ex, WebRequest request) {
+        
+        logger.warn("Idempotency-Key em uso: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+    
     /**
      * Trata exceções de validação
      */
@@ -1,10 +1,16 @@
 package com.ecommerce.pedidos.presentation.mapper;
 
+import com.ecommerce.pedidos.application.dto.ResultadoPedidoLote;
 import com.ecommerce.pedidos.domain.entity.ItemPedido;
 import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
 import com.ecommerce.pedidos.presentation.dto.ItemPedidoDTO;
 import com.ecommerce.pedidos.presentation.dto.PedidoResponseDTO;
+import com.ecommerce.pedidos.presentation.dto.PedidosLoteResponseDTO;
+import com.ecommerce.pedidos.presentation.dto.ResultadoPedidoLoteDTO;
+import com.ecommerce.pedidos.presentation.dto.SolicitacaoPedidoResponseDTO;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -52,8 +58,38 @@ public class PedidoDTOMapper {
                 item.calcularSubtotal()
         );
     }
+    
+    /**
+     * Converte os resultados da criação em lote para PedidosLoteResponseDTO
+     */
+    public static PedidosLoteResponseDTO toLoteResponseDTO(List<ResultadoPedidoLote> resultados) {
+        var resultadosDTO = resultados.stream()
+                .map(resultado -> new ResultadoPedidoLoteDTO(
+                        resultado.indice(),
+                        resultado.sucesso() ? "CRIADO" : "FALHA",
+                        toResponseDTO(resultado.pedido()),
+                        resultado.erro()))
+                .collect(Collectors.toList());
+        
+        int criados = (int) resultados.stream().filter(ResultadoPedidoLote::sucesso).count();
+        return new PedidosLoteResponseDTO(resultados.size(), criados, resultados.size() - criados, resultadosDTO);
+    }
+    
+    /**
+     * Converte SolicitacaoPedido (domínio) para SolicitacaoPedidoResponseDTO
+     */
+    public static SolicitacaoPedidoResponseDTO toResponseDTO(SolicitacaoPedido solicitacao) {
+        if (solicitacao == null) {
+            return null;
+        }
+        
+        return new SolicitacaoPedidoResponseDTO(
+                solicitacao.getId(),
+                solicitacao.getStatus().name(),
+                solicitacao.getPedidoId(),
+                solicitacao.getErro(),
+                solicitacao.getCriadaEm(),
+                solicitacao.getAtualizadaEm()
+        );
+    }
 }
-
-
-
-
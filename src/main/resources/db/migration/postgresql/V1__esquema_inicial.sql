@@ -0,0 +1,36 @@
+-- Esquema inicial, como era gerado pelo Hibernate (ddl-auto=update) com IDs IDENTITY
+-- Bancos já existentes recebem o baseline nesta versão (spring.flyway.baseline-version=1)
+
+CREATE TABLE IF NOT EXISTS pedidos (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    numero_pedido    VARCHAR(50)  NOT NULL UNIQUE,
+    cliente_id       BIGINT       NOT NULL,
+    status           VARCHAR(20)  NOT NULL,
+    data_criacao     TIMESTAMP(6) NOT NULL,
+    data_atualizacao TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS itens_pedido (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    pedido_id      BIGINT         NOT NULL REFERENCES pedidos (id),
+    produto_id     BIGINT         NOT NULL,
+    nome_produto   VARCHAR(200)   NOT NULL,
+    quantidade     INTEGER        NOT NULL,
+    preco_unitario NUMERIC(10, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(50)  NOT NULL,
+    aggregate_id   BIGINT       NOT NULL,
+    event_type     VARCHAR(100) NOT NULL,
+    payload        TEXT         NOT NULL,
+    status         VARCHAR(20)  NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    processed_at   TIMESTAMP(6),
+    retry_count    INTEGER      NOT NULL,
+    error_message  TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_status ON outbox (status);
+CREATE INDEX IF NOT EXISTS idx_outbox_created_at ON outbox (created_at);
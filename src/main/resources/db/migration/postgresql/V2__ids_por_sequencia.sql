@@ -0,0 +1,20 @@
+-- IDs passam de IDENTITY para sequências com incremento 50 (otimizador pooled do Hibernate)
+--
+-- Com o pooled, cada valor V lido da sequência reserva os IDs (V - 49) .. V. Por isso a
+-- sequência começa em MAX(id) + 50: o primeiro bloco reservado é MAX(id) + 1 .. MAX(id) + 50.
+-- O INCREMENT BY tem de ser igual ao allocationSize das entidades.
+
+ALTER TABLE pedidos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE pedidos ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS pedidos_seq INCREMENT BY 50;
+SELECT setval('pedidos_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM pedidos), false);
+
+ALTER TABLE itens_pedido ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE itens_pedido ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS itens_pedido_seq INCREMENT BY 50;
+SELECT setval('itens_pedido_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM itens_pedido), false);
+
+ALTER TABLE outbox ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE outbox ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS outbox_seq INCREMENT BY 50;
+SELECT setval('outbox_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM outbox), false);
@@ -0,0 +1,12 @@
+-- Chaves de idempotência (header Idempotency-Key) de POST /api/pedidos
+-- A chave é a PK: o índice único garante uma única reserva por chave entre instâncias
+
+CREATE TABLE IF NOT EXISTS chaves_idempotencia (
+    chave           VARCHAR(255) PRIMARY KEY,
+    hash_requisicao VARCHAR(64)  NOT NULL,
+    pedido_id       BIGINT,
+    criada_em       TIMESTAMP(6) NOT NULL,
+    expira_em       TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_chaves_idempotencia_expira_em ON chaves_idempotencia (expira_em);
@@ -0,0 +1,16 @@
+-- Fila da recepção assíncrona de pedidos (POST /api/pedidos com pedido.recepcao.modo=ASSINCRONO)
+-- Os trabalhadores reservam as solicitações RECEBIDA mais antigas pelo índice (status, criada_em)
+
+CREATE TABLE IF NOT EXISTS solicitacoes_pedido (
+    id                 VARCHAR(36)  PRIMARY KEY,
+    chave_idempotencia VARCHAR(255),
+    payload            TEXT         NOT NULL,
+    status             VARCHAR(20)  NOT NULL,
+    pedido_id          BIGINT,
+    erro               TEXT,
+    tentativas         INTEGER      NOT NULL,
+    criada_em          TIMESTAMP(6) NOT NULL,
+    atualizada_em      TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_solicitacoes_pedido_status_criada_em ON solicitacoes_pedido (status, criada_em);
@@ -0,0 +1,11 @@
+-- Reserva de eventos da Outbox por vários publicadores (instâncias e threads)
+--
+-- Cada publicador reserva um lote de eventos PENDING com SELECT ... FOR UPDATE SKIP LOCKED
+-- e grava locked_until (fim da reserva) antes de publicar, fora da transação da reserva.
+-- Evento com reserva vigente não é entregue a outro publicador; se o publicador cair, o
+-- evento volta a ficar disponível quando a reserva vence.
+
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS locked_until TIMESTAMP(6);
+
+-- A reserva percorre só os PENDING, do mais antigo para o mais novo
+CREATE INDEX IF NOT EXISTS idx_outbox_pendentes_created_at ON outbox (created_at) WHERE status = 'PENDING';
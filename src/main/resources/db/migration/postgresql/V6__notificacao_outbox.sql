@@ -0,0 +1,18 @@
+-- Notificação de eventos novos na Outbox (LISTEN/NOTIFY)
+--
+-- Cada INSERT na outbox faz NOTIFY no canal outbox_eventos, entregue aos ouvintes só no
+-- commit. FOR EACH STATEMENT: um INSERT em lote notifica uma vez, e notificações iguais
+-- na mesma transação são fundidas pelo PostgreSQL. Sem ouvintes (outbox.notify.habilitado
+-- =false) a notificação é descartada; o OutboxProcessor segue só com a consulta periódica.
+
+CREATE OR REPLACE FUNCTION notificar_outbox() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('outbox_eventos', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS outbox_notificar ON outbox;
+CREATE TRIGGER outbox_notificar
+    AFTER INSERT ON outbox
+    FOR EACH STATEMENT EXECUTE FUNCTION notificar_outbox();
@@ -0,0 +1,9 @@
+-- Ordem de publicação por agregado na Outbox
+--
+-- A reserva só entrega um evento se não houver evento PENDING mais antigo do mesmo
+-- agregado (NOT EXISTS): enquanto o primeiro não for publicado (ou falhar de vez),
+-- os seguintes esperam, mesmo com vários publicadores e retentativas.
+
+-- Busca do evento pendente mais antigo de cada agregado
+CREATE INDEX IF NOT EXISTS idx_outbox_pendentes_agregado
+    ON outbox (aggregate_type, aggregate_id, created_at) WHERE status = 'PENDING';
@@ -0,0 +1,9 @@
+-- Espera entre tentativas das solicitações de pedido (recepção assíncrona)
+--
+-- Uma solicitação devolvida à fila após falha temporária só volta a ser reservada a partir
+-- de disponivel_em (backoff exponencial por tentativa), em vez de ser reprocessada logo em
+-- seguida e gastar todas as tentativas enquanto o serviço de produtos está fora.
+
+ALTER TABLE solicitacoes_pedido ADD COLUMN IF NOT EXISTS disponivel_em TIMESTAMP(6);
+UPDATE solicitacoes_pedido SET disponivel_em = criada_em WHERE disponivel_em IS NULL;
+ALTER TABLE solicitacoes_pedido ALTER COLUMN disponivel_em SET NOT NULL;
@@ -0,0 +1,8 @@
+-- Reserva das chaves de idempotência com prazo curto e dono identificado
+--
+-- Enquanto o pedido é criado, expira_em vale só a reserva (pedido.idempotencia.reserva),
+-- e não a validade da chave concluída: se a instância cair no meio, uma nova requisição
+-- com a mesma chave assume a reserva logo, em vez de receber 409 até a chave expirar.
+-- token_reserva identifica quem reservou: só ele conclui ou libera a chave.
+
+ALTER TABLE chaves_idempotencia ADD COLUMN IF NOT EXISTS token_reserva VARCHAR(36);
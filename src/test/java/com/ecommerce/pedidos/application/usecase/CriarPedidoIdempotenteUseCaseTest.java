@@ -0,0 +1,199 @@
+package com.ecommerce.pedidos.application.usecase;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.dto.ResultadoPedidoIdempotente;
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.entity.ChaveIdempotencia;
+import com.ecommerce.pedidos.domain.entity.ItemPedido;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.entity.StatusPedido;
+import com.ecommerce.pedidos.domain.exception.ChaveIdempotenciaEmUsoException;
+import com.ecommerce.pedidos.domain.exception.ProdutoIndisponivelException;
+import com.ecommerce.pedidos.domain.repository.ChaveIdempotenciaRepositoryPort;
+import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CriarPedidoIdempotenteUseCaseTest {
+
+    private static final List<ItemPedidoRequest> ITENS = List.of(new ItemPedidoRequest(1L, 2));
+
+    @Mock
+    private CriarPedidoUseCase criarPedidoUseCase;
+
+    @Mock
+    private ChaveIdempotenciaRepositoryPort chaveRepository;
+
+    @Mock
+    private PedidoRepositoryPort pedidoRepository;
+
+    private CriarPedidoIdempotenteUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new CriarPedidoIdempotenteUseCase(criarPedidoUseCase, chaveRepository, pedidoRepository,
+                Duration.ofHours(24), Duration.ofMinutes(2), 100, Duration.ofMillis(300));
+    }
+
+    @Test
+    void deveDevolverPedidoOriginalNaRepeticaoSemCriarOutro() {
+        // Arrange
+        when(chaveRepository.reservar(any())).thenReturn(true);
+        criarPedidoRetorna(pedidoSalvo(10L));
+
+        // Act
+        ResultadoPedidoIdempotente primeira = useCase.executar("chave-1", 1L, ITENS, Prazo.semLimite());
+        ResultadoPedidoIdempotente repeticao = useCase.executar("chave-1", 1L, ITENS, Prazo.semLimite());
+
+        // Assert
+        assertFalse(primeira.repeticao());
+        assertTrue(repeticao.repeticao());
+        assertSame(primeira.pedido(), repeticao.pedido());
+        verify(criarPedidoUseCase, times(1)).executar(eq(1L), anyList(), any(), any());
+        ArgumentCaptor<ChaveIdempotencia> reserva = ArgumentCaptor.forClass(ChaveIdempotencia.class);
+        verify(chaveRepository, times(1)).reservar(reserva.capture());
+        verify(chaveRepository).concluir(eq("chave-1"), eq(reserva.getValue().getTokenReserva()), eq(10L),
+                argThat(expiraEm -> expiraEm.isAfter(LocalDateTime.now().plusHours(23))));
+        assertTrue(reserva.getValue().getExpiraEm().isBefore(LocalDateTime.now().plusMinutes(3)));
+    }
+
+    @Test
+    void deveFazerRequisicoesSimultaneasComAMesmaChaveEsperaremAPrimeira() throws Exception {
+        // Arrange
+        CountDownLatch criando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(chaveRepository.reservar(any())).thenReturn(true);
+        when(criarPedidoUseCase.executar(eq(1L), anyList(), any(), any())).thenAnswer(invocation -> {
+            criando.countDown();
+            assertTrue(liberar.await(5, TimeUnit.SECONDS));
+            return concluir(invocation.getArgument(3), pedidoSalvo(10L));
+        });
+        useCase = new CriarPedidoIdempotenteUseCase(criarPedidoUseCase, chaveRepository, pedidoRepository,
+                Duration.ofHours(24), Duration.ofMinutes(2), 100, Duration.ofSeconds(5));
+
+        // Act
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<ResultadoPedidoIdempotente> primeira =
+                    executor.submit(() -> useCase.executar("chave-1", 1L, ITENS, Prazo.semLimite()));
+            assertTrue(criando.await(5, TimeUnit.SECONDS));
+            Future<ResultadoPedidoIdempotente> segunda =
+                    executor.submit(() -> useCase.executar("chave-1", 1L, ITENS, Prazo.semLimite()));
+            Thread.sleep(100);
+            liberar.countDown();
+
+            // Assert
+            assertFalse(primeira.get(5, TimeUnit.SECONDS).repeticao());
+            assertTrue(segunda.get(5, TimeUnit.SECONDS).repeticao());
+            assertEquals(10L, segunda.get().pedido().getId());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(criarPedidoUseCase, times(1)).executar(eq(1L), anyList(), any(), any());
+    }
+
+    @Test
+    void deveRejeitarMesmaChaveComOutraRequisicao() {
+        // Arrange
+        when(chaveRepository.reservar(any())).thenReturn(true);
+        criarPedidoRetorna(pedidoSalvo(10L));
+        useCase.executar("chave-1", 1L, ITENS, Prazo.semLimite());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                useCase.executar("chave-1", 1L, List.of(new ItemPedidoRequest(1L, 3)), Prazo.semLimite()));
+        verify(criarPedidoUseCase, times(1)).executar(eq(1L), anyList(), any(), any());
+    }
+
+    @Test
+    void deveLiberarAChaveQuandoACriacaoFalha() {
+        // Arrange
+        when(chaveRepository.reservar(any())).thenReturn(true);
+        when(criarPedidoUseCase.executar(eq(1L), anyList(), any(), any()))
+                .thenThrow(new ProdutoIndisponivelException(1L, "Estoque insuficiente"))
+                .thenAnswer(invocation -> concluir(invocation.getArgument(3), pedidoSalvo(10L)));
+
+        // Act
+        assertThrows(ProdutoIndisponivelException.class,
+                () -> useCase.executar("chave-1", 1L, ITENS, Prazo.semLimite()));
+        ResultadoPedidoIdempotente novaTentativa = useCase.executar("chave-1", 1L, ITENS, Prazo.semLimite());
+
+        // Assert
+        verify(chaveRepository).remover(eq("chave-1"), anyString());
+        assertFalse(novaTentativa.repeticao());
+        assertEquals(10L, novaTentativa.pedido().getId());
+    }
+
+    @Test
+    void deveBuscarNaTabelaChaveConcluidaPorOutraInstancia() {
+        // Arrange
+        String hash = CriarPedidoIdempotenteUseCase.calcularHash(1L, ITENS);
+        when(chaveRepository.reservar(any())).thenReturn(false);
+        when(chaveRepository.buscar("chave-1")).thenReturn(Optional.of(new ChaveIdempotencia(
+                "chave-1", hash, 10L, null, LocalDateTime.now(), LocalDateTime.now().plusHours(1))));
+        when(pedidoRepository.buscarPorId(10L)).thenReturn(Optional.of(pedidoSalvo(10L)));
+
+        // Act
+        ResultadoPedidoIdempotente resultado = useCase.executar("chave-1", 1L, ITENS, Prazo.semLimite());
+
+        // Assert
+        assertTrue(resultado.repeticao());
+        assertEquals(10L, resultado.pedido().getId());
+        verify(criarPedidoUseCase, never()).executar(anyLong(), anyList(), any(), any());
+    }
+
+    @Test
+    void deveResponderConflitoSeOutraInstanciaNaoConcluirDentroDaEspera() {
+        // Arrange
+        String hash = CriarPedidoIdempotenteUseCase.calcularHash(1L, ITENS);
+        when(chaveRepository.reservar(any())).thenReturn(false);
+        when(chaveRepository.buscar("chave-1")).thenReturn(Optional.of(new ChaveIdempotencia(
+                "chave-1", hash, null, "outra-reserva", LocalDateTime.now(), LocalDateTime.now().plusHours(1))));
+
+        // Act & Assert
+        assertThrows(ChaveIdempotenciaEmUsoException.class,
+                () -> useCase.executar("chave-1", 1L, ITENS, Prazo.semLimite()));
+        verify(criarPedidoUseCase, never()).executar(anyLong(), anyList(), any(), any());
+    }
+
+    private void criarPedidoRetorna(Pedido pedido) {
+        when(criarPedidoUseCase.executar(eq(1L), anyList(), any(), any()))
+                .thenAnswer(invocation -> concluir(invocation.getArgument(3), pedido));
+    }
+
+    private static Pedido concluir(Consumer<Pedido> aoGravar, Pedido pedido) {
+        aoGravar.accept(pedido);
+        return pedido;
+    }
+
+    private static Pedido pedidoSalvo(Long id) {
+        return new Pedido(id, "PED-" + id, 1L,
+                List.of(new ItemPedido(1L, 1L, "Produto 1", 2, new BigDecimal("10.00"))),
+                StatusPedido.PENDENTE, LocalDateTime.now(), null);
+    }
+}
@@ -1,8 +1,10 @@
 package com.ecommerce.pedidos.application.usecase;
 
 import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.service.Prazo;
 import com.ecommerce.pedidos.application.service.ProdutoServicePort;
 import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
 import com.ecommerce.pedidos.domain.exception.ProdutoIndisponivelException;
 import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
 import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
@@ -14,13 +16,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -54,10 +62,10 @@ class CriarPedidoUseCaseTest {
         ProdutoDTO produto1 = new ProdutoDTO(1L, "Produto 1", "Desc", new BigDecimal("100.00"), 10, "Cat", null);
         ProdutoDTO produto2 = new ProdutoDTO(2L, "Produto 2", "Desc", new BigDecimal("50.00"), 5, "Cat", null);
 
-        when(produtoService.buscarProdutoPorId(1L)).thenReturn(Optional.of(produto1));
-        when(produtoService.buscarProdutoPorId(2L)).thenReturn(Optional.of(produto2));
-        when(produtoService.verificarEstoque(1L, 2)).thenReturn(true);
-        when(produtoService.verificarEstoque(2L, 1)).thenReturn(true);
+        when(produtoService.buscarProdutoPorId(eq(1L), any())).thenReturn(Optional.of(produto1));
+        when(produtoService.buscarProdutoPorId(eq(2L), any())).thenReturn(Optional.of(produto2));
+        when(produtoService.verificarEstoque(produto1, 2)).thenReturn(true);
+        when(produtoService.verificarEstoque(produto2, 1)).thenReturn(true);
         when(pedidoRepository.salvar(any(Pedido.class))).thenAnswer(invocation -> {
             Pedido pedido = invocation.getArgument(0);
             // Simula que o banco de dados atribuiu um ID ao salvar
@@ -89,7 +97,7 @@ class CriarPedidoUseCaseTest {
         // Arrange
         Long clienteId = 123L;
         List<ItemPedidoRequest> itensRequest = List.of(new ItemPedidoRequest(999L, 1));
-        when(produtoService.buscarProdutoPorId(999L)).thenReturn(Optional.empty());
+        when(produtoService.buscarProdutoPorId(eq(999L), any())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ProdutoIndisponivelException.class, () -> {
@@ -108,8 +116,8 @@ class CriarPedidoUseCaseTest {
 
         ProdutoDTO produto = new ProdutoDTO(1L, "Produto 1", "Desc", new BigDecimal("100.00"), 5, "Cat", null);
 
-        when(produtoService.buscarProdutoPorId(1L)).thenReturn(Optional.of(produto));
-        when(produtoService.verificarEstoque(1L, 100)).thenReturn(false);
+        when(produtoService.buscarProdutoPorId(eq(1L), any())).thenReturn(Optional.of(produto));
+        when(produtoService.verificarEstoque(produto, 100)).thenReturn(false);
 
         // Act & Assert
         assertThrows(ProdutoIndisponivelException.class, () -> {
@@ -119,7 +127,219 @@ class CriarPedidoUseCaseTest {
         verify(pedidoRepository, never()).salvar(any());
         verify(outboxRepository, never()).salvar(any());
     }
-}
 
+    @Test
+    void deveBuscarProdutoRepetidoUmaUnicaVezPorPedido() {
+        // Arrange
+        Long clienteId = 123L;
+        List<ItemPedidoRequest> itensRequest = List.of(new ItemPedidoRequest(1L, 2), new ItemPedidoRequest(1L, 3));
+
+        ProdutoDTO produto = new ProdutoDTO(1L, "Produto 1", "Desc", new BigDecimal("100.00"), 10, "Cat", null);
+
+        when(produtoService.buscarProdutoPorId(eq(1L), any())).thenReturn(Optional.of(produto));
+        when(produtoService.verificarEstoque(eq(produto), any())).thenReturn(true);
+        when(pedidoRepository.salvar(any(Pedido.class))).thenAnswer(invocation -> comId(invocation.getArgument(0)));
+
+        // Act
+        useCase.executar(clienteId, itensRequest);
+
+        // Assert
+        verify(produtoService, times(1)).buscarProdutoPorId(eq(1L), any());
+        verify(produtoService, times(1)).registrarConsultasDoPedido(any());
+    }
+
+    @Test
+    void deveManterOrdemDosItensNaValidacaoParalela() {
+        // Arrange
+        useCase = new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                ModoValidacaoProdutos.PARALELO, Duration.ofSeconds(5));
+        List<ItemPedidoRequest> itensRequest = List.of(
+                new ItemPedidoRequest(3L, 1), new ItemPedidoRequest(1L, 1), new ItemPedidoRequest(2L, 1));
+
+        for (long id = 1; id <= 3; id++) {
+            ProdutoDTO produto = new ProdutoDTO(id, "Produto " + id, "Desc", new BigDecimal("10.00"), 10, "Cat", null);
+            when(produtoService.buscarProdutoPorId(eq(id), any())).thenReturn(Optional.of(produto));
+            when(produtoService.verificarEstoque(produto, 1)).thenReturn(true);
+        }
+        when(pedidoRepository.salvar(any(Pedido.class))).thenAnswer(invocation -> comId(invocation.getArgument(0)));
+
+        // Act
+        Pedido pedidoCriado = useCase.executar(123L, itensRequest);
+
+        // Assert
+        assertEquals(List.of(3L, 1L, 2L), pedidoCriado.getItens().stream().map(item -> item.getProdutoId()).toList());
+    }
+
+    @Test
+    void deveFalharNaValidacaoParalelaQuandoUmProdutoNaoEncontrado() {
+        // Arrange
+        useCase = new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                ModoValidacaoProdutos.PARALELO, Duration.ofSeconds(5));
+        List<ItemPedidoRequest> itensRequest = List.of(new ItemPedidoRequest(1L, 1), new ItemPedidoRequest(999L, 1));
+
+        ProdutoDTO produto = new ProdutoDTO(1L, "Produto 1", "Desc", new BigDecimal("10.00"), 10, "Cat", null);
+        lenient().when(produtoService.buscarProdutoPorId(eq(1L), any())).thenReturn(Optional.of(produto));
+        lenient().when(produtoService.verificarEstoque(produto, 1)).thenReturn(true);
+        when(produtoService.buscarProdutoPorId(eq(999L), any())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ProdutoIndisponivelException.class, () -> {
+            useCase.executar(123L, itensRequest);
+        });
+
+        verify(pedidoRepository, never()).salvar(any());
+        verify(outboxRepository, never()).salvar(any());
+    }
+
+    @Test
+    void deveBuscarProdutosEmLoteUmaUnicaVez() {
+        // Arrange
+        useCase = new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                ModoValidacaoProdutos.LOTE, Duration.ofSeconds(5));
+        List<ItemPedidoRequest> itensRequest = List.of(new ItemPedidoRequest(2L, 1), new ItemPedidoRequest(1L, 3));
+
+        ProdutoDTO produto1 = new ProdutoDTO(1L, "Produto 1", "Desc", new BigDecimal("100.00"), 10, "Cat", null);
+        ProdutoDTO produto2 = new ProdutoDTO(2L, "Produto 2", "Desc", new BigDecimal("50.00"), 5, "Cat", null);
+
+        when(produtoService.buscarProdutosPorIds(eq(List.of(2L, 1L)), any())).thenReturn(Map.of(1L, produto1, 2L, produto2));
+        when(produtoService.verificarEstoque(produto1, 3)).thenReturn(true);
+        when(produtoService.verificarEstoque(produto2, 1)).thenReturn(true);
+        when(pedidoRepository.salvar(any(Pedido.class))).thenAnswer(invocation -> comId(invocation.getArgument(0)));
+
+        // Act
+        Pedido pedidoCriado = useCase.executar(123L, itensRequest);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), pedidoCriado.getItens().stream().map(item -> item.getProdutoId()).toList());
+        verify(produtoService, times(1)).buscarProdutosPorIds(any(), any());
+        verify(produtoService, never()).buscarProdutoPorId(any(), any());
+    }
+
+    @Test
+    void deveLancarExcecaoQuandoProdutoAusenteNoLote() {
+        // Arrange
+        useCase = new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                ModoValidacaoProdutos.LOTE, Duration.ofSeconds(5));
+        List<ItemPedidoRequest> itensRequest = List.of(new ItemPedidoRequest(999L, 1));
+        when(produtoService.buscarProdutosPorIds(eq(List.of(999L)), any())).thenReturn(Map.of());
+
+        // Act & Assert
+        assertThrows(ProdutoIndisponivelException.class, () -> {
+            useCase.executar(123L, itensRequest);
+        });
 
+        verify(pedidoRepository, never()).salvar(any());
+    }
 
+    @Test
+    void deveEncerrarValidacaoParalelaNoPrazoDaRequisicao() {
+        // Arrange
+        useCase = new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                ModoValidacaoProdutos.PARALELO, Duration.ofSeconds(5));
+        List<ItemPedidoRequest> itensRequest = List.of(new ItemPedidoRequest(1L, 1), new ItemPedidoRequest(2L, 1));
+        Prazo prazo = Prazo.em(Duration.ofMillis(100));
+        when(produtoService.buscarProdutoPorId(any(), argThat(contexto -> contexto.getPrazo() == prazo)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(2000);
+                    return Optional.empty();
+                });
+
+        // Act
+        long inicio = System.nanoTime();
+        PrazoExcedidoException erro = assertThrows(PrazoExcedidoException.class,
+                () -> useCase.executar(123L, itensRequest, prazo));
+
+        // Assert
+        assertEquals("validacao-paralela", erro.getEtapa());
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).compareTo(Duration.ofSeconds(1)) < 0);
+        verify(pedidoRepository, never()).salvar(any());
+    }
+
+    @Test
+    void deveTratarTempoLimiteDaValidacaoParalelaComoPrazoExcedido() {
+        // Arrange: sem prazo da requisição, só o prazo da validação paralela
+        useCase = new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                ModoValidacaoProdutos.PARALELO, Duration.ofMillis(100));
+        List<ItemPedidoRequest> itensRequest = List.of(new ItemPedidoRequest(1L, 1), new ItemPedidoRequest(2L, 1));
+        when(produtoService.buscarProdutoPorId(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return Optional.empty();
+        });
+
+        // Act
+        PrazoExcedidoException erro = assertThrows(PrazoExcedidoException.class,
+                () -> useCase.executar(123L, itensRequest));
+
+        // Assert
+        assertEquals("validacao-paralela", erro.getEtapa());
+        verify(pedidoRepository, never()).salvar(any());
+    }
+
+    @Test
+    void naoDeveGravarPedidoQuandoPrazoVenceDuranteAValidacao() {
+        // Arrange
+        List<ItemPedidoRequest> itensRequest = List.of(new ItemPedidoRequest(1L, 1));
+        ProdutoDTO produto = new ProdutoDTO(1L, "Produto 1", "Desc", new BigDecimal("10.00"), 10, "Cat", null);
+        when(produtoService.buscarProdutoPorId(eq(1L), any())).thenAnswer(invocation -> {
+            Thread.sleep(60);
+            return Optional.of(produto);
+        });
+        when(produtoService.verificarEstoque(produto, 1)).thenReturn(true);
+
+        // Act
+        PrazoExcedidoException erro = assertThrows(PrazoExcedidoException.class,
+                () -> useCase.executar(123L, itensRequest, Prazo.em(Duration.ofMillis(20))));
+
+        // Assert
+        assertEquals("gravacao-pedido", erro.getEtapa());
+        verify(pedidoRepository, never()).salvar(any());
+        verify(outboxRepository, never()).salvar(any());
+    }
+
+    @Test
+    void deveValidarProdutosForaDaTransacaoEGravarDentroDela() {
+        // Arrange
+        AtomicBoolean emTransacao = new AtomicBoolean();
+        TransactionOperations transacao = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                emTransacao.set(true);
+                try {
+                    return action.doInTransaction(null);
+                } finally {
+                    emTransacao.set(false);
+                }
+            }
+        };
+        useCase = new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                ModoValidacaoProdutos.LOTE, Duration.ofSeconds(5), transacao);
+        
+        ProdutoDTO produto = new ProdutoDTO(1L, "Produto 1", "Desc", new BigDecimal("10.00"), 10, "Cat", null);
+        when(produtoService.buscarProdutosPorIds(any(), any())).thenAnswer(invocation -> {
+            assertFalse(emTransacao.get(), "Chamada remota dentro da transação");
+            return Map.of(1L, produto);
+        });
+        when(produtoService.verificarEstoque(produto, 1)).thenReturn(true);
+        when(pedidoRepository.salvar(any(Pedido.class))).thenAnswer(invocation -> {
+            assertTrue(emTransacao.get(), "Pedido gravado fora da transação");
+            return comId(invocation.getArgument(0));
+        });
+        when(outboxRepository.salvar(any())).thenAnswer(invocation -> {
+            assertTrue(emTransacao.get(), "Evento Outbox gravado fora da transação");
+            return invocation.getArgument(0);
+        });
+
+        // Act
+        Pedido pedidoCriado = useCase.executar(123L, List.of(new ItemPedidoRequest(1L, 1)));
+
+        // Assert
+        assertNotNull(pedidoCriado.getId());
+        verify(outboxRepository, times(1)).salvar(any());
+    }
+
+    private static Pedido comId(Pedido pedido) {
+        // Simula que o banco de dados atribuiu um ID ao salvar
+        return new Pedido(1L, pedido.getNumeroPedido(), pedido.getClienteId(), pedido.getItens(),
+                pedido.getStatus(), pedido.getDataCriacao(), pedido.getDataAtualizacao());
+    }
+}
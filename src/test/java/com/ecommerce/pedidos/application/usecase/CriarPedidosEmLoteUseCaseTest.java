@@ -0,0 +1,193 @@
+package com.ecommerce.pedidos.application.usecase;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.dto.NovoPedidoRequest;
+import com.ecommerce.pedidos.application.dto.ResultadoPedidoLote;
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.application.service.ProdutoServicePort;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CriarPedidosEmLoteUseCaseTest {
+
+    @Mock
+    private PedidoRepositoryPort pedidoRepository;
+
+    @Mock
+    private OutboxRepositoryPort outboxRepository;
+
+    @Mock
+    private ProdutoServicePort produtoService;
+
+    private final AtomicLong sequencia = new AtomicLong();
+    private CriarPedidosEmLoteUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        CriarPedidoUseCase criarPedidoUseCase = new CriarPedidoUseCase(pedidoRepository, outboxRepository,
+                produtoService, objectMapper);
+        useCase = new CriarPedidosEmLoteUseCase(criarPedidoUseCase, produtoService,
+                TransactionOperations.withoutTransaction(), 100);
+
+        lenient().when(produtoService.buscarProdutosPorIds(any(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .filter(id -> id < 900)
+                    .collect(Collectors.toMap(id -> id, CriarPedidosEmLoteUseCaseTest::produto));
+        });
+        lenient().when(produtoService.verificarEstoque(any(), any())).thenAnswer(invocation -> {
+            ProdutoDTO produto = invocation.getArgument(0);
+            Integer quantidade = invocation.getArgument(1);
+            return produto.estoque() >= quantidade;
+        });
+        lenient().when(pedidoRepository.salvarTodos(anyList())).thenAnswer(invocation -> {
+            List<Pedido> pedidos = invocation.getArgument(0);
+            return pedidos.stream().map(this::comId).toList();
+        });
+        lenient().when(outboxRepository.salvarTodos(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deveBuscarCadaProdutoUmaUnicaVezNoLote() {
+        // Arrange
+        List<NovoPedidoRequest> pedidos = List.of(
+                pedido(1L, 1L, 2L),
+                pedido(2L, 2L, 3L),
+                pedido(3L, 1L, 3L));
+
+        // Act
+        List<ResultadoPedidoLote> resultados = useCase.executar(pedidos, Prazo.semLimite());
+
+        // Assert
+        assertTrue(resultados.stream().allMatch(ResultadoPedidoLote::sucesso));
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(produtoService, times(1)).buscarProdutosPorIds(ids.capture(), any());
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(ids.getValue()));
+        verify(produtoService, never()).buscarProdutoPorId(any(), any());
+        verify(pedidoRepository, times(1)).salvarTodos(anyList());
+        verify(outboxRepository, times(1)).salvarTodos(argThat(eventos -> eventos.size() == 3));
+        verify(pedidoRepository, never()).salvar(any());
+    }
+
+    @Test
+    void deveCriarPedidosValidosERetornarFalhaDosDemais() {
+        // Arrange
+        List<NovoPedidoRequest> pedidos = List.of(
+                pedido(1L, 1L),
+                pedido(2L, 999L),
+                new NovoPedidoRequest(3L, List.of(new ItemPedidoRequest(1L, 1000))),
+                new NovoPedidoRequest(null, List.of(new ItemPedidoRequest(1L, 1))),
+                pedido(5L, 2L));
+
+        // Act
+        List<ResultadoPedidoLote> resultados = useCase.executar(pedidos, Prazo.semLimite());
+
+        // Assert
+        assertEquals(List.of(true, false, false, false, true),
+                resultados.stream().map(ResultadoPedidoLote::sucesso).toList());
+        assertEquals(List.of(0, 1, 2, 3, 4), resultados.stream().map(ResultadoPedidoLote::indice).toList());
+        assertTrue(resultados.get(1).erro().contains("não encontrado"));
+        assertTrue(resultados.get(2).erro().contains("Estoque insuficiente"));
+        assertEquals(5L, resultados.get(4).pedido().getClienteId());
+        verify(pedidoRepository).salvarTodos(argThat(salvos -> salvos.size() == 2));
+    }
+
+    @Test
+    void deveRegistrarFalhaDoPedidoNuloOuComItemIncompletoSemDerrubarOLote() {
+        // Arrange
+        List<NovoPedidoRequest> pedidos = Arrays.asList(
+                pedido(1L, 1L),
+                null,
+                new NovoPedidoRequest(3L, Arrays.asList(new ItemPedidoRequest(1L, 1), null)),
+                new NovoPedidoRequest(4L, List.of(new ItemPedidoRequest(1L, null))),
+                pedido(5L, 2L));
+
+        // Act
+        List<ResultadoPedidoLote> resultados = useCase.executar(pedidos, Prazo.semLimite());
+
+        // Assert
+        assertEquals(List.of(true, false, false, false, true),
+                resultados.stream().map(ResultadoPedidoLote::sucesso).toList());
+        assertEquals("Pedido é obrigatório", resultados.get(1).erro());
+        assertEquals("Item do pedido é obrigatório", resultados.get(2).erro());
+        assertEquals("Quantidade é obrigatória", resultados.get(3).erro());
+        verify(pedidoRepository).salvarTodos(argThat(salvos -> salvos.size() == 2));
+    }
+
+    @Test
+    void deveGravarUmAUmQuandoAGravacaoDoLoteFalha() {
+        // Arrange
+        when(pedidoRepository.salvarTodos(anyList())).thenAnswer(invocation -> {
+            List<Pedido> pedidos = invocation.getArgument(0);
+            if (pedidos.size() > 1 || pedidos.get(0).getClienteId() == 2L) {
+                throw new IllegalStateException("violação de restrição");
+            }
+            return pedidos.stream().map(this::comId).toList();
+        });
+        List<NovoPedidoRequest> pedidos = List.of(pedido(1L, 1L), pedido(2L, 1L), pedido(3L, 1L));
+
+        // Act
+        List<ResultadoPedidoLote> resultados = useCase.executar(pedidos, Prazo.semLimite());
+
+        // Assert
+        assertEquals(List.of(true, false, true), resultados.stream().map(ResultadoPedidoLote::sucesso).toList());
+        assertEquals("Erro ao gravar pedido", resultados.get(1).erro());
+        verify(pedidoRepository, times(4)).salvarTodos(anyList());
+        verify(outboxRepository, times(2)).salvarTodos(argThat(eventos -> eventos.size() == 1));
+    }
+
+    @Test
+    void deveRecusarLoteAcimaDoTamanhoMaximo() {
+        // Arrange
+        List<NovoPedidoRequest> pedidos = LongStream.rangeClosed(1, 101)
+                .mapToObj(clienteId -> pedido(clienteId, 1L))
+                .toList();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> useCase.executar(pedidos, Prazo.semLimite()));
+        verifyNoInteractions(produtoService, pedidoRepository, outboxRepository);
+    }
+
+    private Pedido comId(Pedido pedido) {
+        return new Pedido(sequencia.incrementAndGet(), pedido.getNumeroPedido(), pedido.getClienteId(),
+                pedido.getItens(), pedido.getStatus(), pedido.getDataCriacao(), pedido.getDataAtualizacao());
+    }
+
+    private static NovoPedidoRequest pedido(Long clienteId, Long... produtoIds) {
+        return new NovoPedidoRequest(clienteId, Arrays.stream(produtoIds)
+                .map(produtoId -> new ItemPedidoRequest(produtoId, 1))
+                .toList());
+    }
+
+    private static ProdutoDTO produto(Long id) {
+        return new ProdutoDTO(id, "Produto " + id, "Desc", new BigDecimal("10.00"), 10, "Cat", null);
+    }
+}
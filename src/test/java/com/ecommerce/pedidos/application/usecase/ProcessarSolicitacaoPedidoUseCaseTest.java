@@ -0,0 +1,200 @@
+package com.ecommerce.pedidos.application.usecase;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.dto.NovoPedidoRequest;
+import com.ecommerce.pedidos.application.dto.ResultadoPedidoIdempotente;
+import com.ecommerce.pedidos.domain.entity.ItemPedido;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+import com.ecommerce.pedidos.domain.entity.StatusPedido;
+import com.ecommerce.pedidos.domain.entity.StatusSolicitacao;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+import com.ecommerce.pedidos.domain.exception.ProdutoIndisponivelException;
+import com.ecommerce.pedidos.domain.exception.ServicoIndisponivelException;
+import com.ecommerce.pedidos.domain.repository.SolicitacaoPedidoRepositoryPort;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessarSolicitacaoPedidoUseCaseTest {
+
+    private static final List<ItemPedidoRequest> ITENS = List.of(new ItemPedidoRequest(1L, 2));
+
+    @Mock
+    private CriarPedidoUseCase criarPedidoUseCase;
+
+    @Mock
+    private CriarPedidoIdempotenteUseCase criarPedidoIdempotenteUseCase;
+
+    @Mock
+    private SolicitacaoPedidoRepositoryPort solicitacaoRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ProcessarSolicitacaoPedidoUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new ProcessarSolicitacaoPedidoUseCase(criarPedidoUseCase, criarPedidoIdempotenteUseCase,
+                solicitacaoRepository, objectMapper, 3, Duration.ofSeconds(30), Duration.ofSeconds(5),
+                Duration.ofSeconds(15));
+        lenient().when(solicitacaoRepository.rejeitar(anyString(), anyInt(), anyString())).thenReturn(true);
+        lenient().when(solicitacaoRepository.devolverParaFila(anyString(), anyInt(), anyString(), any()))
+                .thenReturn(true);
+    }
+
+    @Test
+    void deveConcluirSolicitacaoNaMesmaTransacaoDoPedido() throws Exception {
+        // Arrange
+        when(criarPedidoUseCase.executar(eq(1L), eq(ITENS), any(), any())).thenAnswer(invocation -> {
+            Consumer<Pedido> aoGravar = invocation.getArgument(3);
+            Pedido pedido = pedidoSalvo(10L);
+            aoGravar.accept(pedido);
+            return pedido;
+        });
+
+        // Act
+        StatusSolicitacao resultado = useCase.executar(solicitacao(null, 1));
+
+        // Assert
+        assertEquals(StatusSolicitacao.CRIADO, resultado);
+        verify(solicitacaoRepository).concluir("sol-1", 1, 10L);
+        verifyNoInteractions(criarPedidoIdempotenteUseCase);
+    }
+
+    @Test
+    void deveCriarPeloCasoDeUsoIdempotenteQuandoHaChave() throws Exception {
+        // Arrange
+        when(criarPedidoIdempotenteUseCase.executar(eq("chave-1"), eq(1L), eq(ITENS), any()))
+                .thenReturn(ResultadoPedidoIdempotente.repeticao(pedidoSalvo(10L)));
+
+        // Act
+        StatusSolicitacao resultado = useCase.executar(solicitacao("chave-1", 1));
+
+        // Assert
+        assertEquals(StatusSolicitacao.CRIADO, resultado);
+        verify(solicitacaoRepository).concluir("sol-1", 1, 10L);
+        verifyNoInteractions(criarPedidoUseCase);
+    }
+
+    @Test
+    void deveRejeitarQuandoProdutoIndisponivel() throws Exception {
+        // Arrange
+        when(criarPedidoUseCase.executar(eq(1L), eq(ITENS), any(), any()))
+                .thenThrow(new ProdutoIndisponivelException(1L, "Estoque insuficiente"));
+
+        // Act
+        StatusSolicitacao resultado = useCase.executar(solicitacao(null, 1));
+
+        // Assert
+        assertEquals(StatusSolicitacao.REJEITADO, resultado);
+        verify(solicitacaoRepository).rejeitar(eq("sol-1"), eq(1), anyString());
+        verify(solicitacaoRepository, never()).devolverParaFila(anyString(), anyInt(), anyString(), any());
+    }
+
+    @Test
+    void deveDevolverParaFilaEmFalhaTemporariaAteOMaximoDeTentativas() throws Exception {
+        // Arrange
+        when(criarPedidoUseCase.executar(eq(1L), eq(ITENS), any(), any()))
+                .thenThrow(new ServicoIndisponivelException("Serviço de produtos sobrecarregado"));
+
+        // Act
+        StatusSolicitacao segundaTentativa = useCase.executar(solicitacao(null, 2));
+        StatusSolicitacao ultimaTentativa = useCase.executar(solicitacao(null, 3));
+
+        // Assert
+        assertEquals(StatusSolicitacao.RECEBIDA, segundaTentativa);
+        assertEquals(StatusSolicitacao.REJEITADO, ultimaTentativa);
+        verify(solicitacaoRepository).devolverParaFila("sol-1", 2, "Serviço de produtos sobrecarregado",
+                Duration.ofSeconds(10));
+        verify(solicitacaoRepository).rejeitar(eq("sol-1"), eq(3), anyString());
+    }
+
+    @Test
+    void deveDevolverParaFilaQuandoAValidacaoExcedeOPrazo() throws Exception {
+        // Arrange: serviço de produtos lento, a validação paralela não termina a tempo
+        when(criarPedidoUseCase.executar(eq(1L), eq(ITENS), any(), any()))
+                .thenThrow(new PrazoExcedidoException("validacao-paralela", Duration.ofSeconds(10)));
+
+        // Act
+        StatusSolicitacao resultado = useCase.executar(solicitacao(null, 1));
+
+        // Assert
+        assertEquals(StatusSolicitacao.RECEBIDA, resultado);
+        verify(solicitacaoRepository).devolverParaFila(eq("sol-1"), eq(1), anyString(), eq(Duration.ofSeconds(5)));
+        verify(solicitacaoRepository, never()).rejeitar(anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void naoDeveGravarResultadoQuandoAReservaFoiPerdida() throws Exception {
+        // Arrange: a conclusão falha porque outro trabalhador reassumiu a solicitação
+        doThrow(new IllegalStateException("Solicitação sol-1 não está mais reservada pela tentativa 1"))
+                .when(solicitacaoRepository).concluir("sol-1", 1, 10L);
+        when(criarPedidoUseCase.executar(eq(1L), eq(ITENS), any(), any())).thenAnswer(invocation -> {
+            Consumer<Pedido> aoGravar = invocation.getArgument(3);
+            aoGravar.accept(pedidoSalvo(10L));
+            return pedidoSalvo(10L);
+        });
+        when(solicitacaoRepository.devolverParaFila(eq("sol-1"), eq(1), anyString(), any())).thenReturn(false);
+
+        // Act
+        StatusSolicitacao resultado = useCase.executar(solicitacao(null, 1));
+
+        // Assert
+        assertEquals(StatusSolicitacao.PROCESSANDO, resultado);
+        verify(solicitacaoRepository, never()).rejeitar(anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void deveDobrarEsperaEntreTentativasAteOMaximo() {
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(5), useCase.esperaAposTentativa(1));
+        assertEquals(Duration.ofSeconds(10), useCase.esperaAposTentativa(2));
+        assertEquals(Duration.ofSeconds(15), useCase.esperaAposTentativa(3));
+        assertEquals(Duration.ofSeconds(15), useCase.esperaAposTentativa(40));
+    }
+
+    @Test
+    void deveRejeitarSolicitacaoComConteudoIlegivel() {
+        // Arrange
+        SolicitacaoPedido ilegivel = new SolicitacaoPedido("sol-1", null, "{nao-e-json", StatusSolicitacao.PROCESSANDO,
+                null, null, 1, LocalDateTime.now(), LocalDateTime.now());
+
+        // Act
+        StatusSolicitacao resultado = useCase.executar(ilegivel);
+
+        // Assert
+        assertEquals(StatusSolicitacao.REJEITADO, resultado);
+        verify(solicitacaoRepository).rejeitar(eq("sol-1"), eq(1), anyString());
+        verifyNoInteractions(criarPedidoUseCase, criarPedidoIdempotenteUseCase);
+    }
+
+    private SolicitacaoPedido solicitacao(String chave, int tentativas) throws Exception {
+        String payload = objectMapper.writeValueAsString(new NovoPedidoRequest(1L, ITENS));
+        return new SolicitacaoPedido("sol-1", chave, payload, StatusSolicitacao.PROCESSANDO,
+                null, null, tentativas, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    private static Pedido pedidoSalvo(Long id) {
+        return new Pedido(id, "PED-" + id, 1L,
+                List.of(new ItemPedido(1L, 1L, "Produto 1", 2, new BigDecimal("10.00"))),
+                StatusPedido.PENDENTE, LocalDateTime.now(), null);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.pedidos.application.usecase;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+import com.ecommerce.pedidos.domain.entity.StatusSolicitacao;
+import com.ecommerce.pedidos.domain.exception.ServicoIndisponivelException;
+import com.ecommerce.pedidos.domain.repository.SolicitacaoPedidoRepositoryPort;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReceberPedidoUseCaseTest {
+
+    @Mock
+    private SolicitacaoPedidoRepositoryPort solicitacaoRepository;
+
+    private ReceberPedidoUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new ReceberPedidoUseCase(solicitacaoRepository, new ObjectMapper(), 10);
+    }
+
+    @Test
+    void deveEnfileirarPedidoValido() {
+        // Arrange
+        when(solicitacaoRepository.salvar(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        SolicitacaoPedido solicitacao = useCase.executar(null, 1L, List.of(new ItemPedidoRequest(1L, 2)));
+
+        // Assert
+        assertEquals(StatusSolicitacao.RECEBIDA, solicitacao.getStatus());
+        assertTrue(solicitacao.getPayload().contains("\"clienteId\":1"));
+    }
+
+    @Test
+    void deveRecusarPedidoInvalidoSemEnfileirar() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> useCase.executar(null, null, List.of(new ItemPedidoRequest(1L, 2))));
+        assertThrows(IllegalArgumentException.class, () -> useCase.executar(null, 1L, List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> useCase.executar(null, 1L, Arrays.asList(new ItemPedidoRequest(1L, 2), null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> useCase.executar(null, 1L, List.of(new ItemPedidoRequest(null, 2))));
+        IllegalArgumentException quantidade = assertThrows(IllegalArgumentException.class,
+                () -> useCase.executar(null, 1L, List.of(new ItemPedidoRequest(1L, 0))));
+
+        assertEquals("Quantidade deve ser maior que zero", quantidade.getMessage());
+        verifyNoInteractions(solicitacaoRepository);
+    }
+
+    @Test
+    void deveRecusarComFilaCheia() {
+        // Arrange
+        when(solicitacaoRepository.contarNaFila()).thenReturn(10L);
+
+        // Act & Assert
+        assertThrows(ServicoIndisponivelException.class,
+                () -> useCase.executar(null, 1L, List.of(new ItemPedidoRequest(1L, 2))));
+        verify(solicitacaoRepository, never()).salvar(any());
+    }
+}
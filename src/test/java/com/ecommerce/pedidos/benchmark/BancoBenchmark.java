@@ -0,0 +1,106 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.infrastructure.persistence.entity.PedidoJpaEntity;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.OutboxRepositoryImpl;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.PedidoJpaRepository;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.PedidoRepositoryImpl;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Banco dos benchmarks de criação de pedidos, com o esquema da aplicação
+ *
+ * Pedidos e eventos são gravados pelos repositórios da aplicação
+ * (PedidoRepositoryImpl e OutboxRepositoryImpl), não por SQL escrito à mão.
+ * Com -Dbenchmark.url de um PostgreSQL num banco descartável (createdb
+ * pedidos_benchmark), o banco é limpo e o esquema criado pelas migrations do
+ * Flyway (db/migration/postgresql), como no OutboxRelayBenchmark. Sem a URL,
+ * cada cenário usa um H2 em memória próprio com o esquema gerado pelo
+ * Hibernate a partir das mesmas entidades.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableJpaRepositories(basePackageClasses = PedidoJpaRepository.class)
+@Import({PedidoRepositoryImpl.class, OutboxRepositoryImpl.class})
+class BancoBenchmark {
+
+    /**
+     * Configuração do pool de um cenário: a URL de -Dbenchmark.url ou um H2 em memória com o nome do cenário
+     */
+    static HikariConfig configuracaoPool(String cenario, int tamanhoPool) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getProperty("benchmark.url", "jdbc:h2:mem:" + cenario + ";DB_CLOSE_DELAY=-1"));
+        config.setUsername(System.getProperty("benchmark.usuario", "sa"));
+        config.setPassword(System.getProperty("benchmark.senha", ""));
+        config.setPoolName(cenario);
+        config.setMaximumPoolSize(tamanhoPool);
+        return config;
+    }
+
+    /**
+     * Contexto com os repositórios da aplicação sobre o pool (fechado junto com o contexto)
+     */
+    static AnnotationConfigApplicationContext iniciar(HikariDataSource pool) {
+        AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext();
+        contexto.registerBean(DataSource.class, () -> pool);
+        contexto.register(BancoBenchmark.class);
+        contexto.refresh();
+        return contexto;
+    }
+
+    @Bean
+    LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        boolean postgresql = ((HikariDataSource) dataSource).getJdbcUrl().startsWith("jdbc:postgresql:");
+        if (postgresql) {
+            migrar(dataSource);
+        }
+        LocalContainerEntityManagerFactoryBean fabrica = new LocalContainerEntityManagerFactoryBean();
+        fabrica.setDataSource(dataSource);
+        fabrica.setPackagesToScan(PedidoJpaEntity.class.getPackageName());
+        fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // Mesmas opções de lote do application.properties
+        fabrica.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", postgresql ? "none" : "create-drop",
+                "hibernate.jdbc.batch_size", "20",
+                "hibernate.order_inserts", "true",
+                "hibernate.order_updates", "true"));
+        return fabrica;
+    }
+
+    /**
+     * Esquema da aplicação no PostgreSQL: limpa o banco descartável e aplica as migrations
+     */
+    private static void migrar(DataSource dataSource) {
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/postgresql")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+    }
+
+    @Bean
+    PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.infrastructure.cache.ProdutoDiskStore;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Benchmark do cache de produtos: catálogo inteiro no heap (Caffeine) x
+ * catálogo no ProdutoDiskStore (arquivo mapeado em memória)
+ * 
+ * Mede, para cada camada, o tempo de carga, o heap retido após GC, a latência
+ * média de leitura aleatória e as coletas de GC durante as leituras.
+ * 
+ * Não é executado pelo "mvn test". Para executar (de preferência com heap fixo):
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ecommerce.pedidos.benchmark.CacheProdutosBenchmark \
+ *     -Dbenchmark.produtos=200000 -Dbenchmark.leituras=5000000
+ */
+public class CacheProdutosBenchmark {
+    
+    public static void main(String[] args) throws IOException {
+        int quantidadeProdutos = Integer.getInteger("benchmark.produtos", 200_000);
+        int leituras = Integer.getInteger("benchmark.leituras", 5_000_000);
+        
+        System.out.printf("Produtos: %d | leituras aleatórias: %d%n", quantidadeProdutos, leituras);
+        
+        long heapInicial = heapUsadoAposGc();
+        Cache<Long, ProdutoDTO> heap = Caffeine.newBuilder().maximumSize(quantidadeProdutos).build();
+        long inicioCarga = System.nanoTime();
+        for (long id = 1; id <= quantidadeProdutos; id++) {
+            heap.put(id, ProdutoFeignClientStub.criarProduto(id));
+        }
+        medir("heap (Caffeine)", inicioCarga, heapInicial, quantidadeProdutos, leituras, heap::getIfPresent);
+        heap = null;
+        
+        Path diretorio = Files.createTempDirectory("cache-produtos-benchmark");
+        heapInicial = heapUsadoAposGc();
+        try (ProdutoDiskStore disco = new ProdutoDiskStore(diretorio.resolve("produtos.dat"), Integer.MAX_VALUE)) {
+            inicioCarga = System.nanoTime();
+            for (long id = 1; id <= quantidadeProdutos; id++) {
+                disco.gravar(ProdutoFeignClientStub.criarProduto(id));
+            }
+            medir("disco (mmap)", inicioCarga, heapInicial, quantidadeProdutos, leituras,
+                    id -> disco.buscar(id).map(ProdutoDiskStore.EntradaDisco::produto).orElse(null));
+            System.out.printf("%-16s arquivo: %d MB%n", "", disco.getBytesUsados() >> 20);
+            
+            // Reabertura: tempo para reconstruir o índice a partir do arquivo
+            disco.close();
+            long inicioReabertura = System.nanoTime();
+            try (ProdutoDiskStore reaberto = new ProdutoDiskStore(diretorio.resolve("produtos.dat"), Integer.MAX_VALUE)) {
+                System.out.printf("%-16s reabertura: %d ms (%d produtos)%n", "",
+                        (System.nanoTime() - inicioReabertura) / 1_000_000, reaberto.getQuantidade());
+            }
+        } finally {
+            Files.deleteIfExists(diretorio.resolve("produtos.dat"));
+            Files.deleteIfExists(diretorio);
+        }
+    }
+    
+    private static void medir(String nome, long inicioCarga, long heapInicial, int quantidadeProdutos,
+            int leituras, LongFunction<ProdutoDTO> leitura) {
+        long cargaMs = (System.nanoTime() - inicioCarga) / 1_000_000;
+        long heapRetidoMb = (heapUsadoAposGc() - heapInicial) >> 20;
+        
+        // Aquecimento do JIT
+        ler(quantidadeProdutos, leituras / 10, leitura);
+        
+        long coletasAntes = coletasDeGc();
+        long inicio = System.nanoTime();
+        long encontrados = ler(quantidadeProdutos, leituras, leitura);
+        double nanosPorLeitura = (double) (System.nanoTime() - inicio) / leituras;
+        long coletas = coletasDeGc() - coletasAntes;
+        
+        System.out.printf("%-16s carga: %5d ms | heap retido: %4d MB | leitura: %7.1f ns | GCs: %3d | encontrados: %d%n",
+                nome, cargaMs, heapRetidoMb, nanosPorLeitura, coletas, encontrados);
+    }
+    
+    private static long ler(int quantidadeProdutos, int leituras, LongFunction<ProdutoDTO> leitura) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        long encontrados = 0;
+        for (int i = 0; i < leituras; i++) {
+            if (leitura.apply(aleatorio.nextLong(1, quantidadeProdutos + 1)) != null) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+    
+    private static long heapUsadoAposGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private static long coletasDeGc() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .filter(quantidade -> quantidade > 0)
+                .sum();
+    }
+}
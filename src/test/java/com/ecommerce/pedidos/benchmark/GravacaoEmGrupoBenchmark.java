@@ -0,0 +1,161 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.usecase.CriarPedidoUseCase;
+import com.ecommerce.pedidos.application.usecase.ModoValidacaoProdutos;
+import com.ecommerce.pedidos.infrastructure.persistence.TransacaoEmGrupo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+/**
+ * Vazão e latência da gravação de pedidos concorrentes: uma transação por pedido
+ * (INDIVIDUAL) contra o group commit (TransacaoEmGrupo) com janelas diferentes
+ *
+ * Banco de BancoBenchmark atrás de um HikariCP, gravando pelos repositórios da
+ * aplicação. No H2 em memória o custo do commit (fsync do WAL num banco real) é
+ * simulado por uma espera fixa em cada commit; num PostgreSQL (-Dbenchmark.url,
+ * com as migrations do Flyway) use -Dbenchmark.commit-ms=0. O serviço de produtos
+ * responde sem latência: o que se mede é só a gravação.
+ *
+ * Não é executado pelo "mvn test". Para executar:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ecommerce.pedidos.benchmark.GravacaoEmGrupoBenchmark \
+ *     -Dbenchmark.commit-ms=2 -Dbenchmark.pool=16 -Dbenchmark.clientes=64 -Dbenchmark.pedidos=5000 \
+ *     -Dbenchmark.janelas-ms=1,2,5 -Dbenchmark.tamanho-grupo=50
+ */
+public class GravacaoEmGrupoBenchmark {
+
+    private static final int ITENS_POR_PEDIDO = 5;
+
+    public static void main(String[] args) throws Exception {
+        long commitMs = Long.getLong("benchmark.commit-ms", 2);
+        int pool = Integer.getInteger("benchmark.pool", 16);
+        int clientes = Integer.getInteger("benchmark.clientes", 64);
+        int quantidadePedidos = Integer.getInteger("benchmark.pedidos", 5000);
+        int tamanhoGrupo = Integer.getInteger("benchmark.tamanho-grupo", 50);
+        long[] janelasMs = Arrays.stream(System.getProperty("benchmark.janelas-ms", "1,2,5").split(","))
+                .mapToLong(Long::parseLong)
+                .toArray();
+
+        System.out.printf("Commit: %d ms | pool: %d | clientes: %d | pedidos: %d (%d itens cada) | grupo máximo: %d%n",
+                commitMs, pool, clientes, quantidadePedidos, ITENS_POR_PEDIDO, tamanhoGrupo);
+
+        executarCenario("INDIVIDUAL", null, tamanhoGrupo, commitMs, pool, clientes, quantidadePedidos);
+        for (long janelaMs : janelasMs) {
+            executarCenario("GRUPO-" + janelaMs + "ms", Duration.ofMillis(janelaMs), tamanhoGrupo,
+                    commitMs, pool, clientes, quantidadePedidos);
+        }
+    }
+
+    private static void executarCenario(String cenario, Duration janela, int tamanhoGrupo, long commitMs,
+            int pool, int clientes, int quantidadePedidos) throws Exception {
+        try (AnnotationConfigApplicationContext contexto = BancoBenchmark.iniciar(
+                new HikariDataSource(BancoBenchmark.configuracaoPool("grupo-" + cenario, pool)))) {
+            JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+            AtomicInteger commits = new AtomicInteger();
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            TransactionOperations transacao = new TransactionTemplate(new CommitComCusto(
+                    contexto.getBean(EntityManagerFactory.class), Duration.ofMillis(commitMs), commits));
+            if (janela != null) {
+                transacao = new TransacaoEmGrupo(transacao, janela, tamanhoGrupo, meterRegistry);
+            }
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.registerModule(new JavaTimeModule());
+            CriarPedidoUseCase criarPedido = new CriarPedidoUseCase(
+                    contexto.getBean(PedidoRepositoryPort.class),
+                    contexto.getBean(OutboxRepositoryPort.class),
+                    PedidosEmLoteBenchmark.produtoService(Duration.ZERO, new AtomicInteger()),
+                    objectMapper, ModoValidacaoProdutos.LOTE, Duration.ofSeconds(30), transacao);
+
+            long[] latencias = new long[quantidadePedidos];
+            AtomicInteger proximo = new AtomicInteger();
+            long inicio = System.nanoTime();
+
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            try {
+                List<Future<?>> tarefas = new ArrayList<>();
+                for (int c = 0; c < clientes; c++) {
+                    tarefas.add(executor.submit(() -> {
+                        for (int i = proximo.getAndIncrement(); i < quantidadePedidos; i = proximo.getAndIncrement()) {
+                            int pedido = i;
+                            List<ItemPedidoRequest> itens = LongStream.range(0, ITENS_POR_PEDIDO)
+                                    .mapToObj(j -> new ItemPedidoRequest(1 + (pedido * 7 + j * 13) % 200, 1))
+                                    .toList();
+                            long inicioPedido = System.nanoTime();
+                            criarPedido.executar((long) pedido + 1, itens);
+                            latencias[pedido] = System.nanoTime() - inicioPedido;
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> tarefa : tarefas) {
+                    tarefa.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+            Arrays.sort(latencias);
+            DistributionSummary grupos = meterRegistry.find("pedidos.gravacao.grupo.tamanho").summary();
+            System.out.printf("%-11s vazão: %7.0f pedidos/s | latência p50: %6.2f ms | p99: %6.2f ms | commits: %5d"
+                            + " | pedidos por commit: %5.1f | pedidos gravados: %d%n",
+                    cenario,
+                    quantidadePedidos / (duracao.toNanos() / 1e9),
+                    latencias[latencias.length / 2] / 1e6,
+                    latencias[(int) (latencias.length * 0.99)] / 1e6,
+                    commits.get(),
+                    grupos == null ? 1.0 : grupos.mean(),
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pedidos", Long.class));
+        }
+    }
+
+    /**
+     * Transaction manager com uma espera fixa em cada commit (o fsync que o H2 em memória não faz)
+     */
+    private static final class CommitComCusto extends JpaTransactionManager {
+
+        private final Duration custo;
+        private final AtomicInteger commits;
+
+        private CommitComCusto(EntityManagerFactory entityManagerFactory, Duration custo, AtomicInteger commits) {
+            super(entityManagerFactory);
+            this.custo = custo;
+            this.commits = commits;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+            try {
+                Thread.sleep(custo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.doCommit(status);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.domain.entity.ItemPedido;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.PedidoJpaEntity;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.GravacaoPedidoJdbc;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.OutboxRepositoryImpl;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.PedidoJpaRepository;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.PedidoRepositoryImpl;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Tempo de banco por pedido na gravação de pedido, itens e evento Outbox:
+ * repositórios JPA (PedidoRepositoryImpl.salvar + OutboxRepositoryImpl.salvar)
+ * contra a gravação direta por JDBC (GravacaoPedidoJdbc)
+ *
+ * Um pedido por transação, numa thread só, em H2 em memória com o esquema gerado
+ * pelo Hibernate. Um proxy no DataSource conta as idas ao banco (execute*, commit)
+ * e pode somar uma latência de rede fixa a cada uma, como num banco remoto.
+ *
+ * Não é executado pelo "mvn test". Para executar:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ecommerce.pedidos.benchmark.GravacaoPedidoBenchmark \
+ *     -Dbenchmark.pedidos=5000 -Dbenchmark.itens=5 -Dbenchmark.latencia-rede-us=200
+ */
+public class GravacaoPedidoBenchmark {
+
+    private static final AtomicLong idasAoBanco = new AtomicLong();
+    private static long latenciaRedeNanos;
+
+    public static void main(String[] args) {
+        int quantidadePedidos = Integer.getInteger("benchmark.pedidos", 5000);
+        int itensPorPedido = Integer.getInteger("benchmark.itens", 5);
+        latenciaRedeNanos = Duration.ofNanos(Long.getLong("benchmark.latencia-rede-us", 200) * 1000).toNanos();
+
+        System.out.printf("Pedidos: %d (%d itens cada) | latência de rede simulada por ida ao banco: %d µs%n",
+                quantidadePedidos, itensPorPedido, latenciaRedeNanos / 1000);
+
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext(Configuracao.class)) {
+            TransactionTemplate transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+            PedidoRepositoryImpl pedidoRepository = contexto.getBean(PedidoRepositoryImpl.class);
+            OutboxRepositoryImpl outboxRepository = contexto.getBean(OutboxRepositoryImpl.class);
+            GravacaoPedidoJdbc gravacaoJdbc = contexto.getBean(GravacaoPedidoJdbc.class);
+
+            Consumer<Pedido> jpa = pedido -> transacao.executeWithoutResult(status -> {
+                Pedido salvo = pedidoRepository.salvar(pedido);
+                outboxRepository.salvar(evento(salvo));
+            });
+            Consumer<Pedido> jdbc = pedido -> transacao.executeWithoutResult(
+                    status -> gravacaoJdbc.gravarComEventos(List.of(pedido), GravacaoPedidoBenchmark::evento));
+
+            // Aquecimento (JIT, blocos de IDs, caches de statements) sem latência
+            long latencia = latenciaRedeNanos;
+            latenciaRedeNanos = 0;
+            executarCenario("aquecimento JPA", jpa, quantidadePedidos / 5, itensPorPedido, false);
+            executarCenario("aquecimento JDBC", jdbc, quantidadePedidos / 5, itensPorPedido, false);
+            latenciaRedeNanos = latencia;
+
+            executarCenario("JPA", jpa, quantidadePedidos, itensPorPedido, true);
+            executarCenario("JDBC", jdbc, quantidadePedidos, itensPorPedido, true);
+        }
+    }
+
+    private static void executarCenario(String cenario, Consumer<Pedido> gravar, int quantidadePedidos,
+            int itensPorPedido, boolean imprimir) {
+        List<Pedido> pedidos = IntStream.range(0, quantidadePedidos)
+                .mapToObj(i -> new Pedido((long) i + 1, IntStream.rangeClosed(1, itensPorPedido)
+                        .mapToObj(p -> new ItemPedido((long) p, "Produto " + p, 1, new BigDecimal("10.00")))
+                        .toList()))
+                .toList();
+
+        idasAoBanco.set(0);
+        long inicio = System.nanoTime();
+        pedidos.forEach(gravar);
+        long duracao = System.nanoTime() - inicio;
+
+        if (imprimir) {
+            System.out.printf("%-5s tempo de banco por pedido: %7.1f µs | idas ao banco por pedido: %4.2f%n",
+                    cenario, duracao / 1e3 / quantidadePedidos, idasAoBanco.get() / (double) quantidadePedidos);
+        }
+    }
+
+    private static OutboxEvent evento(Pedido pedido) {
+        return new OutboxEvent("PEDIDO", pedido.getId(), "PEDIDO_CRIADO",
+                "{\"pedidoId\":" + pedido.getId() + ",\"numeroPedido\":\"" + pedido.getNumeroPedido() + "\"}");
+    }
+
+    /**
+     * DataSource cujas conexões e statements contam (e atrasam) cada ida ao banco
+     */
+    private static DataSource comLatencia(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (alvo, metodo, resultado) ->
+                resultado instanceof Connection conexao ? proxy(Connection.class, conexao, (c, m, r) -> {
+                    if (m.equals("commit")) {
+                        idaAoBanco();
+                    }
+                    return r instanceof Statement statement ? proxyStatement(statement) : r;
+                }) : resultado);
+    }
+
+    private static Object proxyStatement(Statement statement) {
+        Class<?> tipo = statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return Proxy.newProxyInstance(GravacaoPedidoBenchmark.class.getClassLoader(), new Class<?>[] {tipo},
+                (p, metodo, argumentos) -> {
+                    if (metodo.getName().startsWith("execute")) {
+                        idaAoBanco();
+                    }
+                    return invocar(statement, metodo, argumentos);
+                });
+    }
+
+    private interface AposChamada {
+        Object aplicar(Object alvo, String metodo, Object resultado);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, T alvo, AposChamada aposChamada) {
+        InvocationHandler handler = (p, metodo, argumentos) ->
+                aposChamada.aplicar(alvo, metodo.getName(), invocar(alvo, metodo, argumentos));
+        return (T) Proxy.newProxyInstance(GravacaoPedidoBenchmark.class.getClassLoader(), new Class<?>[] {tipo}, handler);
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(alvo, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void idaAoBanco() {
+        idasAoBanco.incrementAndGet();
+        long limite = System.nanoTime() + latenciaRedeNanos;
+        while (System.nanoTime() < limite) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableJpaRepositories(basePackageClasses = PedidoJpaRepository.class)
+    @Import({PedidoRepositoryImpl.class, OutboxRepositoryImpl.class, GravacaoPedidoJdbc.class})
+    static class Configuracao {
+
+        private final HikariDataSource pool = criarPool();
+
+        @Bean
+        DataSource dataSource() {
+            return comLatencia(pool);
+        }
+
+        @PreDestroy
+        void fechar() {
+            pool.close();
+        }
+
+        private static HikariDataSource criarPool() {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl("jdbc:h2:mem:gravacao-pedido;DB_CLOSE_DELAY=-1");
+            config.setUsername("sa");
+            config.setMaximumPoolSize(2);
+            return new HikariDataSource(config);
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean fabrica = new LocalContainerEntityManagerFactoryBean();
+            fabrica.setDataSource(dataSource);
+            fabrica.setPackagesToScan(PedidoJpaEntity.class.getPackageName());
+            fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            // Mesmas opções de lote do application.properties
+            fabrica.setJpaPropertyMap(Map.of(
+                    "hibernate.hbm2ddl.auto", "create-drop",
+                    "hibernate.jdbc.batch_size", "20",
+                    "hibernate.order_inserts", "true",
+                    "hibernate.order_updates", "true"));
+            return fabrica;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+    }
+}
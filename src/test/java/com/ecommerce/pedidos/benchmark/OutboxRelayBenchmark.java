@@ -0,0 +1,256 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.application.service.EventPublisherPort;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.OutboxStatus;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.messaging.OutboxProcessor;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.OutboxJpaEntity;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.OutboxJpaRepository;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.OutboxRepositoryImpl;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Vazão da publicação da Outbox com vários publicadores concorrentes: algumas
+ * instâncias do OutboxProcessor (cada uma com K faixas) esvaziando a mesma
+ * tabela outbox, com a reserva por SELECT ... FOR UPDATE SKIP LOCKED
+ *
+ * A publicação no broker é simulada por uma espera fixa por evento. Com a reserva
+ * funcionando, a vazão cresce quase linearmente com as faixas (até o banco ou o
+ * pool virarem gargalo) e nenhum evento é publicado duas vezes.
+ *
+ * Cada pedido tem -Dbenchmark.eventos-por-pedido eventos: a ordem de publicação de
+ * cada pedido é conferida e as publicações fora de ordem aparecem no resultado.
+ * 
+ * Com -Dbenchmark.publicacao-em-lote=true, o lote inteiro custa uma única espera
+ * (envio sem esperar entre mensagens e confirmações assíncronas aguardadas juntas)
+ * e os confirmados viram PROCESSED num único UPDATE.
+ *
+ * Deve rodar contra um PostgreSQL local num banco descartável (createdb
+ * outbox_benchmark): o banco é limpo e o esquema criado pelas migrations do Flyway
+ * (db/migration/postgresql), com os índices parciais de pendentes da aplicação
+ * (V5 e V7). No H2 (jdbc:h2:mem:...) também roda, com o esquema do Hibernate e
+ * sem SKIP LOCKED nem índices parciais: as reservas concorrentes se esperam.
+ *
+ * Não é executado pelo "mvn test". Para executar:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ecommerce.pedidos.benchmark.OutboxRelayBenchmark \
+ *     -Dbenchmark.url=jdbc:postgresql://localhost:5432/outbox_benchmark \
+ *     -Dbenchmark.usuario=postgres -Dbenchmark.senha=postgres \
+ *     -Dbenchmark.eventos=5000 -Dbenchmark.instancias=2 -Dbenchmark.faixas=1,2,4,8 \
+ *     -Dbenchmark.publicacao-ms=2 -Dbenchmark.lote=20 -Dbenchmark.publicacao-em-lote=false \
+ *     -Dbenchmark.eventos-por-pedido=2
+ */
+public class OutboxRelayBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int quantidadeEventos = Integer.getInteger("benchmark.eventos", 5000);
+        int instancias = Integer.getInteger("benchmark.instancias", 2);
+        int[] faixas = Arrays.stream(System.getProperty("benchmark.faixas", "1,2,4,8").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration publicacao = Duration.ofMillis(Long.getLong("benchmark.publicacao-ms", 2));
+        int lote = Integer.getInteger("benchmark.lote", 20);
+        boolean publicacaoEmLote = Boolean.getBoolean("benchmark.publicacao-em-lote");
+        int eventosPorPedido = Integer.getInteger("benchmark.eventos-por-pedido", 2);
+
+        System.out.printf("Banco: %s | eventos: %d (%d por pedido) | instâncias: %d | publicação: %d ms por %s"
+                        + " | lote: %d%n",
+                System.getProperty("benchmark.url", Configuracao.URL_PADRAO), quantidadeEventos, eventosPorPedido,
+                instancias, publicacao.toMillis(), publicacaoEmLote ? "lote" : "evento", lote);
+
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext(Configuracao.class)) {
+            for (int porInstancia : faixas) {
+                executarCenario(contexto, quantidadeEventos, eventosPorPedido, instancias, porInstancia, publicacao,
+                        lote, publicacaoEmLote);
+            }
+        }
+    }
+
+    private static void executarCenario(AnnotationConfigApplicationContext contexto, int quantidadeEventos,
+            int eventosPorPedido, int instancias, int faixas, Duration publicacao, int lote, boolean publicacaoEmLote)
+            throws Exception {
+        OutboxRepositoryPort outboxRepository = contexto.getBean(OutboxRepositoryPort.class);
+        OutboxJpaRepository jpaRepository = contexto.getBean(OutboxJpaRepository.class);
+        TransactionTemplate transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+        jpaRepository.deleteAllInBatch();
+        // Os eventos de cada pedido intercalados com os dos outros (um lote por posição na sequência)
+        long pedidos = Math.max(1, quantidadeEventos / eventosPorPedido);
+        for (int seq = 1; seq <= eventosPorPedido; seq++) {
+            int sequencia = seq;
+            transacao.executeWithoutResult(status -> outboxRepository.salvarTodos(LongStream.rangeClosed(1, pedidos)
+                    .mapToObj(id -> new OutboxEvent("PEDIDO", id, "PEDIDO_CRIADO",
+                            "{\"pedidoId\":" + id + ",\"seq\":" + sequencia + "}"))
+                    .toList()));
+        }
+
+        Set<String> publicados = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicados = new AtomicInteger();
+        Map<String, Integer> ultimoPorPedido = new ConcurrentHashMap<>();
+        AtomicInteger foraDeOrdem = new AtomicInteger();
+        EventPublisherPort publicador = new EventPublisherPort() {
+            @Override
+            public void publicarEvento(String eventType, String routingKey, String payload) {
+                aguardar(publicacao);
+                registrar(payload);
+            }
+
+            @Override
+            public Set<Long> publicarEmLote(List<OutboxEvent> eventos, Function<String, String> routingKeyPorTipo) {
+                aguardar(publicacao);
+                eventos.forEach(evento -> registrar(evento.getPayload()));
+                return eventos.stream().map(OutboxEvent::getId).collect(Collectors.toSet());
+            }
+
+            private void registrar(String payload) {
+                if (!publicados.add(payload)) {
+                    duplicados.incrementAndGet();
+                }
+                String pedido = payload.substring(0, payload.indexOf(','));
+                int seq = Integer.parseInt(payload.substring(payload.lastIndexOf(':') + 1, payload.length() - 1));
+                ultimoPorPedido.merge(pedido, seq, (ultimo, atual) -> {
+                    if (atual < ultimo) {
+                        foraDeOrdem.incrementAndGet();
+                    }
+                    return Math.max(ultimo, atual);
+                });
+            }
+        };
+
+        List<OutboxProcessor> processadores = new ArrayList<>();
+        for (int i = 0; i < instancias; i++) {
+            processadores.add(new OutboxProcessor(outboxRepository, publicador, new SimpleMeterRegistry(), 3, lote, faixas,
+                    Duration.ofMinutes(5), Duration.ofSeconds(10), publicacaoEmLote, false, Duration.ZERO));
+        }
+
+        long inicio = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(instancias);
+        try {
+            List<Future<?>> execucoes = new ArrayList<>();
+            for (OutboxProcessor processador : processadores) {
+                execucoes.add(executor.submit(processador::processarEventosPendentes));
+            }
+            for (Future<?> execucao : execucoes) {
+                execucao.get();
+            }
+        } finally {
+            executor.shutdown();
+            processadores.forEach(OutboxProcessor::encerrar);
+        }
+        Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+
+        System.out.printf("%2d faixas (%d x %d) vazão: %7.0f eventos/s | publicados: %d | duplicados: %d"
+                        + " | fora de ordem: %d | ainda pendentes: %d%n",
+                instancias * faixas, instancias, faixas,
+                publicados.size() / (duracao.toNanos() / 1e9),
+                publicados.size(), duplicados.get(), foraDeOrdem.get(),
+                jpaRepository.findByStatus(OutboxStatus.PENDING).size());
+    }
+
+    private static void aguardar(Duration duracao) {
+        try {
+            Thread.sleep(duracao);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = OutboxJpaRepository.class)
+    @Import(OutboxRepositoryImpl.class)
+    static class Configuracao {
+
+        static final String URL_PADRAO = "jdbc:postgresql://localhost:5432/outbox_benchmark";
+
+        private final HikariDataSource pool = criarPool();
+        private final boolean postgresql = pool.getJdbcUrl().startsWith("jdbc:postgresql:");
+
+        @Bean
+        DataSource dataSource() {
+            return pool;
+        }
+
+        @PreDestroy
+        void fechar() {
+            pool.close();
+        }
+
+        private static HikariDataSource criarPool() {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(System.getProperty("benchmark.url", URL_PADRAO));
+            config.setUsername(System.getProperty("benchmark.usuario", "postgres"));
+            config.setPassword(System.getProperty("benchmark.senha", "postgres"));
+            config.setMaximumPoolSize(Integer.getInteger("benchmark.pool", 32));
+            return new HikariDataSource(config);
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            if (postgresql) {
+                migrar(dataSource);
+            }
+            LocalContainerEntityManagerFactoryBean fabrica = new LocalContainerEntityManagerFactoryBean();
+            fabrica.setDataSource(dataSource);
+            fabrica.setPackagesToScan(OutboxJpaEntity.class.getPackageName());
+            fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            fabrica.setJpaPropertyMap(Map.of(
+                    "hibernate.hbm2ddl.auto", postgresql ? "none" : "create-drop",
+                    "hibernate.jdbc.batch_size", "20",
+                    "hibernate.order_inserts", "true",
+                    "hibernate.order_updates", "true"));
+            return fabrica;
+        }
+
+        /**
+         * Esquema da aplicação no PostgreSQL: limpa o banco descartável e aplica as migrations
+         */
+        private static void migrar(DataSource dataSource) {
+            Flyway flyway = Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration/postgresql")
+                    .cleanDisabled(false)
+                    .load();
+            flyway.clean();
+            flyway.migrate();
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+}
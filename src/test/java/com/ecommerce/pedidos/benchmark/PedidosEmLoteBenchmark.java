@@ -0,0 +1,164 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.dto.NovoPedidoRequest;
+import com.ecommerce.pedidos.application.dto.ResultadoPedidoLote;
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.application.service.ProdutoServicePort;
+import com.ecommerce.pedidos.application.usecase.CriarPedidoUseCase;
+import com.ecommerce.pedidos.application.usecase.CriarPedidosEmLoteUseCase;
+import com.ecommerce.pedidos.application.usecase.ModoValidacaoProdutos;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vazão da criação de pedidos: um POST /api/pedidos por pedido (UNITARIO)
+ * contra POST /api/pedidos/lote (LOTE), com os mesmos pedidos e clientes
+ *
+ * Banco de BancoBenchmark (H2 em memória ou, com -Dbenchmark.url, um PostgreSQL
+ * com as migrations do Flyway) atrás de um HikariCP, gravando pelos repositórios
+ * da aplicação (no caminho unitário, cada pedido é uma transação com seus
+ * próprios INSERTs). O serviço de produtos é simulado com latência fixa por consulta.
+ *
+ * Não é executado pelo "mvn test". Para executar:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ecommerce.pedidos.benchmark.PedidosEmLoteBenchmark \
+ *     -Dbenchmark.latencia-ms=20 -Dbenchmark.pedidos=5000 -Dbenchmark.tamanho-lote=500 -Dbenchmark.clientes=8
+ */
+public class PedidosEmLoteBenchmark {
+
+    private static final int ITENS_POR_PEDIDO = 5;
+    private static final int PRODUTOS_DISTINTOS = 200;
+
+    public static void main(String[] args) throws Exception {
+        long latenciaMs = Long.getLong("benchmark.latencia-ms", 20);
+        int quantidadePedidos = Integer.getInteger("benchmark.pedidos", 5000);
+        int tamanhoLote = Integer.getInteger("benchmark.tamanho-lote", 500);
+        int clientes = Integer.getInteger("benchmark.clientes", 8);
+
+        List<NovoPedidoRequest> pedidos = IntStream.range(0, quantidadePedidos)
+                .mapToObj(i -> new NovoPedidoRequest((long) i + 1, LongStream.range(0, ITENS_POR_PEDIDO)
+                        .mapToObj(j -> new ItemPedidoRequest(1 + (i * 7 + j * 13) % PRODUTOS_DISTINTOS, 1))
+                        .toList()))
+                .toList();
+
+        System.out.printf("Latência remota: %d ms | pedidos: %d (%d itens cada) | lote: %d | clientes: %d%n",
+                latenciaMs, quantidadePedidos, ITENS_POR_PEDIDO, tamanhoLote, clientes);
+
+        for (boolean emLote : new boolean[] {false, true}) {
+            executarCenario(emLote, pedidos, Duration.ofMillis(latenciaMs), tamanhoLote, clientes);
+        }
+    }
+
+    private static void executarCenario(boolean emLote, List<NovoPedidoRequest> pedidos, Duration latencia,
+            int tamanhoLote, int clientes) throws Exception {
+        String cenario = emLote ? "LOTE" : "UNITARIO";
+
+        try (AnnotationConfigApplicationContext contexto = BancoBenchmark.iniciar(
+                new HikariDataSource(BancoBenchmark.configuracaoPool("lote-" + cenario, clientes)))) {
+            JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(
+                    contexto.getBean(PlatformTransactionManager.class));
+
+            PedidoRepositoryPort pedidoRepository = contexto.getBean(PedidoRepositoryPort.class);
+            OutboxRepositoryPort outboxRepository = contexto.getBean(OutboxRepositoryPort.class);
+            AtomicInteger consultas = new AtomicInteger();
+            ProdutoServicePort produtoService = produtoService(latencia, consultas);
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.registerModule(new JavaTimeModule());
+
+            CriarPedidoUseCase criarPedido = new CriarPedidoUseCase(pedidoRepository, outboxRepository,
+                    produtoService, objectMapper, ModoValidacaoProdutos.LOTE, Duration.ofSeconds(30), transactionTemplate);
+            CriarPedidosEmLoteUseCase criarPedidosEmLote = new CriarPedidosEmLoteUseCase(criarPedido,
+                    produtoService, transactionTemplate, tamanhoLote);
+
+            List<List<NovoPedidoRequest>> requisicoes = new ArrayList<>();
+            int porRequisicao = emLote ? tamanhoLote : 1;
+            for (int i = 0; i < pedidos.size(); i += porRequisicao) {
+                requisicoes.add(pedidos.subList(i, Math.min(pedidos.size(), i + porRequisicao)));
+            }
+
+            AtomicInteger proxima = new AtomicInteger();
+            AtomicLong criados = new AtomicLong();
+            long inicio = System.nanoTime();
+
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            try {
+                List<Future<?>> tarefas = new ArrayList<>();
+                for (int c = 0; c < clientes; c++) {
+                    tarefas.add(executor.submit(() -> {
+                        for (int r = proxima.getAndIncrement(); r < requisicoes.size(); r = proxima.getAndIncrement()) {
+                            List<NovoPedidoRequest> requisicao = requisicoes.get(r);
+                            if (emLote) {
+                                criados.addAndGet(criarPedidosEmLote.executar(requisicao, Prazo.semLimite()).stream()
+                                        .filter(ResultadoPedidoLote::sucesso)
+                                        .count());
+                            } else {
+                                NovoPedidoRequest pedido = requisicao.get(0);
+                                criarPedido.executar(pedido.clienteId(), pedido.itens());
+                                criados.incrementAndGet();
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> tarefa : tarefas) {
+                    tarefa.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+            System.out.printf("%-9s vazão: %7.0f pedidos/s | tempo total: %6d ms | consultas ao serviço de produtos: %5d"
+                            + " | pedidos gravados: %d%n",
+                    cenario,
+                    criados.get() / (duracao.toNanos() / 1e9),
+                    duracao.toMillis(),
+                    consultas.get(),
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pedidos", Long.class));
+        }
+    }
+
+    static ProdutoServicePort produtoService(Duration latencia, AtomicInteger consultas) {
+        ProdutoServicePort produtoService = mock(ProdutoServicePort.class);
+        when(produtoService.buscarProdutosPorIds(any(), any())).thenAnswer(invocation -> {
+            consultas.incrementAndGet();
+            Thread.sleep(latencia);
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().collect(Collectors.toMap(Function.identity(), PedidosEmLoteBenchmark::produto));
+        });
+        when(produtoService.verificarEstoque(any(), any())).thenReturn(true);
+        return produtoService;
+    }
+
+    private static ProdutoDTO produto(Long id) {
+        return new ProdutoDTO(id, "Produto " + id, "Desc", new BigDecimal("10.00"), 1_000_000, "Cat", null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.infrastructure.client.ProdutoFeignClientSemFallback;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stub do ProdutoFeignClient com latência configurável (simula a chamada remota)
+ */
+public class ProdutoFeignClientStub implements ProdutoFeignClientSemFallback {
+    
+    private final Duration latencia;
+    private final AtomicLong chamadas = new AtomicLong();
+    
+    public ProdutoFeignClientStub(Duration latencia) {
+        this.latencia = latencia;
+    }
+    
+    @Override
+    public ProdutoDTO buscarPorId(Long id) {
+        chamadas.incrementAndGet();
+        simularLatencia();
+        return criarProduto(id);
+    }
+    
+    @Override
+    public List<ProdutoDTO> buscarPorIds(Collection<Long> ids) {
+        chamadas.incrementAndGet();
+        simularLatencia();
+        return ids.stream().map(ProdutoFeignClientStub::criarProduto).toList();
+    }
+    
+    @Override
+    public List<Long> listarIds() {
+        return List.of();
+    }
+    
+    public long getChamadas() {
+        return chamadas.get();
+    }
+    
+    public void zerarChamadas() {
+        chamadas.set(0);
+    }
+    
+    static ProdutoDTO criarProduto(Long id) {
+        return new ProdutoDTO(id, "Produto " + id, "Descrição", new BigDecimal("10.00"), 1_000, "Categoria", null);
+    }
+    
+    private void simularLatencia() {
+        try {
+            Thread.sleep(latencia);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Chamada interrompida", e);
+        }
+    }
+}
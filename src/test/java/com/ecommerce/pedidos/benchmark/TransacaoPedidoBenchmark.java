@@ -0,0 +1,166 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.service.ProdutoServicePort;
+import com.ecommerce.pedidos.application.usecase.CriarPedidoUseCase;
+import com.ecommerce.pedidos.application.usecase.ModoValidacaoProdutos;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Teste de carga da criação de pedidos: tempo de uso das conexões do pool e
+ * vazão com a validação remota dentro da transação (ANTES: o caso de uso
+ * inteiro numa transação, como era com @Transactional) e fora dela (DEPOIS:
+ * transação só na gravação do pedido e do evento Outbox)
+ *
+ * Um HikariCP pequeno na frente do banco de BancoBenchmark (H2 em memória ou,
+ * com -Dbenchmark.url, um PostgreSQL com as migrations do Flyway), gravando pelos
+ * repositórios da aplicação; o serviço de produtos é simulado com latência fixa.
+ * O uso de cada conexão vem do próprio Hikari (hikaricp.connections.usage e
+ * hikaricp.connections.acquire).
+ *
+ * Não é executado pelo "mvn test". Para executar:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ecommerce.pedidos.benchmark.TransacaoPedidoBenchmark \
+ *     -Dbenchmark.latencia-ms=50 -Dbenchmark.pool=10 -Dbenchmark.clientes=100 -Dbenchmark.pedidos=2000
+ */
+public class TransacaoPedidoBenchmark {
+
+    private static final int ITENS_POR_PEDIDO = 5;
+
+    public static void main(String[] args) throws Exception {
+        long latenciaMs = Long.getLong("benchmark.latencia-ms", 50);
+        int tamanhoPool = Integer.getInteger("benchmark.pool", 10);
+        int clientes = Integer.getInteger("benchmark.clientes", 100);
+        int pedidos = Integer.getInteger("benchmark.pedidos", 2000);
+
+        System.out.printf("Latência remota: %d ms | pool: %d conexões | clientes: %d | pedidos: %d%n",
+                latenciaMs, tamanhoPool, clientes, pedidos);
+
+        for (boolean validacaoNaTransacao : new boolean[] {true, false}) {
+            executarCenario(validacaoNaTransacao, latenciaMs, tamanhoPool, clientes, pedidos);
+        }
+    }
+
+    private static void executarCenario(boolean validacaoNaTransacao, long latenciaMs, int tamanhoPool,
+            int clientes, int pedidos) throws Exception {
+        String cenario = validacaoNaTransacao ? "ANTES" : "DEPOIS";
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        try (AnnotationConfigApplicationContext contexto = BancoBenchmark.iniciar(
+                criarDataSource(cenario, tamanhoPool, meterRegistry))) {
+            JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(
+                    contexto.getBean(PlatformTransactionManager.class));
+
+            CriarPedidoUseCase useCase = new CriarPedidoUseCase(
+                    contexto.getBean(PedidoRepositoryPort.class), contexto.getBean(OutboxRepositoryPort.class),
+                    produtoService(Duration.ofMillis(latenciaMs)), objectMapper(),
+                    ModoValidacaoProdutos.LOTE, Duration.ofSeconds(30), transactionTemplate);
+            List<ItemPedidoRequest> itens = LongStream.rangeClosed(1, ITENS_POR_PEDIDO)
+                    .mapToObj(id -> new ItemPedidoRequest(id, 1))
+                    .toList();
+
+            Runnable criarPedido = validacaoNaTransacao
+                    ? () -> transactionTemplate.executeWithoutResult(status -> useCase.executar(1L, itens))
+                    : () -> useCase.executar(1L, itens);
+
+            long inicio = System.nanoTime();
+            executarClientes(criarPedido, clientes, pedidos);
+            Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+
+            Timer uso = meterRegistry.get("hikaricp.connections.usage").timer();
+            Timer aquisicao = meterRegistry.get("hikaricp.connections.acquire").timer();
+            System.out.printf("%-7s vazão: %6.0f pedidos/s | uso da conexão: média %6.1f ms, máx %6.1f ms"
+                            + " | espera por conexão: média %7.1f ms | pedidos gravados: %d%n",
+                    cenario,
+                    pedidos / (duracao.toNanos() / 1e9),
+                    uso.mean(TimeUnit.MILLISECONDS),
+                    uso.max(TimeUnit.MILLISECONDS),
+                    aquisicao.mean(TimeUnit.MILLISECONDS),
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pedidos", Long.class));
+        }
+    }
+
+    private static void executarClientes(Runnable criarPedido, int clientes, int pedidos) throws Exception {
+        AtomicLong restantes = new AtomicLong(pedidos);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int i = 0; i < clientes; i++) {
+                tarefas.add(executor.submit(() -> {
+                    while (restantes.getAndDecrement() > 0) {
+                        criarPedido.run();
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static HikariDataSource criarDataSource(String nome, int tamanhoPool, SimpleMeterRegistry meterRegistry) {
+        HikariConfig config = BancoBenchmark.configuracaoPool("benchmark-" + nome, tamanhoPool);
+        config.setMinimumIdle(tamanhoPool);
+        config.setConnectionTimeout(TimeUnit.MINUTES.toMillis(1));
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Serviço de produtos com latência fixa por consulta em lote
+     */
+    private static ProdutoServicePort produtoService(Duration latencia) {
+        ProdutoServicePort produtoService = mock(ProdutoServicePort.class);
+        when(produtoService.buscarProdutosPorIds(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(latencia);
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().collect(Collectors.toMap(Function.identity(), TransacaoPedidoBenchmark::produto));
+        });
+        when(produtoService.verificarEstoque(any(), any())).thenReturn(true);
+        return produtoService;
+    }
+
+    private static ProdutoDTO produto(Long id) {
+        return new ProdutoDTO(id, "Produto " + id, "Desc", new BigDecimal("10.00"), 1_000_000, "Cat", null);
+    }
+
+    private static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.ecommerce.pedidos.infrastructure.config.RestClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Teste de carga do transporte HTTP contra um servidor stub local
+ * 
+ * Compara o transporte padrão (HttpURLConnection no Feign e no RestTemplate)
+ * com o configurado em RestClientConfig (pool Apache HttpClient 5): vazão,
+ * latência p50/p99 e quantidade de conexões TCP abertas no servidor.
+ * 
+ * Não é executado pelo "mvn test". Para executar:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ecommerce.pedidos.benchmark.TransporteHttpBenchmark \
+ *     -Dbenchmark.concorrencia=64 -Dbenchmark.requisicoes=20000 -Dbenchmark.latencia-ms=2
+ */
+public class TransporteHttpBenchmark {
+    
+    private static final String CORPO = """
+            {"id":1,"nome":"Produto 1","descricao":"Descrição","preco":10.00,"estoque":1000,"categoria":"Categoria"}""";
+    
+    public static void main(String[] args) throws Exception {
+        int concorrencia = Integer.getInteger("benchmark.concorrencia", 64);
+        int requisicoes = Integer.getInteger("benchmark.requisicoes", 20_000);
+        long latenciaMs = Long.getLong("benchmark.latencia-ms", 2);
+        
+        Set<Integer> conexoes = ConcurrentHashMap.newKeySet();
+        HttpServer servidor = iniciarServidor(latenciaMs, conexoes);
+        String url = "http://localhost:" + servidor.getAddress().getPort() + "/api/produtos/1";
+        
+        System.out.printf("Concorrência: %d | requisições: %d | latência do stub: %d ms%n",
+                concorrencia, requisicoes, latenciaMs);
+        
+        RestClientConfig config = new RestClientConfig(200, concorrencia, Duration.ofSeconds(2),
+                Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(30), false);
+        try (CloseableHttpClient clientePrincipal = config.produtoServiceHttpClient(new SimpleMeterRegistry());
+             CloseableHttpClient clienteFallback = config.produtoFallbackHttpClient(new SimpleMeterRegistry())) {
+            
+            Client feignPadrao = new Client.Default(null, null);
+            Client feignPool = new ApacheHttp5Client(clientePrincipal);
+            Request.Options opcoes = new Request.Options(2, TimeUnit.SECONDS, 5, TimeUnit.SECONDS, true);
+            executar("Feign padrão", concorrencia, requisicoes, conexoes, i -> chamarFeign(feignPadrao, url, opcoes));
+            executar("Feign pool hc5", concorrencia, requisicoes, conexoes, i -> chamarFeign(feignPool, url, opcoes));
+            
+            RestTemplate restTemplatePadrao = new RestTemplate();
+            RestTemplate restTemplatePool = new RestTemplate(new HttpComponentsClientHttpRequestFactory(clienteFallback));
+            executar("RestTemplate padrão", concorrencia, requisicoes, conexoes,
+                    i -> restTemplatePadrao.getForObject(url, ProdutoDTO.class));
+            executar("RestTemplate pool", concorrencia, requisicoes, conexoes,
+                    i -> restTemplatePool.getForObject(url, ProdutoDTO.class));
+            
+        } finally {
+            servidor.stop(0);
+        }
+    }
+    
+    private static void executar(String nome, int concorrencia, int requisicoes, Set<Integer> conexoes,
+            LongConsumer chamada) throws Exception {
+        // Aquecimento
+        rodar(concorrencia, Math.max(concorrencia, requisicoes / 10), chamada);
+        conexoes.clear();
+        
+        long inicio = System.nanoTime();
+        long[] latencias = rodar(concorrencia, requisicoes, chamada);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        
+        Arrays.sort(latencias);
+        System.out.printf("%-20s vazão: %7.0f req/s | p50: %6.2f ms | p99: %6.2f ms | conexões abertas: %d%n",
+                nome, requisicoes / segundos,
+                latencias[latencias.length / 2] / 1e6,
+                latencias[(int) (latencias.length * 0.99)] / 1e6,
+                conexoes.size());
+    }
+    
+    private static long[] rodar(int concorrencia, int requisicoes, LongConsumer chamada) throws Exception {
+        long[] latencias = new long[requisicoes];
+        ExecutorService executor = Executors.newFixedThreadPool(concorrencia);
+        try {
+            Future<?>[] tarefas = new Future<?>[concorrencia];
+            for (int t = 0; t < concorrencia; t++) {
+                int inicioFaixa = t;
+                tarefas[t] = executor.submit(() -> {
+                    for (int i = inicioFaixa; i < requisicoes; i += concorrencia) {
+                        long inicio = System.nanoTime();
+                        chamada.accept(i);
+                        latencias[i] = System.nanoTime() - inicio;
+                    }
+                });
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return latencias;
+    }
+    
+    private static void chamarFeign(Client client, String url, Request.Options opcoes) {
+        Request request = Request.create(Request.HttpMethod.GET, url, Map.of(), null, StandardCharsets.UTF_8, null);
+        try (Response response = client.execute(request, opcoes); InputStream corpo = response.body().asInputStream()) {
+            corpo.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    private static HttpServer iniciarServidor(long latenciaMs, Set<Integer> conexoes) throws IOException {
+        // Sem TCP_NODELAY o servidor do JDK soma o delayed ACK (~40 ms) a cada resposta
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        byte[] resposta = CORPO.getBytes(StandardCharsets.UTF_8);
+        servidor.createContext("/api/produtos", exchange -> {
+            conexoes.add(exchange.getRemoteAddress().getPort());
+            try {
+                Thread.sleep(latenciaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, resposta.length);
+            try (OutputStream saida = exchange.getResponseBody()) {
+                saida.write(resposta);
+            }
+        });
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        servidor.start();
+        return servidor;
+    }
+}
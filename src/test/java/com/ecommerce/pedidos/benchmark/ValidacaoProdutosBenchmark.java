@@ -0,0 +1,102 @@
+package com.ecommerce.pedidos.benchmark;
+
+import com.ecommerce.pedidos.application.dto.ItemPedidoRequest;
+import com.ecommerce.pedidos.application.usecase.CriarPedidoUseCase;
+import com.ecommerce.pedidos.application.usecase.ModoValidacaoProdutos;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.cache.AlteracoesProdutos;
+import com.ecommerce.pedidos.infrastructure.cache.ProdutosInexistentesCache;
+import com.ecommerce.pedidos.infrastructure.client.HedgingProdutoClient;
+import com.ecommerce.pedidos.infrastructure.client.LimitadorConcorrenciaAdaptativo;
+import com.ecommerce.pedidos.infrastructure.client.ProdutoServiceAdapter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark da validação de produtos: modos SEQUENCIAL, PARALELO e LOTE
+ * (o cache "produtos" é limpo antes de cada pedido, para medir as chamadas remotas)
+ * 
+ * Não é executado pelo "mvn test". Para executar:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ecommerce.pedidos.benchmark.ValidacaoProdutosBenchmark \
+ *     -Dbenchmark.latencia-ms=20 -Dbenchmark.itens=30 -Dbenchmark.endpoint-lote=false
+ */
+public class ValidacaoProdutosBenchmark {
+    
+    public static void main(String[] args) {
+        long latenciaMs = Long.getLong("benchmark.latencia-ms", 20);
+        int quantidadeItens = Integer.getInteger("benchmark.itens", 30);
+        int iteracoes = Integer.getInteger("benchmark.iteracoes", 20);
+        boolean endpointLote = Boolean.getBoolean("benchmark.endpoint-lote");
+        
+        ProdutoFeignClientStub feignClient = new ProdutoFeignClientStub(Duration.ofMillis(latenciaMs));
+        CacheManager cacheManager = new ConcurrentMapCacheManager("produtos");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProdutosInexistentesCache produtosInexistentes = new ProdutosInexistentesCache(
+                feignClient, meterRegistry, Duration.ofMinutes(1), 10_000, false, 1, 0.01);
+        LimitadorConcorrenciaAdaptativo limitador = new LimitadorConcorrenciaAdaptativo(meterRegistry, false,
+                200, 1, 200, Duration.ofSeconds(1), 0.9, Duration.ZERO);
+        HedgingProdutoClient hedging = new HedgingProdutoClient(feignClient, feignClient, meterRegistry,
+                false, 0.95, Duration.ofMillis(50), 10, 100);
+        ProdutoServiceAdapter produtoService = new ProdutoServiceAdapter(feignClient, cacheManager,
+                produtosInexistentes, new AlteracoesProdutos(Duration.ofMinutes(5)), limitador, hedging,
+                RetryRegistry.ofDefaults(), meterRegistry, endpointLote, 8);
+        
+        List<ItemPedidoRequest> itens = LongStream.rangeClosed(1, quantidadeItens)
+                .mapToObj(id -> new ItemPedidoRequest(id, 1))
+                .toList();
+        
+        System.out.printf("Latência remota: %d ms | itens por pedido: %d | iterações: %d%n",
+                latenciaMs, quantidadeItens, iteracoes);
+        
+        for (ModoValidacaoProdutos modo : ModoValidacaoProdutos.values()) {
+            CriarPedidoUseCase useCase = criarUseCase(produtoService, modo);
+            
+            // Aquecimento
+            useCase.executar(1L, itens);
+            feignClient.zerarChamadas();
+            
+            long totalNanos = 0;
+            for (int i = 0; i < iteracoes; i++) {
+                cacheManager.getCache("produtos").clear();
+                long inicio = System.nanoTime();
+                useCase.executar(1L, itens);
+                totalNanos += System.nanoTime() - inicio;
+            }
+            long mediaMs = Duration.ofNanos(totalNanos).toMillis() / iteracoes;
+            
+            System.out.printf("%-10s média por pedido: %5d ms | chamadas remotas por pedido: %d%n",
+                    modo, mediaMs, feignClient.getChamadas() / iteracoes);
+        }
+    }
+    
+    private static CriarPedidoUseCase criarUseCase(ProdutoServiceAdapter produtoService, ModoValidacaoProdutos modo) {
+        PedidoRepositoryPort pedidoRepository = mock(PedidoRepositoryPort.class);
+        OutboxRepositoryPort outboxRepository = mock(OutboxRepositoryPort.class);
+        when(pedidoRepository.salvar(any(Pedido.class))).thenAnswer(invocation -> {
+            Pedido pedido = invocation.getArgument(0);
+            return new Pedido(1L, pedido.getNumeroPedido(), pedido.getClienteId(), pedido.getItens(),
+                    pedido.getStatus(), pedido.getDataCriacao(), pedido.getDataAtualizacao());
+        });
+        
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        
+        return new CriarPedidoUseCase(pedidoRepository, outboxRepository, produtoService, objectMapper,
+                modo, Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.application.service.ProdutoServicePort;
+import com.ecommerce.pedidos.domain.repository.PedidoRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.cache.AquecimentoCacheProdutos.ResultadoAquecimento;
+import com.ecommerce.pedidos.infrastructure.cache.AquecimentoCacheProdutos.StatusAquecimento;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AquecimentoCacheProdutosTest {
+
+    @Mock
+    private PedidoRepositoryPort pedidoRepository;
+
+    @Mock
+    private ProdutoServicePort produtoService;
+
+    @Test
+    void deveCarregarProdutosMaisPedidosEmLotes() {
+        // Arrange
+        when(pedidoRepository.listarProdutosMaisPedidos(any(), eq(120)))
+                .thenReturn(LongStream.rangeClosed(1, 120).boxed().toList());
+        when(produtoService.buscarProdutosPorIds(anyCollection(), any()))
+                .thenAnswer(invocation -> produtos(invocation.getArgument(0)));
+
+        // Act
+        ResultadoAquecimento resultado = criarAquecimento(120, Duration.ofSeconds(5)).aquecer();
+
+        // Assert
+        assertEquals(StatusAquecimento.CONCLUIDO, resultado.status());
+        assertEquals(120, resultado.produtosSolicitados());
+        assertEquals(120, resultado.produtosCarregados());
+        verify(produtoService, times(3)).buscarProdutosPorIds(anyCollection(), any());
+    }
+
+    @Test
+    void deveLimitarQuantidadeAoMaximoDeEntradasDoCache() {
+        // Arrange
+        when(pedidoRepository.listarProdutosMaisPedidos(any(), eq(100)))
+                .thenReturn(LongStream.rangeClosed(1, 100).boxed().toList());
+        when(produtoService.buscarProdutosPorIds(anyCollection(), any()))
+                .thenAnswer(invocation -> produtos(invocation.getArgument(0)));
+
+        // Act
+        ResultadoAquecimento resultado = criarAquecimento(500, 100, Duration.ofSeconds(5)).aquecer();
+
+        // Assert
+        assertEquals(100, resultado.produtosSolicitados());
+        verify(pedidoRepository).listarProdutosMaisPedidos(any(), eq(100));
+    }
+
+    @Test
+    void naoDeveLimitarQuantidadeComSegundaCamadaEmDisco() {
+        // Arrange: o que a primeira camada expulsar continua no disco
+        when(pedidoRepository.listarProdutosMaisPedidos(any(), eq(500)))
+                .thenReturn(LongStream.rangeClosed(1, 500).boxed().toList());
+        when(produtoService.buscarProdutosPorIds(anyCollection(), any()))
+                .thenAnswer(invocation -> produtos(invocation.getArgument(0)));
+
+        // Act
+        ResultadoAquecimento resultado = criarAquecimento(500, 100, true, Duration.ofSeconds(5)).aquecer();
+
+        // Assert
+        assertEquals(500, resultado.produtosSolicitados());
+        assertEquals(500, resultado.produtosCarregados());
+    }
+
+    @Test
+    void deveEncerrarQuandoPrazoEsgota() {
+        // Arrange
+        when(pedidoRepository.listarProdutosMaisPedidos(any(), anyInt())).thenReturn(List.of(1L, 2L));
+        when(produtoService.buscarProdutosPorIds(anyCollection(), any())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return Map.of();
+        });
+
+        // Act
+        ResultadoAquecimento resultado = criarAquecimento(10, Duration.ofMillis(100)).aquecer();
+
+        // Assert
+        assertEquals(StatusAquecimento.PRAZO_ESGOTADO, resultado.status());
+        assertEquals(0, resultado.produtosCarregados());
+        assertTrue(resultado.duracao().compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    @Test
+    void naoDeveImpedirSubidaQuandoHistoricoFalha() {
+        // Arrange
+        when(pedidoRepository.listarProdutosMaisPedidos(any(), anyInt()))
+                .thenThrow(new IllegalStateException("banco indisponível"));
+
+        // Act
+        ResultadoAquecimento resultado = criarAquecimento(10, Duration.ofSeconds(1)).aquecer();
+
+        // Assert
+        assertEquals(StatusAquecimento.FALHOU, resultado.status());
+        verifyNoInteractions(produtoService);
+    }
+
+    private AquecimentoCacheProdutos criarAquecimento(int quantidade, Duration prazo) {
+        return criarAquecimento(quantidade, 1000, prazo);
+    }
+
+    private AquecimentoCacheProdutos criarAquecimento(int quantidade, long maximoEntradasCache, Duration prazo) {
+        return criarAquecimento(quantidade, maximoEntradasCache, false, prazo);
+    }
+
+    private AquecimentoCacheProdutos criarAquecimento(int quantidade, long maximoEntradasCache,
+            boolean discoHabilitado, Duration prazo) {
+        return new AquecimentoCacheProdutos(pedidoRepository, produtoService, new SimpleMeterRegistry(),
+                true, quantidade, maximoEntradasCache, discoHabilitado, Duration.ofDays(7), 50, 2, prazo);
+    }
+
+    private static Map<Long, ProdutoDTO> produtos(Collection<Long> ids) {
+        return ids.stream().collect(Collectors.toMap(Function.identity(),
+                id -> new ProdutoDTO(id, "Produto " + id, "Desc", new BigDecimal("10.00"), 10, "Cat", null)));
+    }
+}
@@ -0,0 +1,232 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.infrastructure.client.LimitadorConcorrenciaAdaptativo;
+import com.ecommerce.pedidos.infrastructure.client.ProdutoFeignClient;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoCacheLoaderTest {
+
+    private static final Duration ATUALIZAR_APOS = Duration.ofMinutes(5);
+    private static final Duration OBSOLESCENCIA_MAXIMA = Duration.ofMinutes(30);
+
+    @Mock
+    private ProdutoFeignClient produtoFeignClient;
+
+    @TempDir
+    Path diretorio;
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final Queue<Runnable> tarefasPendentes = new ArrayDeque<>();
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private LimitadorConcorrenciaAdaptativo limitador;
+    private AlteracoesProdutos alteracoes;
+    private ProdutoDiskStore segundaCamada;
+    private RefreshAheadCaffeineCache cache;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        meterRegistry = new SimpleMeterRegistry();
+        segundaCamada = new ProdutoDiskStore(diretorio.resolve("produtos.dat"), 1 << 20);
+        // Uma chamada simultânea: basta ocupá-la para a recarga ser recusada
+        limitador = new LimitadorConcorrenciaAdaptativo(meterRegistry, true, 1, 1, 1,
+                Duration.ofMillis(500), 0.9, Duration.ofMillis(10));
+        alteracoes = new AlteracoesProdutos(Duration.ofHours(1));
+        ProdutoCacheLoader loader = new ProdutoCacheLoader(produtoFeignClient, limitador, circuitBreakerRegistry,
+                new StaticListableBeanFactory(Map.of("produtoDiskStore", segundaCamada))
+                        .getBeanProvider(ProdutoDiskStore.class),
+                alteracoes, meterRegistry);
+
+        cache = new RefreshAheadCaffeineCache("produtos", Caffeine.newBuilder()
+                .refreshAfterWrite(ATUALIZAR_APOS)
+                .expireAfterWrite(ATUALIZAR_APOS.plus(OBSOLESCENCIA_MAXIMA))
+                .ticker(relogio::get)
+                .executor(tarefasPendentes::add)
+                .build(loader));
+        cache.put(1L, produto(1L, 10));
+        segundaCamada.gravar(produto(1L, 10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        segundaCamada.close();
+    }
+
+    @Test
+    void deveServirEntradaAntigaEAtualizarEmSegundoPlano() {
+        // Arrange
+        when(produtoFeignClient.buscarPorId(1L)).thenReturn(produto(1L, 7));
+        avancar(ATUALIZAR_APOS.plusSeconds(1));
+
+        // Act
+        ProdutoDTO lidoDuranteRefresh = cache.get(1L, ProdutoDTO.class);
+        executarTarefasPendentes();
+        ProdutoDTO lidoAposRefresh = cache.get(1L, ProdutoDTO.class);
+
+        // Assert
+        assertEquals(10, lidoDuranteRefresh.estoque());
+        assertEquals(7, lidoAposRefresh.estoque());
+        verify(produtoFeignClient, times(1)).buscarPorId(1L);
+        assertEquals(1, contador("sucesso"));
+    }
+
+    @Test
+    void deveServirEntradaObsoletaSemChamadaRemotaComCircuitBreakerAberto() {
+        // Arrange
+        circuitBreakerRegistry.circuitBreaker("produtoService").transitionToOpenState();
+        avancar(ATUALIZAR_APOS.plus(Duration.ofMinutes(10)));
+
+        // Act
+        ProdutoDTO produto = cache.get(1L, ProdutoDTO.class);
+        executarTarefasPendentes();
+
+        // Assert
+        assertEquals(10, produto.estoque());
+        assertEquals(10, cache.get(1L, ProdutoDTO.class).estoque());
+        verify(produtoFeignClient, never()).buscarPorId(any());
+        assertEquals(2, contador("ignorado"));
+    }
+
+    @Test
+    void deveManterEntradaAtualQuandoOLimiteDeConcorrenciaRecusaARecarga() throws Exception {
+        // Arrange: a única vaga do limitador está ocupada por uma busca de pedido
+        CountDownLatch ocupada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.submit(() -> limitador.executar(() -> {
+            ocupada.countDown();
+            aguardar(liberar);
+            return null;
+        }));
+        ocupada.await(5, TimeUnit.SECONDS);
+        avancar(ATUALIZAR_APOS.plusSeconds(1));
+
+        // Act
+        ProdutoDTO produto = cache.get(1L, ProdutoDTO.class);
+        executarTarefasPendentes();
+        liberar.countDown();
+        executor.shutdown();
+
+        // Assert
+        assertEquals(10, produto.estoque());
+        assertEquals(10, cache.get(1L, ProdutoDTO.class).estoque());
+        verify(produtoFeignClient, never()).buscarPorId(any());
+        assertEquals(1, contador("ignorado"));
+        assertEquals(0, contador("falha"));
+    }
+
+    @Test
+    void deveDescartarRecargaIniciadaAntesDeUmEventoDeAlteracao() {
+        // Arrange: o refresh do produto 1 é disparado e, antes de executar, chega o evento
+        when(produtoFeignClient.buscarPorId(1L)).thenReturn(produto(1L, 7));
+        avancar(ATUALIZAR_APOS.plusSeconds(1));
+        cache.get(1L, ProdutoDTO.class);
+        alteracoes.registrar(1L);
+        cache.put(1L, produto(1L, 3));
+        segundaCamada.gravar(produto(1L, 3));
+
+        // Act
+        executarTarefasPendentes();
+
+        // Assert
+        assertEquals(3, cache.get(1L, ProdutoDTO.class).estoque());
+        assertEquals(3, segundaCamada.buscar(1L).orElseThrow().produto().estoque());
+        assertEquals(1, contador("descartado"));
+        assertEquals(0, contador("sucesso"));
+    }
+
+    @Test
+    void deveGravarProdutoAtualizadoNaSegundaCamada() {
+        // Arrange
+        when(produtoFeignClient.buscarPorId(1L)).thenReturn(produto(1L, 7));
+        avancar(ATUALIZAR_APOS.plusSeconds(1));
+
+        // Act
+        cache.get(1L, ProdutoDTO.class);
+        executarTarefasPendentes();
+
+        // Assert
+        assertEquals(7, segundaCamada.buscar(1L).orElseThrow().produto().estoque());
+    }
+
+    @Test
+    void deveRemoverDaSegundaCamadaProdutoQueDeixouDeExistir() {
+        // Arrange
+        when(produtoFeignClient.buscarPorId(1L)).thenReturn(null);
+        avancar(ATUALIZAR_APOS.plusSeconds(1));
+
+        // Act
+        cache.get(1L, ProdutoDTO.class);
+        executarTarefasPendentes();
+
+        // Assert
+        assertNull(cache.get(1L));
+        assertTrue(segundaCamada.buscar(1L).isEmpty());
+        assertEquals(1, contador("removido"));
+    }
+
+    @Test
+    void deveDescartarEntradaAposObsolescenciaMaxima() {
+        // Arrange
+        circuitBreakerRegistry.circuitBreaker("produtoService").transitionToOpenState();
+        avancar(ATUALIZAR_APOS.plus(OBSOLESCENCIA_MAXIMA).plusSeconds(1));
+
+        // Act & Assert
+        assertNull(cache.get(1L));
+    }
+
+    private void executarTarefasPendentes() {
+        Runnable tarefa;
+        while ((tarefa = tarefasPendentes.poll()) != null) {
+            tarefa.run();
+        }
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void avancar(Duration duracao) {
+        relogio.addAndGet(duracao.toNanos());
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.get("produtos.cache.refresh").tag("resultado", resultado).counter().count();
+    }
+
+    private static ProdutoDTO produto(Long id, int estoque) {
+        return new ProdutoDTO(id, "Produto " + id, "Desc", new BigDecimal("10.00"), estoque, "Cat", null);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProdutoDiskStoreTest {
+
+    private static final long TAMANHO_MAXIMO = 16 << 20;
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void deveManterProdutosAposReabrir() {
+        // Arrange
+        Path arquivo = diretorio.resolve("produtos.dat");
+        ProdutoDTO produto = new ProdutoDTO(1L, "Notebook", "Ultrafino", new BigDecimal("4999.90"), 7, "Eletrônicos",
+                LocalDateTime.of(2024, 1, 15, 10, 30));
+        try (ProdutoDiskStore store = new ProdutoDiskStore(arquivo, TAMANHO_MAXIMO)) {
+            store.gravar(produto);
+            store.gravar(new ProdutoDTO(2L, "Sem dados", null, null, null, null, null));
+        }
+
+        // Act
+        try (ProdutoDiskStore reaberto = new ProdutoDiskStore(arquivo, TAMANHO_MAXIMO)) {
+
+            // Assert
+            assertEquals(produto, reaberto.buscar(1L).orElseThrow().produto());
+            assertEquals(new ProdutoDTO(2L, "Sem dados", null, null, null, null, null),
+                    reaberto.buscar(2L).orElseThrow().produto());
+        }
+    }
+
+    @Test
+    void deveServirUltimaVersaoEManterRemocoesAposReabrir() {
+        // Arrange
+        Path arquivo = diretorio.resolve("produtos.dat");
+        try (ProdutoDiskStore store = new ProdutoDiskStore(arquivo, TAMANHO_MAXIMO)) {
+            store.gravar(produto(1L, 10));
+            store.gravar(produto(1L, 3));
+            store.gravar(produto(2L, 5));
+            store.remover(2L);
+
+            assertEquals(2L, store.versao(1L).orElseThrow());
+        }
+
+        // Act
+        try (ProdutoDiskStore reaberto = new ProdutoDiskStore(arquivo, TAMANHO_MAXIMO)) {
+
+            // Assert
+            assertEquals(3, reaberto.buscar(1L).orElseThrow().produto().estoque());
+            assertTrue(reaberto.buscar(2L).isEmpty());
+            reaberto.gravar(produto(3L, 1));
+            assertTrue(reaberto.versao(3L).orElseThrow() > 4L);
+        }
+    }
+
+    @Test
+    void deveDescartarRegistroIncompletoAoReabrir() throws IOException {
+        // Arrange
+        Path arquivo = diretorio.resolve("produtos.dat");
+        long fimDoPrimeiro;
+        try (ProdutoDiskStore store = new ProdutoDiskStore(arquivo, TAMANHO_MAXIMO)) {
+            store.gravar(produto(1L, 10));
+            fimDoPrimeiro = store.getBytesUsados();
+            store.gravar(produto(2L, 20));
+        }
+        corromperByte(arquivo, fimDoPrimeiro + 20);
+
+        // Act
+        try (ProdutoDiskStore reaberto = new ProdutoDiskStore(arquivo, TAMANHO_MAXIMO)) {
+
+            // Assert
+            assertEquals(10, reaberto.buscar(1L).orElseThrow().produto().estoque());
+            assertTrue(reaberto.buscar(2L).isEmpty());
+            reaberto.gravar(produto(3L, 30));
+        }
+        try (ProdutoDiskStore reaberto = new ProdutoDiskStore(arquivo, TAMANHO_MAXIMO)) {
+            assertEquals(30, reaberto.buscar(3L).orElseThrow().produto().estoque());
+            assertEquals(2, reaberto.getQuantidade());
+        }
+    }
+
+    @Test
+    void deveCompactarMantendoApenasRegistrosVivos() {
+        // Arrange
+        Path arquivo = diretorio.resolve("produtos.dat");
+        try (ProdutoDiskStore store = new ProdutoDiskStore(arquivo, TAMANHO_MAXIMO)) {
+            for (int estoque = 0; estoque < 50; estoque++) {
+                int valor = estoque;
+                LongStream.rangeClosed(1, 100).forEach(id -> store.gravar(produto(id, valor)));
+            }
+            long antes = store.getBytesUsados();
+
+            // Act
+            store.compactar();
+
+            // Assert
+            assertTrue(store.getBytesUsados() < antes / 10);
+            assertEquals(0, store.getBytesMortos());
+            assertEquals(49, store.buscar(42L).orElseThrow().produto().estoque());
+        }
+        try (ProdutoDiskStore reaberto = new ProdutoDiskStore(arquivo, TAMANHO_MAXIMO)) {
+            assertEquals(100, reaberto.getQuantidade());
+            assertEquals(49, reaberto.buscar(100L).orElseThrow().produto().estoque());
+        }
+    }
+
+    @Test
+    void deveCrescerOArquivoAteOTamanhoMaximo() {
+        // Arrange
+        try (ProdutoDiskStore store = new ProdutoDiskStore(diretorio.resolve("produtos.dat"), 4 << 20)) {
+
+            // Act
+            long gravados = LongStream.rangeClosed(1, 100_000).filter(id -> store.gravar(produto(id, 1))).count();
+
+            // Assert
+            assertTrue(gravados > 20_000, "Poucos produtos gravados: " + gravados);
+            assertTrue(gravados < 100_000);
+            assertEquals(gravados, store.getQuantidade());
+            assertTrue(store.buscar(1L).isPresent());
+        }
+    }
+
+    private static void corromperByte(Path arquivo, long posicao) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer umByte = ByteBuffer.allocate(1);
+            canal.read(umByte, posicao);
+            umByte.flip();
+            umByte.put(0, (byte) ~umByte.get(0));
+            canal.write(umByte, posicao);
+        }
+    }
+
+    private static ProdutoDTO produto(Long id, int estoque) {
+        return new ProdutoDTO(id, "Produto " + id, "Descrição", new BigDecimal("10.00"), estoque, "Categoria", null);
+    }
+}
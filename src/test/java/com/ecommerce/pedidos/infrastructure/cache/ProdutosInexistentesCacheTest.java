@@ -0,0 +1,84 @@
+package com.ecommerce.pedidos.infrastructure.cache;
+
+import com.ecommerce.pedidos.infrastructure.client.ProdutoFeignClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutosInexistentesCacheTest {
+
+    @Mock
+    private ProdutoFeignClient produtoFeignClient;
+
+    @Test
+    void deveLembrarProdutoInexistenteAteSerRegistradoComoExistente() {
+        // Arrange
+        ProdutosInexistentesCache cache = criarCache(false);
+
+        // Act & Assert
+        assertFalse(cache.sabidamenteInexistente(1L));
+        cache.registrarInexistente(1L);
+        assertTrue(cache.sabidamenteInexistente(1L));
+        cache.registrarExistente(1L);
+        assertFalse(cache.sabidamenteInexistente(1L));
+    }
+
+    @Test
+    void deveRejeitarIdsForaDoCatalogoPeloFiltroDeBloom() {
+        // Arrange
+        when(produtoFeignClient.listarIds()).thenReturn(LongStream.rangeClosed(1, 1_000).boxed().toList());
+        ProdutosInexistentesCache cache = criarCache(true);
+
+        // Act
+        cache.reconstruirFiltroBloom();
+
+        // Assert
+        assertTrue(LongStream.rangeClosed(1, 1_000).noneMatch(cache::sabidamenteInexistente));
+        long falsosPositivos = LongStream.rangeClosed(1_001, 11_000)
+                .filter(id -> !cache.sabidamenteInexistente(id))
+                .count();
+        assertTrue(falsosPositivos < 300, "Falsos positivos acima do esperado: " + falsosPositivos);
+    }
+
+    @Test
+    void deveAceitarProdutoCriadoDepoisDaCargaDoFiltro() {
+        // Arrange
+        when(produtoFeignClient.listarIds()).thenReturn(List.of(1L, 2L, 3L));
+        ProdutosInexistentesCache cache = criarCache(true);
+        cache.reconstruirFiltroBloom();
+
+        // Act
+        cache.registrarExistente(50_000L);
+
+        // Assert
+        assertFalse(cache.sabidamenteInexistente(50_000L));
+    }
+
+    @Test
+    void deveManterSomenteTombstonesQuandoCargaDoFiltroFalha() {
+        // Arrange
+        when(produtoFeignClient.listarIds()).thenThrow(new IllegalStateException("indisponível"));
+        ProdutosInexistentesCache cache = criarCache(true);
+
+        // Act
+        cache.reconstruirFiltroBloom();
+
+        // Assert
+        assertFalse(cache.sabidamenteInexistente(42L));
+    }
+
+    private ProdutosInexistentesCache criarCache(boolean filtroBloomHabilitado) {
+        return new ProdutosInexistentesCache(produtoFeignClient, new SimpleMeterRegistry(),
+                Duration.ofMinutes(1), 100, filtroBloomHabilitado, 1_000, 0.01);
+    }
+}
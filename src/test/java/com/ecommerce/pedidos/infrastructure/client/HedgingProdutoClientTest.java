@@ -0,0 +1,328 @@
+package com.ecommerce.pedidos.infrastructure.client;
+
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HedgingProdutoClientTest {
+
+    @Mock
+    private ProdutoFeignClientSemFallback principal;
+
+    @Mock
+    private ProdutoFeignClient fallback;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void deveUsarRespostaDoFallbackQuandoPrincipalDemora() {
+        // Arrange
+        when(principal.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return produto(1L, "principal");
+        });
+        when(fallback.buscarPorId(1L)).thenReturn(produto(1L, "fallback"));
+        HedgingProdutoClient hedging = criarHedging(10);
+
+        // Act
+        long inicio = System.nanoTime();
+        ProdutoDTO produto = hedging.buscarPorId(1L);
+
+        // Assert
+        assertEquals("fallback", produto.nome());
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 1_000);
+        assertEquals(1, contador("produtos.hedge", "resultado", "disparado"));
+        assertEquals(1, contador("produtos.hedge.vencedor", "origem", "fallback"));
+    }
+
+    @Test
+    void naoDeveDispararHedgeQuandoPrincipalRespondeDentroDoAtraso() {
+        // Arrange
+        when(principal.buscarPorId(1L)).thenReturn(produto(1L, "principal"));
+        HedgingProdutoClient hedging = criarHedging(10);
+
+        // Act
+        ProdutoDTO produto = hedging.buscarPorId(1L);
+
+        // Assert
+        assertEquals("principal", produto.nome());
+        verifyNoInteractions(fallback);
+        assertEquals(0, contador("produtos.hedge", "resultado", "disparado"));
+    }
+
+    @Test
+    void deveUsarPrincipalQuandoFallbackFalha() {
+        // Arrange
+        when(principal.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return produto(1L, "principal");
+        });
+        when(fallback.buscarPorId(1L)).thenThrow(new IllegalStateException("fallback fora"));
+        HedgingProdutoClient hedging = criarHedging(10);
+
+        // Act
+        ProdutoDTO produto = hedging.buscarPorId(1L);
+
+        // Assert
+        assertEquals("principal", produto.nome());
+        assertEquals(1, contador("produtos.hedge.vencedor", "origem", "principal"));
+    }
+
+    @Test
+    void naoDeveUltrapassarOrcamentoDeHedges() {
+        // Arrange
+        when(principal.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(60);
+            return produto(1L, "principal");
+        });
+        when(fallback.buscarPorId(1L)).thenReturn(produto(1L, "fallback"));
+        HedgingProdutoClient hedging = criarHedging(0);
+
+        // Act
+        for (int i = 0; i < 15; i++) {
+            hedging.buscarPorId(1L);
+        }
+
+        // Assert
+        assertEquals(10, contador("produtos.hedge", "resultado", "disparado"));
+        assertEquals(5, contador("produtos.hedge", "resultado", "sem-orcamento"));
+    }
+
+    @Test
+    void deveManterTaxaDeHedgesNoPercentualDoOrcamento() {
+        // Arrange: uma busca lenta a cada cinco, orçamento de 10% das buscas
+        int totalBuscas = 200;
+        double orcamentoPercentual = 10;
+        AtomicInteger chamadas = new AtomicInteger();
+        when(principal.buscarPorId(1L)).thenAnswer(invocation -> {
+            if (chamadas.getAndIncrement() % 5 == 0) {
+                Thread.sleep(100);
+            }
+            return produto(1L, "principal");
+        });
+        when(fallback.buscarPorId(1L)).thenReturn(produto(1L, "fallback"));
+        HedgingProdutoClient hedging = new HedgingProdutoClient(principal, fallback, meterRegistry, true, 0.5,
+                Duration.ofMillis(20), orcamentoPercentual, 100);
+
+        // Act
+        for (int i = 0; i < totalBuscas; i++) {
+            hedging.buscarPorId(1L);
+        }
+
+        // Assert: além do saldo inicial (10), um hedge a cada dez buscas
+        double esperados = totalBuscas * orcamentoPercentual / 100;
+        double disparados = contador("produtos.hedge", "resultado", "disparado");
+        assertTrue(disparados >= esperados, "hedges disparados: " + disparados);
+        assertTrue(disparados <= esperados + 10, "hedges disparados: " + disparados);
+    }
+
+    @Test
+    void deveAcionarOFallbackUmaVezQuandoPrincipalFalhaAntesDoAtraso() {
+        // Arrange
+        when(principal.buscarPorId(1L)).thenThrow(new IllegalStateException("principal fora"));
+        when(fallback.buscarPorId(1L)).thenReturn(produto(1L, "fallback"));
+        HedgingProdutoClient hedging = new HedgingProdutoClient(principal, fallback, meterRegistry, true, 0.95,
+                Duration.ofSeconds(5), 10, 100);
+
+        // Act
+        ProdutoDTO produto = hedging.buscarPorId(1L);
+
+        // Assert
+        assertEquals("fallback", produto.nome());
+        verify(fallback, times(1)).buscarPorId(1L);
+        assertEquals(0, contador("produtos.hedge", "resultado", "disparado"));
+    }
+
+    @Test
+    void naoDeveAcionarOFallbackDeNovoQuandoPrincipalFalhaComHedgeEmAndamento() {
+        // Arrange: o principal falha enquanto o hedge ainda espera o fallback
+        when(principal.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            throw new IllegalStateException("principal fora");
+        });
+        when(fallback.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return produto(1L, "fallback");
+        });
+        HedgingProdutoClient hedging = criarHedging(10);
+
+        // Act
+        ProdutoDTO produto = hedging.buscarPorId(1L);
+
+        // Assert
+        assertEquals("fallback", produto.nome());
+        verify(fallback, times(1)).buscarPorId(1L);
+        assertEquals(1, contador("produtos.hedge.vencedor", "origem", "fallback"));
+    }
+
+    @Test
+    void deveLancarAFalhaDoFallbackQuandoOsDoisFalham() {
+        // Arrange
+        when(principal.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            throw new IllegalStateException("principal fora");
+        });
+        when(fallback.buscarPorId(1L)).thenThrow(new IllegalArgumentException("fallback fora"));
+        HedgingProdutoClient hedging = criarHedging(10);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> hedging.buscarPorId(1L));
+        verify(fallback, times(1)).buscarPorId(1L);
+    }
+
+    @Test
+    void deveAcionarOFallbackComHedgingDesligadoQuandoPrincipalFalha() {
+        // Arrange
+        when(principal.buscarPorId(1L)).thenThrow(new IllegalStateException("principal fora"));
+        when(fallback.buscarPorId(1L)).thenReturn(produto(1L, "fallback"));
+        HedgingProdutoClient hedging = new HedgingProdutoClient(principal, fallback, meterRegistry, false, 0.95,
+                Duration.ofMillis(20), 10, 100);
+
+        // Act
+        ProdutoDTO produto = hedging.buscarPorId(1L);
+
+        // Assert
+        assertEquals("fallback", produto.nome());
+        verify(fallback, times(1)).buscarPorId(1L);
+    }
+
+    @Test
+    void deveTratarProdutoInexistenteNoPrincipalSemAcionarOFallback() {
+        // Arrange: com dismiss404, o 404 do principal chega como null
+        when(principal.buscarPorId(1L)).thenReturn(null);
+        HedgingProdutoClient hedging = new HedgingProdutoClient(principal, fallback, meterRegistry, true, 0.95,
+                Duration.ofSeconds(5), 10, 100);
+
+        // Act
+        ProdutoDTO produto = hedging.buscarPorId(1L);
+
+        // Assert
+        assertNull(produto);
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    void deveDesistirNoPrazoQuandoPrincipalEFallbackDemoram() {
+        // Arrange
+        when(principal.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return produto(1L, "principal");
+        });
+        when(fallback.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return produto(1L, "fallback");
+        });
+        HedgingProdutoClient hedging = criarHedging(10);
+
+        // Act
+        long inicio = System.nanoTime();
+        assertThrows(PrazoExcedidoException.class, () -> hedging.buscarPorId(1L, Prazo.em(Duration.ofMillis(200))));
+
+        // Assert
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 1_000);
+    }
+
+    @Test
+    void naoDeveDispararHedgeComPrazoEsgotado() {
+        // Arrange: o prazo vence antes do atraso do hedge
+        when(principal.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return produto(1L, "principal");
+        });
+        HedgingProdutoClient hedging = new HedgingProdutoClient(principal, fallback, meterRegistry, true, 0.95,
+                Duration.ofMillis(500), 10, 100);
+
+        // Act
+        PrazoExcedidoException erro = assertThrows(PrazoExcedidoException.class,
+                () -> hedging.buscarPorId(1L, Prazo.em(Duration.ofMillis(100))));
+
+        // Assert
+        assertEquals("hedge-produto", erro.getEtapa());
+        verifyNoInteractions(fallback);
+        assertEquals(0, contador("produtos.hedge", "resultado", "disparado"));
+    }
+
+    @Test
+    void naoDeveAcionarOFallbackQuandoPrincipalFalhaComPrazoEsgotado() {
+        // Arrange
+        when(principal.buscarPorId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(150);
+            throw new IllegalStateException("principal fora");
+        });
+        HedgingProdutoClient hedging = new HedgingProdutoClient(principal, fallback, meterRegistry, false, 0.95,
+                Duration.ofMillis(20), 10, 100);
+
+        // Act
+        PrazoExcedidoException erro = assertThrows(PrazoExcedidoException.class,
+                () -> hedging.buscarPorId(1L, Prazo.em(Duration.ofMillis(50))));
+
+        // Assert
+        assertEquals("fallback-produto", erro.getEtapa());
+        assertInstanceOf(IllegalStateException.class, erro.getCause());
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    void deveCalcularPercentilDoHistogramaComPrecisaoDeDezPorCento() {
+        // Arrange: 90 amostras de 10 ms e 10 de 200 ms
+        HedgingProdutoClient.HistogramaLatencias histograma = new HedgingProdutoClient.HistogramaLatencias(1000);
+        for (int i = 0; i < 100; i++) {
+            histograma.registrar(Duration.ofMillis(i < 90 ? 10 : 200).toNanos());
+        }
+
+        // Act
+        long p50 = histograma.percentil(0.5);
+        long p95 = histograma.percentil(0.95);
+
+        // Assert
+        assertTrue(p50 >= Duration.ofMillis(10).toNanos() && p50 <= Duration.ofMillis(11).toNanos(), "p50: " + p50);
+        assertTrue(p95 >= Duration.ofMillis(200).toNanos() && p95 <= Duration.ofMillis(220).toNanos(), "p95: " + p95);
+    }
+
+    @Test
+    void deveEsquecerAmostrasAntigasAoFimDeCadaJanela() {
+        // Arrange: uma janela de amostras lentas seguida de duas de rápidas
+        HedgingProdutoClient.HistogramaLatencias histograma = new HedgingProdutoClient.HistogramaLatencias(100);
+        for (int i = 0; i < 100; i++) {
+            histograma.registrar(Duration.ofMillis(200).toNanos());
+        }
+        for (int i = 0; i < 200; i++) {
+            histograma.registrar(Duration.ofMillis(10).toNanos());
+        }
+
+        // Act & Assert
+        assertTrue(histograma.percentil(0.5) <= Duration.ofMillis(11).toNanos());
+    }
+
+    private HedgingProdutoClient criarHedging(double orcamentoPercentual) {
+        return new HedgingProdutoClient(principal, fallback, meterRegistry, true, 0.95,
+                Duration.ofMillis(20), orcamentoPercentual, 100);
+    }
+
+    private double contador(String nome, String tag, String valor) {
+        return meterRegistry.get(nome).tag(tag, valor).counter().count();
+    }
+
+    private static ProdutoDTO produto(Long id, String nome) {
+        return new ProdutoDTO(id, nome, "Desc", new BigDecimal("10.00"), 10, "Cat", null);
+    }
+}
@@ -0,0 +1,134 @@
+package com.ecommerce.pedidos.infrastructure.client;
+
+import com.ecommerce.pedidos.domain.exception.ServicoIndisponivelException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorConcorrenciaAdaptativoTest {
+
+    @Test
+    void deveRecusarChamadaAcimaDoLimiteAposEsperaMaxima() throws Exception {
+        // Arrange
+        LimitadorConcorrenciaAdaptativo limitador = criarLimitador(2, Duration.ofSeconds(10));
+        CountDownLatch emAndamento = new CountDownLatch(2);
+        CountDownLatch liberacao = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < 2; i++) {
+            executor.submit(() -> limitador.executar(() -> {
+                emAndamento.countDown();
+                return aguardar(liberacao);
+            }));
+        }
+        assertTrue(emAndamento.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert
+        assertThrows(ServicoIndisponivelException.class, () -> limitador.executar(() -> "terceira"));
+        assertEquals(1, limitador.getRejeicoes());
+        assertEquals(2, limitador.getEmAndamento());
+
+        liberacao.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals("depois", limitador.executar(() -> "depois"));
+    }
+
+    @Test
+    void deveReduzirLimiteComChamadasLentasOuComFalha() {
+        // Arrange
+        LimitadorConcorrenciaAdaptativo limitador = criarLimitador(10, Duration.ofMillis(1));
+
+        // Act
+        limitador.executar(() -> dormir(20));
+        assertThrows(IllegalStateException.class, () -> limitador.executar(() -> {
+            throw new IllegalStateException("falha remota");
+        }));
+
+        // Assert
+        assertEquals(8, limitador.getLimite());
+    }
+
+    @Test
+    void deveReduzirLimiteUmaUnicaVezParaChamadasLentasSimultaneas() throws Exception {
+        // Arrange
+        LimitadorConcorrenciaAdaptativo limitador = criarLimitador(10, Duration.ofMillis(1));
+        CountDownLatch emAndamento = new CountDownLatch(5);
+        CountDownLatch liberacao = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            executor.submit(() -> limitador.executar(() -> {
+                emAndamento.countDown();
+                return aguardar(liberacao);
+            }));
+        }
+        assertTrue(emAndamento.await(5, TimeUnit.SECONDS));
+        dormir(20);
+        liberacao.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(9, limitador.getLimite());
+    }
+
+    @Test
+    void deveTratar404DoFallbackComoSucesso() {
+        // Arrange
+        LimitadorConcorrenciaAdaptativo limitador = criarLimitador(2, Duration.ofSeconds(10));
+
+        // Act
+        assertThrows(HttpClientErrorException.NotFound.class, () -> limitador.executar(() -> {
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null);
+        }));
+
+        // Assert
+        assertEquals(3, limitador.getLimite());
+    }
+
+    @Test
+    void deveAumentarLimiteComChamadasRapidasQuandoLimiteEstaEmUso() {
+        // Arrange
+        LimitadorConcorrenciaAdaptativo limitador = criarLimitador(2, Duration.ofSeconds(10));
+
+        // Act
+        limitador.executar(() -> "rápida");
+
+        // Assert
+        assertEquals(3, limitador.getLimite());
+    }
+
+    private static LimitadorConcorrenciaAdaptativo criarLimitador(int limiteInicial, Duration latenciaAlvo) {
+        return new LimitadorConcorrenciaAdaptativo(new SimpleMeterRegistry(), true, limiteInicial, 1, 100,
+                latenciaAlvo, 0.9, Duration.ofMillis(50));
+    }
+
+    private static String aguardar(CountDownLatch liberacao) {
+        try {
+            liberacao.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "ok";
+    }
+
+    private static String dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "lenta";
+    }
+}
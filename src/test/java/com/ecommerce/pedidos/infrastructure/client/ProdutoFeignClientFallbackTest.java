@@ -0,0 +1,275 @@
+package com.ecommerce.pedidos.infrastructure.client;
+
+import com.ecommerce.pedidos.application.service.ContextoConsultaProdutos;
+import com.ecommerce.pedidos.infrastructure.cache.AlteracoesProdutos;
+import com.ecommerce.pedidos.infrastructure.cache.ProdutosInexistentesCache;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.ecommerce.pedidos.infrastructure.config.RestClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.ConfigBuilder;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.cloud.openfeign.FeignAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProdutoFeignClient montado pelo Spring Cloud OpenFeign, com circuit breaker e
+ * ProdutoFeignClientFallback (RestTemplate real), contra servidores HTTP locais
+ * que fazem o papel do serviço principal e do serviço de fallback
+ *
+ * As buscas unitárias passam pelo HedgingProdutoClient, com o ProdutoFeignClientSemFallback
+ */
+@SpringBootTest(classes = ProdutoFeignClientFallbackTest.Configuracao.class, properties = {
+        "spring.cloud.openfeign.circuitbreaker.enabled=true",
+        "spring.cloud.openfeign.httpclient.hc5.enabled=false"
+})
+class ProdutoFeignClientFallbackTest {
+
+    private static final ServidorProdutos PRINCIPAL = new ServidorProdutos();
+    private static final ServidorProdutos FALLBACK = new ServidorProdutos();
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({JacksonAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class,
+            FeignAutoConfiguration.class})
+    @EnableFeignClients(clients = {ProdutoFeignClient.class, ProdutoFeignClientSemFallback.class})
+    @Import({RestClientConfig.class, ProdutoFeignClientFallback.class})
+    static class Configuracao {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        /**
+         * Circuit breaker mínimo: qualquer falha do principal vai para o fallback do Feign
+         */
+        @Bean
+        CircuitBreakerFactory<Object, ConfigBuilder<Object>> circuitBreakerFactory() {
+            return new CircuitBreakerFactory<>() {
+                @Override
+                public CircuitBreaker create(String id) {
+                    return new CircuitBreaker() {
+                        @Override
+                        public <T> T run(Supplier<T> toRun, Function<Throwable, T> fallback) {
+                            try {
+                                return toRun.get();
+                            } catch (RuntimeException e) {
+                                return fallback.apply(e);
+                            }
+                        }
+                    };
+                }
+
+                @Override
+                protected ConfigBuilder<Object> configBuilder(String id) {
+                    return () -> null;
+                }
+
+                @Override
+                public void configureDefault(Function<String, Object> defaultConfiguration) {
+                }
+            };
+        }
+    }
+
+    @DynamicPropertySource
+    static void urls(DynamicPropertyRegistry registry) {
+        registry.add("produto.service.url", PRINCIPAL::url);
+        registry.add("fallback.service.url", FALLBACK::url);
+    }
+
+    @Autowired
+    private ProdutoFeignClient produtoFeignClient;
+
+    @Autowired
+    private ProdutoFeignClientSemFallback produtoFeignClientSemFallback;
+
+    @Autowired
+    private ProdutoFeignClientFallback fallback;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProdutoServiceAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        PRINCIPAL.limpar();
+        FALLBACK.limpar();
+        meterRegistry = new SimpleMeterRegistry();
+        ProdutosInexistentesCache produtosInexistentes = new ProdutosInexistentesCache(
+                produtoFeignClient, meterRegistry, Duration.ofMinutes(1), 100, false, 100, 0.01);
+        LimitadorConcorrenciaAdaptativo limitador = new LimitadorConcorrenciaAdaptativo(meterRegistry, true,
+                100, 1, 100, Duration.ofSeconds(10), 0.9, Duration.ofSeconds(1));
+        HedgingProdutoClient hedging = new HedgingProdutoClient(produtoFeignClientSemFallback, fallback, meterRegistry,
+                false, 0.95, Duration.ofMillis(50), 10, 100);
+        adapter = new ProdutoServiceAdapter(produtoFeignClient, new ConcurrentMapCacheManager("produtos"),
+                produtosInexistentes, new AlteracoesProdutos(Duration.ofMinutes(5)), limitador, hedging,
+                RetryRegistry.of(RetryConfig.ofDefaults()),
+                meterRegistry, false, 4);
+    }
+
+    @AfterAll
+    static void pararServidores() {
+        PRINCIPAL.parar();
+        FALLBACK.parar();
+    }
+
+    @Test
+    void deveTratar404DoPrincipalComoProdutoInexistenteSemAcionarOFallback() {
+        // Arrange
+        PRINCIPAL.responder(99L, 404);
+
+        // Act
+        Optional<ProdutoDTO> primeira = adapter.buscarProdutoPorId(99L, new ContextoConsultaProdutos());
+        Optional<ProdutoDTO> segunda = adapter.buscarProdutoPorId(99L, new ContextoConsultaProdutos());
+
+        // Assert
+        assertTrue(primeira.isEmpty());
+        assertTrue(segunda.isEmpty());
+        assertEquals(1, PRINCIPAL.chamadas(99L));
+        assertEquals(0, FALLBACK.chamadas(99L));
+    }
+
+    @Test
+    void deveLembrarProdutoInexistenteQuando404VemDoFallback() {
+        // Arrange
+        PRINCIPAL.responder(42L, 500);
+        FALLBACK.responder(42L, 404);
+
+        // Act
+        Optional<ProdutoDTO> primeira = adapter.buscarProdutoPorId(42L, new ContextoConsultaProdutos());
+        Optional<ProdutoDTO> segunda = adapter.buscarProdutoPorId(42L, new ContextoConsultaProdutos());
+
+        // Assert
+        assertTrue(primeira.isEmpty());
+        assertTrue(segunda.isEmpty());
+        assertEquals(1, PRINCIPAL.chamadas(42L));
+        assertEquals(1, FALLBACK.chamadas(42L));
+        assertEquals(1, meterRegistry.get("produtos.inexistentes.rejeitados").tag("origem", "tombstone")
+                .counter().count());
+    }
+
+    @Test
+    void deveServirProdutoDoFallbackQuandoPrincipalFalha() {
+        // Arrange
+        PRINCIPAL.responder(7L, 500);
+        FALLBACK.responder(7L, 200);
+
+        // Act
+        Optional<ProdutoDTO> produto = adapter.buscarProdutoPorId(7L, new ContextoConsultaProdutos());
+
+        // Assert
+        assertEquals(7L, produto.orElseThrow().id());
+        assertEquals(1, FALLBACK.chamadas(7L));
+    }
+
+    @Test
+    void clienteSemFallbackDeveFalharSemChamarOFallback() {
+        // Arrange
+        PRINCIPAL.responder(8L, 500);
+        FALLBACK.responder(8L, 200);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> produtoFeignClientSemFallback.buscarPorId(8L));
+        assertEquals(1, PRINCIPAL.chamadas(8L));
+        assertEquals(0, FALLBACK.chamadas(8L));
+    }
+
+    @Test
+    void fallbackDevePropagar404ComoHttpClientErrorException() {
+        // Arrange
+        FALLBACK.responder(5L, 404);
+
+        // Act & Assert
+        assertThrows(HttpClientErrorException.NotFound.class, () -> fallback.buscarPorId(5L));
+    }
+
+    /**
+     * Servidor HTTP com um status configurável por produto (200 devolve o produto em JSON)
+     */
+    private static class ServidorProdutos {
+
+        private final HttpServer servidor;
+        private final Map<Long, Integer> statusPorId = new ConcurrentHashMap<>();
+        private final Map<Long, AtomicInteger> chamadasPorId = new ConcurrentHashMap<>();
+
+        ServidorProdutos() {
+            try {
+                servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            servidor.createContext("/", troca -> {
+                String caminho = troca.getRequestURI().getPath();
+                Long id = Long.valueOf(caminho.substring(caminho.lastIndexOf('/') + 1));
+                chamadasPorId.computeIfAbsent(id, chave -> new AtomicInteger()).incrementAndGet();
+                int status = statusPorId.getOrDefault(id, 404);
+                byte[] corpo = status == 200
+                        ? ("{\"id\":" + id + ",\"nome\":\"Produto " + id + "\",\"preco\":10.00,\"estoque\":10}")
+                                .getBytes(StandardCharsets.UTF_8)
+                        : new byte[0];
+                troca.getResponseHeaders().add("Content-Type", "application/json");
+                troca.sendResponseHeaders(status, corpo.length == 0 ? -1 : corpo.length);
+                if (corpo.length > 0) {
+                    troca.getResponseBody().write(corpo);
+                }
+                troca.close();
+            });
+            servidor.start();
+        }
+
+        String url() {
+            return "http://localhost:" + servidor.getAddress().getPort();
+        }
+
+        void responder(Long id, int status) {
+            statusPorId.put(id, status);
+        }
+
+        int chamadas(Long id) {
+            AtomicInteger chamadas = chamadasPorId.get(id);
+            return chamadas != null ? chamadas.get() : 0;
+        }
+
+        void limpar() {
+            statusPorId.clear();
+            chamadasPorId.clear();
+        }
+
+        void parar() {
+            servidor.stop(0);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.ecommerce.pedidos.infrastructure.client;
+
+import com.ecommerce.pedidos.application.service.ContextoConsultaProdutos;
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+import com.ecommerce.pedidos.infrastructure.cache.AlteracoesProdutos;
+import com.ecommerce.pedidos.infrastructure.cache.ProdutosInexistentesCache;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProdutoServiceAdapterTest {
+
+    private static final int CONCORRENCIA = 50;
+
+    private FeignClientBloqueante feignClient;
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCacheManager cacheManager;
+    private AlteracoesProdutos alteracoes;
+    private ProdutoServiceAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        feignClient = new FeignClientBloqueante();
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new ConcurrentMapCacheManager("produtos");
+        alteracoes = new AlteracoesProdutos(Duration.ofMinutes(5));
+        adapter = criarAdapter(RetryRegistry.of(RetryConfig.custom()
+                .waitDuration(Duration.ofMillis(500))
+                .build()));
+    }
+
+    @Test
+    void deveFazerUmaUnicaChamadaRemotaPorProdutoComBuscasConcorrentes() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Optional<ProdutoDTO>>> resultados = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < CONCORRENCIA; i++) {
+            long produtoId = i % 2 == 0 ? 1L : 2L;
+            resultados.add(executor.submit(() -> adapter.buscarProdutoPorId(produtoId, new ContextoConsultaProdutos())));
+        }
+        aguardarCoalescidas(CONCORRENCIA - 2);
+        feignClient.liberar();
+
+        // Assert
+        for (int i = 0; i < CONCORRENCIA; i++) {
+            long produtoId = i % 2 == 0 ? 1L : 2L;
+            assertEquals(produtoId, resultados.get(i).get(5, TimeUnit.SECONDS).orElseThrow().id());
+        }
+        assertEquals(1, feignClient.chamadasPorId.get(1L).get());
+        assertEquals(1, feignClient.chamadasPorId.get(2L).get());
+        assertEquals(CONCORRENCIA - 2, meterRegistry.get("produtos.chamadas.coalescidas").counter().count());
+        executor.shutdown();
+    }
+
+    @Test
+    void deveCompartilharFalhaComTodasAsBuscasCoalescidas() throws Exception {
+        // Arrange
+        feignClient.falhar = true;
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Optional<ProdutoDTO>>> resultados = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < CONCORRENCIA; i++) {
+            resultados.add(executor.submit(() -> adapter.buscarProdutoPorId(1L, new ContextoConsultaProdutos())));
+        }
+        aguardarCoalescidas(CONCORRENCIA - 1);
+        feignClient.liberar();
+
+        // Assert
+        for (Future<Optional<ProdutoDTO>> resultado : resultados) {
+            Exception erro = assertThrows(Exception.class, () -> resultado.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, erro.getCause());
+        }
+        assertEquals(1, feignClient.chamadasPorId.get(1L).get());
+        executor.shutdown();
+    }
+
+    @Test
+    void deveBuscarRemotamenteApenasProdutosForaDoCache() {
+        // Arrange
+        feignClient.liberar();
+        cacheManager.getCache("produtos").put(1L, produto(1L));
+        ContextoConsultaProdutos contexto = new ContextoConsultaProdutos();
+
+        // Act
+        Map<Long, ProdutoDTO> produtos = adapter.buscarProdutosPorIds(List.of(1L, 2L, 3L, 2L), contexto);
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(produtos.keySet()));
+        assertNull(feignClient.chamadasPorId.get(1L));
+        assertEquals(2, contexto.getChamadasRemotas());
+        assertNotNull(cacheManager.getCache("produtos").get(3L));
+    }
+
+    @Test
+    void naoDeveSobrescreverNoCacheOProdutoAlteradoPorEventoDuranteABusca() throws Exception {
+        // Arrange: a busca remota do produto 1 está em andamento
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        Future<Optional<ProdutoDTO>> busca = executor.submit(
+                () -> adapter.buscarProdutoPorId(1L, new ContextoConsultaProdutos()));
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!feignClient.chamadasPorId.containsKey(1L)) {
+            assertTrue(System.nanoTime() < limite, "Busca remota não começou a tempo");
+            Thread.sleep(5);
+        }
+        ProdutoDTO doEvento = new ProdutoDTO(1L, "Produto 1", "Desc", new BigDecimal("8.00"), 3, "Cat", null);
+
+        // Act: o evento de alteração chega antes da resposta
+        alteracoes.registrar(1L);
+        cacheManager.getCache("produtos").put(1L, doEvento);
+        feignClient.liberar();
+
+        // Assert
+        assertEquals(10, busca.get(5, TimeUnit.SECONDS).orElseThrow().estoque());
+        assertEquals(doEvento, cacheManager.getCache("produtos").get(1L, ProdutoDTO.class));
+        executor.shutdown();
+    }
+
+    @Test
+    void deveLembrarProdutoInexistenteSemNovaChamadaRemota() {
+        // Arrange
+        feignClient.liberar();
+        feignClient.inexistentes.add(99L);
+
+        // Act
+        Optional<ProdutoDTO> primeira = adapter.buscarProdutoPorId(99L, new ContextoConsultaProdutos());
+        Optional<ProdutoDTO> segunda = adapter.buscarProdutoPorId(99L, new ContextoConsultaProdutos());
+        Map<Long, ProdutoDTO> lote = adapter.buscarProdutosPorIds(List.of(99L), new ContextoConsultaProdutos());
+
+        // Assert
+        assertTrue(primeira.isEmpty());
+        assertTrue(segunda.isEmpty());
+        assertTrue(lote.isEmpty());
+        assertEquals(1, feignClient.chamadasPorId.get(99L).get());
+        assertEquals(2, meterRegistry.get("produtos.inexistentes.rejeitados").tag("origem", "tombstone")
+                .counter().count());
+    }
+
+    @Test
+    void naoDeveIniciarChamadaRemotaComPrazoEsgotado() {
+        // Arrange
+        feignClient.liberar();
+        ContextoConsultaProdutos contexto = new ContextoConsultaProdutos(Prazo.em(Duration.ZERO));
+
+        // Act & Assert
+        PrazoExcedidoException unitaria = assertThrows(PrazoExcedidoException.class,
+                () -> adapter.buscarProdutoPorId(1L, contexto));
+        assertThrows(PrazoExcedidoException.class, () -> adapter.buscarProdutosPorIds(List.of(2L, 3L), contexto));
+        assertEquals("busca-produto", unitaria.getEtapa());
+        assertTrue(feignClient.chamadasPorId.isEmpty());
+        assertEquals(0, contexto.getChamadasRemotas());
+    }
+
+    @Test
+    void deveDesistirDaNovaTentativaQuandoPrazoNaoComportaAEspera() {
+        // Arrange
+        feignClient.falhar = true;
+        feignClient.liberar();
+        ContextoConsultaProdutos contexto = new ContextoConsultaProdutos(Prazo.em(Duration.ofMillis(300)));
+
+        // Act
+        PrazoExcedidoException erro = assertThrows(PrazoExcedidoException.class,
+                () -> adapter.buscarProdutoPorId(1L, contexto));
+
+        // Assert
+        assertEquals("nova-tentativa", erro.getEtapa());
+        assertInstanceOf(IllegalStateException.class, erro.getCause());
+        assertEquals(1, feignClient.chamadasPorId.get(1L).get());
+    }
+
+    @Test
+    void deveManterFalhaOriginalQuandoPrazoComportaNovaTentativa() {
+        // Arrange
+        feignClient.falhar = true;
+        feignClient.liberar();
+        ContextoConsultaProdutos contexto = new ContextoConsultaProdutos(Prazo.em(Duration.ofSeconds(10)));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> adapter.buscarProdutoPorId(1L, contexto));
+    }
+
+    @Test
+    void deveConsiderarEsperaDaProximaTentativaComBackoffExponencial() {
+        // Arrange: esperas de 100 ms antes da 2ª tentativa e 400 ms antes da 3ª
+        feignClient.falhar = true;
+        feignClient.liberar();
+        ProdutoServiceAdapter adapterComBackoff = criarAdapter(RetryRegistry.of(RetryConfig.custom()
+                .intervalFunction(IntervalFunction.ofExponentialBackoff(100, 4))
+                .build()));
+        ContextoConsultaProdutos contexto = new ContextoConsultaProdutos(Prazo.em(Duration.ofMillis(300)));
+
+        // Act: as duas tentativas que o @Retry faria com o mesmo contexto
+        assertThrows(IllegalStateException.class, () -> adapterComBackoff.buscarProdutoPorId(1L, contexto));
+        PrazoExcedidoException erro = assertThrows(PrazoExcedidoException.class,
+                () -> adapterComBackoff.buscarProdutoPorId(1L, contexto));
+
+        // Assert
+        assertEquals("nova-tentativa", erro.getEtapa());
+        assertEquals(2, feignClient.chamadasPorId.get(1L).get());
+    }
+
+    @Test
+    void deveLimitarEsperaPelaBuscaEmAndamentoAoPrazoDeQuemAguarda() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        Future<Optional<ProdutoDTO>> semPrazo = executor.submit(
+                () -> adapter.buscarProdutoPorId(1L, new ContextoConsultaProdutos()));
+        while (feignClient.chamadasPorId.get(1L) == null) {
+            Thread.sleep(5);
+        }
+        ContextoConsultaProdutos comPrazo = new ContextoConsultaProdutos(Prazo.em(Duration.ofMillis(200)));
+
+        // Act
+        long inicio = System.nanoTime();
+        PrazoExcedidoException erro = assertThrows(PrazoExcedidoException.class,
+                () -> adapter.buscarProdutoPorId(1L, comPrazo));
+
+        // Assert
+        assertEquals("aguardando-busca", erro.getEtapa());
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 2_000);
+        feignClient.liberar();
+        assertEquals(1L, semPrazo.get(5, TimeUnit.SECONDS).orElseThrow().id());
+        assertEquals(1, feignClient.chamadasPorId.get(1L).get());
+        executor.shutdown();
+    }
+
+    private ProdutoServiceAdapter criarAdapter(RetryRegistry retryRegistry) {
+        ProdutosInexistentesCache produtosInexistentes = new ProdutosInexistentesCache(
+                feignClient, meterRegistry, Duration.ofMinutes(1), 100, false, 100, 0.01);
+        LimitadorConcorrenciaAdaptativo limitador = new LimitadorConcorrenciaAdaptativo(meterRegistry, true,
+                100, 1, 100, Duration.ofSeconds(10), 0.9, Duration.ofSeconds(1));
+        HedgingProdutoClient hedging = new HedgingProdutoClient(feignClient, new FallbackIndisponivel(), meterRegistry,
+                false, 0.95, Duration.ofMillis(50), 10, 100);
+        return new ProdutoServiceAdapter(feignClient, cacheManager, produtosInexistentes, alteracoes, limitador,
+                hedging, retryRegistry, meterRegistry, false, 4);
+    }
+
+    private void aguardarCoalescidas(int esperadas) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("produtos.chamadas.coalescidas").counter().count() < esperadas) {
+            assertTrue(System.nanoTime() < limite, "Buscas não foram coalescidas a tempo");
+            Thread.sleep(5);
+        }
+    }
+
+    private static ProdutoDTO produto(Long id) {
+        return new ProdutoDTO(id, "Produto " + id, "Desc", new BigDecimal("10.00"), 10, "Cat", null);
+    }
+
+    /**
+     * Feign client que segura todas as chamadas até ser liberado
+     */
+    private static class FeignClientBloqueante implements ProdutoFeignClientSemFallback {
+
+        private final CountDownLatch liberacao = new CountDownLatch(1);
+        private final Map<Long, AtomicInteger> chamadasPorId = new ConcurrentHashMap<>();
+        private final Set<Long> inexistentes = ConcurrentHashMap.newKeySet();
+        private volatile boolean falhar;
+
+        @Override
+        public ProdutoDTO buscarPorId(Long id) {
+            chamadasPorId.computeIfAbsent(id, chave -> new AtomicInteger()).incrementAndGet();
+            try {
+                liberacao.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (falhar) {
+                throw new IllegalStateException("Serviço de produtos indisponível");
+            }
+            return inexistentes.contains(id) ? null : produto(id);
+        }
+
+        @Override
+        public List<ProdutoDTO> buscarPorIds(Collection<Long> ids) {
+            return ids.stream().map(this::buscarPorId).filter(Objects::nonNull).toList();
+        }
+
+        @Override
+        public List<Long> listarIds() {
+            return List.of();
+        }
+
+        void liberar() {
+            liberacao.countDown();
+        }
+    }
+
+    /**
+     * Fallback fora do ar: a falha do principal chega ao adapter como antes
+     */
+    private static class FallbackIndisponivel implements ProdutoFeignClient {
+
+        @Override
+        public ProdutoDTO buscarPorId(Long id) {
+            throw new IllegalStateException("Serviço de fallback indisponível");
+        }
+
+        @Override
+        public List<ProdutoDTO> buscarPorIds(Collection<Long> ids) {
+            throw new IllegalStateException("Serviço de fallback indisponível");
+        }
+
+        @Override
+        public List<Long> listarIds() {
+            throw new IllegalStateException("Serviço de fallback indisponível");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.pedidos.infrastructure.client;
+
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+import com.ecommerce.pedidos.domain.exception.ServicoIndisponivelException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private Counter coalescidas;
+    private SingleFlight<Long, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        coalescidas = new SimpleMeterRegistry().counter("coalescidas");
+        singleFlight = new SingleFlight<>(coalescidas);
+    }
+
+    @Test
+    void deveAssumirAChamadaQuandoOPrazoDeQuemAChamouVence() throws Exception {
+        // Arrange: a primeira chamada é de uma requisição cujo prazo vence no meio dela
+        CountDownLatch lider = new CountDownLatch(1);
+        CountDownLatch falhar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        Future<String> primeira = executor.submit(() -> singleFlight.executar(1L, () -> {
+            lider.countDown();
+            aguardar(falhar);
+            throw new PrazoExcedidoException("busca-produto", Duration.ofMillis(100));
+        }, Prazo.em(Duration.ofMillis(100))));
+        lider.await(5, TimeUnit.SECONDS);
+        AtomicInteger chamadas = new AtomicInteger();
+        Future<String> segunda = executor.submit(() -> singleFlight.executar(1L, () -> {
+            chamadas.incrementAndGet();
+            return "produto";
+        }, Prazo.em(Duration.ofSeconds(10))));
+        aguardarCoalescida();
+
+        // Act
+        falhar.countDown();
+
+        // Assert
+        assertEquals("produto", segunda.get(5, TimeUnit.SECONDS));
+        assertEquals(1, chamadas.get());
+        Exception erro = assertThrows(Exception.class, () -> primeira.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PrazoExcedidoException.class, erro.getCause());
+        executor.shutdown();
+    }
+
+    @Test
+    void deveAssumirAChamadaQuandoOLimiteRecusaQuemAChamou() throws Exception {
+        // Arrange
+        CountDownLatch lider = new CountDownLatch(1);
+        CountDownLatch falhar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.submit(() -> singleFlight.executar(1L, () -> {
+            lider.countDown();
+            aguardar(falhar);
+            throw new ServicoIndisponivelException("Serviço de produtos sobrecarregado");
+        }));
+        lider.await(5, TimeUnit.SECONDS);
+        Future<String> segunda = executor.submit(() -> singleFlight.executar(1L, () -> "produto"));
+        aguardarCoalescida();
+
+        // Act
+        falhar.countDown();
+
+        // Assert
+        assertEquals("produto", segunda.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void deveCompartilharAFalhaRemotaComQuemAguarda() throws Exception {
+        // Arrange
+        CountDownLatch lider = new CountDownLatch(1);
+        CountDownLatch falhar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.submit(() -> singleFlight.executar(1L, () -> {
+            lider.countDown();
+            aguardar(falhar);
+            throw new IllegalStateException("Serviço de produtos indisponível");
+        }));
+        lider.await(5, TimeUnit.SECONDS);
+        AtomicInteger chamadas = new AtomicInteger();
+        Future<String> segunda = executor.submit(() -> singleFlight.executar(1L, () -> {
+            chamadas.incrementAndGet();
+            return "produto";
+        }));
+        aguardarCoalescida();
+
+        // Act
+        falhar.countDown();
+
+        // Assert
+        Exception erro = assertThrows(Exception.class, () -> segunda.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, erro.getCause());
+        assertEquals(0, chamadas.get());
+        executor.shutdown();
+    }
+
+    private void aguardarCoalescida() throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescidas.count() < 1) {
+            assertTrue(System.nanoTime() < limite, "Chamada não foi coalescida a tempo");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
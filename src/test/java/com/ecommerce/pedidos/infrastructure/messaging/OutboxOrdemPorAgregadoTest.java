@@ -0,0 +1,190 @@
+package com.ecommerce.pedidos.infrastructure.messaging;
+
+import com.ecommerce.pedidos.application.service.EventPublisherPort;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.OutboxStatus;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.OutboxJpaEntity;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.OutboxJpaRepository;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.OutboxRepositoryImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de estresse da ordem por agregado: várias instâncias do OutboxProcessor, cada
+ * uma com várias faixas, publicando ao mesmo tempo eventos intercalados de muitos
+ * pedidos, com um broker simulado que falha ao acaso. Cada pedido tem que ter seus
+ * eventos publicados exatamente na ordem em que foram gravados.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxOrdemPorAgregadoTest {
+
+    private static final int PEDIDOS = 60;
+    private static final int EVENTOS_POR_PEDIDO = 4;
+    private static final int INSTANCIAS = 3;
+    private static final int FAIXAS = 4;
+    private static final Pattern PAYLOAD = Pattern.compile("\"pedidoId\":(\\d+),\"seq\":(\\d+)");
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = OutboxJpaEntity.class)
+    @EnableJpaRepositories(basePackageClasses = OutboxJpaRepository.class)
+    @Import(OutboxRepositoryImpl.class)
+    static class Configuracao {
+    }
+
+    @Autowired
+    private OutboxRepositoryPort outboxRepository;
+
+    @Autowired
+    private OutboxJpaRepository jpaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        jpaRepository.deleteAll();
+    }
+
+    @Test
+    void devePublicarOsEventosDeCadaPedidoNaOrdemDeGravacao() throws Exception {
+        publicarComFalhasEConferirAOrdem(false);
+    }
+
+    @Test
+    void devePublicarOsEventosDeCadaPedidoNaOrdemDeGravacaoComPublicacaoEmLote() throws Exception {
+        publicarComFalhasEConferirAOrdem(true);
+    }
+
+    private void publicarComFalhasEConferirAOrdem(boolean publicacaoEmLote) throws Exception {
+        // Arrange: os eventos de cada pedido intercalados com os dos outros pedidos
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        for (int seq = 1; seq <= EVENTOS_POR_PEDIDO; seq++) {
+            int sequencia = seq;
+            transacao.executeWithoutResult(status -> outboxRepository.salvarTodos(LongStream.rangeClosed(1, PEDIDOS)
+                    .mapToObj(pedidoId -> new OutboxEvent("PEDIDO", pedidoId, "PEDIDO_EVENTO_" + sequencia,
+                            "{\"pedidoId\":" + pedidoId + ",\"seq\":" + sequencia + "}"))
+                    .toList()));
+        }
+        BrokerInstavel broker = new BrokerInstavel();
+
+        List<OutboxProcessor> processadores = new ArrayList<>();
+        for (int i = 0; i < INSTANCIAS; i++) {
+            processadores.add(new OutboxProcessor(outboxRepository, broker, new SimpleMeterRegistry(), 1000, 16,
+                    FAIXAS, Duration.ofMinutes(5), Duration.ZERO, publicacaoEmLote, false, Duration.ZERO));
+        }
+
+        // Act: as instâncias rodam juntas até a Outbox esvaziar
+        ExecutorService executor = Executors.newFixedThreadPool(INSTANCIAS);
+        try {
+            long limite = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+            while (!jpaRepository.findByStatus(OutboxStatus.PENDING).isEmpty() && System.nanoTime() < limite) {
+                List<Future<?>> execucoes = new ArrayList<>();
+                for (OutboxProcessor processador : processadores) {
+                    execucoes.add(executor.submit(processador::processarEventosPendentes));
+                }
+                for (Future<?> execucao : execucoes) {
+                    execucao.get();
+                }
+            }
+        } finally {
+            executor.shutdown();
+            processadores.forEach(OutboxProcessor::encerrar);
+        }
+
+        // Assert
+        assertTrue(broker.falhas.get() > 0, "o broker simulado deveria ter falhado algumas vezes");
+        assertEquals(PEDIDOS * EVENTOS_POR_PEDIDO, jpaRepository.findByStatus(OutboxStatus.PROCESSED).size());
+        assertEquals(List.of(), broker.foraDeOrdem);
+        assertEquals(PEDIDOS, broker.ultimoPublicado.size());
+        broker.ultimoPublicado.values().forEach(ultimo -> assertEquals(EVENTOS_POR_PEDIDO, ultimo));
+    }
+
+    /**
+     * Broker que recusa ~20% das publicações e confere a ordem de cada pedido ao aceitar
+     */
+    private static class BrokerInstavel implements EventPublisherPort {
+
+        private final Map<Long, Integer> ultimoPublicado = new ConcurrentHashMap<>();
+        private final List<String> foraDeOrdem = new CopyOnWriteArrayList<>();
+        private final AtomicInteger falhas = new AtomicInteger();
+
+        @Override
+        public void publicarEvento(String eventType, String routingKey, String payload) {
+            if (recusar()) {
+                throw new RuntimeException("broker indisponível");
+            }
+            aceitar(payload);
+        }
+
+        @Override
+        public Set<Long> publicarEmLote(List<OutboxEvent> eventos, Function<String, String> routingKeyPorTipo) {
+            Set<Long> confirmados = new HashSet<>();
+            for (OutboxEvent evento : eventos) {
+                if (!recusar()) {
+                    aceitar(evento.getPayload());
+                    confirmados.add(evento.getId());
+                }
+            }
+            return confirmados;
+        }
+
+        private boolean recusar() {
+            if (ThreadLocalRandom.current().nextInt(5) == 0) {
+                falhas.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        private void aceitar(String payload) {
+            Matcher matcher = PAYLOAD.matcher(payload);
+            assertTrue(matcher.find(), payload);
+            long pedidoId = Long.parseLong(matcher.group(1));
+            int seq = Integer.parseInt(matcher.group(2));
+            ultimoPublicado.compute(pedidoId, (id, ultimo) -> {
+                int anterior = ultimo == null ? 0 : ultimo;
+                if (seq != anterior + 1) {
+                    foraDeOrdem.add("pedido " + pedidoId + ": " + seq + " depois de " + anterior);
+                }
+                return Math.max(anterior, seq);
+            });
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.ecommerce.pedidos.infrastructure.messaging;
+
+import com.ecommerce.pedidos.application.service.EventPublisherPort;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.OutboxStatus;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxProcessorTest {
+
+    private OutboxRepositoryPort outboxRepository;
+    private EventPublisherPort eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(OutboxRepositoryPort.class);
+        eventPublisher = mock(EventPublisherPort.class);
+        meterRegistry = new SimpleMeterRegistry();
+        processor = new OutboxProcessor(outboxRepository, eventPublisher, meterRegistry, 3, 2, 1,
+                Duration.ofMinutes(5), Duration.ofSeconds(10), false, false, Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.encerrar();
+    }
+
+    @Test
+    void deveReservarLotesAteAOutboxEsvaziarEMarcarComoProcessados() {
+        // Arrange
+        when(outboxRepository.reservarPendentes(eq(2), any(), any(), any()))
+                .thenReturn(List.of(evento(1L, 0), evento(2L, 0)))
+                .thenReturn(List.of(evento(3L, 0)))
+                .thenReturn(List.of());
+
+        // Act
+        processor.processarEventosPendentes();
+
+        // Assert
+        verify(outboxRepository, times(3)).reservarPendentes(2, Duration.ofMinutes(5), Duration.ofSeconds(10),
+                Duration.ZERO);
+        verify(eventPublisher, times(3)).publicarEvento(eq("PEDIDO_CRIADO"), anyString(), anyString());
+        ArgumentCaptor<OutboxEvent> atualizados = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository, times(3)).atualizar(atualizados.capture());
+        assertTrue(atualizados.getAllValues().stream().allMatch(evento -> evento.getStatus() == OutboxStatus.PROCESSED));
+    }
+
+    @Test
+    void deveDeixarParaAExecucaoEmAndamentoUmaNovaPassadaSemRodarEmParalelo() throws Exception {
+        // Arrange
+        CountDownLatch publicando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(outboxRepository.reservarPendentes(anyInt(), any(), any(), any()))
+                .thenReturn(List.of(evento(1L, 0)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(evento(2L, 0)))
+                .thenReturn(List.of());
+        doAnswer(invocation -> {
+            publicando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return null;
+        }).doNothing().when(eventPublisher).publicarEvento(anyString(), anyString(), anyString());
+        Thread agendada = Thread.ofVirtual().start(processor::processarEventosPendentes);
+        assertTrue(publicando.await(5, TimeUnit.SECONDS));
+
+        // Act
+        processor.processarEventosPendentes();
+        verify(outboxRepository, times(1)).reservarPendentes(anyInt(), any(), any(), any());
+        liberar.countDown();
+        agendada.join(5_000);
+
+        // Assert
+        assertFalse(agendada.isAlive());
+        verify(outboxRepository, times(4)).reservarPendentes(anyInt(), any(), any(), any());
+        verify(eventPublisher, times(2)).publicarEvento(eq("PEDIDO_CRIADO"), anyString(), anyString());
+    }
+
+    @Test
+    void naoDevePrenderOAgendadorEnquantoEsvaziaAOutbox() throws Exception {
+        // Arrange: publicação presa (broker lento)
+        CountDownLatch publicando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(outboxRepository.reservarPendentes(anyInt(), any(), any(), any()))
+                .thenReturn(List.of(evento(1L, 0)))
+                .thenReturn(List.of());
+        doAnswer(invocation -> {
+            publicando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(eventPublisher).publicarEvento(anyString(), anyString(), anyString());
+
+        // Act
+        processor.agendarProcessamento();
+
+        // Assert: o job já retornou e a publicação segue em outra thread
+        assertTrue(publicando.await(5, TimeUnit.SECONDS));
+        liberar.countDown();
+        verify(outboxRepository, timeout(5_000))
+                .atualizar(argThat(evento -> evento.getStatus() == OutboxStatus.PROCESSED));
+    }
+
+    @Test
+    void deveDeixarEventosRecentesParaAPublicacaoImediataQuandoLigada() {
+        // Arrange
+        OutboxProcessor comPublicacaoImediata = new OutboxProcessor(outboxRepository, eventPublisher, meterRegistry,
+                3, 2, 1, Duration.ofMinutes(5), Duration.ofSeconds(10), false, true, Duration.ofSeconds(30));
+        when(outboxRepository.reservarPendentes(anyInt(), any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        comPublicacaoImediata.processarEventosPendentes();
+        comPublicacaoImediata.encerrar();
+
+        // Assert
+        verify(outboxRepository).reservarPendentes(2, Duration.ofMinutes(5), Duration.ofSeconds(10),
+                Duration.ofSeconds(30));
+    }
+
+    @Test
+    void deveRegistrarALatenciaDaGravacaoAtePublicacao() {
+        // Arrange
+        when(outboxRepository.reservarPendentes(anyInt(), any(), any(), any()))
+                .thenReturn(List.of(evento(1L, 3)))
+                .thenReturn(List.of());
+
+        // Act
+        processor.processarEventosPendentes();
+
+        // Assert
+        Timer latencia = meterRegistry.find("outbox.eventos.latencia").timer();
+        assertNotNull(latencia);
+        assertEquals(1, latencia.count());
+        assertTrue(latencia.totalTime(TimeUnit.SECONDS) >= 3);
+    }
+
+    @Test
+    void naoDeveRegistrarLatenciaQuandoAPublicacaoFalha() {
+        // Arrange
+        when(outboxRepository.reservarPendentes(anyInt(), any(), any(), any()))
+                .thenReturn(List.of(evento(1L, 0)))
+                .thenReturn(List.of());
+        doThrow(new RuntimeException("broker indisponível"))
+                .when(eventPublisher).publicarEvento(anyString(), anyString(), anyString());
+
+        // Act
+        processor.processarEventosPendentes();
+
+        // Assert
+        assertEquals(0, meterRegistry.find("outbox.eventos.latencia").timer().count());
+        ArgumentCaptor<OutboxEvent> atualizado = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).atualizar(atualizado.capture());
+        assertEquals(1, atualizado.getValue().getRetryCount());
+    }
+
+    @Test
+    void devePublicarEmLoteMarcandoOsConfirmadosDeUmaVezETentandoOsDemaisUmAUm() {
+        // Arrange
+        OutboxProcessor emLote = new OutboxProcessor(outboxRepository, eventPublisher, meterRegistry, 3, 3, 1,
+                Duration.ofMinutes(5), Duration.ofSeconds(10), true, false, Duration.ofSeconds(30));
+        OutboxEvent devolvido = evento(2L, 0);
+        when(outboxRepository.reservarPendentes(anyInt(), any(), any(), any()))
+                .thenReturn(List.of(evento(1L, 0), devolvido, evento(3L, 0)))
+                .thenReturn(List.of());
+        when(eventPublisher.publicarEmLote(anyList(), any())).thenReturn(Set.of(1L, 3L));
+
+        // Act
+        emLote.processarEventosPendentes();
+        emLote.encerrar();
+
+        // Assert
+        verify(outboxRepository).marcarComoProcessados(Set.of(1L, 3L));
+        verify(eventPublisher).publicarEvento("PEDIDO_CRIADO", "pedido.criado", devolvido.getPayload());
+        verify(eventPublisher, times(1)).publicarEvento(anyString(), anyString(), anyString());
+        ArgumentCaptor<OutboxEvent> atualizado = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).atualizar(atualizado.capture());
+        assertEquals(2L, atualizado.getValue().getId());
+        assertEquals(OutboxStatus.PROCESSED, atualizado.getValue().getStatus());
+        assertEquals(3, meterRegistry.find("outbox.eventos.latencia").timer().count());
+    }
+
+    @Test
+    void deveTentarUmAUmQuandoAPublicacaoDoLoteFalhaPorInteiro() {
+        // Arrange
+        OutboxProcessor emLote = new OutboxProcessor(outboxRepository, eventPublisher, meterRegistry, 3, 3, 1,
+                Duration.ofMinutes(5), Duration.ofSeconds(10), true, false, Duration.ofSeconds(30));
+        when(outboxRepository.reservarPendentes(anyInt(), any(), any(), any()))
+                .thenReturn(List.of(evento(1L, 0), evento(2L, 0)))
+                .thenReturn(List.of());
+        when(eventPublisher.publicarEmLote(anyList(), any())).thenThrow(new RuntimeException("canal fechado"));
+        doThrow(new RuntimeException("broker indisponível"))
+                .when(eventPublisher).publicarEvento(anyString(), anyString(), anyString());
+
+        // Act
+        emLote.processarEventosPendentes();
+        emLote.encerrar();
+
+        // Assert
+        verify(outboxRepository, never()).marcarComoProcessados(any());
+        ArgumentCaptor<OutboxEvent> atualizados = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository, times(2)).atualizar(atualizados.capture());
+        assertTrue(atualizados.getAllValues().stream().allMatch(evento -> evento.getRetryCount() == 1));
+    }
+
+    @Test
+    void devePublicarAsFaixasEmParalelo() {
+        // Arrange: 4 agregados em 4 faixas diferentes; cada publicação só termina quando as 4 estão em andamento
+        OutboxProcessor emFaixas = new OutboxProcessor(outboxRepository, eventPublisher, meterRegistry, 3, 10, 4,
+                Duration.ofMinutes(5), Duration.ofSeconds(10), false, false, Duration.ofSeconds(30));
+        List<OutboxEvent> eventos = List.of(evento(1L, 0), evento(2L, 0), evento(3L, 0), evento(4L, 0));
+        assertEquals(4, eventos.stream().map(evento -> OutboxProcessor.faixaDe(evento.getAggregateId(), 4)).distinct().count());
+        when(outboxRepository.reservarPendentes(anyInt(), any(), any(), any()))
+                .thenReturn(eventos)
+                .thenReturn(List.of());
+        CountDownLatch simultaneas = new CountDownLatch(4);
+        AtomicBoolean emParalelo = new AtomicBoolean(true);
+        doAnswer(invocacao -> {
+            simultaneas.countDown();
+            if (!simultaneas.await(2, TimeUnit.SECONDS)) {
+                emParalelo.set(false);
+            }
+            return null;
+        }).when(eventPublisher).publicarEvento(anyString(), anyString(), anyString());
+
+        // Act
+        emFaixas.processarEventosPendentes();
+        emFaixas.encerrar();
+
+        // Assert
+        assertTrue(emParalelo.get());
+        verify(outboxRepository, times(4)).atualizar(any());
+    }
+
+    @Test
+    void devePublicarOsEventosDoMesmoAgregadoEmOrdemNaMesmaFaixaExpondoOAtraso() {
+        // Arrange: registro próprio, sem as métricas do processador de uma faixa do setUp
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        OutboxProcessor emFaixas = new OutboxProcessor(outboxRepository, eventPublisher, registro, 3, 10, 4,
+                Duration.ofMinutes(5), Duration.ofSeconds(10), false, false, Duration.ofSeconds(30));
+        List<OutboxEvent> eventos = List.of(
+                evento(1L, 7L, "PEDIDO_CRIADO", 5), evento(2L, 8L, "PEDIDO_CRIADO", 5),
+                evento(3L, 7L, "PEDIDO_CANCELADO", 4), evento(4L, 7L, "PEDIDO_ATUALIZADO", 3));
+        when(outboxRepository.reservarPendentes(anyInt(), any(), any(), any()))
+                .thenReturn(eventos)
+                .thenReturn(List.of());
+        String faixa = String.valueOf(OutboxProcessor.faixaDe(7L, 4));
+        List<String> publicados = Collections.synchronizedList(new ArrayList<>());
+        List<Double> atrasos = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocacao -> {
+            String eventType = invocacao.getArgument(0);
+            if (!invocacao.<String>getArgument(2).contains("\"pedidoId\":8")) {
+                publicados.add(eventType);
+                atrasos.add(registro.get("outbox.processor.faixa.atraso").tag("faixa", faixa).gauge().value());
+            }
+            return null;
+        }).when(eventPublisher).publicarEvento(anyString(), anyString(), anyString());
+
+        // Act
+        emFaixas.processarEventosPendentes();
+        emFaixas.encerrar();
+
+        // Assert
+        assertEquals(List.of("PEDIDO_CRIADO", "PEDIDO_CANCELADO", "PEDIDO_ATUALIZADO"), publicados);
+        assertTrue(atrasos.get(0) >= 5);
+        assertTrue(atrasos.get(2) >= 3 && atrasos.get(2) < 5);
+        assertEquals(4.0, registro.get("outbox.processor.faixas").gauge().value());
+        assertEquals(4, registro.get("outbox.processor.faixa.atraso").gauges().size());
+        assertEquals(0.0, registro.get("outbox.processor.faixa.atraso").tag("faixa", faixa).gauge().value());
+    }
+
+    private static OutboxEvent evento(Long id, int segundosAtras) {
+        return evento(id, id, "PEDIDO_CRIADO", segundosAtras);
+    }
+
+    private static OutboxEvent evento(Long id, Long pedidoId, String eventType, int segundosAtras) {
+        return new OutboxEvent(id, "PEDIDO", pedidoId, eventType, "{\"pedidoId\":" + pedidoId + "}",
+                OutboxStatus.PENDING, LocalDateTime.now().minusSeconds(segundosAtras), null, 0, null);
+    }
+}
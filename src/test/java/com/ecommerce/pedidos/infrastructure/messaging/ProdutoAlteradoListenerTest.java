@@ -0,0 +1,85 @@
+package com.ecommerce.pedidos.infrastructure.messaging;
+
+import com.ecommerce.pedidos.infrastructure.cache.AlteracoesProdutos;
+import com.ecommerce.pedidos.infrastructure.cache.ProdutosInexistentesCache;
+import com.ecommerce.pedidos.infrastructure.client.dto.ProdutoDTO;
+import com.ecommerce.pedidos.infrastructure.messaging.ProdutoAlteradoEvent.TipoAlteracao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProdutoAlteradoListenerTest {
+
+    private Cache cache;
+    private ProdutosInexistentesCache produtosInexistentes;
+    private AlteracoesProdutos alteracoes;
+    private ProdutoAlteradoListener listener;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("produtos");
+        cache = cacheManager.getCache("produtos");
+        cache.put(1L, produto(1L, new BigDecimal("100.00")));
+        produtosInexistentes = mock(ProdutosInexistentesCache.class);
+        alteracoes = new AlteracoesProdutos(Duration.ofMinutes(5));
+        listener = new ProdutoAlteradoListener(cacheManager, produtosInexistentes, alteracoes,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void deveAtualizarEntradaQuandoEventoTrazProduto() {
+        // Act
+        listener.onProdutoAlterado(new ProdutoAlteradoEvent(1L, TipoAlteracao.ATUALIZADO,
+                produto(1L, new BigDecimal("80.00"))));
+
+        // Assert
+        assertEquals(new BigDecimal("80.00"), cache.get(1L, ProdutoDTO.class).preco());
+        verify(produtosInexistentes).registrarExistente(1L);
+    }
+
+    @Test
+    void deveInvalidarEntradaQuandoProdutoRemovido() {
+        // Act
+        listener.onProdutoAlterado(new ProdutoAlteradoEvent(1L, TipoAlteracao.REMOVIDO, null));
+
+        // Assert
+        assertNull(cache.get(1L));
+        verify(produtosInexistentes).registrarInexistente(1L);
+    }
+
+    @Test
+    void deveInvalidarEntradaQuandoEventoNaoTrazProduto() {
+        // Act
+        listener.onProdutoAlterado(new ProdutoAlteradoEvent(1L, TipoAlteracao.ATUALIZADO, null));
+
+        // Assert
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void deveRegistrarAlteracaoParaDescartarCargasIniciadasAntesDoEvento() {
+        // Arrange: uma carga remota do produto 1 começa antes do evento
+        long marcaCarga = alteracoes.marca();
+
+        // Act
+        listener.onProdutoAlterado(new ProdutoAlteradoEvent(1L, TipoAlteracao.ATUALIZADO,
+                produto(1L, new BigDecimal("80.00"))));
+
+        // Assert
+        assertTrue(alteracoes.alteradoDesde(1L, marcaCarga));
+        assertFalse(alteracoes.alteradoDesde(2L, marcaCarga));
+        assertFalse(alteracoes.alteradoDesde(1L, alteracoes.marca()));
+    }
+
+    private static ProdutoDTO produto(Long id, BigDecimal preco) {
+        return new ProdutoDTO(id, "Produto " + id, "Desc", preco, 10, "Cat", null);
+    }
+}
@@ -0,0 +1,260 @@
+package com.ecommerce.pedidos.infrastructure.messaging;
+
+import com.ecommerce.pedidos.application.service.EventPublisherPort;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.OutboxStatus;
+import com.ecommerce.pedidos.domain.repository.OutboxRepositoryPort;
+import com.ecommerce.pedidos.infrastructure.persistence.OutboxEventosGravados;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.OutboxJpaEntity;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.OutboxJpaRepository;
+import com.ecommerce.pedidos.infrastructure.persistence.repository.OutboxRepositoryImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Publicação imediata em um H2 em memória: eventos gravados por transações reais
+ * (sem transação externa do teste, para os commits acontecerem de fato)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "outbox.publicacao-imediata.habilitado=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PublicacaoImediataOutboxTest {
+
+    private static final Duration CARENCIA = Duration.ofMillis(300);
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = OutboxJpaEntity.class)
+    @EnableJpaRepositories(basePackageClasses = OutboxJpaRepository.class)
+    @Import({OutboxRepositoryImpl.class, PublicacaoImediataOutbox.class})
+    static class Configuracao {
+
+        @Bean
+        EventPublisherPort eventPublisher() {
+            return mock(EventPublisherPort.class);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private OutboxRepositoryPort outboxRepository;
+
+    @Autowired
+    private OutboxJpaRepository jpaRepository;
+
+    @Autowired
+    private EventPublisherPort eventPublisher;
+
+    @Autowired
+    private PublicacaoImediataOutbox publicacaoImediata;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        reset(eventPublisher);
+        jpaRepository.deleteAll();
+    }
+
+    @Test
+    void devePublicarEMarcarComoProcessadoLogoAposOCommit() {
+        // Act
+        OutboxEvent evento = gravarEmTransacao(false);
+
+        // Assert
+        verify(eventPublisher, timeout(2000)).publicarEvento(eq("PEDIDO_CRIADO"), anyString(), eq(evento.getPayload()));
+        assertEquals(OutboxStatus.PROCESSED, aguardarStatus(evento.getId(), OutboxStatus.PROCESSED));
+    }
+
+    @Test
+    void naoDevePublicarQuandoATransacaoEDesfeita() {
+        // Act
+        gravarEmTransacao(true);
+
+        // Assert
+        verify(eventPublisher, after(300).never()).publicarEvento(anyString(), anyString(), anyString());
+        assertEquals(0, jpaRepository.count());
+    }
+
+    @Test
+    void deveDeixarParaOOutboxProcessorQuandoAPublicacaoImediataFalha() {
+        // Arrange
+        doThrow(new RuntimeException("broker indisponível"))
+                .doNothing()
+                .when(eventPublisher).publicarEvento(anyString(), anyString(), anyString());
+
+        // Act
+        OutboxEvent evento = gravarEmTransacao(false);
+        verify(eventPublisher, timeout(2000)).publicarEvento(anyString(), anyString(), anyString());
+
+        // Assert
+        assertEquals(OutboxStatus.PENDING, statusDe(evento.getId()));
+        assertEquals(OutboxStatus.PROCESSED, publicarPeloOutboxProcessorAposACarencia(evento.getId()));
+        verify(eventPublisher, times(2)).publicarEvento(anyString(), anyString(), eq(evento.getPayload()));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void deveSerPublicadoPeloOutboxProcessorQuandoAInstanciaCaiEntreOCommitEAPublicacao() {
+        // Arrange: a publicação imediata para de aceitar trabalho, como numa instância que cai logo após o commit
+        publicacaoImediata.encerrar();
+
+        // Act
+        OutboxEvent evento = gravarEmTransacao(false);
+
+        // Assert
+        verify(eventPublisher, after(300).never()).publicarEvento(anyString(), anyString(), anyString());
+        assertEquals(OutboxStatus.PENDING, statusDe(evento.getId()));
+        assertEquals(OutboxStatus.PROCESSED, publicarPeloOutboxProcessorAposACarencia(evento.getId()));
+        verify(eventPublisher).publicarEvento(eq("PEDIDO_CRIADO"), anyString(), eq(evento.getPayload()));
+    }
+
+    @Test
+    void naoDevePublicarNaFrenteDeUmEventoAnteriorDoAgregadoAindaPendente() {
+        // Arrange: a publicação imediata do PEDIDO_CRIADO falha
+        doThrow(new RuntimeException("broker indisponível"))
+                .doNothing()
+                .when(eventPublisher).publicarEvento(anyString(), anyString(), anyString());
+        OutboxEvent criado = gravarEmTransacao(false);
+        verify(eventPublisher, timeout(2000)).publicarEvento(anyString(), anyString(), anyString());
+
+        // Act
+        OutboxEvent cancelado = new TransactionTemplate(transactionManager).execute(status -> outboxRepository.salvar(
+                new OutboxEvent("PEDIDO", 1L, "PEDIDO_CANCELADO", "{\"pedidoId\":1,\"cancelado\":true}")));
+
+        // Assert: o cancelamento espera o OutboxProcessor, que publica os dois em ordem
+        verify(eventPublisher, after(300).never()).publicarEvento(eq("PEDIDO_CANCELADO"), anyString(), anyString());
+        assertEquals(OutboxStatus.PENDING, statusDe(cancelado.getId()));
+        assertEquals(OutboxStatus.PROCESSED, publicarPeloOutboxProcessorAposACarencia(criado.getId()));
+        assertEquals(OutboxStatus.PROCESSED, statusDe(cancelado.getId()));
+        InOrder ordem = inOrder(eventPublisher);
+        ordem.verify(eventPublisher, atLeastOnce()).publicarEvento(eq("PEDIDO_CRIADO"), anyString(), eq(criado.getPayload()));
+        ordem.verify(eventPublisher).publicarEvento(eq("PEDIDO_CANCELADO"), anyString(), eq(cancelado.getPayload()));
+    }
+
+    @Test
+    void naoDevePublicarEventoQueEsperouNaFilaMaisQueACarencia() {
+        // Arrange: carência já vencida quando a tarefa sai da fila
+        OutboxRepositoryPort repositorio = mock(OutboxRepositoryPort.class);
+        PublicacaoImediataOutbox comCarenciaVencida = new PublicacaoImediataOutbox(repositorio, eventPublisher,
+                new SimpleMeterRegistry(), 1, 10, Duration.ZERO, Duration.ofMinutes(5));
+
+        // Act
+        comCarenciaVencida.aoConfirmar(new OutboxEventosGravados(List.of(eventoGravado())));
+        comCarenciaVencida.encerrar();
+
+        // Assert
+        verify(repositorio, after(300).never()).reservarSeDisponivel(anyLong(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void naoDevePublicarEventoJaReservadoPorOutroPublicador() {
+        // Arrange: o OutboxProcessor reservou o evento antes
+        OutboxRepositoryPort repositorio = mock(OutboxRepositoryPort.class);
+        when(repositorio.reservarSeDisponivel(anyLong(), any())).thenReturn(false);
+        PublicacaoImediataOutbox publicacao = new PublicacaoImediataOutbox(repositorio, eventPublisher,
+                new SimpleMeterRegistry(), 1, 10, Duration.ofSeconds(30), Duration.ofMinutes(5));
+
+        // Act
+        publicacao.aoConfirmar(new OutboxEventosGravados(List.of(eventoGravado())));
+        publicacao.encerrar();
+
+        // Assert
+        verify(repositorio, timeout(2000)).reservarSeDisponivel(1L, Duration.ofMinutes(5));
+        verify(eventPublisher, after(300).never()).publicarEvento(anyString(), anyString(), anyString());
+        verify(repositorio, never()).marcarComoProcessados(any());
+        verify(repositorio, never()).atualizar(any());
+    }
+
+    private static OutboxEvent eventoGravado() {
+        return new OutboxEvent(1L, "PEDIDO", 1L, "PEDIDO_CRIADO", "{\"pedidoId\":1}", OutboxStatus.PENDING,
+                LocalDateTime.now(), null, 0, null);
+    }
+
+    private OutboxEvent gravarEmTransacao(boolean desfazer) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            OutboxEvent salvo = outboxRepository.salvar(
+                    new OutboxEvent("PEDIDO", 1L, "PEDIDO_CRIADO", "{\"pedidoId\":1}"));
+            if (desfazer) {
+                status.setRollbackOnly();
+            }
+            return salvo;
+        });
+    }
+
+    /**
+     * O OutboxProcessor (outra instância, por exemplo) não pega o evento dentro da
+     * carência, e o publica quando ela passa
+     */
+    private OutboxStatus publicarPeloOutboxProcessorAposACarencia(Long eventoId) {
+        OutboxProcessor processor = new OutboxProcessor(outboxRepository, eventPublisher, new SimpleMeterRegistry(),
+                3, 10, 1, Duration.ofMinutes(5), Duration.ZERO, false, true, Duration.ofMinutes(1));
+        OutboxProcessor aposCarencia = new OutboxProcessor(outboxRepository, eventPublisher, new SimpleMeterRegistry(),
+                3, 10, 1, Duration.ofMinutes(5), Duration.ZERO, false, true, CARENCIA);
+        try {
+            processor.processarEventosPendentes();
+            assertEquals(OutboxStatus.PENDING, statusDe(eventoId));
+
+            aguardar(CARENCIA);
+            aposCarencia.processarEventosPendentes();
+            return statusDe(eventoId);
+        } finally {
+            processor.encerrar();
+            aposCarencia.encerrar();
+        }
+    }
+
+    private OutboxStatus aguardarStatus(Long eventoId, OutboxStatus esperado) {
+        long limite = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        OutboxStatus status = statusDe(eventoId);
+        while (status != esperado && System.nanoTime() < limite) {
+            aguardar(Duration.ofMillis(20));
+            status = statusDe(eventoId);
+        }
+        return status;
+    }
+
+    private OutboxStatus statusDe(Long eventoId) {
+        return jpaRepository.findById(eventoId).orElseThrow().getStatus();
+    }
+
+    private static void aguardar(Duration duracao) {
+        try {
+            Thread.sleep(duracao);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
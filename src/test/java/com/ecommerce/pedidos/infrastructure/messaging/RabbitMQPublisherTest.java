@@ -0,0 +1,123 @@
+package com.ecommerce.pedidos.infrastructure.messaging;
+
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.OutboxStatus;
+import com.ecommerce.pedidos.infrastructure.config.RabbitMQConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Publicação com publisher confirms, com o broker simulado: cada envio recebe a
+ * resposta do broker (ack, nack, devolução ou nenhuma) na sua CorrelationData
+ */
+class RabbitMQPublisherTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private ConnectionFactory connectionFactory;
+    private RabbitMQPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        connectionFactory = mock(ConnectionFactory.class);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocacao ->
+                invocacao.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitTemplate));
+        publisher = new RabbitMQPublisher(rabbitTemplate, Duration.ofMillis(200), Duration.ofMillis(200));
+    }
+
+    @Test
+    void deveEnviarOLoteNumUnicoCanalERetornarSoOsConfirmados() {
+        // Arrange: 1 confirmado, 2 rejeitado, 3 devolvido sem rota, 4 sem resposta
+        responderComo(Map.of(
+                "1", correlacao -> correlacao.getFuture().complete(new CorrelationData.Confirm(true, null)),
+                "2", correlacao -> correlacao.getFuture().complete(new CorrelationData.Confirm(false, "fila cheia")),
+                "3", correlacao -> {
+                    correlacao.setReturned(new ReturnedMessage(mock(Message.class), 312, "NO_ROUTE",
+                            RabbitMQConfig.PEDIDOS_EXCHANGE, "pedido.evento"));
+                    correlacao.getFuture().complete(new CorrelationData.Confirm(true, null));
+                },
+                "4", correlacao -> { }));
+
+        // Act
+        Set<Long> confirmados = publisher.publicarEmLote(
+                List.of(evento(1L), evento(2L), evento(3L), evento(4L)), OutboxProcessor::obterRoutingKey);
+
+        // Assert
+        assertEquals(Set.of(1L), confirmados);
+        verify(rabbitTemplate, times(1)).invoke(any());
+        verify(rabbitTemplate, times(4)).send(eq(RabbitMQConfig.PEDIDOS_EXCHANGE), eq("pedido.criado"),
+                any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void deveFalharAPublicacaoIndividualQuandoOBrokerRejeita() {
+        // Arrange
+        doAnswer(invocacao -> invocacao.<CorrelationData>getArgument(3).getFuture()
+                .complete(new CorrelationData.Confirm(false, "fila cheia")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act / Assert
+        assertThrows(RuntimeException.class,
+                () -> publisher.publicarEvento("PEDIDO_CRIADO", "pedido.criado", "{\"pedidoId\":1}"));
+    }
+
+    @Test
+    void naoDeveEsperarConfirmacaoQuandoOsPublisherConfirmsEstaoDesligados() {
+        // Arrange
+        when(connectionFactory.isPublisherConfirms()).thenReturn(false);
+
+        // Act
+        Set<Long> enviados = publisher.publicarEmLote(List.of(evento(1L), evento(2L)), OutboxProcessor::obterRoutingKey);
+        publisher.publicarEvento("PEDIDO_CRIADO", "pedido.criado", "{\"pedidoId\":1}");
+
+        // Assert
+        assertEquals(Set.of(1L, 2L), enviados);
+        verify(rabbitTemplate, times(3)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void naoDeveEsperarConfirmacaoDoEventoIndividualComPrazoZero() {
+        // Arrange: o broker nunca responde
+        RabbitMQPublisher semEspera = new RabbitMQPublisher(rabbitTemplate, Duration.ofMillis(200), Duration.ZERO);
+
+        // Act
+        long inicio = System.nanoTime();
+        semEspera.publicarEvento("PEDIDO_CRIADO", "pedido.criado", "{\"pedidoId\":1}");
+
+        // Assert
+        assertTrue(System.nanoTime() - inicio < Duration.ofMillis(200).toNanos());
+        verify(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private void responderComo(Map<String, Consumer<CorrelationData>> respostas) {
+        doAnswer(invocacao -> {
+            CorrelationData correlacao = invocacao.getArgument(3);
+            respostas.get(correlacao.getId()).accept(correlacao);
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private static OutboxEvent evento(Long id) {
+        return new OutboxEvent(id, "PEDIDO", id, "PEDIDO_CRIADO", "{\"pedidoId\":" + id + "}", OutboxStatus.PENDING,
+                LocalDateTime.now(), null, 0, null);
+    }
+}
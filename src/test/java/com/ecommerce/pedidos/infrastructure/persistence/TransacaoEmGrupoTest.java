@@ -0,0 +1,130 @@
+package com.ecommerce.pedidos.infrastructure.persistence;
+
+import com.ecommerce.pedidos.application.service.Prazo;
+import com.ecommerce.pedidos.domain.exception.PrazoExcedidoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransacaoEmGrupoTest {
+
+    private final AtomicInteger transacoes = new AtomicInteger();
+
+    // Conta as transações abertas; o callback roda direto, como num TransactionTemplate
+    private final TransactionOperations transacao = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> callback) {
+            transacoes.incrementAndGet();
+            return callback.doInTransaction(new SimpleTransactionStatus());
+        }
+    };
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void deveGravarChamadoresConcorrentesNumaUnicaTransacao() throws Exception {
+        // Arrange: janela longa, o grupo fecha ao chegar no tamanho máximo
+        TransacaoEmGrupo grupo = new TransacaoEmGrupo(transacao, Duration.ofSeconds(5), 4, new SimpleMeterRegistry());
+
+        // Act
+        List<Future<Integer>> resultados = IntStream.range(0, 4)
+                .mapToObj(i -> executor.submit(() -> grupo.execute(status -> i * 10)))
+                .toList();
+
+        // Assert
+        for (int i = 0; i < resultados.size(); i++) {
+            assertEquals(i * 10, resultados.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, transacoes.get());
+    }
+
+    @Test
+    void deveEntregarACadaChamadorOProprioResultadoQuandoUmFalha() throws Exception {
+        // Arrange
+        TransacaoEmGrupo grupo = new TransacaoEmGrupo(transacao, Duration.ofSeconds(5), 4, new SimpleMeterRegistry());
+
+        // Act
+        List<Future<Integer>> resultados = IntStream.range(0, 4)
+                .mapToObj(i -> executor.submit(() -> grupo.execute(status -> {
+                    if (i == 2) {
+                        throw new IllegalStateException("violação de restrição");
+                    }
+                    return i;
+                })))
+                .toList();
+
+        // Assert: a transação do grupo é desfeita e cada gravação é refeita na sua própria transação
+        for (int i = 0; i < resultados.size(); i++) {
+            Future<Integer> resultado = resultados.get(i);
+            if (i == 2) {
+                ExecutionException falha = assertThrows(ExecutionException.class,
+                        () -> resultado.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, falha.getCause());
+            } else {
+                assertEquals(i, resultado.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1 + 4, transacoes.get());
+    }
+
+    @Test
+    void deveGravarSozinhoQuemNaoEncontraOutrosNaJanela() {
+        // Arrange
+        TransacaoEmGrupo grupo = new TransacaoEmGrupo(transacao, Duration.ofMillis(5), 50, new SimpleMeterRegistry());
+
+        // Act
+        String primeiro = grupo.execute(status -> "a");
+        String segundo = grupo.execute(status -> "b");
+
+        // Assert
+        assertEquals("a", primeiro);
+        assertEquals("b", segundo);
+        assertEquals(2, transacoes.get());
+    }
+
+    @Test
+    void deveDesistirNoPrazoSemGravarQuandoOLiderAindaNaoComecou() throws Exception {
+        // Arrange: o líder fica na janela bem mais tempo que o prazo de quem chega depois
+        TransacaoEmGrupo grupo = new TransacaoEmGrupo(transacao, Duration.ofMillis(500), 50, new SimpleMeterRegistry());
+        AtomicBoolean seguidorGravou = new AtomicBoolean();
+        Future<String> lider = executor.submit(() -> grupo.execute(status -> "lider"));
+        Thread.sleep(50);
+
+        // Act
+        long inicio = System.nanoTime();
+        PrazoExcedidoException excecao = assertThrows(PrazoExcedidoException.class,
+                () -> grupo.execute(status -> {
+                    seguidorGravou.set(true);
+                    return "seguidor";
+                }, Prazo.em(Duration.ofMillis(50))));
+        long esperaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // Assert: a espera termina no prazo e a gravação sai do grupo
+        assertEquals("gravacao-em-grupo", excecao.getEtapa());
+        assertTrue(esperaMs < 400, "esperou " + esperaMs + " ms");
+        assertEquals("lider", lider.get(5, TimeUnit.SECONDS));
+        assertFalse(seguidorGravou.get());
+        assertEquals(1, transacoes.get());
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.domain.entity.ChaveIdempotencia;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.ChaveIdempotenciaJpaEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reserva de chaves de idempotência em um H2 em memória, sem transação externa
+ * (como no caso de uso: cada operação na sua própria transação)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChaveIdempotenciaRepositoryImplTest {
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = ChaveIdempotenciaJpaEntity.class)
+    @EnableJpaRepositories(basePackageClasses = ChaveIdempotenciaJpaRepository.class)
+    @Import(ChaveIdempotenciaRepositoryImpl.class)
+    static class Configuracao {
+    }
+
+    @Autowired
+    private ChaveIdempotenciaRepositoryImpl repository;
+
+    @Autowired
+    private ChaveIdempotenciaJpaRepository jpaRepository;
+
+    @AfterEach
+    void tearDown() {
+        jpaRepository.deleteAll();
+    }
+
+    @Test
+    void deveReservarCadaChaveUmaUnicaVez() {
+        // Act
+        boolean primeira = repository.reservar(new ChaveIdempotencia("chave-1", "hash", Duration.ofHours(1)));
+        boolean segunda = repository.reservar(new ChaveIdempotencia("chave-1", "hash", Duration.ofHours(1)));
+
+        // Assert
+        assertTrue(primeira);
+        assertFalse(segunda);
+        assertFalse(repository.buscar("chave-1").orElseThrow().isConcluida());
+    }
+
+    @Test
+    void deveConcluirChaveReservadaComOPedido() {
+        // Arrange
+        ChaveIdempotencia reserva = new ChaveIdempotencia("chave-1", "hash", Duration.ofMinutes(2));
+        repository.reservar(reserva);
+        LocalDateTime expiraEm = LocalDateTime.now().plusHours(24);
+
+        // Act
+        repository.concluir("chave-1", reserva.getTokenReserva(), 10L, expiraEm);
+
+        // Assert
+        ChaveIdempotencia concluida = repository.buscar("chave-1").orElseThrow();
+        assertEquals(10L, concluida.getPedidoId());
+        assertTrue(concluida.getExpiraEm().isAfter(LocalDateTime.now().plusHours(23)));
+    }
+
+    @Test
+    void deveDeixarOutraRequisicaoAssumirReservaVencidaSemQueAAnteriorConcluaOuLibere() {
+        // Arrange: reserva abandonada (instância caiu antes de concluir) e já vencida
+        repository.reservar(new ChaveIdempotencia("chave-1", "hash", null, "token-antigo",
+                LocalDateTime.now().minusMinutes(3), LocalDateTime.now().minusMinutes(1)));
+        ChaveIdempotencia nova = new ChaveIdempotencia("chave-1", "hash", Duration.ofMinutes(2));
+
+        // Act
+        boolean assumida = repository.reservar(nova);
+
+        // Assert: a requisição anterior não conclui nem libera a reserva da nova
+        assertTrue(assumida);
+        assertThrows(IllegalStateException.class, () -> repository.concluir("chave-1", "token-antigo", 10L,
+                LocalDateTime.now().plusHours(24)));
+        repository.remover("chave-1", "token-antigo");
+        assertEquals(nova.getTokenReserva(), repository.buscar("chave-1").orElseThrow().getTokenReserva());
+
+        repository.remover("chave-1", nova.getTokenReserva());
+        assertTrue(repository.buscar("chave-1").isEmpty());
+    }
+
+    @Test
+    void deveSubstituirChaveExpiradaNaReserva() {
+        // Arrange
+        repository.reservar(new ChaveIdempotencia("chave-1", "antigo", 10L, null,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)));
+        repository.reservar(new ChaveIdempotencia("chave-2", "antigo", 20L, null,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)));
+
+        // Act
+        boolean reservada = repository.reservar(new ChaveIdempotencia("chave-1", "novo", Duration.ofHours(1)));
+        int removidas = repository.removerExpiradas(LocalDateTime.now());
+
+        // Assert
+        assertTrue(reservada);
+        assertEquals("novo", repository.buscar("chave-1").orElseThrow().getHashRequisicao());
+        assertEquals(1, removidas);
+        assertTrue(repository.buscar("chave-2").isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.domain.entity.ItemPedido;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.PedidoJpaEntity;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gravação direta por JDBC em um H2 em memória, com o esquema e as sequências
+ * gerados pelo Hibernate a partir das entidades
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+class GravacaoPedidoJdbcTest {
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = PedidoJpaEntity.class)
+    @EnableJpaRepositories(basePackageClasses = PedidoJpaRepository.class)
+    @Import({GravacaoPedidoJdbc.class, PedidoRepositoryImpl.class, OutboxRepositoryImpl.class})
+    static class Configuracao {
+    }
+
+    @Autowired
+    private GravacaoPedidoJdbc gravacao;
+
+    @Autowired
+    private PedidoRepositoryImpl pedidoRepository;
+
+    @Autowired
+    private OutboxRepositoryImpl outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void deveGravarPedidoItensEEventoDevolvendoOsIds() {
+        // Arrange
+        Pedido pedido = pedido(1L, 3);
+
+        // Act
+        Pedido gravado = gravacao.gravarComEventos(List.of(pedido), this::evento).get(0);
+
+        // Assert: o agregado gravado é lido de volta pelo caminho JPA
+        assertNotNull(gravado.getId());
+        assertTrue(gravado.getItens().stream().allMatch(item -> item.getId() != null));
+        Pedido lido = pedidoRepository.buscarPorId(gravado.getId()).orElseThrow();
+        assertEquals(pedido.getNumeroPedido(), lido.getNumeroPedido());
+        assertEquals(3, lido.getItens().size());
+        assertEquals(0, pedido.calcularTotal().compareTo(lido.calcularTotal()));
+        assertEquals(gravado.getId(), jdbcTemplate.queryForObject(
+                "SELECT aggregate_id FROM outbox WHERE event_type = 'PEDIDO_CRIADO'", Long.class));
+    }
+
+    @Test
+    void deveConviverComOsIdsGeradosPeloHibernate() {
+        // Arrange
+        List<Pedido> pedidos = IntStream.rangeClosed(1, 60).mapToObj(cliente -> pedido((long) cliente, 2)).toList();
+
+        // Act: os dois caminhos intercalados, reservando blocos das mesmas sequências
+        List<Pedido> gravados = new ArrayList<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            if (i % 2 == 0) {
+                gravados.addAll(gravacao.gravarComEventos(List.of(pedidos.get(i)), this::evento));
+            } else {
+                Pedido salvo = pedidoRepository.salvar(pedidos.get(i));
+                outboxRepository.salvar(evento(salvo));
+                gravados.add(salvo);
+            }
+        }
+        entityManager.flush();
+
+        // Assert
+        Set<Long> idsPedidos = new HashSet<>();
+        Set<Long> idsItens = new HashSet<>();
+        gravados.forEach(gravado -> {
+            assertTrue(gravado.getId() > 0);
+            idsPedidos.add(gravado.getId());
+            gravado.getItens().forEach(item -> idsItens.add(item.getId()));
+        });
+        assertEquals(60, idsPedidos.size());
+        assertEquals(120, idsItens.size());
+        assertEquals(60, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pedidos", Long.class));
+        assertEquals(60, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT aggregate_id) FROM outbox", Long.class));
+    }
+
+    private OutboxEvent evento(Pedido pedido) {
+        return new OutboxEvent("PEDIDO", pedido.getId(), "PEDIDO_CRIADO", "{\"id\":" + pedido.getId() + "}");
+    }
+
+    private static Pedido pedido(Long clienteId, int quantidadeItens) {
+        return new Pedido(clienteId, IntStream.rangeClosed(1, quantidadeItens)
+                .mapToObj(produto -> new ItemPedido((long) produto, "Produto " + produto, 2, new BigDecimal("10.00")))
+                .toList());
+    }
+}
@@ -0,0 +1,255 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.OutboxStatus;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.OutboxJpaEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reserva de eventos da Outbox em um H2 em memória, sem transação externa
+ * (como nos trabalhadores do OutboxProcessor: cada reserva na sua própria transação)
+ *
+ * O H2Dialect não gera SKIP LOCKED: aqui reservas concorrentes esperam o bloqueio
+ * umas das outras em vez de pular as linhas. A exclusividade testada é a mesma; a
+ * escala com vários trabalhadores no PostgreSQL está no OutboxRelayBenchmark.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRepositoryImplTest {
+
+    private static final Duration RESERVA = Duration.ofMinutes(5);
+    private static final Duration RETENTATIVA = Duration.ofSeconds(10);
+    private static final Duration SEM_CARENCIA = Duration.ZERO;
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = OutboxJpaEntity.class)
+    @EnableJpaRepositories(basePackageClasses = OutboxJpaRepository.class)
+    @Import(OutboxRepositoryImpl.class)
+    static class Configuracao {
+    }
+
+    @Autowired
+    private OutboxRepositoryImpl repository;
+
+    @Autowired
+    private OutboxJpaRepository jpaRepository;
+
+    @AfterEach
+    void tearDown() {
+        jpaRepository.deleteAll();
+    }
+
+    @Test
+    void deveReservarOsMaisAntigosSemEntregarDeNovoEnquantoAReservaVale() {
+        // Arrange
+        List<OutboxEvent> eventos = gravarEventos(5);
+
+        // Act
+        List<OutboxEvent> primeiraReserva = repository.reservarPendentes(3, RESERVA, RETENTATIVA, SEM_CARENCIA);
+        List<OutboxEvent> segundaReserva = repository.reservarPendentes(3, RESERVA, RETENTATIVA, SEM_CARENCIA);
+
+        // Assert
+        assertEquals(ids(eventos.subList(0, 3)), ids(primeiraReserva));
+        assertEquals(ids(eventos.subList(3, 5)), ids(segundaReserva));
+        assertTrue(repository.reservarPendentes(3, RESERVA, RETENTATIVA, SEM_CARENCIA).isEmpty());
+    }
+
+    @Test
+    void deveReservarDeNovoQuandoAReservaVence() {
+        // Arrange
+        OutboxEvent evento = gravarEventos(1).get(0);
+        repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA);
+        OutboxJpaEntity entidade = jpaRepository.findById(evento.getId()).orElseThrow();
+        entidade.setLockedUntil(LocalDateTime.now().minusSeconds(1));
+        jpaRepository.save(entidade);
+
+        // Act
+        List<OutboxEvent> reservados = repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA);
+
+        // Assert
+        assertEquals(List.of(evento.getId()), ids(reservados));
+    }
+
+    @Test
+    void deveLiberarOEventoAtualizadoSoDepoisDoIntervaloDeRetentativa() {
+        // Arrange
+        repository.salvar(novoEvento(1L));
+        OutboxEvent reservado = repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA).get(0);
+        reservado.marcarComoFalho("broker indisponível");
+        repository.atualizar(reservado);
+
+        // Act / Assert
+        assertTrue(repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA).isEmpty());
+        assertEquals(List.of(reservado.getId()), ids(repository.reservarPendentes(10, RESERVA, Duration.ZERO, SEM_CARENCIA)));
+    }
+
+    @Test
+    void naoDeveReservarEventosMaisNovosQueACarencia() {
+        // Arrange
+        OutboxEvent evento = gravarEventos(1).get(0);
+
+        // Act / Assert
+        assertTrue(repository.reservarPendentes(10, RESERVA, RETENTATIVA, Duration.ofSeconds(30)).isEmpty());
+        assertEquals(List.of(evento.getId()), ids(repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA)));
+    }
+
+    @Test
+    void deveReservarOProximoEventoDoAgregadoSoDepoisQueOAnteriorSaiDePendente() {
+        // Arrange
+        OutboxEvent criado = repository.salvar(novoEvento(1L));
+        OutboxEvent outroPedido = repository.salvar(novoEvento(2L));
+        OutboxEvent cancelado = repository.salvar(
+                new OutboxEvent("PEDIDO", 1L, "PEDIDO_CANCELADO", "{\"pedidoId\":1}"));
+
+        // Act / Assert: só o primeiro de cada agregado, mesmo com o anterior reservado por outro publicador
+        assertEquals(List.of(criado.getId(), outroPedido.getId()),
+                ids(repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA)));
+        assertTrue(repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA).isEmpty());
+        assertTrue(repository.existePendenteAnterior(cancelado));
+
+        repository.marcarComoProcessados(List.of(criado.getId()));
+
+        assertFalse(repository.existePendenteAnterior(cancelado));
+        assertEquals(List.of(cancelado.getId()),
+                ids(repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA)));
+    }
+
+    @Test
+    void deveReservarOProximoEventoDoAgregadoQuandoOAnteriorFalhaDeVez() {
+        // Arrange
+        OutboxEvent criado = repository.salvar(novoEvento(1L));
+        OutboxEvent cancelado = repository.salvar(
+                new OutboxEvent("PEDIDO", 1L, "PEDIDO_CANCELADO", "{\"pedidoId\":1}"));
+        OutboxEvent reservado = repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA).get(0);
+        assertEquals(criado.getId(), reservado.getId());
+
+        // Act
+        reservado.marcarComoFalhoDefinitivo("rejeitado pelo broker");
+        repository.atualizar(reservado);
+
+        // Assert
+        assertEquals(List.of(cancelado.getId()),
+                ids(repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA)));
+    }
+
+    @Test
+    void deveMarcarVariosEventosComoProcessadosNumUnicoUpdateEncerrandoAReserva() {
+        // Arrange
+        List<OutboxEvent> eventos = gravarEventos(3);
+        repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA);
+
+        // Act
+        int atualizados = repository.marcarComoProcessados(List.of(eventos.get(0).getId(), eventos.get(2).getId()));
+
+        // Assert
+        assertEquals(2, atualizados);
+        OutboxJpaEntity processado = jpaRepository.findById(eventos.get(0).getId()).orElseThrow();
+        assertEquals(OutboxStatus.PROCESSED, processado.getStatus());
+        assertNotNull(processado.getProcessedAt());
+        assertNull(processado.getLockedUntil());
+        assertEquals(OutboxStatus.PROCESSED, jpaRepository.findById(eventos.get(2).getId()).orElseThrow().getStatus());
+        OutboxJpaEntity naoConfirmado = jpaRepository.findById(eventos.get(1).getId()).orElseThrow();
+        assertEquals(OutboxStatus.PENDING, naoConfirmado.getStatus());
+        assertNotNull(naoConfirmado.getLockedUntil());
+    }
+
+    @Test
+    void deveReservarUmEventoSoQuandoPendenteESemReserva() {
+        // Arrange
+        List<OutboxEvent> eventos = gravarEventos(3);
+        repository.reservarPendentes(1, RESERVA, RETENTATIVA, SEM_CARENCIA);
+        repository.marcarComoProcessados(List.of(eventos.get(1).getId()));
+
+        // Act / Assert
+        assertFalse(repository.reservarSeDisponivel(eventos.get(0).getId(), RESERVA));
+        assertFalse(repository.reservarSeDisponivel(eventos.get(1).getId(), RESERVA));
+        assertTrue(repository.reservarSeDisponivel(eventos.get(2).getId(), RESERVA));
+        assertFalse(repository.reservarSeDisponivel(eventos.get(2).getId(), RESERVA));
+        assertTrue(repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA).isEmpty());
+    }
+
+    @Test
+    void deveDevolverOEventoAosPublicadoresAoLiberarAReserva() {
+        // Arrange
+        OutboxEvent evento = gravarEventos(1).get(0);
+        assertTrue(repository.reservarSeDisponivel(evento.getId(), RESERVA));
+
+        // Act
+        repository.liberarReserva(evento.getId());
+
+        // Assert
+        assertEquals(List.of(evento.getId()), ids(repository.reservarPendentes(10, RESERVA, RETENTATIVA, SEM_CARENCIA)));
+    }
+
+    @Test
+    void deveEntregarCadaEventoAUmUnicoTrabalhador() throws Exception {
+        // Arrange
+        List<OutboxEvent> eventos = gravarEventos(300);
+        ConcurrentLinkedQueue<Long> reservados = new ConcurrentLinkedQueue<>();
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> trabalhadores = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                trabalhadores.add(executor.submit(() -> {
+                    List<OutboxEvent> lote;
+                    do {
+                        lote = repository.reservarPendentes(7, RESERVA, RETENTATIVA, SEM_CARENCIA);
+                        lote.forEach(evento -> reservados.add(evento.getId()));
+                    } while (!lote.isEmpty());
+                    return null;
+                }));
+            }
+            for (Future<?> trabalhador : trabalhadores) {
+                trabalhador.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(300, reservados.size());
+        assertEquals(ids(eventos).stream().sorted().toList(), reservados.stream().sorted().toList());
+    }
+
+    private List<OutboxEvent> gravarEventos(int quantidade) {
+        // Um salvar por evento: created_at crescente na ordem da lista
+        return IntStream.range(0, quantidade)
+                .mapToObj(i -> repository.salvar(novoEvento(i + 1L)))
+                .toList();
+    }
+
+    private static OutboxEvent novoEvento(Long pedidoId) {
+        return new OutboxEvent("PEDIDO", pedidoId, "PEDIDO_CRIADO", "{\"pedidoId\":" + pedidoId + "}");
+    }
+
+    private static List<Long> ids(List<OutboxEvent> eventos) {
+        return eventos.stream().map(OutboxEvent::getId).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.domain.entity.ItemPedido;
+import com.ecommerce.pedidos.domain.entity.OutboxEvent;
+import com.ecommerce.pedidos.domain.entity.Pedido;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.PedidoJpaEntity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gravação de pedidos, itens e eventos Outbox pelo Hibernate em um H2 em memória,
+ * conferindo pelas estatísticas do Hibernate que os INSERTs saem em lote
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.flyway.enabled=false"
+})
+class PedidoRepositoryImplTest {
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = PedidoJpaEntity.class)
+    @EnableJpaRepositories(basePackageClasses = PedidoJpaRepository.class)
+    @Import({PedidoRepositoryImpl.class, OutboxRepositoryImpl.class})
+    static class Configuracao {
+    }
+
+    @Autowired
+    private PedidoRepositoryImpl pedidoRepository;
+
+    @Autowired
+    private OutboxRepositoryImpl outboxRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        estatisticas = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    void deveGravarPedidoComMuitosItensEmInsertsEmLote() {
+        // Arrange
+        int quantidadeItens = 45;
+        Pedido pedido = new Pedido(1L, IntStream.rangeClosed(1, quantidadeItens)
+                .mapToObj(produto -> new ItemPedido((long) produto, "Produto " + produto, 1, new BigDecimal("10.00")))
+                .toList());
+
+        // Act
+        Pedido salvo = pedidoRepository.salvar(pedido);
+        estatisticas.clear();
+        entityManager.flush();
+
+        // Assert: um PreparedStatement por tabela, reaproveitado pelos lotes de até 20 INSERTs
+        // (com IDENTITY cada linha seria um INSERT próprio: 1 + 45 statements)
+        assertNotNull(salvo.getId());
+        assertTrue(salvo.getItens().stream().allMatch(item -> item.getId() != null));
+        assertEquals(1 + quantidadeItens, estatisticas.getEntityInsertCount());
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void deveSalvarPedidosEItensEmLoteDevolvendoOsIdsNaOrdem() {
+        // Arrange
+        List<Pedido> pedidos = IntStream.rangeClosed(1, 30)
+                .mapToObj(cliente -> new Pedido((long) cliente, List.of(
+                        new ItemPedido(1L, "Produto 1", cliente, new BigDecimal("10.00")),
+                        new ItemPedido(2L, "Produto 2", 1, new BigDecimal("5.50")))))
+                .toList();
+
+        // Act
+        List<Pedido> salvos = pedidoRepository.salvarTodos(pedidos);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(30, salvos.size());
+        for (int i = 0; i < pedidos.size(); i++) {
+            Pedido salvo = salvos.get(i);
+            assertNotNull(salvo.getId());
+            assertEquals(pedidos.get(i).getNumeroPedido(), salvo.getNumeroPedido());
+            assertTrue(salvo.getItens().stream().allMatch(item -> item.getId() != null));
+
+            Pedido gravado = pedidoRepository.buscarPorId(salvo.getId()).orElseThrow();
+            assertEquals(salvo.getClienteId(), gravado.getClienteId());
+            assertEquals(2, gravado.getItens().size());
+        }
+    }
+
+    @Test
+    void deveSalvarEventosOutboxEmLote() {
+        // Arrange
+        List<OutboxEvent> eventos = IntStream.rangeClosed(1, 3)
+                .mapToObj(id -> new OutboxEvent("PEDIDO", (long) id, "PEDIDO_CRIADO", "{\"id\":" + id + "}"))
+                .toList();
+
+        // Act
+        List<OutboxEvent> salvos = outboxRepository.salvarTodos(eventos);
+        estatisticas.clear();
+        entityManager.flush();
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), salvos.stream().map(OutboxEvent::getAggregateId).toList());
+        assertTrue(salvos.stream().allMatch(evento -> evento.getId() != null && evento.isPending()));
+        assertEquals(3, estatisticas.getEntityInsertCount());
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+    }
+}
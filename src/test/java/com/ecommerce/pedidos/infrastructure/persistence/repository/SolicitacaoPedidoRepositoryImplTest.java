@@ -0,0 +1,195 @@
+package com.ecommerce.pedidos.infrastructure.persistence.repository;
+
+import com.ecommerce.pedidos.domain.entity.SolicitacaoPedido;
+import com.ecommerce.pedidos.domain.entity.StatusSolicitacao;
+import com.ecommerce.pedidos.infrastructure.persistence.entity.SolicitacaoPedidoJpaEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fila de solicitações de pedido em um H2 em memória, sem transação externa
+ * (como nos trabalhadores: cada reserva na sua própria transação)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SolicitacaoPedidoRepositoryImplTest {
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = SolicitacaoPedidoJpaEntity.class)
+    @EnableJpaRepositories(basePackageClasses = SolicitacaoPedidoJpaRepository.class)
+    @Import(SolicitacaoPedidoRepositoryImpl.class)
+    static class Configuracao {
+    }
+
+    @Autowired
+    private SolicitacaoPedidoRepositoryImpl repository;
+
+    @Autowired
+    private SolicitacaoPedidoJpaRepository jpaRepository;
+
+    @AfterEach
+    void tearDown() {
+        jpaRepository.deleteAll();
+    }
+
+    @Test
+    void deveReservarAsMaisAntigasContandoATentativa() {
+        // Arrange
+        List<SolicitacaoPedido> enfileiradas = IntStream.range(0, 5)
+                .mapToObj(i -> repository.salvar(new SolicitacaoPedido(null, "{}")))
+                .toList();
+
+        // Act
+        List<SolicitacaoPedido> reservadas = repository.reservarProximas(3);
+
+        // Assert
+        assertEquals(3, reservadas.size());
+        assertTrue(reservadas.stream().allMatch(solicitacao -> solicitacao.getStatus() == StatusSolicitacao.PROCESSANDO
+                && solicitacao.getTentativas() == 1));
+        assertEquals(2, repository.contarNaFila());
+        assertEquals(StatusSolicitacao.RECEBIDA,
+                repository.buscarPorId(enfileiradas.get(4).getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void deveReservarCadaSolicitacaoParaUmUnicoTrabalhador() throws Exception {
+        // Arrange
+        IntStream.range(0, 40).forEach(i -> repository.salvar(new SolicitacaoPedido(null, "{}")));
+        Set<String> reservadas = ConcurrentHashMap.newKeySet();
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> trabalhadores = IntStream.range(0, 4)
+                    .mapToObj(t -> executor.submit(() -> {
+                        int total = 0;
+                        List<SolicitacaoPedido> lote;
+                        while (!(lote = repository.reservarProximas(5)).isEmpty()) {
+                            lote.forEach(solicitacao -> assertTrue(reservadas.add(solicitacao.getId())));
+                            total += lote.size();
+                        }
+                        return total;
+                    }))
+                    .toList();
+
+            // Assert
+            int total = 0;
+            for (Future<Integer> trabalhador : trabalhadores) {
+                total += trabalhador.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(40, total);
+            assertEquals(40, reservadas.size());
+            assertEquals(0, repository.contarNaFila());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void deveDevolverTravadasERemoverFinalizadas() {
+        // Arrange
+        SolicitacaoPedido criada = repository.salvar(new SolicitacaoPedido(null, "{}"));
+        SolicitacaoPedido travada = repository.salvar(new SolicitacaoPedido(null, "{}"));
+        Set<String> ids = new HashSet<>();
+        repository.reservarProximas(2).forEach(solicitacao -> ids.add(solicitacao.getId()));
+        repository.concluir(criada.getId(), 1, 10L);
+
+        // Act
+        int devolvidas = repository.devolverTravadas(LocalDateTime.now().plusSeconds(1));
+        int removidas = repository.removerFinalizadasAntesDe(LocalDateTime.now().plusSeconds(1));
+
+        // Assert
+        assertEquals(Set.of(criada.getId(), travada.getId()), ids);
+        assertEquals(1, devolvidas);
+        assertEquals(1, removidas);
+        assertEquals(StatusSolicitacao.RECEBIDA, repository.buscarPorId(travada.getId()).orElseThrow().getStatus());
+        assertTrue(repository.buscarPorId(criada.getId()).isEmpty());
+    }
+
+    @Test
+    void naoDeveReservarSolicitacaoDevolvidaAntesDoFimDaEspera() {
+        // Arrange
+        SolicitacaoPedido aguardando = repository.salvar(new SolicitacaoPedido(null, "{}"));
+        SolicitacaoPedido disponivel = repository.salvar(new SolicitacaoPedido(null, "{}"));
+        repository.reservarProximas(2);
+        repository.devolverParaFila(aguardando.getId(), 1, "serviço de produtos fora", Duration.ofMinutes(1));
+        repository.devolverParaFila(disponivel.getId(), 1, "serviço de produtos fora", Duration.ZERO);
+
+        // Act
+        List<SolicitacaoPedido> reservadas = repository.reservarProximas(2);
+
+        // Assert
+        assertEquals(List.of(disponivel.getId()), reservadas.stream().map(SolicitacaoPedido::getId).toList());
+        assertEquals(1, repository.contarNaFila());
+        assertEquals(2, reservadas.get(0).getTentativas());
+    }
+
+    @Test
+    void deveFinalizarApenasSolicitacaoAindaEmProcessamento() {
+        // Arrange: reservada, dada como travada e devolvida à fila antes do trabalhador terminar
+        SolicitacaoPedido solicitacao = repository.salvar(new SolicitacaoPedido(null, "{}"));
+        repository.reservarProximas(1);
+        repository.devolverTravadas(LocalDateTime.now().plusSeconds(1));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> repository.concluir(solicitacao.getId(), 1, 10L));
+        assertFalse(repository.rejeitar(solicitacao.getId(), 1, "atrasado"));
+        assertFalse(repository.devolverParaFila(solicitacao.getId(), 1, "atrasado", Duration.ZERO));
+
+        SolicitacaoPedido atual = repository.buscarPorId(solicitacao.getId()).orElseThrow();
+        assertEquals(StatusSolicitacao.RECEBIDA, atual.getStatus());
+        assertNull(atual.getPedidoId());
+        assertNull(atual.getErro());
+    }
+
+    @Test
+    void naoDeveDeixarTrabalhadorQuePerdeuAReservaFinalizarAReservaDeOutro() {
+        // Arrange: o primeiro trabalhador reserva, a solicitação é dada como travada
+        // e o segundo trabalhador a reserva de novo antes de o primeiro terminar
+        SolicitacaoPedido solicitacao = repository.salvar(new SolicitacaoPedido(null, "{}"));
+        SolicitacaoPedido primeiraReserva = repository.reservarProximas(1).get(0);
+        repository.devolverTravadas(LocalDateTime.now().plusSeconds(1));
+        SolicitacaoPedido segundaReserva = repository.reservarProximas(1).get(0);
+
+        // Act & Assert: o primeiro perdeu a reserva, o segundo ainda a detém
+        assertThrows(IllegalStateException.class,
+                () -> repository.concluir(solicitacao.getId(), primeiraReserva.getTentativas(), 10L));
+        assertFalse(repository.rejeitar(solicitacao.getId(), primeiraReserva.getTentativas(), "atrasado"));
+        assertFalse(repository.devolverParaFila(solicitacao.getId(), primeiraReserva.getTentativas(), "atrasado",
+                Duration.ZERO));
+        assertEquals(StatusSolicitacao.PROCESSANDO,
+                repository.buscarPorId(solicitacao.getId()).orElseThrow().getStatus());
+
+        repository.concluir(solicitacao.getId(), segundaReserva.getTentativas(), 20L);
+        SolicitacaoPedido atual = repository.buscarPorId(solicitacao.getId()).orElseThrow();
+        assertEquals(StatusSolicitacao.CRIADO, atual.getStatus());
+        assertEquals(20L, atual.getPedidoId());
+        assertNull(atual.getErro());
+    }
+}